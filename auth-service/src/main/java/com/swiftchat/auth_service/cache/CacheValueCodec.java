@@ -0,0 +1,42 @@
+package com.swiftchat.auth_service.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary encoding of one cached type for {@link CompactRedisSerializer}.
+ *
+ * <p>
+ * Every entry is stored with the codec's type id and the version it was
+ * written with. To change the layout, bump {@link #version()} and keep
+ * {@link #read(DataInput, int)} able to decode every older version, so nodes
+ * running the new code can still read entries written by the old code during
+ * a rolling deploy.
+ *
+ * @param <T> The cached type
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * @return A stable id for the type, unique within a serializer (1-255)
+     */
+    int typeId();
+
+    Class<T> type();
+
+    /**
+     * @return The layout version {@link #write(Object, DataOutput)} produces
+     */
+    int version();
+
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * @param in      The encoded fields, after the header
+     * @param version The layout version the entry was written with, at most
+     *                {@link #version()}
+     * @return The decoded value
+     */
+    T read(DataInput in, int version) throws IOException;
+}
@@ -0,0 +1,122 @@
+package com.swiftchat.auth_service.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.swiftchat.auth_service.repository.UserRepository;
+import com.swiftchat.shared.security.model.Role;
+import com.swiftchat.shared.security.model.User;
+import com.swiftchat.shared.security.model.VersionedUser;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cacheable snapshot of a {@link User}.
+ *
+ * <p>
+ * The entity itself is not cached: its lazy OAuth2 account collection and
+ * Hibernate collection types do not survive serialization. Activation and
+ * reset keys are left out because they are only ever looked up through the
+ * repository.
+ *
+ * <p>
+ * The password hash is left out as well: snapshots are stored in the shared
+ * Redis tier, which must not hold credentials. Login reads the hash with
+ * {@link UserRepository#findPasswordHashById(UUID)}. Older entries that still
+ * carry it are read without it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CachedUser implements Serializable {
+
+    private UUID id;
+    private String email;
+    private boolean activated;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastLoginAt;
+    private long tokenVersion;
+    private List<CachedRole> roles;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedRole implements Serializable {
+        private UUID id;
+        private String name;
+    }
+
+    public static CachedUser from(User user) {
+        List<CachedRole> roles = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            roles.add(new CachedRole(role.getId(), role.getName()));
+        }
+
+        return CachedUser.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .activated(user.isActivated())
+                .createdAt(user.getCreatedAt())
+                .lastLoginAt(user.getLastLoginAt())
+                .tokenVersion(user.getTokenVersion())
+                .roles(roles)
+                .build();
+    }
+
+    /**
+     * Rebuilds a detached entity without the password hash. It can be
+     * referenced by new associations, but must not be saved: load the user
+     * through the repository before modifying it.
+     *
+     * @return A new detached User
+     */
+    public User toUser() {
+        Set<Role> userRoles = new HashSet<>();
+        for (CachedRole role : roles) {
+            userRoles.add(Role.builder().id(role.getId()).name(role.getName()).build());
+        }
+
+        return User.builder()
+                .id(id)
+                .email(email)
+                .activated(activated)
+                .createdAt(createdAt)
+                .lastLoginAt(lastLoginAt)
+                .tokenVersion(tokenVersion)
+                .roles(userRoles)
+                .build();
+    }
+
+    /**
+     * @return The principal for an already authenticated request, with an
+     *         empty password
+     */
+    public UserDetails toUserDetails() {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (CachedRole role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role.getName()));
+        }
+
+        return new VersionedUser(
+                email,
+                "",
+                activated,
+                true, // account non-expired
+                true, // credentials non-expired
+                true, // account non-locked
+                authorities,
+                tokenVersion);
+    }
+}
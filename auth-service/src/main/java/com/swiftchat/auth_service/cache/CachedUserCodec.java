@@ -0,0 +1,116 @@
+package com.swiftchat.auth_service.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary layout of {@link CachedUser}.
+ *
+ * <p>
+ * Version 2: id, email, activated, created at, last login at, token version,
+ * then the role count followed by each role's id and name. Version 1 also
+ * held the password hash after the email; it is skipped when read.
+ * UUIDs are two longs, nullable fields are preceded by a presence flag and
+ * timestamps are UTC epoch seconds plus nanoseconds.
+ */
+public class CachedUserCodec implements CacheValueCodec<CachedUser> {
+
+    public static final int TYPE_ID = 1;
+
+    private static final int VERSION = 2;
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public Class<CachedUser> type() {
+        return CachedUser.class;
+    }
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(CachedUser user, DataOutput out) throws IOException {
+        writeUuid(user.getId(), out);
+        writeString(user.getEmail(), out);
+        out.writeBoolean(user.isActivated());
+        writeDateTime(user.getCreatedAt(), out);
+        writeDateTime(user.getLastLoginAt(), out);
+        out.writeLong(user.getTokenVersion());
+
+        List<CachedUser.CachedRole> roles = user.getRoles() != null ? user.getRoles() : List.of();
+        out.writeShort(roles.size());
+        for (CachedUser.CachedRole role : roles) {
+            writeUuid(role.getId(), out);
+            writeString(role.getName(), out);
+        }
+    }
+
+    @Override
+    public CachedUser read(DataInput in, int version) throws IOException {
+        CachedUser.CachedUserBuilder user = CachedUser.builder()
+                .id(readUuid(in))
+                .email(readString(in));
+        if (version == 1) {
+            // Password hash, no longer cached
+            readString(in);
+        }
+        user.activated(in.readBoolean())
+                .createdAt(readDateTime(in))
+                .lastLoginAt(readDateTime(in))
+                .tokenVersion(in.readLong());
+
+        int roleCount = in.readUnsignedShort();
+        List<CachedUser.CachedRole> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(new CachedUser.CachedRole(readUuid(in), readString(in)));
+        }
+        return user.roles(roles).build();
+    }
+
+    private static void writeUuid(UUID uuid, DataOutput out) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDateTime(LocalDateTime value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,102 @@
+package com.swiftchat.auth_service.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Redis value serializer that writes registered types with a compact binary
+ * {@link CacheValueCodec} instead of JSON with class-name metadata.
+ *
+ * <p>
+ * Binary entries start with a three byte header: a marker byte, the codec's
+ * type id and the layout version. Values without a codec are written by the
+ * fallback serializer, and entries without the marker (such as JSON written
+ * before a cache switched to this serializer) are read by it, so caches can
+ * switch format without a flush.
+ *
+ * <p>
+ * Entries written by a newer layout version than this node knows fail to
+ * deserialize; the two-level cache treats that as a miss and reloads.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /** Never the first byte of a JSON document. */
+    static final byte MARKER = (byte) 0xB1;
+
+    private final RedisSerializer<Object> fallback;
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, CacheValueCodec<?>> codecsById = new HashMap<>();
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, CacheValueCodec<?>... codecs) {
+        this.fallback = fallback;
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.typeId() < 1 || codec.typeId() > 255 || codecsById.containsKey(codec.typeId())) {
+                throw new IllegalArgumentException("Invalid or duplicate cache codec type id: " + codec.typeId());
+            }
+            codecsByType.put(codec.type(), codec);
+            codecsById.put(codec.typeId(), codec);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CacheValueCodec<Object> codec = (CacheValueCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MARKER);
+            out.writeByte(codec.typeId());
+            out.writeByte(codec.version());
+            codec.write(value, out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MARKER) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < 3) {
+            throw new SerializationException("Truncated cache entry");
+        }
+
+        int typeId = bytes[1] & 0xff;
+        int version = bytes[2] & 0xff;
+        CacheValueCodec<?> codec = codecsById.get(typeId);
+        if (codec == null) {
+            throw new SerializationException("Unknown cache entry type " + typeId);
+        }
+        if (version > codec.version()) {
+            throw new SerializationException("Cache entry for " + codec.type().getSimpleName()
+                    + " has layout version " + version + ", newer than " + codec.version());
+        }
+
+        try {
+            return codec.read(new DataInputStream(new ByteArrayInputStream(bytes, 3, bytes.length - 3)), version);
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize " + codec.type().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.swiftchat.auth_service.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 evictions of the {@link TwoLevelCacheManager} over Redis
+ * pub/sub so every node drops its local copy together.
+ *
+ * <p>
+ * Messages are {@code nodeId|E|cacheName|key} for an eviction and
+ * {@code nodeId|C|cacheName} for a clear. A node ignores its own messages,
+ * since it has already applied the change locally.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cache.invalidation.redis.enabled", havingValue = "true")
+public class RedisCacheInvalidationSync {
+
+    static final String CHANNEL = "auth:cache-invalidation";
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        cacheManager.setInvalidationPublisher(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    void publish(String cacheName, String key) {
+        String encoded = key == null
+                ? nodeId + "|" + CLEAR + "|" + cacheName
+                : nodeId + "|" + EVICT + "|" + cacheName + "|" + key;
+        try {
+            redisTemplate.convertAndSend(CHANNEL, encoded);
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL
+            log.error("Could not publish cache invalidation {}", encoded, e);
+        }
+    }
+
+    void receive(String encoded) {
+        // The key is last and may itself contain the separator
+        String[] parts = encoded.split("\\|", 4);
+        if (parts.length < 3) {
+            log.warn("Ignoring malformed cache invalidation: {}", encoded);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+
+        if (CLEAR.equals(parts[1])) {
+            cacheManager.clearLocal(parts[2]);
+        } else if (EVICT.equals(parts[1]) && parts.length == 4) {
+            cacheManager.evictLocal(parts[2], parts[3]);
+        } else {
+            log.warn("Ignoring malformed cache invalidation: {}", encoded);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.swiftchat.auth_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftchat.auth_service.dto.AuthResponseDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Shares {@link RefreshResultCache} entries between nodes through Redis, so
+ * a duplicate refresh is deduplicated whichever node it reaches.
+ *
+ * <p>
+ * An entry holds a live token pair, so it is encrypted with AES-GCM under a
+ * key derived from the refresh token it was issued for: an HMAC-SHA256 of a
+ * fixed label keyed with the token, which the Redis key (a plain SHA-256 of
+ * the token) does not reveal. Reading Redis therefore yields nothing without
+ * the rotated token itself. The Redis key is bound to the entry as
+ * associated data.
+ *
+ * <p>
+ * Redis errors, and entries that do not decrypt, are logged and treated as
+ * misses; a duplicate then fails as it would without the grace period.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refresh-token.grace.redis.enabled", havingValue = "true")
+public class RedisRefreshResultStore implements RefreshResultCache.SharedStore {
+
+    static final String KEY_PREFIX = "auth:refresh-grace:";
+
+    private static final byte[] KEY_LABEL = "swiftchat refresh grace v1".getBytes(StandardCharsets.UTF_8);
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshResultCache refreshResultCache;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void register() {
+        refreshResultCache.setSharedStore(this);
+    }
+
+    @Override
+    public void put(String refreshToken, AuthResponseDto result, Duration timeToLive) {
+        String key = KEY_PREFIX + RefreshResultCache.key(refreshToken);
+        try {
+            byte[] sealed = seal(refreshToken, key, objectMapper.writeValueAsBytes(result));
+            redisTemplate.opsForValue().set(key, Base64.getUrlEncoder().withoutPadding().encodeToString(sealed),
+                    timeToLive);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.warn("Could not share a refresh result: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public AuthResponseDto get(String refreshToken) {
+        String key = KEY_PREFIX + RefreshResultCache.key(refreshToken);
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            if (value == null) {
+                return null;
+            }
+            byte[] json = open(refreshToken, key, Base64.getUrlDecoder().decode(value));
+            return objectMapper.readValue(json, AuthResponseDto.class);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.warn("Could not read a shared refresh result: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return The nonce followed by the ciphertext and tag
+     */
+    static byte[] seal(String refreshToken, String key, byte[] plaintext) throws GeneralSecurityException {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, entryKey(refreshToken), new GCMParameterSpec(TAG_BITS, nonce));
+        cipher.updateAAD(key.getBytes(StandardCharsets.UTF_8));
+        byte[] ciphertext = cipher.doFinal(plaintext);
+        return ByteBuffer.allocate(NONCE_LENGTH + ciphertext.length).put(nonce).put(ciphertext).array();
+    }
+
+    static byte[] open(String refreshToken, String key, byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length <= NONCE_LENGTH) {
+            throw new GeneralSecurityException("Sealed refresh result is too short");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, entryKey(refreshToken),
+                new GCMParameterSpec(TAG_BITS, sealed, 0, NONCE_LENGTH));
+        cipher.updateAAD(key.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(sealed, NONCE_LENGTH, sealed.length - NONCE_LENGTH);
+    }
+
+    private static SecretKeySpec entryKey(String refreshToken) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(refreshToken.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return new SecretKeySpec(mac.doFinal(KEY_LABEL), "AES");
+    }
+}
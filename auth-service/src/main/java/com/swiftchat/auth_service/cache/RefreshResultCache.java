@@ -0,0 +1,139 @@
+package com.swiftchat.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiftchat.auth_service.dto.AuthResponseDto;
+import com.swiftchat.auth_service.util.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remembers the token pair issued for a rotated refresh token for a short
+ * grace period, so duplicate refreshes with the same token get the same
+ * pair instead of failing.
+ *
+ * <p>
+ * Browser tabs and background tasks often refresh with one token within
+ * milliseconds of each other; only the first can rotate it. The result is
+ * stored right after the rotation, and a duplicate that lost the race waits
+ * up to {@code refresh-token.grace.wait} milliseconds for it with
+ * {@link #await(String)}. Results are kept in a local cache and, with a
+ * {@link SharedStore} such as {@link RedisRefreshResultStore}, shared with
+ * the other nodes.
+ *
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the refresh token, never the
+ * token itself. A grace period of 0 disables the cache.
+ */
+@Slf4j
+@Component
+public class RefreshResultCache {
+
+    /**
+     * Makes results visible to the other nodes. Results hold a live token
+     * pair, so stores get the refresh token they were issued for and keep
+     * them readable only to callers that present it.
+     */
+    public interface SharedStore {
+
+        void put(String refreshToken, AuthResponseDto result, Duration timeToLive);
+
+        AuthResponseDto get(String refreshToken);
+    }
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final Duration gracePeriod;
+    private final long waitMillis;
+    private final Cache<String, AuthResponseDto> local;
+    private final Counter hits;
+
+    private volatile SharedStore sharedStore;
+
+    public RefreshResultCache(@Value("${refresh-token.grace-period:10}") long gracePeriodSeconds,
+            @Value("${refresh-token.grace.wait:200}") long waitMillis,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.gracePeriod = Duration.ofSeconds(gracePeriodSeconds);
+        this.waitMillis = waitMillis;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(gracePeriod.isZero() ? Duration.ofNanos(1) : gracePeriod)
+                .maximumSize(100_000)
+                .build();
+        this.hits = Counter.builder("auth.refresh.deduplicated")
+                .description("Refreshes answered with the pair already issued for the same token")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public void setSharedStore(SharedStore sharedStore) {
+        this.sharedStore = sharedStore;
+    }
+
+    /**
+     * @param refreshToken The refresh token presented by the client
+     * @return The pair issued when the token was rotated, if that was within
+     *         the grace period
+     */
+    public Optional<AuthResponseDto> get(String refreshToken) {
+        if (gracePeriod.isZero()) {
+            return Optional.empty();
+        }
+        AuthResponseDto result = local.getIfPresent(key(refreshToken));
+        if (result == null && sharedStore != null) {
+            result = sharedStore.get(refreshToken);
+        }
+        if (result != null) {
+            hits.increment();
+        }
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Polls for the pair of a concurrent rotation of the token, for callers
+     * that found it already revoked.
+     *
+     * @param refreshToken The refresh token presented by the client
+     * @return The pair, if one is stored within the wait time
+     */
+    public Optional<AuthResponseDto> await(String refreshToken) {
+        long deadline = System.nanoTime() + Duration.ofMillis(waitMillis).toNanos();
+        while (true) {
+            Optional<AuthResponseDto> result = get(refreshToken);
+            if (result.isPresent() || gracePeriod.isZero() || System.nanoTime() - deadline >= 0) {
+                return result;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * @param refreshToken The refresh token that was rotated
+     * @param result       The pair issued for it
+     */
+    public void put(String refreshToken, AuthResponseDto result) {
+        if (gracePeriod.isZero()) {
+            return;
+        }
+        local.put(key(refreshToken), result);
+        SharedStore store = sharedStore;
+        if (store != null) {
+            store.put(refreshToken, result, gracePeriod);
+        }
+    }
+
+    static String key(String refreshToken) {
+        return TokenDigest.encodedDigest(refreshToken);
+    }
+}
@@ -0,0 +1,266 @@
+package com.swiftchat.auth_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A cache with a bounded in-process L1 in front of a shared Redis L2.
+ *
+ * <p>
+ * Reads try L1, then L2, and copy L2 hits into L1. Writes and evictions go
+ * to both tiers and are announced to the other nodes through
+ * {@link TwoLevelCacheManager}, so their L1 copies are dropped and reloaded
+ * from L2 on the next read. L1 entries also expire on their own after a short
+ * TTL, which bounds staleness if an invalidation message is lost.
+ *
+ * <p>
+ * {@link #get(Object, Callable)}, used by {@code @Cacheable(sync = true)},
+ * loads single-flight: concurrent misses for one key wait for a single L2
+ * read and loader call instead of each querying the database. With a
+ * refresh-after interval, an L1 entry older than the interval is still served
+ * while one caller reloads it (stale-while-revalidate). Invalidated entries
+ * are removed outright, so they are never served stale.
+ *
+ * <p>
+ * Redis errors are logged and treated as misses, so an unavailable L2
+ * degrades to L1 plus the database instead of failing requests.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final long refreshAfterNanos;
+
+    private final ConcurrentMap<String, Load> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter staleServed;
+
+    TwoLevelCache(String name,
+            com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local,
+            Cache remote,
+            TwoLevelCacheManager manager,
+            Duration refreshAfter,
+            MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.refreshAfterNanos = refreshAfter.isZero() ? Long.MAX_VALUE : refreshAfter.toNanos();
+
+        this.loads = Counter.builder("cache.single.flight")
+                .description("User lookups that ran the loader versus waited for another caller's load")
+                .tag("cache", name)
+                .tag("outcome", "load")
+                .register(meterRegistry);
+        this.coalescedLoads = Counter.builder("cache.single.flight")
+                .description("User lookups that ran the loader versus waited for another caller's load")
+                .tag("cache", name)
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("cache.stale.served")
+                .description("Stale local entries served while another caller refreshed them")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            return entry.value;
+        }
+        return lookupRemote(key, localKey);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null && !entry.isOlderThan(refreshAfterNanos)) {
+            return (T) entry.value;
+        }
+
+        Load load = new Load();
+        Load existing = inFlight.putIfAbsent(localKey, load);
+        if (existing != null) {
+            if (entry != null) {
+                staleServed.increment();
+                return (T) entry.value;
+            }
+            coalescedLoads.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        // A stale entry is reloaded from the source, since L2 may hold the same old value
+        return (T) loadAndComplete(key, localKey, valueLoader, load, entry == null);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        store(key, value);
+        manager.publishEviction(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        invalidateLoad(localKey(key));
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Could not evict {} from cache {}: {}", key, name, e.getMessage());
+        }
+        local.invalidate(localKey(key));
+        manager.publishEviction(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        invalidateLoads();
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            log.warn("Could not clear cache {}: {}", name, e.getMessage());
+        }
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    /**
+     * Drops an L1 entry after another node changed it.
+     *
+     * @param localKey The key as produced by {@link #localKey(Object)}
+     */
+    void evictLocal(String localKey) {
+        invalidateLoad(localKey);
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        invalidateLoads();
+        local.invalidateAll();
+    }
+
+    /**
+     * Keeps a load of the key that is in flight from storing its result,
+     * which may predate the change. Loads of other keys are unaffected.
+     */
+    private void invalidateLoad(String localKey) {
+        Load load = inFlight.get(localKey);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    private void invalidateLoads() {
+        for (Load load : inFlight.values()) {
+            load.invalidated = true;
+        }
+    }
+
+    private Object loadAndComplete(Object key, String localKey, Callable<?> valueLoader,
+            Load load, boolean checkRemote) {
+        try {
+            Object value = checkRemote ? lookupRemote(key, localKey) : null;
+            if (value == null) {
+                loads.increment();
+                value = valueLoader.call();
+                if (value != null && !load.invalidated) {
+                    store(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(localKey, load);
+        }
+    }
+
+    private Object lookupRemote(Object key, String localKey) {
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                Object value = wrapper.get();
+                local.put(localKey, new LocalEntry(value));
+                return value;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read {} from cache {}: {}", key, name, e.getMessage());
+        }
+        return null;
+    }
+
+    private void store(Object key, Object value) {
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} to cache {}: {}", key, name, e.getMessage());
+        }
+        local.put(localKey(key), new LocalEntry(value));
+    }
+
+    /**
+     * L1 keys are strings, like Redis keys, so invalidation messages can name
+     * them without knowing the original key type.
+     */
+    static String localKey(Object key) {
+        return key.toString();
+    }
+
+    /** A single-flight load, marked when its key is evicted while it runs. */
+    private static final class Load extends CompletableFuture<Object> {
+        volatile boolean invalidated;
+    }
+
+    /** An L1 value with the time it was stored, for stale-while-revalidate. */
+    static final class LocalEntry {
+        final Object value;
+        final long storedAt = System.nanoTime();
+
+        LocalEntry(Object value) {
+            this.value = value;
+        }
+
+        boolean isOlderThan(long nanos) {
+            return nanos != Long.MAX_VALUE && System.nanoTime() - storedAt > nanos;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.swiftchat.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds a {@link TwoLevelCache} for every cache of the wrapped
+ * {@link RedisCacheManager}.
+ *
+ * <p>
+ * Evictions are passed to an {@link InvalidationPublisher}, which
+ * {@link RedisCacheInvalidationSync} sets to a Redis pub/sub channel; messages
+ * from other nodes come back through {@link #evictLocal(String, String)} and
+ * {@link #clearLocal(String)}. Without a publisher the manager still works,
+ * with other nodes relying on the L1 TTL. {@link RemoteInvalidationListener}s
+ * see those messages too, for node-local state derived from the same data.
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    /**
+     * Receives evictions that other nodes must apply to their L1.
+     */
+    public interface InvalidationPublisher {
+
+        /**
+         * @param cacheName The cache name
+         * @param key       The L1 key, or null to clear the whole cache
+         */
+        void publish(String cacheName, String key);
+    }
+
+    /**
+     * Told about evictions announced by other nodes, after the L1 has applied
+     * them.
+     */
+    public interface RemoteInvalidationListener {
+
+        /**
+         * @param cacheName The cache name
+         * @param key       The L1 key, or null if the whole cache was cleared
+         */
+        void onInvalidation(String cacheName, String key);
+    }
+
+    private final RedisCacheManager remote;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final Duration refreshAfter;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private volatile InvalidationPublisher publisher = (cacheName, key) -> {
+    };
+    private final List<RemoteInvalidationListener> remoteInvalidationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param remote           The Redis cache manager used as L2, already
+     *                         initialised
+     * @param localMaximumSize Maximum number of L1 entries per cache
+     * @param localTimeToLive  How long an L1 entry may be served without
+     *                         checking L2
+     * @param refreshAfter     Age after which a synchronised lookup serves the
+     *                         L1 entry while one caller reloads it, or zero to
+     *                         disable stale-while-revalidate
+     * @param meterRegistry    Registry for L1 and single-flight metrics
+     */
+    public TwoLevelCacheManager(RedisCacheManager remote, long localMaximumSize, Duration localTimeToLive,
+            Duration refreshAfter, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+        this.refreshAfter = refreshAfter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setInvalidationPublisher(InvalidationPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public void addRemoteInvalidationListener(RemoteInvalidationListener listener) {
+        remoteInvalidationListeners.add(listener);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> loaded = new ArrayList<>();
+        for (String name : remote.getCacheNames()) {
+            Cache cache = createCache(name);
+            if (cache != null) {
+                loaded.add(cache);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    /**
+     * Applies an eviction announced by another node.
+     */
+    public void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+        remoteInvalidationListeners.forEach(listener -> listener.onInvalidation(cacheName, key));
+    }
+
+    /**
+     * Applies a clear announced by another node.
+     */
+    public void clearLocal(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+        remoteInvalidationListeners.forEach(listener -> listener.onInvalidation(cacheName, null));
+    }
+
+    void publishEviction(String cacheName, String key) {
+        publisher.publish(cacheName, key);
+    }
+
+    void publishClear(String cacheName) {
+        publisher.publish(cacheName, null);
+    }
+
+    private Cache createCache(String name) {
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            com.github.benmanes.caffeine.cache.Cache<String, TwoLevelCache.LocalEntry> local = Caffeine.newBuilder()
+                    .maximumSize(localMaximumSize)
+                    .expireAfterWrite(localTimeToLive)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, local, cacheName, Tags.of("tier", "local"));
+            return new TwoLevelCache(cacheName, local, remoteCache, this, refreshAfter, meterRegistry);
+        });
+    }
+}
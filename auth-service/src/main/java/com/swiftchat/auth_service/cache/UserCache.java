@@ -0,0 +1,83 @@
+package com.swiftchat.auth_service.cache;
+
+import com.swiftchat.auth_service.config.CacheConfig;
+import com.swiftchat.auth_service.repository.UserRepository;
+import com.swiftchat.shared.security.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Cached user lookups by email and by id, both stored in the
+ * {@value CacheConfig#USERS_CACHE} cache.
+ *
+ * <p>
+ * Lives in its own bean so the caching proxy applies to calls from
+ * UserServiceImpl and UserDetailsServiceImpl. Anything that changes a user
+ * must call {@link #evict(User)}; inside a transaction the eviction happens
+ * after commit.
+ *
+ * <p>
+ * Lookups are synchronised, so concurrent misses for one user share a
+ * single query (see {@link TwoLevelCache#get(Object, java.util.concurrent.Callable)}).
+ * Unknown users are not cached.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final UserRepository userRepository;
+
+    /**
+     * @param email The user's email
+     * @return The user snapshot, or null if no user has this email
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "'email:' + #email", sync = true)
+    public CachedUser findByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .map(CachedUser::from)
+                .orElse(null);
+    }
+
+    /**
+     * @param id The user id
+     * @return The user snapshot, or null if no user has this id
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "'id:' + #id", sync = true)
+    public CachedUser findById(UUID id) {
+        return userRepository.findById(id)
+                .map(CachedUser::from)
+                .orElse(null);
+    }
+
+    /**
+     * Removes both entries for the user.
+     *
+     * @param user The changed user
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "'email:' + #user.email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "'id:' + #user.id")
+    })
+    public void evict(User user) {
+        // Evicted by the cache annotations
+    }
+
+    /**
+     * Removes both entries for the user, for callers holding only a snapshot.
+     *
+     * @param id    The user id
+     * @param email The user's email
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "'email:' + #email"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "'id:' + #id")
+    })
+    public void evict(UUID id, String email) {
+        // Evicted by the cache annotations
+    }
+}
@@ -0,0 +1,67 @@
+package com.swiftchat.auth_service.cache;
+
+import com.swiftchat.auth_service.config.CacheConfig;
+import com.swiftchat.shared.security.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Drops a user from this node's Hibernate second-level cache when another node
+ * announces a change to the user through the {@link UserCache} invalidation
+ * messages.
+ *
+ * <p>
+ * The second-level cache is per node, so without this a node could load a
+ * stale {@link User} entity for up to the region TTL, and write stale columns
+ * back on its next update.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEntityCacheInvalidation {
+
+    /** The {@link UserCache} key prefix that carries the user id. */
+    static final String ID_KEY_PREFIX = "id:";
+
+    static final String ROLES_COLLECTION = User.class.getName() + ".roles";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        cacheManager.addRemoteInvalidationListener(this::onInvalidation);
+    }
+
+    void onInvalidation(String cacheName, String key) {
+        if (!CacheConfig.USERS_CACHE.equals(cacheName)) {
+            return;
+        }
+
+        Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (key == null) {
+            secondLevelCache.evictEntityData(User.class);
+            secondLevelCache.evictCollectionData(ROLES_COLLECTION);
+            return;
+        }
+        if (!key.startsWith(ID_KEY_PREFIX)) {
+            // Email entries are always evicted together with the id entry
+            return;
+        }
+
+        try {
+            UUID userId = UUID.fromString(key.substring(ID_KEY_PREFIX.length()));
+            secondLevelCache.evictEntityData(User.class, userId);
+            secondLevelCache.evictCollectionData(ROLES_COLLECTION, userId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring user cache invalidation with malformed id: {}", key);
+        }
+    }
+}
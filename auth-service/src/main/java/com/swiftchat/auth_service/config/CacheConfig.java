@@ -1,7 +1,13 @@
 package com.swiftchat.auth_service.config;
 
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swiftchat.auth_service.cache.CachedUserCodec;
+import com.swiftchat.auth_service.cache.CompactRedisSerializer;
+import com.swiftchat.auth_service.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,38 +20,60 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Redis cache configuration.
- * Sets up the cache manager and Redis serializers.
+ * Two-tier cache configuration.
+ * Each node keeps a small local cache in front of the shared Redis caches.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String USERS_CACHE = "users";
+
     @Value("${spring.cache.redis.time-to-live}")
     private long defaultTtl;
 
+    @Value("${cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${cache.local.time-to-live:60}")
+    private long localTimeToLiveSeconds;
+
+    @Value("${cache.local.refresh-after:0}")
+    private long localRefreshAfterSeconds;
+
+    @Value("${cache.serializer.binary-caches:users}")
+    private Set<String> binaryCaches;
+
     /**
      * Cache names with their TTLs
      */
     private static final Map<String, Duration> CACHE_TTL_MAP = new HashMap<String, Duration>() {
         {
-            put("users", Duration.ofMinutes(30));
+            put(USERS_CACHE, Duration.ofMinutes(30));
             put("roles", Duration.ofMinutes(60));
             put("tokens", Duration.ofMinutes(10));
         }
     };
 
     /**
-     * Configures Redis cache manager with appropriate serialization and TTLs.
+     * Configures the two-tier cache manager: Redis with appropriate
+     * serialization and TTLs as L2, and a bounded local L1 per cache.
+     * Caches listed in {@code cache.serializer.binary-caches} store their
+     * values with the compact binary serializer instead of JSON.
+     * Puts and evictions made inside a transaction are applied after commit.
      *
      * @param connectionFactory Redis connection factory
-     * @return Configured CacheManager for Redis
+     * @param meterRegistry     Metrics registry, if metrics are enabled
+     * @return Configured two-tier CacheManager
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
 
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMillis(defaultTtl))
@@ -53,13 +81,32 @@ public class CacheConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                 .disableCachingNullValues();
 
+        RedisSerializationContext.SerializationPair<Object> binaryValues = RedisSerializationContext.SerializationPair
+                .fromSerializer(new CompactRedisSerializer(serializer, new CachedUserCodec()));
+
         // Build configurations map with custom TTLs
         Map<String, RedisCacheConfiguration> configMap = new HashMap<>();
-        CACHE_TTL_MAP.forEach((cacheName, ttl) -> configMap.put(cacheName, defaultConfig.entryTtl(ttl)));
+        CACHE_TTL_MAP.forEach((cacheName, ttl) -> {
+            RedisCacheConfiguration config = defaultConfig.entryTtl(ttl);
+            if (binaryCaches.contains(cacheName)) {
+                config = config.serializeValuesWith(binaryValues);
+            }
+            configMap.put(cacheName, config);
+        });
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(configMap)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                redisCacheManager,
+                localMaximumSize,
+                Duration.ofSeconds(localTimeToLiveSeconds),
+                Duration.ofSeconds(localRefreshAfterSeconds),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
     }
 }
@@ -39,6 +39,15 @@ public class KafkaConfig {
     @Value("${kafka.enabled:true}")
     private boolean kafkaEnabled;
 
+    @Value("${kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
     private static final String TOPIC_USER_EVENTS = "user-events";
     private static final int DEFAULT_PARTITIONS = 3;
     private static final short DEFAULT_REPLICATION_FACTOR = 1;
@@ -124,7 +133,7 @@ public class KafkaConfig {
             configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
             configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
             configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-            configProps.put(ProducerConfig.ACKS_CONFIG, "1"); // Changed from "all" to "1" for better performance
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all"); // Required by idempotence
             configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
 
             // Add connection timeout settings
@@ -136,8 +145,15 @@ public class KafkaConfig {
             configProps.put(ProducerConfig.RECONNECT_BACKOFF_MS_CONFIG, 1000);
             configProps.put(ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, 10000);
 
-            // Add error handling configuration
-            configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false); // Disable idempotence for simplicity
+            // OutboxRelay keeps a batch in flight at once, so a retried record must not land behind a later one
+            // of the same user; idempotence keeps partition order with up to 5 requests in flight
+            configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+            // OutboxRelay sends whole batches, so let the producer group and compress them
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
 
             return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
         } catch (Exception e) {
@@ -2,6 +2,7 @@ package com.swiftchat.auth_service.controller;
 
 import com.swiftchat.auth_service.dto.*;
 import com.swiftchat.auth_service.service.AuthService;
+import com.swiftchat.auth_service.service.TokenIntrospectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -41,6 +42,7 @@ import java.util.UUID;
 public class AuthController {
 
         private final AuthService authService;
+        private final TokenIntrospectionService tokenIntrospectionService;
 
         @Value("${spring.security.oauth2.client.registration.google.client-id:}")
         private String googleClientId;
@@ -102,21 +104,25 @@ public class AuthController {
         }
 
         @PostMapping("/logout")
-        @Operation(summary = "Logout user", description = "Invalidates the user's refresh token")
+        @Operation(summary = "Logout user", description = "Invalidates the user's refresh token and the access token sent in the Authorization header")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "204", description = "Logged out successfully"),
                         @ApiResponse(responseCode = "400", description = "Invalid request")
         })
         public ResponseEntity<Void> logout(
-                        @Valid @RequestBody @Parameter(description = "Refresh token to invalidate", required = true) TokenRefreshRequestDto request) {
+                        @Valid @RequestBody @Parameter(description = "Refresh token to invalidate", required = true) TokenRefreshRequestDto request,
+                        @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) @Parameter(description = "Bearer access token to invalidate") String authorization) {
 
                 log.info("Logout request received");
-                authService.logout(request.getRefreshToken());
+                String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                                ? authorization.substring(7)
+                                : null;
+                authService.logout(request.getRefreshToken(), accessToken);
                 return ResponseEntity.noContent().build();
         }
 
         @PostMapping("/logout-all")
-        @Operation(summary = "Logout from all devices", description = "Invalidates all refresh tokens for the user")
+        @Operation(summary = "Logout from all devices", description = "Invalidates all refresh tokens and issued access tokens for the user")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "204", description = "Logged out from all devices"),
                         @ApiResponse(responseCode = "401", description = "Unauthorized request")
@@ -129,6 +135,22 @@ public class AuthController {
                 return ResponseEntity.noContent().build();
         }
 
+        @PostMapping("/introspect/batch")
+        @Operation(summary = "Introspect tokens", description = "Returns the active status and claims of up to 100 access or refresh tokens, in request order")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Tokens introspected", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenIntrospectionBatchResponseDto.class))),
+                        @ApiResponse(responseCode = "400", description = "No tokens or too many tokens"),
+                        @ApiResponse(responseCode = "403", description = "Missing or unknown introspection client key")
+        })
+        public ResponseEntity<TokenIntrospectionBatchResponseDto> introspectBatch(
+                        @Valid @RequestBody @Parameter(description = "Tokens to introspect", required = true) TokenIntrospectionBatchRequestDto request) {
+
+                log.debug("Batch introspection request for {} tokens", request.getTokens().size());
+                return ResponseEntity.ok(TokenIntrospectionBatchResponseDto.builder()
+                                .results(tokenIntrospectionService.introspect(request.getTokens()))
+                                .build());
+        }
+
         @PostMapping("/oauth2/{provider}")
         @Operation(summary = "OAuth2 authentication", description = "Authenticates a user via OAuth2 provider")
         @ApiResponses(value = {
@@ -0,0 +1,49 @@
+package com.swiftchat.auth_service.controller;
+
+import com.swiftchat.shared.security.jwt.JwtKeyProvider;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the public JWT verification keys so other services can verify
+ * access tokens locally.
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Public keys for verifying issued tokens")
+public class JwksController {
+
+    private final JwtKeyProvider keyProvider;
+
+    @Value("${jwt.jwks.max-age:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get JSON Web Key Set", description = "Returns the public keys used to verify access tokens")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key set returned"),
+            @ApiResponse(responseCode = "304", description = "Key set unchanged")
+    })
+    public ResponseEntity<String> jwks() {
+        String jwks = keyProvider.getPublicJwks();
+        String etag = "\"" + DigestUtils.md5DigestAsHex(jwks.getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .eTag(etag)
+                .body(jwks);
+    }
+}
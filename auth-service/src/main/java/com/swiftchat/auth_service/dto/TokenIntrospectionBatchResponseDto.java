@@ -0,0 +1,21 @@
+package com.swiftchat.auth_service.dto;
+
+import com.swiftchat.shared.security.introspection.TokenIntrospection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Introspection results in the same order as the requested tokens.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospectionBatchResponseDto {
+
+    private List<TokenIntrospection> results;
+}
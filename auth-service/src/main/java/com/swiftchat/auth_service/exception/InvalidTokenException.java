@@ -9,4 +9,8 @@ public class InvalidTokenException extends RuntimeException {
     public InvalidTokenException(String message) {
         super(message);
     }
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,13 @@
+package com.swiftchat.auth_service.exception;
+
+/**
+ * Thrown when a refresh token that was already revoked is presented again,
+ * either by a concurrent refresh that lost the race to rotate it or by a
+ * replayed token.
+ */
+public class RefreshTokenReusedException extends InvalidTokenException {
+
+    public RefreshTokenReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.swiftchat.auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka message waiting to be published. Rows are written in the
+ * transaction that produced the event, so an event exists exactly when that
+ * transaction commits, and are deleted by
+ * {@link com.swiftchat.auth_service.service.impl.OutboxRelay} once the
+ * broker has acknowledged them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    /** The record key, which picks the partition and so orders events per key. */
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    /** The event as JSON. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.swiftchat.auth_service.model;
 
+import com.swiftchat.auth_service.util.TokenDigest;
 import com.swiftchat.shared.security.model.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,6 +11,14 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * An opaque refresh token, looked up by its {@link TokenDigest}. Until the
+ * contract step of migration V5 drops the {@code token} column, the token is
+ * stored next to its digest so replicas still on the previous version can
+ * find it, and rows they write have no digest until
+ * {@link com.swiftchat.auth_service.service.impl.RefreshTokenHashBackfillJob}
+ * fills it in.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,9 +31,12 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(name = "token", unique = true, nullable = false, length = 255)
+    @Column(name = "token", unique = true)
     private String token;
 
+    @Column(name = "token_hash", unique = true, length = TokenDigest.LENGTH)
+    private byte[] tokenHash;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -41,6 +53,9 @@ public class RefreshToken {
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        if (this.tokenHash == null) {
+            this.tokenHash = TokenDigest.digest(this.token);
+        }
     }
 
     public boolean isExpired() {
@@ -0,0 +1,29 @@
+package com.swiftchat.auth_service.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The server-side record of a chain of signed refresh tokens: which token
+ * of the chain is current and whether the chain was revoked. Every rotation
+ * replaces the current token id and extends the expiry.
+ */
+@Value
+@Builder
+public class RefreshTokenFamily {
+
+    UUID id;
+    UUID userId;
+    /** The {@code jti} of the only token of the family that may be used. */
+    UUID tokenId;
+    LocalDateTime expiryDate;
+    boolean revoked;
+    LocalDateTime createdAt;
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiryDate.isAfter(now);
+    }
+}
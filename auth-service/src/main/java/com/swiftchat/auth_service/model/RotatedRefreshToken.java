@@ -0,0 +1,15 @@
+package com.swiftchat.auth_service.model;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import lombok.Value;
+
+/**
+ * The result of rotating a refresh token: the token that replaced it and the
+ * owner, as read by the rotation itself.
+ */
+@Value
+public class RotatedRefreshToken {
+
+    RefreshToken refreshToken;
+    CachedUser user;
+}
@@ -0,0 +1,27 @@
+package com.swiftchat.auth_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leases on rows of the {@code job_locks} table, so a scheduled job runs on
+ * one replica at a time. A lease expires on its own if its holder dies, and
+ * plain row updates work on any database, including H2 in tests.
+ */
+public interface JobLockRepository {
+
+    /**
+     * @param name   The job name, a row of {@code job_locks}
+     * @param owner  Identifies this replica
+     * @param until  When the lease expires unless released earlier
+     * @param now    The current time
+     * @return Whether the lease was free or expired and is now held by
+     *         {@code owner}
+     */
+    boolean tryAcquire(String name, String owner, LocalDateTime until, LocalDateTime now);
+
+    /**
+     * Ends a lease held by {@code owner}; does nothing if another replica
+     * took it over after it expired.
+     */
+    void release(String name, String owner, LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.swiftchat.auth_service.repository;
+
+import com.swiftchat.auth_service.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * @return The oldest events, in the order they were written
+     */
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * @return The oldest event, read through the primary key index
+     */
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,50 @@
+package com.swiftchat.auth_service.repository;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage for the families of signed refresh tokens, selected with
+ * {@code refresh-token.store} like {@link RefreshTokenStore}: {@code jpa}
+ * keeps them in the {@code refresh_token_families} table, {@code redis}
+ * keeps them in Redis with native expiry.
+ */
+public interface RefreshTokenFamilyStore {
+
+    void create(RefreshTokenFamily family);
+
+    List<RefreshTokenFamily> findAllById(Collection<UUID> familyIds);
+
+    List<RefreshTokenFamily> findAllByUserId(UUID userId);
+
+    /**
+     * Atomically moves a family that is neither revoked nor expired from its
+     * current token to the next one. Of several concurrent calls with one
+     * token, exactly one succeeds.
+     *
+     * @param familyId    The family of the presented token
+     * @param tokenId     The {@code jti} of the presented token
+     * @param nextTokenId The {@code jti} of the token replacing it
+     * @param expiry      When the family expires after the rotation
+     * @param now         The current time, for the expiry check
+     * @return The family's user with their roles, or empty if the presented
+     *         token was not the family's current one
+     */
+    Optional<CachedUser> advance(UUID familyId, UUID tokenId, UUID nextTokenId, LocalDateTime expiry,
+            LocalDateTime now);
+
+    /**
+     * @return Whether the family exists
+     */
+    boolean revoke(UUID familyId);
+
+    void revokeAllByUserId(UUID userId);
+
+    long countActiveByUserId(UUID userId, LocalDateTime now);
+}
@@ -0,0 +1,33 @@
+package com.swiftchat.auth_service.repository;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Batched backfill of {@code refresh_tokens.token_hash} for rows written
+ * before the digest was stored. Goes away with the {@code token} column in
+ * the contract step of migration V5.
+ */
+public interface RefreshTokenHashBackfillRepository {
+
+    /**
+     * The outcome of one batch.
+     */
+    @Value
+    class Batch {
+        int updated;
+        /** The id of the last row read, or null if none was. */
+        UUID lastId;
+    }
+
+    /**
+     * Sets the digest of up to {@code limit} rows that have none, in id
+     * order.
+     *
+     * @param from  The previous batch's last id, or null to start from the
+     *              first row
+     * @param limit Maximum number of rows to update
+     */
+    Batch backfill(UUID from, int limit);
+}
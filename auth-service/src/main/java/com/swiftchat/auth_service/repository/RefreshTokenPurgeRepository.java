@@ -0,0 +1,55 @@
+package com.swiftchat.auth_service.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Batched deletes of refresh token rows nobody can use any more, from
+ * {@code refresh_tokens} and {@code refresh_token_families}.
+ *
+ * <p>
+ * Each batch walks an index in key order and returns the key it stopped at,
+ * which the next batch starts from, so batches do not rescan the index
+ * entries of rows deleted before them.
+ */
+public interface RefreshTokenPurgeRepository {
+
+    String TOKENS = "refresh_tokens";
+    String FAMILIES = "refresh_token_families";
+
+    /**
+     * The outcome of one batch.
+     */
+    @Value
+    class Batch {
+        int deleted;
+        /** The key of the last row deleted, or null if none was. */
+        LocalDateTime lastKey;
+    }
+
+    /**
+     * Deletes up to {@code limit} rows that expired before
+     * {@code expiredBefore}, in expiry order.
+     *
+     * @param table         {@link #TOKENS} or {@link #FAMILIES}
+     * @param from          The previous batch's last key, or null to start
+     *                      from the oldest row
+     * @param expiredBefore The expiry cut-off
+     * @param limit         Maximum number of rows to delete
+     */
+    Batch deleteExpired(String table, LocalDateTime from, LocalDateTime expiredBefore, int limit);
+
+    /**
+     * Deletes up to {@code limit} revoked rows created before
+     * {@code createdBefore}, in creation order. Revoked rows are only kept
+     * so a replayed token is reported as reuse rather than as unknown.
+     *
+     * @param table         {@link #TOKENS} or {@link #FAMILIES}
+     * @param from          The previous batch's last key, or null to start
+     *                      from the oldest row
+     * @param createdBefore The creation cut-off
+     * @param limit         Maximum number of rows to delete
+     */
+    Batch deleteRevoked(String table, LocalDateTime from, LocalDateTime createdBefore, int limit);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,26 +17,33 @@ import java.util.UUID;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-    Optional<RefreshToken> findByToken(String token);
+    /**
+     * Rows written before the digest was stored have none until the backfill
+     * reaches them, so these are matched by the token instead.
+     */
+    @Query("SELECT r FROM RefreshToken r WHERE r.tokenHash = :tokenHash"
+            + " OR (r.tokenHash IS NULL AND r.token = :token)")
+    Optional<RefreshToken> findByTokenHashOrToken(@Param("tokenHash") byte[] tokenHash, @Param("token") String token);
 
-    List<RefreshToken> findAllByUser(User user);
+    List<RefreshToken> findAllByUserId(UUID userId);
 
-    @Modifying
-    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId")
-    void revokeAllUserTokens(@Param("userId") UUID userId);
+    @Query("SELECT DISTINCT r FROM RefreshToken r JOIN FETCH r.user u LEFT JOIN FETCH u.roles"
+            + " WHERE r.tokenHash IN :tokenHashes OR (r.tokenHash IS NULL AND r.token IN :tokens)")
+    List<RefreshToken> findAllByTokenHashInOrTokenInWithUser(@Param("tokenHashes") Collection<byte[]> tokenHashes,
+            @Param("tokens") Collection<String> tokens);
 
     @Modifying
-    @Query("DELETE FROM RefreshToken r WHERE r.expiryDate < :now")
-    void deleteAllExpiredTokens(@Param("now") LocalDateTime now);
-
-    @Query("SELECT r FROM RefreshToken r WHERE r.expiryDate < :now AND r.revoked = false")
-    List<RefreshToken> findAllExpiredTokens(@Param("now") LocalDateTime now);
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.tokenHash = :tokenHash"
+            + " OR (r.tokenHash IS NULL AND r.token = :token)")
+    int revokeByTokenHashOrToken(@Param("tokenHash") byte[] tokenHash, @Param("token") String token);
 
-    boolean existsByToken(String token);
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId")
+    void revokeAllUserTokens(@Param("userId") UUID userId);
 
     @Modifying
     @Query("DELETE FROM RefreshToken r WHERE r.user = :user")
     void deleteByUser(@Param("user") User user);
 
-    long countByUserAndRevokedFalseAndExpiryDateAfter(User user, LocalDateTime now);
+    long countByUserIdAndRevokedFalseAndExpiryDateAfter(UUID userId, LocalDateTime now);
 }
@@ -0,0 +1,31 @@
+package com.swiftchat.auth_service.repository;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Single-statement rotation of refresh tokens in the {@code refresh_tokens}
+ * table.
+ */
+public interface RefreshTokenRotationRepository {
+
+    /**
+     * Revokes the token only if it is neither revoked nor expired, inserts
+     * its replacement for the same user, and returns the user, all in one
+     * statement. Of several concurrent calls with one token, exactly one gets
+     * the user.
+     *
+     * @param token             The token presented by the client
+     * @param replacementId     The id of the new row
+     * @param replacement       The new token
+     * @param replacementExpiry When the new token expires
+     * @param now               The current time, for the expiry check
+     * @return The token's user with their roles, or empty if nothing was
+     *         rotated
+     */
+    Optional<CachedUser> rotate(String token, UUID replacementId, String replacement,
+            LocalDateTime replacementExpiry, LocalDateTime now);
+}
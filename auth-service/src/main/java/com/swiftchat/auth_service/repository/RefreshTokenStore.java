@@ -0,0 +1,63 @@
+package com.swiftchat.auth_service.repository;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.model.RefreshToken;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage for refresh tokens, selected with {@code refresh-token.store}:
+ * {@code jpa} keeps them in the {@code refresh_tokens} table, {@code redis}
+ * keeps them in Redis with native expiry.
+ *
+ * <p>
+ * Tokens are returned as {@link RefreshToken} values. Unless a method says
+ * otherwise, their user may be a reference holding only the id.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * @param refreshToken A new token; its user needs only the id
+     * @return The stored token
+     */
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByToken(String token);
+
+    /**
+     * @return The stored tokens among the given ones, with their users and
+     *         roles loaded
+     */
+    List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens);
+
+    List<RefreshToken> findAllByUserId(UUID userId);
+
+    /**
+     * Atomically revokes a token that is neither revoked nor expired and
+     * stores its replacement for the same user. Of several concurrent calls
+     * with one token, exactly one succeeds.
+     *
+     * @param token             The token presented by the client
+     * @param replacement       The new token value
+     * @param replacementExpiry When the new token expires
+     * @param now               The current time, for the expiry check
+     * @return The token's user, or empty if nothing was rotated
+     */
+    Optional<CachedUser> rotate(String token, String replacement, LocalDateTime replacementExpiry,
+            LocalDateTime now);
+
+    /**
+     * @return Whether the token exists
+     */
+    boolean revoke(String token);
+
+    void revokeAllByUserId(UUID userId);
+
+    void delete(RefreshToken refreshToken);
+
+    long countActiveByUserId(UUID userId, LocalDateTime now);
+}
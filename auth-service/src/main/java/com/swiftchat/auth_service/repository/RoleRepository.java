@@ -1,21 +1,40 @@
 package com.swiftchat.auth_service.repository;
 
 import com.swiftchat.shared.security.model.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Roles are a handful of static rows, so lookups by name go through the
+ * Hibernate query cache instead of the database.
+ */
 @Repository
 public interface RoleRepository extends JpaRepository<Role, UUID> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Role.QUERY_CACHE_REGION)
+    })
     Optional<Role> findByName(String name);
 
     @Query("SELECT r FROM Role r WHERE r.name = :name")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Role.QUERY_CACHE_REGION)
+    })
     Optional<Role> findByRoleName(@Param("name") String name);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Role.QUERY_CACHE_REGION)
+    })
     boolean existsByName(String name);
 }
@@ -1,32 +1,38 @@
 package com.swiftchat.auth_service.repository;
 
 import com.swiftchat.shared.security.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
 
+    /**
+     * Fetches the roles in the same query, so a login or cache miss is one
+     * round trip.
+     */
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
 
+    /**
+     * Reads only the password hash, which the user cache does not hold.
+     */
+    @Query("SELECT u.passwordHash FROM User u WHERE u.id = :id")
+    Optional<String> findPasswordHashById(@Param("id") UUID id);
+
     boolean existsByEmail(String email);
 
     Optional<User> findByActivationKey(String activationKey);
 
     Optional<User> findByResetKey(String resetKey);
 
-    @Modifying
-    @Query("UPDATE User u SET u.lastLoginAt = :loginTime WHERE u.id = :id")
-    void updateLastLogin(@Param("id") UUID id, @Param("loginTime") LocalDateTime loginTime);
-
     @Query("SELECT CASE WHEN COUNT(ur) > 0 THEN true ELSE false END FROM UserRole ur JOIN ur.role r WHERE ur.user.id = :userId AND r.name = :roleName")
     boolean hasRole(@Param("userId") UUID userId, @Param("roleName") String roleName);
 }
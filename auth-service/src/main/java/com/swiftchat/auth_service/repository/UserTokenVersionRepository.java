@@ -0,0 +1,20 @@
+package com.swiftchat.auth_service.repository;
+
+import java.util.UUID;
+
+/**
+ * Increments a user's token version with a single UPDATE, so concurrent
+ * increments from logouts, password resets and role changes are never lost
+ * to a read-modify-write of a cached entity.
+ */
+public interface UserTokenVersionRepository {
+
+    /**
+     * Increments the token version and drops this node's Hibernate
+     * second-level cache entry for the user.
+     *
+     * @param userId The user id
+     * @return The new token version, or null if there is no such user
+     */
+    Long increment(UUID userId);
+}
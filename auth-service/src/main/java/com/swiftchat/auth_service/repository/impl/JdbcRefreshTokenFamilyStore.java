@@ -0,0 +1,111 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import com.swiftchat.auth_service.repository.RefreshTokenFamilyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps refresh token families in the {@code refresh_token_families} table.
+ * Like {@link RefreshTokenRotationRepositoryImpl}, a rotation is one
+ * conditional UPDATE that also returns the user, so it needs no surrounding
+ * transaction; the row lock serialises concurrent rotations of one family.
+ * Expired and long revoked families are removed by
+ * {@link com.swiftchat.auth_service.service.impl.RefreshTokenPurgeJob}.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class JdbcRefreshTokenFamilyStore implements RefreshTokenFamilyStore {
+
+    static final String INSERT_SQL = "INSERT INTO refresh_token_families"
+            + " (id, user_id, token_id, expiry_date, revoked, created_at) VALUES (?, ?, ?, ?, false, ?)";
+
+    static final String ADVANCE_SQL = """
+            WITH advanced AS (
+                UPDATE refresh_token_families SET token_id = ?, expiry_date = ?
+                WHERE id = ? AND token_id = ? AND revoked = false AND expiry_date > ?
+                RETURNING user_id
+            )
+            SELECT u.id, u.email, u.activated, u.created_at, u.last_login_at,
+                   u.token_version, r.id AS role_id, r.name AS role_name
+            FROM advanced
+            JOIN users u ON u.id = advanced.user_id
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            """;
+
+    private static final String SELECT_SQL = "SELECT id, user_id, token_id, expiry_date, revoked, created_at"
+            + " FROM refresh_token_families";
+
+    private static final RowMapper<RefreshTokenFamily> FAMILY = (rs, rowNum) -> RefreshTokenFamily.builder()
+            .id(rs.getObject("id", UUID.class))
+            .userId(rs.getObject("user_id", UUID.class))
+            .tokenId(rs.getObject("token_id", UUID.class))
+            .expiryDate(RefreshTokenRotationRepositoryImpl.toLocalDateTime(rs.getTimestamp("expiry_date")))
+            .revoked(rs.getBoolean("revoked"))
+            .createdAt(RefreshTokenRotationRepositoryImpl.toLocalDateTime(rs.getTimestamp("created_at")))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void create(RefreshTokenFamily family) {
+        jdbcTemplate.update(INSERT_SQL, family.getId(), family.getUserId(), family.getTokenId(),
+                Timestamp.valueOf(family.getExpiryDate()), Timestamp.valueOf(family.getCreatedAt()));
+    }
+
+    @Override
+    public List<RefreshTokenFamily> findAllById(Collection<UUID> familyIds) {
+        if (familyIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(familyIds.size(), "?"));
+        return jdbcTemplate.query(SELECT_SQL + " WHERE id IN (" + placeholders + ")", FAMILY,
+                familyIds.toArray());
+    }
+
+    @Override
+    public List<RefreshTokenFamily> findAllByUserId(UUID userId) {
+        return jdbcTemplate.query(SELECT_SQL + " WHERE user_id = ?", FAMILY, userId);
+    }
+
+    @Override
+    public Optional<CachedUser> advance(UUID familyId, UUID tokenId, UUID nextTokenId, LocalDateTime expiry,
+            LocalDateTime now) {
+        return Optional.ofNullable(jdbcTemplate.query(ADVANCE_SQL,
+                RefreshTokenRotationRepositoryImpl.USER_WITH_ROLES,
+                nextTokenId, Timestamp.valueOf(expiry), familyId, tokenId, Timestamp.valueOf(now)));
+    }
+
+    @Override
+    public boolean revoke(UUID familyId) {
+        return jdbcTemplate.update("UPDATE refresh_token_families SET revoked = true WHERE id = ?", familyId) > 0;
+    }
+
+    @Override
+    public void revokeAllByUserId(UUID userId) {
+        jdbcTemplate.update("UPDATE refresh_token_families SET revoked = true WHERE user_id = ? AND revoked = false",
+                userId);
+    }
+
+    @Override
+    public long countActiveByUserId(UUID userId, LocalDateTime now) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_token_families"
+                + " WHERE user_id = ? AND revoked = false AND expiry_date > ?", Long.class,
+                userId, Timestamp.valueOf(now));
+        return count != null ? count : 0;
+    }
+}
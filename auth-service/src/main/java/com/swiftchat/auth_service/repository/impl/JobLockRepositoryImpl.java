@@ -0,0 +1,37 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * The conditional UPDATE is atomic, so of several replicas racing for a
+ * free lease exactly one changes the row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobLockRepositoryImpl implements JobLockRepository {
+
+    static final String ACQUIRE_SQL = "UPDATE job_locks SET locked_until = ?, locked_by = ?"
+            + " WHERE name = ? AND locked_until <= ?";
+
+    static final String RELEASE_SQL = "UPDATE job_locks SET locked_until = ?"
+            + " WHERE name = ? AND locked_by = ? AND locked_until > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryAcquire(String name, String owner, LocalDateTime until, LocalDateTime now) {
+        return jdbcTemplate.update(ACQUIRE_SQL, Timestamp.valueOf(until), owner, name, Timestamp.valueOf(now)) == 1;
+    }
+
+    @Override
+    public void release(String name, String owner, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.update(RELEASE_SQL, timestamp, name, owner, timestamp);
+    }
+}
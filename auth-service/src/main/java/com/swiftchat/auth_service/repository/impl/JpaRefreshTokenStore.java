@@ -0,0 +1,102 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.repository.RefreshTokenRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenRotationRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenStore;
+import com.swiftchat.auth_service.util.TokenDigest;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps refresh tokens in the {@code refresh_tokens} table, found by the
+ * {@link TokenDigest} in {@code token_hash}, or by the token itself for rows
+ * the backfill has not reached yet. Expired and long revoked rows stay until
+ * {@link com.swiftchat.auth_service.service.impl.RefreshTokenPurgeJob}
+ * removes them.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenRotationRepository refreshTokenRotationRepository;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        return refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByTokenHashOrToken(TokenDigest.digest(token),
+                token);
+        refreshToken.ifPresent(found -> found.setToken(token));
+        return refreshToken;
+    }
+
+    @Override
+    public List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens) {
+        Map<String, String> tokensByDigest = new HashMap<>();
+        List<byte[]> digests = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            byte[] digest = TokenDigest.digest(token);
+            tokensByDigest.put(TokenDigest.encode(digest), token);
+            digests.add(digest);
+        }
+
+        List<RefreshToken> found = refreshTokenRepository.findAllByTokenHashInOrTokenInWithUser(digests, tokens);
+        for (RefreshToken refreshToken : found) {
+            if (refreshToken.getTokenHash() != null) {
+                refreshToken.setToken(tokensByDigest.get(TokenDigest.encode(refreshToken.getTokenHash())));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<RefreshToken> findAllByUserId(UUID userId) {
+        return refreshTokenRepository.findAllByUserId(userId);
+    }
+
+    @Override
+    public Optional<CachedUser> rotate(String token, String replacement, LocalDateTime replacementExpiry,
+            LocalDateTime now) {
+        return refreshTokenRotationRepository.rotate(token, UUID.randomUUID(), replacement, replacementExpiry, now);
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(String token) {
+        return refreshTokenRepository.revokeByTokenHashOrToken(TokenDigest.digest(token), token) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllByUserId(UUID userId) {
+        refreshTokenRepository.revokeAllUserTokens(userId);
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        refreshTokenRepository.delete(refreshToken);
+    }
+
+    @Override
+    public long countActiveByUserId(UUID userId, LocalDateTime now) {
+        return refreshTokenRepository.countByUserIdAndRevokedFalseAndExpiryDateAfter(userId, now);
+    }
+}
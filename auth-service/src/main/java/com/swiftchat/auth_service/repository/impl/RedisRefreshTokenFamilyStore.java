@@ -0,0 +1,205 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import com.swiftchat.auth_service.repository.RefreshTokenFamilyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps refresh token families in Redis, laid out like
+ * {@link RedisRefreshTokenStore}: a hash per family at
+ * {@code auth:refresh-family:<id>} that Redis expires with the family, and a
+ * set of each user's families at {@code auth:refresh-families:user:<id>}.
+ * Rotations extend the hash's expiry. Writes that touch several keys run as
+ * Lua scripts, which assumes a single Redis node rather than a cluster.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "redis")
+public class RedisRefreshTokenFamilyStore implements RefreshTokenFamilyStore {
+
+    static final String FAMILY_KEY_PREFIX = "auth:refresh-family:";
+    static final String USER_KEY_PREFIX = "auth:refresh-families:user:";
+
+    private static final String USER_ID = "userId";
+    private static final String TOKEN_ID = "tokenId";
+    private static final String EXPIRES_AT = "expiresAt";
+    private static final String CREATED_AT = "createdAt";
+    private static final String REVOKED = "revoked";
+
+    /** KEYS: family, user set. ARGV: user id, token id, expiry, creation, family id. */
+    private static final RedisScript<Long> CREATE = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'userId', ARGV[1], 'tokenId', ARGV[2], 'expiresAt', ARGV[3],
+                'createdAt', ARGV[4], 'revoked', '0')
+            redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+            redis.call('SADD', KEYS[2], ARGV[5])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[3]) - tonumber(ARGV[4]) then
+                redis.call('PEXPIREAT', KEYS[2], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: family. ARGV: token id, next token id, expiry, now, user key
+     * prefix. Returns the user id, or nil.
+     */
+    private static final RedisScript<String> ADVANCE = new DefaultRedisScript<>("""
+            local family = redis.call('HMGET', KEYS[1], 'userId', 'tokenId', 'revoked', 'expiresAt')
+            if not family[1] or family[2] ~= ARGV[1] or family[3] == '1'
+                    or tonumber(family[4]) <= tonumber(ARGV[4]) then
+                return false
+            end
+            redis.call('HSET', KEYS[1], 'tokenId', ARGV[2], 'expiresAt', ARGV[3])
+            redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+            local userKey = ARGV[5] .. family[1]
+            if redis.call('PTTL', userKey) < tonumber(ARGV[3]) - tonumber(ARGV[4]) then
+                redis.call('PEXPIREAT', userKey, ARGV[3])
+            end
+            return family[1]
+            """, String.class);
+
+    /** KEYS: family. Returns 1 if the family exists. */
+    private static final RedisScript<Long> REVOKE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            return 1
+            """, Long.class);
+
+    /** KEYS: user set. ARGV: family key prefix. */
+    private static final RedisScript<Long> REVOKE_ALL = new DefaultRedisScript<>("""
+            local families = redis.call('SMEMBERS', KEYS[1])
+            for _, family in ipairs(families) do
+                local key = ARGV[1] .. family
+                if redis.call('EXISTS', key) == 1 then
+                    redis.call('HSET', key, 'revoked', '1')
+                else
+                    redis.call('SREM', KEYS[1], family)
+                end
+            end
+            return #families
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserCache userCache;
+
+    @Override
+    public void create(RefreshTokenFamily family) {
+        String createdAt = toMillis(family.getCreatedAt());
+        redisTemplate.execute(CREATE,
+                List.of(familyKey(family.getId()), userKey(family.getUserId())),
+                family.getUserId().toString(), family.getTokenId().toString(),
+                toMillis(family.getExpiryDate()), createdAt, family.getId().toString());
+    }
+
+    @Override
+    public List<RefreshTokenFamily> findAllById(Collection<UUID> familyIds) {
+        List<RefreshTokenFamily> found = new ArrayList<>(familyIds.size());
+        for (UUID familyId : familyIds) {
+            RefreshTokenFamily family = read(familyId);
+            if (family != null) {
+                found.add(family);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<RefreshTokenFamily> findAllByUserId(UUID userId) {
+        String userKey = userKey(userId);
+        Set<String> familyIds = redisTemplate.opsForSet().members(userKey);
+        if (familyIds == null) {
+            return List.of();
+        }
+
+        List<RefreshTokenFamily> found = new ArrayList<>(familyIds.size());
+        for (String familyId : familyIds) {
+            RefreshTokenFamily family = read(UUID.fromString(familyId));
+            if (family != null) {
+                found.add(family);
+            } else {
+                redisTemplate.opsForSet().remove(userKey, familyId);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<CachedUser> advance(UUID familyId, UUID tokenId, UUID nextTokenId, LocalDateTime expiry,
+            LocalDateTime now) {
+        String userId = redisTemplate.execute(ADVANCE,
+                List.of(familyKey(familyId)),
+                tokenId.toString(), nextTokenId.toString(), toMillis(expiry), toMillis(now), USER_KEY_PREFIX);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(userCache.findById(UUID.fromString(userId)));
+    }
+
+    @Override
+    public boolean revoke(UUID familyId) {
+        Long revoked = redisTemplate.execute(REVOKE, List.of(familyKey(familyId)));
+        return revoked != null && revoked > 0;
+    }
+
+    @Override
+    public void revokeAllByUserId(UUID userId) {
+        redisTemplate.execute(REVOKE_ALL, List.of(userKey(userId)), FAMILY_KEY_PREFIX);
+    }
+
+    @Override
+    public long countActiveByUserId(UUID userId, LocalDateTime now) {
+        return findAllByUserId(userId).stream()
+                .filter(family -> !family.isRevoked() && !family.isExpired(now))
+                .count();
+    }
+
+    private RefreshTokenFamily read(UUID familyId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(familyKey(familyId));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return RefreshTokenFamily.builder()
+                .id(familyId)
+                .userId(UUID.fromString((String) fields.get(USER_ID)))
+                .tokenId(UUID.fromString((String) fields.get(TOKEN_ID)))
+                .expiryDate(fromMillis((String) fields.get(EXPIRES_AT)))
+                .createdAt(fromMillis((String) fields.get(CREATED_AT)))
+                .revoked("1".equals(fields.get(REVOKED)))
+                .build();
+    }
+
+    private static String familyKey(UUID familyId) {
+        return FAMILY_KEY_PREFIX + familyId;
+    }
+
+    private static String userKey(UUID userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    private static String toMillis(LocalDateTime time) {
+        return Long.toString(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static LocalDateTime fromMillis(String millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,260 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.repository.RefreshTokenStore;
+import com.swiftchat.auth_service.util.TokenDigest;
+import com.swiftchat.shared.security.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps refresh tokens in Redis, so refreshes and logouts do not touch the
+ * database.
+ *
+ * <p>
+ * Each token is a hash at {@code auth:refresh-token:<digest>}, where the
+ * digest is the token's {@link TokenDigest} in base64url, and Redis expires it
+ * with the token, so nothing needs purging. Each user has a set of the
+ * digests of their tokens at {@code auth:refresh-tokens:user:<id>}, which
+ * makes revoking all of a user's tokens proportional to their sessions;
+ * members whose hash has expired are dropped whenever the set is read. Tokens
+ * listed by user therefore come without their value. Revoked tokens are kept
+ * until they expire, so a replay is recognised as reuse. Writes that touch
+ * several keys run as Lua scripts, which assumes a single Redis node rather
+ * than a cluster.
+ *
+ * <p>
+ * Users are not stored with their tokens: rotation and introspection look
+ * them up through {@link UserCache}.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    static final String TOKEN_KEY_PREFIX = "auth:refresh-token:";
+    static final String USER_KEY_PREFIX = "auth:refresh-tokens:user:";
+
+    private static final String ID = "id";
+    private static final String USER_ID = "userId";
+    private static final String EXPIRES_AT = "expiresAt";
+    private static final String CREATED_AT = "createdAt";
+    private static final String REVOKED = "revoked";
+
+    /** KEYS: token, user set. ARGV: id, user id, expiry, creation, digest, now. */
+    private static final RedisScript<Long> SAVE = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'id', ARGV[1], 'userId', ARGV[2], 'expiresAt', ARGV[3],
+                'createdAt', ARGV[4], 'revoked', '0')
+            redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+            redis.call('SADD', KEYS[2], ARGV[5])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[3]) - tonumber(ARGV[6]) then
+                redis.call('PEXPIREAT', KEYS[2], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: token. ARGV: now, replacement digest, replacement id, replacement
+     * expiry, token key prefix, user key prefix. Returns the user id, or nil.
+     */
+    private static final RedisScript<String> ROTATE = new DefaultRedisScript<>("""
+            local token = redis.call('HMGET', KEYS[1], 'userId', 'revoked', 'expiresAt')
+            if not token[1] or token[2] == '1' or tonumber(token[3]) <= tonumber(ARGV[1]) then
+                return false
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            local replacementKey = ARGV[5] .. ARGV[2]
+            local userKey = ARGV[6] .. token[1]
+            redis.call('HSET', replacementKey, 'id', ARGV[3], 'userId', token[1], 'expiresAt', ARGV[4],
+                'createdAt', ARGV[1], 'revoked', '0')
+            redis.call('PEXPIREAT', replacementKey, ARGV[4])
+            redis.call('SADD', userKey, ARGV[2])
+            if redis.call('PTTL', userKey) < tonumber(ARGV[4]) - tonumber(ARGV[1]) then
+                redis.call('PEXPIREAT', userKey, ARGV[4])
+            end
+            return token[1]
+            """, String.class);
+
+    /** KEYS: token. Returns 1 if the token exists. */
+    private static final RedisScript<Long> REVOKE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            return 1
+            """, Long.class);
+
+    /** KEYS: user set. ARGV: token key prefix. */
+    private static final RedisScript<Long> REVOKE_ALL = new DefaultRedisScript<>("""
+            local tokens = redis.call('SMEMBERS', KEYS[1])
+            for _, token in ipairs(tokens) do
+                local key = ARGV[1] .. token
+                if redis.call('EXISTS', key) == 1 then
+                    redis.call('HSET', key, 'revoked', '1')
+                else
+                    redis.call('SREM', KEYS[1], token)
+                end
+            end
+            return #tokens
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserCache userCache;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        UUID id = refreshToken.getId() != null ? refreshToken.getId() : UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now();
+        UUID userId = refreshToken.getUser().getId();
+        byte[] digest = TokenDigest.digest(refreshToken.getToken());
+        String encodedDigest = TokenDigest.encode(digest);
+        redisTemplate.execute(SAVE,
+                List.of(tokenKey(encodedDigest), userKey(userId)),
+                id.toString(), userId.toString(),
+                toMillis(refreshToken.getExpiryDate()), toMillis(createdAt),
+                encodedDigest, toMillis(createdAt));
+
+        refreshToken.setId(id);
+        refreshToken.setTokenHash(digest);
+        refreshToken.setCreatedAt(createdAt);
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        return Optional.ofNullable(read(TokenDigest.encodedDigest(token), token));
+    }
+
+    @Override
+    public List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens) {
+        List<RefreshToken> found = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            RefreshToken refreshToken = read(TokenDigest.encodedDigest(token), token);
+            if (refreshToken == null) {
+                continue;
+            }
+            CachedUser user = userCache.findById(refreshToken.getUser().getId());
+            if (user != null) {
+                refreshToken.setUser(user.toUser());
+                found.add(refreshToken);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<RefreshToken> findAllByUserId(UUID userId) {
+        String userKey = userKey(userId);
+        Set<String> digests = redisTemplate.opsForSet().members(userKey);
+        if (digests == null) {
+            return List.of();
+        }
+
+        List<RefreshToken> found = new ArrayList<>(digests.size());
+        for (String digest : digests) {
+            RefreshToken refreshToken = read(digest, null);
+            if (refreshToken != null) {
+                found.add(refreshToken);
+            } else {
+                redisTemplate.opsForSet().remove(userKey, digest);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<CachedUser> rotate(String token, String replacement, LocalDateTime replacementExpiry,
+            LocalDateTime now) {
+        String userId = redisTemplate.execute(ROTATE,
+                List.of(tokenKey(TokenDigest.encodedDigest(token))),
+                toMillis(now), TokenDigest.encodedDigest(replacement), UUID.randomUUID().toString(),
+                toMillis(replacementExpiry),
+                TOKEN_KEY_PREFIX, USER_KEY_PREFIX);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(userCache.findById(UUID.fromString(userId)));
+    }
+
+    @Override
+    public boolean revoke(String token) {
+        Long revoked = redisTemplate.execute(REVOKE, List.of(tokenKey(TokenDigest.encodedDigest(token))));
+        return revoked != null && revoked > 0;
+    }
+
+    @Override
+    public void revokeAllByUserId(UUID userId) {
+        redisTemplate.execute(REVOKE_ALL, List.of(userKey(userId)), TOKEN_KEY_PREFIX);
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        String digest = refreshToken.getTokenHash() != null
+                ? TokenDigest.encode(refreshToken.getTokenHash())
+                : TokenDigest.encodedDigest(refreshToken.getToken());
+        redisTemplate.delete(tokenKey(digest));
+        if (refreshToken.getUser() != null) {
+            redisTemplate.opsForSet().remove(userKey(refreshToken.getUser().getId()), digest);
+        }
+    }
+
+    @Override
+    public long countActiveByUserId(UUID userId, LocalDateTime now) {
+        return findAllByUserId(userId).stream()
+                .filter(refreshToken -> !refreshToken.isRevoked() && refreshToken.getExpiryDate().isAfter(now))
+                .count();
+    }
+
+    /**
+     * @param digest The token's encoded digest
+     * @param token  The token, if known
+     */
+    private RefreshToken read(String digest, String token) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(tokenKey(digest));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return RefreshToken.builder()
+                .id(UUID.fromString((String) fields.get(ID)))
+                .token(token)
+                .tokenHash(TokenDigest.decode(digest))
+                .user(User.builder().id(UUID.fromString((String) fields.get(USER_ID))).build())
+                .expiryDate(fromMillis((String) fields.get(EXPIRES_AT)))
+                .createdAt(fromMillis((String) fields.get(CREATED_AT)))
+                .revoked("1".equals(fields.get(REVOKED)))
+                .build();
+    }
+
+    private static String tokenKey(String digest) {
+        return TOKEN_KEY_PREFIX + digest;
+    }
+
+    private static String userKey(UUID userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    private static String toMillis(LocalDateTime time) {
+        return Long.toString(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static LocalDateTime fromMillis(String millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault());
+    }
+}
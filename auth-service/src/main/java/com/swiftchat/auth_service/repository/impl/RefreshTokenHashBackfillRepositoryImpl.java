@@ -0,0 +1,53 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.RefreshTokenHashBackfillRepository;
+import com.swiftchat.auth_service.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Selects a batch of rows without a digest through the partial index on
+ * {@code id}, digests their tokens here, and updates them by primary key in
+ * one JDBC batch. The update rechecks that the digest is still missing, so a
+ * row another replica filled in or rotated in between is left alone.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefreshTokenHashBackfillRepositoryImpl implements RefreshTokenHashBackfillRepository {
+
+    static final String SELECT_SQL = "SELECT id, token FROM refresh_tokens"
+            + " WHERE token_hash IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    static final String UPDATE_SQL = "UPDATE refresh_tokens SET token_hash = ? WHERE id = ? AND token_hash IS NULL";
+
+    /** Lower bound for the first batch, before any row's id. */
+    private static final UUID START = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Batch backfill(UUID from, int limit) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_SQL, from != null ? from : START, limit);
+        if (rows.isEmpty()) {
+            return new Batch(0, null);
+        }
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        UUID lastId = null;
+        for (Map<String, Object> row : rows) {
+            lastId = row.get("id") instanceof UUID id ? id : UUID.fromString(row.get("id").toString());
+            updates.add(new Object[] { TokenDigest.digest((String) row.get("token")), lastId });
+        }
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, updates)) {
+            updated += Math.max(count, 0);
+        }
+        return new Batch(updated, lastId);
+    }
+}
@@ -0,0 +1,77 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Selects a batch of ids through the expiry or creation index, then deletes
+ * them by primary key. The two statements need no surrounding transaction:
+ * a selected row that is deleted by someone else in between is simply not
+ * counted, and the conditions never become false once true. The keyset
+ * lower bound is inclusive, which is safe because rows with the boundary key
+ * that were deleted cannot be selected again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefreshTokenPurgeRepositoryImpl implements RefreshTokenPurgeRepository {
+
+    static final String SELECT_EXPIRED_SQL = "SELECT id, expiry_date AS purge_key FROM %s"
+            + " WHERE expiry_date >= ? AND expiry_date < ? ORDER BY expiry_date LIMIT ?";
+
+    static final String SELECT_REVOKED_SQL = "SELECT id, created_at AS purge_key FROM %s"
+            + " WHERE revoked = true AND created_at >= ? AND created_at < ? ORDER BY created_at LIMIT ?";
+
+    static final String DELETE_SQL = "DELETE FROM %s WHERE id IN (%s)";
+
+    /** Lower bound for the first batch, before any row's key. */
+    private static final Timestamp START = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Batch deleteExpired(String table, LocalDateTime from, LocalDateTime expiredBefore, int limit) {
+        return deleteBatch(table, SELECT_EXPIRED_SQL, from, expiredBefore, limit);
+    }
+
+    @Override
+    public Batch deleteRevoked(String table, LocalDateTime from, LocalDateTime createdBefore, int limit) {
+        return deleteBatch(table, SELECT_REVOKED_SQL, from, createdBefore, limit);
+    }
+
+    private Batch deleteBatch(String table, String selectSql, LocalDateTime from, LocalDateTime before, int limit) {
+        String checkedTable = checkTable(table);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(String.format(selectSql, checkedTable),
+                from != null ? Timestamp.valueOf(from) : START, Timestamp.valueOf(before), limit);
+        if (rows.isEmpty()) {
+            return new Batch(0, null);
+        }
+
+        List<Object> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ids.add(row.get("id") instanceof UUID ? row.get("id") : UUID.fromString(row.get("id").toString()));
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        int deleted = jdbcTemplate.update(String.format(DELETE_SQL, checkedTable, placeholders), ids.toArray());
+
+        Timestamp lastKey = (Timestamp) rows.get(rows.size() - 1).get("purge_key");
+        return new Batch(deleted, lastKey.toLocalDateTime());
+    }
+
+    /** Table names are part of the SQL text, so only the known ones are allowed. */
+    private static String checkTable(String table) {
+        if (!TOKENS.equals(table) && !FAMILIES.equals(table)) {
+            throw new IllegalArgumentException("Not a refresh token table: " + table);
+        }
+        return table;
+    }
+}
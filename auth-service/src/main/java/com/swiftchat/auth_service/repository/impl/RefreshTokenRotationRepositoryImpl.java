@@ -0,0 +1,87 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.repository.RefreshTokenRotationRepository;
+import com.swiftchat.auth_service.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * PostgreSQL implementation: the conditional UPDATE, the INSERT of the
+ * replacement and the user lookup are one statement, so a rotation is a
+ * single round trip and atomic without a surrounding transaction. The row
+ * lock taken by the UPDATE serialises concurrent rotations of one token, and
+ * the WHERE clause is rechecked after the lock is granted, so only the first
+ * one revokes a row and inserts a replacement. Tokens are matched by digest,
+ * or by value where the backfill has not set the digest yet, and the
+ * replacement is written with both until migration V5's contract step.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RefreshTokenRotationRepositoryImpl implements RefreshTokenRotationRepository {
+
+    static final String ROTATE_SQL = """
+            WITH rotated AS (
+                UPDATE refresh_tokens SET revoked = true
+                WHERE (token_hash = ? OR (token_hash IS NULL AND token = ?))
+                  AND revoked = false AND expiry_date > ?
+                RETURNING user_id
+            ), issued AS (
+                INSERT INTO refresh_tokens (id, token, token_hash, user_id, expiry_date, revoked, created_at)
+                SELECT ?, ?, ?, user_id, ?, false, ? FROM rotated
+            )
+            SELECT u.id, u.email, u.activated, u.created_at, u.last_login_at,
+                   u.token_version, r.id AS role_id, r.name AS role_name
+            FROM rotated
+            JOIN users u ON u.id = rotated.user_id
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            """;
+
+    /** Folds the one row per role into a single user. */
+    static final ResultSetExtractor<CachedUser> USER_WITH_ROLES = rs -> {
+        CachedUser user = null;
+        while (rs.next()) {
+            if (user == null) {
+                user = CachedUser.builder()
+                        .id(rs.getObject("id", UUID.class))
+                        .email(rs.getString("email"))
+                        .activated(rs.getBoolean("activated"))
+                        .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                        .lastLoginAt(toLocalDateTime(rs.getTimestamp("last_login_at")))
+                        .tokenVersion(rs.getLong("token_version"))
+                        .roles(new ArrayList<>())
+                        .build();
+            }
+            UUID roleId = rs.getObject("role_id", UUID.class);
+            if (roleId != null) {
+                user.getRoles().add(new CachedUser.CachedRole(roleId, rs.getString("role_name")));
+            }
+        }
+        return user;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<CachedUser> rotate(String token, UUID replacementId, String replacement,
+            LocalDateTime replacementExpiry, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return Optional.ofNullable(jdbcTemplate.query(ROTATE_SQL, USER_WITH_ROLES,
+                TokenDigest.digest(token), token, timestamp,
+                replacementId, replacement, TokenDigest.digest(replacement), Timestamp.valueOf(replacementExpiry),
+                timestamp));
+    }
+
+    static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
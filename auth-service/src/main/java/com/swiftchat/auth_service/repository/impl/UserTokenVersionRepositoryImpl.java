@@ -0,0 +1,37 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.UserTokenVersionRepository;
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Uses JDBC rather than a JPQL bulk update, which would make Hibernate drop
+ * the whole {@code User} cache region instead of the one entry.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserTokenVersionRepositoryImpl implements UserTokenVersionRepository {
+
+    static final String INCREMENT_SQL = "UPDATE users SET token_version = token_version + 1"
+            + " WHERE id = ? RETURNING token_version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Long increment(UUID userId) {
+        List<Long> versions = jdbcTemplate.queryForList(INCREMENT_SQL, Long.class, userId);
+        if (versions.isEmpty()) {
+            return null;
+        }
+        // JDBC bypasses Hibernate, so drop the cached copy of the row
+        entityManagerFactory.getCache().evict(User.class, userId);
+        return versions.get(0);
+    }
+}
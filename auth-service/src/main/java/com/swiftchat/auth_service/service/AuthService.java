@@ -19,6 +19,15 @@ public interface AuthService {
 
     void logout(String refreshToken);
 
+    /**
+     * Revokes the refresh token and, when given, the access token presented with
+     * the logout request.
+     *
+     * @param refreshToken The refresh token to revoke
+     * @param accessToken  The current access token, or null
+     */
+    void logout(String refreshToken, String accessToken);
+
     void logoutAllDevices(UUID userId);
 
     AuthResponseDto authenticateWithOAuth2(String provider, Map<String, Object> attributes);
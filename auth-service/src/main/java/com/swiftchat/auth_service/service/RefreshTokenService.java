@@ -1,8 +1,10 @@
 package com.swiftchat.auth_service.service;
 
 import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
 import com.swiftchat.shared.security.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,16 +14,34 @@ public interface RefreshTokenService {
 
     Optional<RefreshToken> findByToken(String token);
 
+    /**
+     * @return The stored tokens among the given ones, with their users and
+     *         roles loaded
+     */
+    List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens);
+
     RefreshToken verifyExpiration(RefreshToken token);
 
     void revokeToken(String token);
 
+    /**
+     * Exchanges a refresh token for a new one in a single atomic store
+     * operation.
+     *
+     * @param token The refresh token presented by the client
+     * @return The new token and its user
+     * @throws com.swiftchat.auth_service.exception.RefreshTokenReusedException
+     *         if the token was already revoked, including by a concurrent
+     *         rotation
+     * @throws com.swiftchat.auth_service.exception.InvalidTokenException if the
+     *         token is unknown or expired
+     */
+    RotatedRefreshToken rotate(String token);
+
     void revokeAllUserTokens(User user);
 
     List<RefreshToken> findAllUserTokens(User user);
 
-    int deleteExpiredTokens();
-
     boolean isTokenValid(String token);
 
     long countActiveTokens(User user);
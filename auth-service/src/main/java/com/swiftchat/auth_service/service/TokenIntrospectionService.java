@@ -0,0 +1,16 @@
+package com.swiftchat.auth_service.service;
+
+import com.swiftchat.shared.security.introspection.TokenIntrospection;
+
+import java.util.List;
+
+public interface TokenIntrospectionService {
+
+    /**
+     * Introspects access and refresh tokens in one pass.
+     *
+     * @param tokens The tokens to introspect
+     * @return One result per token, in the same order
+     */
+    List<TokenIntrospection> introspect(List<String> tokens);
+}
@@ -45,4 +45,11 @@ public interface UserService {
     void removeRoleFromUser(UUID userId, String roleName);
 
     boolean hasRole(UUID userId, String roleName);
+
+    /**
+     * Invalidates every access token issued to the user so far.
+     *
+     * @param userId The user id
+     */
+    void incrementTokenVersion(UUID userId);
 }
@@ -1,26 +1,33 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.RefreshResultCache;
+import com.swiftchat.auth_service.cache.UserCache;
 import com.swiftchat.auth_service.dto.*;
 import com.swiftchat.auth_service.exception.InvalidCredentialsException;
-import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
 import com.swiftchat.auth_service.exception.ResourceNotFoundException;
 import com.swiftchat.auth_service.exception.UserNotActivatedException;
 import com.swiftchat.shared.security.model.OAuth2Account;
 import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
 import com.swiftchat.auth_service.model.RoleName;
 import com.swiftchat.shared.security.model.User;
 import com.swiftchat.auth_service.repository.OAuth2AccountRepository;
 import com.swiftchat.auth_service.repository.UserRepository;
 import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.revocation.AccessTokenDenylist;
 import com.swiftchat.auth_service.service.AuthService;
 import com.swiftchat.auth_service.service.RefreshTokenService;
 import com.swiftchat.auth_service.service.UserService;
+import io.jsonwebtoken.JwtException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.context.annotation.DependsOn;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -41,14 +48,22 @@ import java.util.concurrent.ThreadLocalRandom;
 @DependsOn("passwordEncoder")
 public class AuthServiceImpl implements AuthService {
 
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
     private final UserService userService;
     private final UserRepository userRepository;
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private final RefreshTokenService refreshTokenService;
     private final OAuth2AccountRepository oAuth2AccountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final UserCache userCache;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final PasswordRehasher passwordRehasher;
+    private final RefreshResultCache refreshResultCache;
+
+    private volatile String userNotFoundPasswordHash;
 
     @Override
     @Transactional
@@ -95,33 +110,53 @@ public class AuthServiceImpl implements AuthService {
         return refreshTokenService.createRefreshToken(user);
     }
 
+    /**
+     * Authenticates against one user snapshot and issues both tokens from it.
+     *
+     * <p>
+     * The snapshot comes from the user cache, or from a single query that
+     * fetches the user with their roles. The cache does not hold password
+     * hashes, so the hash is read by id on every login. The only write on the request path is
+     * the refresh token insert, which references the user by id without
+     * loading it; the last login time is buffered by
+     * {@link LastLoginRecorder} and written in a later batch, and a hash
+     * below the current encoder settings is replaced in the background by
+     * {@link PasswordRehasher}.
+     *
+     * <p>
+     * Unknown users, users without a password and wrong passwords all fail
+     * with the same exception after a password check, like
+     * DaoAuthenticationProvider, so responses do not reveal which emails are
+     * registered. Activation is checked only once the password matched.
+     */
     @Override
     @Transactional
     public AuthResponseDto login(LoginRequestDto request) {
-        // Authenticate the user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        // Get user details
-        User user = userService.getUserByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + request.getEmail()));
-
-        // Check if user is activated
+        CachedUser user = userCache.findByEmail(request.getEmail());
+        String passwordHash = user != null
+                ? userRepository.findPasswordHashById(user.getId()).orElse(null)
+                : null;
+        if (passwordHash == null) {
+            passwordEncoder.matches(request.getPassword(), userNotFoundPasswordHash());
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (!passwordEncoder.matches(request.getPassword(), passwordHash)) {
+            throw new BadCredentialsException("Bad credentials");
+        }
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User account is not activated");
         }
 
-        // Generate tokens
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetails userDetails = user.toUserDetails();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities()));
+
         String accessToken = jwtService.generateToken(userDetails, user.getId());
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(
+                userRepository.getReferenceById(user.getId()));
 
-        // Update last login time
-        userService.updateLastLogin(user.getId(), LocalDateTime.now());
+        lastLoginRecorder.record(user.getId(), LocalDateTime.now());
+        passwordRehasher.rehashIfNeeded(user, passwordHash, request.getPassword());
 
         return AuthResponseDto.builder()
                 .accessToken(accessToken)
@@ -132,41 +167,86 @@ public class AuthServiceImpl implements AuthService {
                 .build();
     }
 
+    /**
+     * A hash to check passwords against when the user does not exist, so the
+     * response takes as long as for a wrong password.
+     */
+    private String userNotFoundPasswordHash() {
+        String hash = userNotFoundPasswordHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
+            userNotFoundPasswordHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Rotates the refresh token with one atomic store operation, which
+     * revokes the presented token, stores its replacement and returns the
+     * user. Only one of several concurrent refreshes with the same token can
+     * rotate it, and nothing here needs a database transaction.
+     *
+     * <p>
+     * The issued pair is kept in {@link RefreshResultCache} for a short grace
+     * period, and duplicates presenting the rotated token get the same pair
+     * back without writing anything, whether they arrive after the rotation
+     * or lost the race to rotate.
+     */
     @Override
-    @Transactional
     public AuthResponseDto refreshToken(TokenRefreshRequestDto request) {
         String requestRefreshToken = request.getRefreshToken();
+        Optional<AuthResponseDto> previous = refreshResultCache.get(requestRefreshToken);
+        if (previous.isPresent()) {
+            return previous.get();
+        }
 
-        RefreshToken refreshToken = refreshTokenService.findByToken(requestRefreshToken)
-                .orElseThrow(() -> new InvalidTokenException("Refresh token not found"));
-
-        refreshToken = refreshTokenService.verifyExpiration(refreshToken);
-
-        User user = refreshToken.getUser();
-
-        // Revoke the used refresh token and create a new one
-        refreshTokenService.revokeToken(requestRefreshToken);
-        RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
+        RotatedRefreshToken rotated;
+        try {
+            rotated = refreshTokenService.rotate(requestRefreshToken);
+        } catch (RefreshTokenReusedException e) {
+            // A concurrent refresh may have rotated the token and not stored its result yet
+            return refreshResultCache.await(requestRefreshToken).orElseThrow(() -> e);
+        }
+        CachedUser user = rotated.getUser();
 
         // Generate a new access token
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetails userDetails = user.toUserDetails();
         String accessToken = jwtService.generateToken(userDetails, user.getId());
 
-        return AuthResponseDto.builder()
+        AuthResponseDto response = AuthResponseDto.builder()
                 .accessToken(accessToken)
-                .refreshToken(newRefreshToken.getToken())
+                .refreshToken(rotated.getRefreshToken().getToken())
                 .tokenType("Bearer")
                 .userId(user.getId())
                 .email(user.getEmail())
                 .build();
+        refreshResultCache.put(requestRefreshToken, response);
+        return response;
     }
 
     @Override
-    @Transactional
     public void logout(String refreshToken) {
         refreshTokenService.revokeToken(refreshToken);
     }
 
+    @Override
+    public void logout(String refreshToken, String accessToken) {
+        logout(refreshToken);
+
+        if (accessToken == null) {
+            return;
+        }
+        try {
+            VerifiedToken token = jwtService.parseToken(accessToken);
+            if (token.getTokenId() != null && !token.isRefreshToken()) {
+                accessTokenDenylist.revokeToken(token.getTokenId(), token.getExpiration());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            // An expired or invalid access token no longer needs revoking
+            log.debug("Access token presented at logout was not revoked: {}", e.getMessage());
+        }
+    }
+
     @Override
     @Transactional
     public void logoutAllDevices(UUID userId) {
@@ -174,6 +254,7 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
         refreshTokenService.revokeAllUserTokens(user);
+        userService.incrementTokenVersion(user.getId());
     }
 
     @Override
@@ -0,0 +1,178 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.shared.security.model.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for users' last login times.
+ *
+ * <p>
+ * {@link #record(UUID, LocalDateTime)} only puts the time in a map, keeping
+ * the latest per user, so logins never wait for a row update and repeated
+ * logins by one user cost a single write. The map is flushed as batched JDBC
+ * updates every {@code last-login.flush-interval} milliseconds, as soon as it
+ * holds {@code last-login.flush-size} users, and on shutdown.
+ *
+ * <p>
+ * {@code last_login_at} therefore lags logins by up to the flush interval,
+ * which the activity queries in CustomUserRepository tolerate. Cached user
+ * snapshots and other nodes' Hibernate copies keep the login time they were
+ * loaded with. User is mapped with {@code @DynamicUpdate}, so saving such a
+ * copy only writes the columns that changed and never puts an old login time
+ * back. Updates never move a user's time backwards, so flushes from several
+ * nodes can land in any order. A failed flush is retried on the next one, and
+ * times still buffered when the process dies are lost.
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder {
+
+    static final String UPDATE_SQL = "UPDATE users SET last_login_at = ? WHERE id = ?"
+            + " AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Executor taskExecutor;
+    private final int flushSize;
+
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Qualifier("taskExecutor") Executor taskExecutor,
+            @Value("${last-login.flush-size:500}") int flushSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.taskExecutor = taskExecutor;
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * @param userId    The user who logged in
+     * @param loginTime The login time
+     */
+    public void record(UUID userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (previous, current) -> current.isAfter(previous) ? current : previous);
+
+        if (pending.size() >= flushSize && !flushLock.isLocked()) {
+            try {
+                taskExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // The scheduled flush picks the entries up
+                log.debug("Could not start an early last login flush: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes every buffered login time. Concurrent calls return immediately
+     * while a flush is running.
+     *
+     * @return The number of users whose time was written
+     */
+    @Scheduled(fixedDelayString = "${last-login.flush-interval:5000}")
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a running flush, then writes whatever is left.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            int flushed = writePending();
+            if (!pending.isEmpty()) {
+                log.warn("Could not write {} last login times at shutdown", pending.size());
+            } else if (flushed > 0) {
+                log.info("Wrote {} last login times at shutdown", flushed);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private int writePending() {
+        int written = 0;
+        while (!pending.isEmpty()) {
+            List<Map.Entry<UUID, LocalDateTime>> batch = takeBatch();
+            if (batch.isEmpty() || !write(batch)) {
+                break;
+            }
+            written += batch.size();
+        }
+        return written;
+    }
+
+    /**
+     * Removes up to {@code flushSize} entries. A login recorded after its
+     * user's entry was taken starts a new entry for the next batch.
+     */
+    private List<Map.Entry<UUID, LocalDateTime>> takeBatch() {
+        List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(Math.min(flushSize, pending.size()));
+        for (UUID userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.add(Map.entry(userId, loginTime));
+                if (batch.size() == flushSize) {
+                    break;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private boolean write(List<Map.Entry<UUID, LocalDateTime>> batch) {
+        List<Object[]> arguments = new ArrayList<>(batch.size());
+        for (Map.Entry<UUID, LocalDateTime> entry : batch) {
+            Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+            arguments.add(new Object[] { loginTime, entry.getKey(), loginTime });
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, arguments);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} last login times, retrying on the next flush: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            return false;
+        }
+
+        // JDBC bypasses Hibernate, so drop this node's cached copies of the rows
+        for (Map.Entry<UUID, LocalDateTime> entry : batch) {
+            entityManagerFactory.getCache().evict(User.class, entry.getKey());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,244 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftchat.auth_service.event.UserCreatedEvent;
+import com.swiftchat.auth_service.model.OutboxEvent;
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes {@link OutboxEvent}s to Kafka, so requests that produce events
+ * only write a row and never wait for the broker.
+ *
+ * <p>
+ * Every {@code outbox.relay.interval} milliseconds each replica reads the
+ * oldest event by primary key, so an empty outbox costs one index probe and
+ * no writes. If there is one, a replica takes the {@code outbox-relay} lease
+ * in {@code job_locks} and reads up to
+ * {@code outbox.relay.max-batches} batches of {@code outbox.relay.batch-size}
+ * events, oldest first. A batch is sent without waiting between records, so
+ * the producer groups them, then the relay waits up to
+ * {@code outbox.relay.send-timeout} milliseconds for the acknowledgements and
+ * deletes the acknowledged events. The lease lasts
+ * {@code outbox.relay.lock-lease} seconds, and no record is sent once less
+ * than the send timeout is left of it, so a run never outlives its lease.
+ * Records are keyed by
+ * {@link OutboxEvent#getMessageKey()}, the user id, so one user's events stay
+ * on one partition in order.
+ *
+ * <p>
+ * Delivery is at least once: an event whose acknowledgement is lost, or whose
+ * row cannot be deleted, is sent again by a later run. A failed send ends the
+ * run, and the next one retries from the oldest event. A send that fails
+ * synchronously, typically after blocking for the producer's
+ * {@code max.block.ms}, also stops the batch, since every later record would
+ * block as long. Payloads are
+ * {@link UserCreatedEvent}s, the only event written so far.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    static final String LOCK_NAME = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JobLockRepository jobLockRepository;
+    private final KafkaTemplate<String, UserCreatedEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long sendTimeoutMillis;
+    private final long lockLeaseSeconds;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            JobLockRepository jobLockRepository,
+            KafkaTemplate<String, UserCreatedEvent> kafkaTemplate,
+            ObjectMapper objectMapper,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.max-batches:20}") int maxBatches,
+            @Value("${outbox.relay.send-timeout:10000}") long sendTimeoutMillis,
+            @Value("${outbox.relay.lock-lease:300}") long lockLeaseSeconds,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        TimeGauge.builder("auth.outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Age of the oldest unpublished event when the relay last ran on this node")
+                .register(registry);
+        this.published = Counter.builder("auth.outbox.relay.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(registry);
+        this.failed = Counter.builder("auth.outbox.relay.failed")
+                .description("Outbox events Kafka did not acknowledge, retried on a later run")
+                .register(registry);
+    }
+
+    /**
+     * Publishes pending events if no other replica is doing so.
+     *
+     * @return The number of events published
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:500}")
+    public int relay() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(lockLeaseSeconds);
+        try {
+            if (outboxEventRepository.findFirstByOrderByIdAsc().isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            if (!jobLockRepository.tryAcquire(LOCK_NAME, owner, leaseUntil, now)) {
+                return 0;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not take the outbox relay lock: {}", e.getMessage());
+            return 0;
+        }
+
+        // Leaves room to wait for the last acknowledgements before the lease ends
+        LocalDateTime sendDeadline = leaseUntil.minus(Duration.ofMillis(sendTimeoutMillis));
+        int relayed = 0;
+        try {
+            for (int batches = 0; batches < maxBatches; batches++) {
+                List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+                recordLag(events);
+                if (events.isEmpty()) {
+                    break;
+                }
+                int sent = publish(events, sendDeadline);
+                relayed += sent;
+                if (sent < events.size()) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Outbox relay stopped after {} events, continuing on the next run: {}",
+                    relayed, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            release();
+        }
+        return relayed;
+    }
+
+    /**
+     * Sends a batch and deletes the events Kafka acknowledged.
+     *
+     * @return The number of acknowledged events, less than the batch size if
+     *         sending stopped early
+     */
+    private int publish(List<OutboxEvent> events, LocalDateTime sendDeadline) throws InterruptedException {
+        List<CompletableFuture<SendResult<String, UserCreatedEvent>>> futures = new ArrayList<>(events.size());
+        int rejected = 0;
+        for (OutboxEvent event : events) {
+            if (!LocalDateTime.now().isBefore(sendDeadline)) {
+                log.warn("Outbox relay lease is running out, leaving {} events for the next run",
+                        events.size() - futures.size());
+                break;
+            }
+            try {
+                futures.add(send(event));
+            } catch (RuntimeException e) {
+                log.warn("Could not send outbox event {}, stopping the batch: {}", event.getId(), e.getMessage());
+                rejected = 1;
+                break;
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Checked per event below
+        }
+
+        List<Long> acknowledged = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<?> future = futures.get(i);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                acknowledged.add(events.get(i).getId());
+            }
+        }
+        int unacknowledged = futures.size() - acknowledged.size() + rejected;
+        if (unacknowledged > 0) {
+            failed.increment(unacknowledged);
+            log.warn("Kafka did not acknowledge {} of {} outbox events, retrying on the next run",
+                    unacknowledged, futures.size() + rejected);
+        }
+
+        if (!acknowledged.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(acknowledged);
+            published.increment(acknowledged.size());
+        }
+        return acknowledged.size();
+    }
+
+    /**
+     * @throws RuntimeException If the producer rejects the record without
+     *                          returning a future
+     */
+    private CompletableFuture<SendResult<String, UserCreatedEvent>> send(OutboxEvent event) {
+        UserCreatedEvent payload;
+        try {
+            payload = objectMapper.readValue(event.getPayload(), UserCreatedEvent.class);
+        } catch (JsonProcessingException e) {
+            // It could never be sent, so it is dropped rather than retried forever
+            log.error("Dropping unreadable outbox event {}: {}", event.getId(), e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload);
+    }
+
+    private void recordLag(List<OutboxEvent> events) {
+        lagMillis.set(events.isEmpty()
+                ? 0
+                : Math.max(0, Duration.between(events.get(0).getCreatedAt(), LocalDateTime.now()).toMillis()));
+    }
+
+    private void release() {
+        try {
+            jobLockRepository.release(LOCK_NAME, owner, LocalDateTime.now());
+        } catch (DataAccessException e) {
+            // The lease runs out by itself
+            log.warn("Could not release the outbox relay lock: {}", e.getMessage());
+        }
+    }
+}
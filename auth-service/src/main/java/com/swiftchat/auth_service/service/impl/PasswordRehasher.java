@@ -0,0 +1,96 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.shared.security.crypto.PasswordHashingRejectedException;
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Rehashes passwords whose stored hash is weaker than the current encoder
+ * settings, using the plaintext a user just logged in with.
+ *
+ * <p>
+ * The check is a cheap look at the hash prefix; the new hash is computed and
+ * written on the task executor, so logins never wait for it. The update only
+ * applies while the row still holds the hash that was checked, so a password
+ * changed in the meantime is never overwritten. Work that cannot be
+ * scheduled, or is turned away by the hashing executor, is dropped and
+ * happens on the user's next login instead.
+ */
+@Slf4j
+@Component
+public class PasswordRehasher {
+
+    static final String UPDATE_SQL = "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?";
+
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserCache userCache;
+    private final Executor taskExecutor;
+
+    public PasswordRehasher(PasswordEncoder passwordEncoder,
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            UserCache userCache,
+            @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.userCache = userCache;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * @param user        The user who just logged in
+     * @param currentHash The stored hash the password was checked against
+     * @param rawPassword The password that matched the user's hash
+     */
+    public void rehashIfNeeded(CachedUser user, String currentHash, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> rehash(user.getId(), user.getEmail(), currentHash, rawPassword));
+        } catch (RejectedExecutionException e) {
+            log.debug("Could not schedule a password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    void rehash(UUID userId, String email, String currentHash, String rawPassword) {
+        String newHash;
+        try {
+            newHash = passwordEncoder.encode(rawPassword);
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("Skipped a password rehash for user {}: {}", userId, e.getMessage());
+            return;
+        }
+
+        int updated;
+        try {
+            updated = jdbcTemplate.update(UPDATE_SQL, newHash, userId, currentHash);
+        } catch (RuntimeException e) {
+            log.warn("Could not store the rehashed password of user {}: {}", userId, e.getMessage());
+            return;
+        }
+        if (updated == 0) {
+            // The password changed since the login read it
+            return;
+        }
+
+        // JDBC bypasses Hibernate, so drop the cached copies of the row
+        entityManagerFactory.getCache().evict(User.class, userId);
+        userCache.evict(userId, email);
+        log.debug("Rehashed the password of user {}", userId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenHashBackfillRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenHashBackfillRepository.Batch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fills in {@code refresh_tokens.token_hash} for rows written before the
+ * digest was stored, or by replicas still on the previous version during a
+ * rolling deploy. Once it finds no such rows and every replica is upgraded,
+ * the contract step of migration V5 can ship.
+ *
+ * <p>
+ * Every {@code refresh-token.hash-backfill.interval} milliseconds one replica
+ * takes the {@code refresh-token-hash-backfill} lease in {@code job_locks}
+ * and updates batches of at most {@code refresh-token.hash-backfill.batch-size}
+ * rows, pausing {@code refresh-token.hash-backfill.pause} milliseconds between
+ * them, for at most {@code refresh-token.hash-backfill.max-batches} batches a
+ * run. The lease lasts {@code refresh-token.hash-backfill.lock-lease} seconds.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class RefreshTokenHashBackfillJob {
+
+    static final String LOCK_NAME = "refresh-token-hash-backfill";
+
+    private final RefreshTokenHashBackfillRepository backfillRepository;
+    private final JobLockRepository jobLockRepository;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+    private final long lockLeaseSeconds;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final Counter updatedCounter;
+
+    public RefreshTokenHashBackfillJob(RefreshTokenHashBackfillRepository backfillRepository,
+            JobLockRepository jobLockRepository,
+            @Value("${refresh-token.hash-backfill.batch-size:1000}") int batchSize,
+            @Value("${refresh-token.hash-backfill.pause:100}") long pauseMillis,
+            @Value("${refresh-token.hash-backfill.max-batches:50}") int maxBatches,
+            @Value("${refresh-token.hash-backfill.lock-lease:600}") long lockLeaseSeconds,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.backfillRepository = backfillRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+        this.updatedCounter = Counter.builder("auth.refresh-token.hash-backfill.updated")
+                .description("Refresh token rows given a digest by the backfill job")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Runs one backfill if no other replica is running one.
+     *
+     * @return The number of rows updated
+     */
+    @Scheduled(fixedDelayString = "${refresh-token.hash-backfill.interval:60000}")
+    public int backfill() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (!jobLockRepository.tryAcquire(LOCK_NAME, owner, now.plusSeconds(lockLeaseSeconds), now)) {
+                log.debug("Refresh token hash backfill is running elsewhere");
+                return 0;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not take the refresh token hash backfill lock: {}", e.getMessage());
+            return 0;
+        }
+
+        int updated = 0;
+        try {
+            UUID from = null;
+            for (int batches = 1; batches <= maxBatches; batches++) {
+                Batch batch = backfillRepository.backfill(from, batchSize);
+                updated += batch.getUpdated();
+                updatedCounter.increment(batch.getUpdated());
+                if (batch.getLastId() == null) {
+                    break;
+                }
+                from = batch.getLastId();
+                if (pauseMillis > 0 && batches < maxBatches) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Refresh token hash backfill stopped after {} rows, continuing on the next run: {}",
+                    updated, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            release();
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled the digest of {} refresh tokens", updated);
+        }
+        return updated;
+    }
+
+    private void release() {
+        try {
+            jobLockRepository.release(LOCK_NAME, owner, LocalDateTime.now());
+        } catch (DataAccessException e) {
+            // The lease runs out by itself
+            log.warn("Could not release the refresh token hash backfill lock: {}", e.getMessage());
+        }
+    }
+}
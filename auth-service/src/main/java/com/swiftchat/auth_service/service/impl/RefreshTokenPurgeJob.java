@@ -0,0 +1,198 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.Batch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Deletes refresh tokens and token families that expired, and revoked ones
+ * older than {@code refresh-token.purge.revoked-retention} seconds, from the
+ * database stores. Redis expires its entries by itself.
+ *
+ * <p>
+ * Every {@code refresh-token.purge.interval} milliseconds one replica takes
+ * the {@code refresh-token-purge} lease in {@code job_locks} and deletes
+ * batches of at most {@code refresh-token.purge.batch-size} rows, pausing
+ * {@code refresh-token.purge.pause} milliseconds between them, so each
+ * statement holds its locks briefly and leaves room for other writes. A run
+ * stops after {@code refresh-token.purge.max-batches} batches and the next
+ * run continues; the lease lasts {@code refresh-token.purge.lock-lease}
+ * seconds, which has to cover a full run.
+ *
+ * <p>
+ * Revoked rows are kept a while so replayed tokens are reported as reuse.
+ * There is no revocation time, so retention counts from creation.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+    static final String LOCK_NAME = "refresh-token-purge";
+
+    private static final String[] TABLES = { RefreshTokenPurgeRepository.TOKENS,
+            RefreshTokenPurgeRepository.FAMILIES };
+
+    private final RefreshTokenPurgeRepository purgeRepository;
+    private final JobLockRepository jobLockRepository;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+    private final long revokedRetentionSeconds;
+    private final long lockLeaseSeconds;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer duration;
+
+    public RefreshTokenPurgeJob(RefreshTokenPurgeRepository purgeRepository,
+            JobLockRepository jobLockRepository,
+            @Value("${refresh-token.purge.batch-size:1000}") int batchSize,
+            @Value("${refresh-token.purge.pause:100}") long pauseMillis,
+            @Value("${refresh-token.purge.max-batches:50}") int maxBatches,
+            @Value("${refresh-token.purge.revoked-retention:86400}") long revokedRetentionSeconds,
+            @Value("${refresh-token.purge.lock-lease:600}") long lockLeaseSeconds,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.purgeRepository = purgeRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.revokedRetentionSeconds = revokedRetentionSeconds;
+        this.lockLeaseSeconds = lockLeaseSeconds;
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.duration = Timer.builder("auth.refresh-token.purge.duration")
+                .description("Time spent purging refresh tokens per run")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * Runs one purge if no other replica is running one.
+     *
+     * @return The number of rows deleted
+     */
+    @Scheduled(fixedDelayString = "${refresh-token.purge.interval:300000}")
+    public int purge() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (!jobLockRepository.tryAcquire(LOCK_NAME, owner, now.plusSeconds(lockLeaseSeconds), now)) {
+                log.debug("Refresh token purge is running elsewhere");
+                return 0;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not take the refresh token purge lock: {}", e.getMessage());
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        Run run = new Run();
+        try {
+            for (String table : TABLES) {
+                purgeExpired(run, table, now);
+                purgeRevoked(run, table, now.minusSeconds(revokedRetentionSeconds));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Refresh token purge stopped after {} rows, continuing on the next run: {}",
+                    run.deleted, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            release();
+        }
+
+        if (run.deleted > 0) {
+            log.info("Purged {} refresh token rows in {} batches", run.deleted, run.batches);
+        }
+        return run.deleted;
+    }
+
+    private void purgeExpired(Run run, String table, LocalDateTime expiredBefore) throws InterruptedException {
+        purgePass(run, deletedCounter(table, "expired"),
+                from -> purgeRepository.deleteExpired(table, from, expiredBefore, batchSize));
+    }
+
+    private void purgeRevoked(Run run, String table, LocalDateTime createdBefore) throws InterruptedException {
+        purgePass(run, deletedCounter(table, "revoked"),
+                from -> purgeRepository.deleteRevoked(table, from, createdBefore, batchSize));
+    }
+
+    /**
+     * Deletes batches, each starting where the previous one stopped, until
+     * one comes back short or the run's budget is spent.
+     */
+    private void purgePass(Run run, Counter counter, Function<LocalDateTime, Batch> deleteBatch)
+            throws InterruptedException {
+        LocalDateTime from = null;
+        while (run.hasBudget()) {
+            Batch batch = deleteBatch.apply(from);
+            if (!run.record(batch, counter)) {
+                return;
+            }
+            from = batch.getLastKey();
+        }
+    }
+
+    private Counter deletedCounter(String table, String reason) {
+        return Counter.builder("auth.refresh-token.purge.deleted")
+                .description("Refresh token rows deleted by the purge job")
+                .tag("table", table)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private void release() {
+        try {
+            jobLockRepository.release(LOCK_NAME, owner, LocalDateTime.now());
+        } catch (DataAccessException e) {
+            // The lease runs out by itself
+            log.warn("Could not release the refresh token purge lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rows deleted and batches used by one run.
+     */
+    private class Run {
+        private int deleted;
+        private int batches;
+
+        boolean hasBudget() {
+            return batches < maxBatches;
+        }
+
+        /**
+         * Counts a batch and pauses before the next one.
+         *
+         * @return Whether the pass may have more rows
+         */
+        boolean record(Batch batch, Counter counter) throws InterruptedException {
+            batches++;
+            deleted += batch.getDeleted();
+            counter.increment(batch.getDeleted());
+            if (batch.getLastKey() == null || batch.getDeleted() < batchSize) {
+                return false;
+            }
+            if (pauseMillis > 0 && hasBudget()) {
+                Thread.sleep(pauseMillis);
+            }
+            return true;
+        }
+    }
+}
@@ -1,100 +1,125 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.swiftchat.auth_service.cache.CachedUser;
 import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
 import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
 import com.swiftchat.shared.security.model.User;
-import com.swiftchat.auth_service.repository.RefreshTokenRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenStore;
 import com.swiftchat.auth_service.service.RefreshTokenService;
-import jakarta.transaction.Transactional;
+import com.swiftchat.auth_service.util.RandomUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
+/**
+ * Opaque refresh tokens on top of the configured {@link RefreshTokenStore},
+ * the default {@code refresh-token.format}. Tokens are 32 random bytes in
+ * base64url, and stores keep only their digest. Each store call is atomic on
+ * its own, so no method here needs a surrounding transaction.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "refresh-token.format", havingValue = "opaque", matchIfMissing = true)
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Value("${jwt.refresh-expiration}")
     private long refreshTokenDurationInSeconds;
 
     @Override
-    @Transactional
     public RefreshToken createRefreshToken(User user) {
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(RandomUtil.generateRefreshToken())
                 .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenDurationInSeconds))
                 .revoked(false)
                 .build();
 
-        return refreshTokenRepository.save(refreshToken);
+        return refreshTokenStore.save(refreshToken);
     }
 
     @Override
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenStore.findByToken(token);
+    }
+
+    @Override
+    public List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens) {
+        return refreshTokenStore.findAllByTokenInWithUser(tokens);
     }
 
     @Override
-    @Transactional
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.isExpired()) {
-            refreshTokenRepository.delete(token);
+            refreshTokenStore.delete(token);
             throw new InvalidTokenException("Refresh token expired. Please log in again.");
         }
 
         if (token.isRevoked()) {
-            throw new InvalidTokenException("Refresh token was revoked. Please log in again.");
+            throw new RefreshTokenReusedException("Refresh token was revoked. Please log in again.");
         }
 
         return token;
     }
 
     @Override
-    @Transactional
     public void revokeToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
-                .orElseThrow(() -> new InvalidTokenException("Refresh token not found"));
-
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
+        if (!refreshTokenStore.revoke(token)) {
+            throw new InvalidTokenException("Refresh token not found");
+        }
     }
 
+    /**
+     * The token is only read when the store rotated nothing, to tell the
+     * caller why. A token that is revoked but unexpired was most likely used
+     * twice, by a concurrent refresh or a replayed token.
+     */
     @Override
-    @Transactional
-    public void revokeAllUserTokens(User user) {
-        refreshTokenRepository.revokeAllUserTokens(user.getId());
+    public RotatedRefreshToken rotate(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        String replacement = RandomUtil.generateRefreshToken();
+        LocalDateTime replacementExpiry = now.plusSeconds(refreshTokenDurationInSeconds);
+
+        Optional<CachedUser> user = refreshTokenStore.rotate(token, replacement, replacementExpiry, now);
+        if (user.isPresent()) {
+            RefreshToken refreshToken = RefreshToken.builder()
+                    .user(user.get().toUser())
+                    .token(replacement)
+                    .expiryDate(replacementExpiry)
+                    .revoked(false)
+                    .build();
+            return new RotatedRefreshToken(refreshToken, user.get());
+        }
+
+        RefreshToken refreshToken = refreshTokenStore.findByToken(token)
+                .orElseThrow(() -> new InvalidTokenException("Refresh token not found"));
+        if (refreshToken.isRevoked() && !refreshToken.isExpired()) {
+            log.warn("Revoked refresh token {} presented again", refreshToken.getId());
+        }
+        verifyExpiration(refreshToken);
+        // Valid again by now only if it expired exactly at the rotation's cut-off
+        throw new InvalidTokenException("Refresh token could not be rotated. Please log in again.");
     }
 
     @Override
-    public List<RefreshToken> findAllUserTokens(User user) {
-        return refreshTokenRepository.findAllByUser(user);
+    public void revokeAllUserTokens(User user) {
+        refreshTokenStore.revokeAllByUserId(user.getId());
     }
 
     @Override
-    @Transactional
-    @Scheduled(fixedRate = 86400000) // Run daily
-    public int deleteExpiredTokens() {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            List<RefreshToken> expiredTokens = refreshTokenRepository.findAllExpiredTokens(now);
-            log.info("Found {} expired refresh tokens to delete", expiredTokens.size());
-            refreshTokenRepository.deleteAllExpiredTokens(now);
-            return expiredTokens.size();
-        } catch (Exception e) {
-            log.error("Error while deleting expired tokens", e);
-            return 0;
-        }
+    public List<RefreshToken> findAllUserTokens(User user) {
+        return refreshTokenStore.findAllByUserId(user.getId());
     }
 
     @Override
@@ -106,6 +131,6 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     @Override
     public long countActiveTokens(User user) {
-        return refreshTokenRepository.countByUserAndRevokedFalseAndExpiryDateAfter(user, LocalDateTime.now());
+        return refreshTokenStore.countActiveByUserId(user.getId(), LocalDateTime.now());
     }
 }
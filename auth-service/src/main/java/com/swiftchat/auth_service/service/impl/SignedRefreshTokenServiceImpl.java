@@ -0,0 +1,268 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
+import com.swiftchat.auth_service.repository.RefreshTokenFamilyStore;
+import com.swiftchat.auth_service.service.RefreshTokenService;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Refresh tokens as signed JWTs from {@link JwtService}, enabled with
+ * {@code refresh-token.format=jwt}.
+ *
+ * <p>
+ * Each token carries its {@code jti}, the user id and a family id, and its
+ * signature and expiry are checked locally, so forged, malformed and expired
+ * tokens are rejected without touching storage. The server keeps one
+ * {@link RefreshTokenFamily} per login instead of one row per token: a
+ * rotation moves the family to the next {@code jti}, which makes every
+ * earlier token of the family unusable, and logging out revokes the family.
+ *
+ * <p>
+ * Tokens themselves are not stored, so {@link RefreshToken} values returned
+ * here are views of the family: their id is the family id, and their token
+ * is only set when it was passed in.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "refresh-token.format", havingValue = "jwt")
+public class SignedRefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final JwtService jwtService;
+    private final RefreshTokenFamilyStore refreshTokenFamilyStore;
+    private final UserCache userCache;
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshTokenDurationInSeconds;
+
+    @Override
+    public RefreshToken createRefreshToken(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshTokenFamily family = RefreshTokenFamily.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .tokenId(UUID.randomUUID())
+                .expiryDate(now.plusSeconds(refreshTokenDurationInSeconds))
+                .createdAt(now)
+                .build();
+        String token = jwtService.generateRefreshToken(user, user.getId(), family.getTokenId(), family.getId());
+        refreshTokenFamilyStore.create(family);
+
+        return toRefreshToken(family, token, user);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        return findAllByTokenInWithUser(List.of(token)).stream().findFirst();
+    }
+
+    @Override
+    public List<RefreshToken> findAllByTokenInWithUser(Collection<String> tokens) {
+        Map<String, VerifiedToken> verifiedTokens = new LinkedHashMap<>();
+        Set<UUID> familyIds = new HashSet<>();
+        for (String token : tokens) {
+            VerifiedToken verified = parse(token);
+            if (verified != null) {
+                verifiedTokens.put(token, verified);
+                familyIds.add(verified.getFamilyId());
+            }
+        }
+        if (familyIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, RefreshTokenFamily> families = new HashMap<>();
+        for (RefreshTokenFamily family : refreshTokenFamilyStore.findAllById(familyIds)) {
+            families.put(family.getId(), family);
+        }
+
+        List<RefreshToken> found = new ArrayList<>(verifiedTokens.size());
+        for (Map.Entry<String, VerifiedToken> entry : verifiedTokens.entrySet()) {
+            VerifiedToken verified = entry.getValue();
+            RefreshTokenFamily family = families.get(verified.getFamilyId());
+            CachedUser user = family != null ? userCache.findById(family.getUserId()) : null;
+            if (user == null) {
+                continue;
+            }
+            RefreshToken refreshToken = toRefreshToken(family, entry.getKey(), user.toUser());
+            // Only the family's current token is usable, and only until the token itself expires
+            refreshToken.setRevoked(family.isRevoked() || !family.getTokenId().equals(verified.getTokenUuid()));
+            refreshToken.setExpiryDate(LocalDateTime.ofInstant(verified.getExpiration(), ZoneId.systemDefault()));
+            found.add(refreshToken);
+        }
+        return found;
+    }
+
+    /**
+     * Expired families are left to {@link RefreshTokenPurgeJob}.
+     */
+    @Override
+    public RefreshToken verifyExpiration(RefreshToken token) {
+        if (token.isExpired()) {
+            throw new InvalidTokenException("Refresh token expired. Please log in again.");
+        }
+
+        if (token.isRevoked()) {
+            throw new RefreshTokenReusedException("Refresh token was revoked. Please log in again.");
+        }
+
+        return token;
+    }
+
+    /**
+     * Revokes the token's whole family. An expired token is accepted and
+     * ignored, as nothing it could be exchanged for is left.
+     */
+    @Override
+    public void revokeToken(String token) {
+        VerifiedToken verified;
+        try {
+            verified = verify(token);
+        } catch (InvalidTokenException e) {
+            if (e.getCause() instanceof ExpiredJwtException) {
+                return;
+            }
+            throw e;
+        }
+        if (!refreshTokenFamilyStore.revoke(verified.getFamilyId())) {
+            throw new InvalidTokenException("Refresh token not found");
+        }
+    }
+
+    /**
+     * The family is only read when it could not be advanced, to tell the
+     * caller why. A token that is not the family's current one was most
+     * likely used twice, by a concurrent refresh or a replayed token.
+     */
+    @Override
+    public RotatedRefreshToken rotate(String token) {
+        VerifiedToken verified = verify(token);
+        LocalDateTime now = LocalDateTime.now();
+        UUID nextTokenId = UUID.randomUUID();
+        LocalDateTime expiry = now.plusSeconds(refreshTokenDurationInSeconds);
+
+        Optional<CachedUser> user = refreshTokenFamilyStore.advance(verified.getFamilyId(), verified.getTokenUuid(),
+                nextTokenId, expiry, now);
+        if (user.isPresent()) {
+            User owner = user.get().toUser();
+            String replacement = jwtService.generateRefreshToken(owner, owner.getId(), nextTokenId,
+                    verified.getFamilyId());
+            RefreshToken refreshToken = RefreshToken.builder()
+                    .id(verified.getFamilyId())
+                    .user(owner)
+                    .token(replacement)
+                    .expiryDate(expiry)
+                    .revoked(false)
+                    .build();
+            return new RotatedRefreshToken(refreshToken, user.get());
+        }
+
+        RefreshTokenFamily family = refreshTokenFamilyStore.findAllById(List.of(verified.getFamilyId())).stream()
+                .findFirst()
+                .orElseThrow(() -> new InvalidTokenException("Refresh token not found"));
+        if (family.isExpired(now)) {
+            throw new InvalidTokenException("Refresh token expired. Please log in again.");
+        }
+        if (!family.isRevoked()) {
+            log.warn("Superseded refresh token of family {} presented again", family.getId());
+        }
+        throw new RefreshTokenReusedException("Refresh token was revoked. Please log in again.");
+    }
+
+    @Override
+    public void revokeAllUserTokens(User user) {
+        refreshTokenFamilyStore.revokeAllByUserId(user.getId());
+    }
+
+    /**
+     * @return One value per family, without the token
+     */
+    @Override
+    public List<RefreshToken> findAllUserTokens(User user) {
+        List<RefreshToken> tokens = new ArrayList<>();
+        for (RefreshTokenFamily family : refreshTokenFamilyStore.findAllByUserId(user.getId())) {
+            tokens.add(toRefreshToken(family, null, user));
+        }
+        return tokens;
+    }
+
+    @Override
+    public boolean isTokenValid(String token) {
+        return findByToken(token)
+                .map(t -> !t.isExpired() && !t.isRevoked())
+                .orElse(false);
+    }
+
+    @Override
+    public long countActiveTokens(User user) {
+        return refreshTokenFamilyStore.countActiveByUserId(user.getId(), LocalDateTime.now());
+    }
+
+    /**
+     * Checks the signature, expiry and type of a token without any lookup.
+     *
+     * @throws InvalidTokenException If the token is not a usable signed
+     *                               refresh token
+     */
+    private VerifiedToken verify(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.parseToken(token);
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException("Refresh token expired. Please log in again.", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid refresh token", e);
+        }
+        if (!verified.isRefreshToken() || verified.getFamilyId() == null || verified.getTokenUuid() == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            return verify(token);
+        } catch (InvalidTokenException e) {
+            return null;
+        }
+    }
+
+    private static RefreshToken toRefreshToken(RefreshTokenFamily family, String token, User user) {
+        return RefreshToken.builder()
+                .id(family.getId())
+                .token(token)
+                .user(user)
+                .expiryDate(family.getExpiryDate())
+                .revoked(family.isRevoked())
+                .createdAt(family.getCreatedAt())
+                .build();
+    }
+}
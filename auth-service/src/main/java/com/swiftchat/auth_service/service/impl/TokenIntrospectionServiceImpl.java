@@ -0,0 +1,141 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.service.RefreshTokenService;
+import com.swiftchat.auth_service.service.TokenIntrospectionService;
+import com.swiftchat.shared.security.introspection.TokenIntrospection;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.TokenRevocationCheck;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.model.User;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * The checks {@code JwtAuthenticationFilter} runs, so an access token is
+     * only reported active while it would still authenticate a request.
+     */
+    private final List<TokenRevocationCheck> revocationChecks;
+
+    @Override
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        // JWTs are verified locally; opaque refresh tokens, and signed ones that
+        // belong to a family, also need their stored state and are resolved together
+        Map<String, VerifiedToken> verifiedTokens = new HashMap<>();
+        Set<String> refreshTokens = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (!isJwt(token)) {
+                refreshTokens.add(token);
+                continue;
+            }
+            VerifiedToken verified = verify(token);
+            verifiedTokens.put(token, verified);
+            if (verified != null && verified.getFamilyId() != null) {
+                refreshTokens.add(token);
+            }
+        }
+        Map<String, RefreshToken> storedTokens = findRefreshTokens(refreshTokens);
+
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(refreshTokens.contains(token)
+                    ? introspectRefreshToken(storedTokens.get(token))
+                    : introspectJwt(verifiedTokens.get(token)));
+        }
+        log.debug("Introspected {} tokens ({} refresh tokens)", tokens.size(), refreshTokens.size());
+        return results;
+    }
+
+    private Map<String, RefreshToken> findRefreshTokens(Set<String> tokens) {
+        Map<String, RefreshToken> byToken = new HashMap<>();
+        if (tokens.isEmpty()) {
+            return byToken;
+        }
+        for (RefreshToken refreshToken : refreshTokenService.findAllByTokenInWithUser(tokens)) {
+            byToken.put(refreshToken.getToken(), refreshToken);
+        }
+        return byToken;
+    }
+
+    private VerifiedToken verify(String token) {
+        try {
+            return jwtService.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private TokenIntrospection introspectJwt(VerifiedToken verified) {
+        if (verified == null || isRevoked(verified)) {
+            return TokenIntrospection.inactive();
+        }
+
+        return TokenIntrospection.builder()
+                .active(true)
+                .tokenType(verified.isRefreshToken()
+                        ? TokenIntrospection.REFRESH_TOKEN_TYPE
+                        : TokenIntrospection.ACCESS_TOKEN_TYPE)
+                .subject(verified.getSubject())
+                .userId(verified.getUserId())
+                .roles(verified.getAuthorities())
+                .expiresAt(verified.getExpiration())
+                .build();
+    }
+
+    private boolean isRevoked(VerifiedToken verified) {
+        // Refresh tokens are checked against their stored state instead
+        if (verified.isRefreshToken()) {
+            return false;
+        }
+        for (TokenRevocationCheck check : revocationChecks) {
+            if (check.check(verified) == TokenRevocationCheck.Decision.REJECT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TokenIntrospection introspectRefreshToken(RefreshToken refreshToken) {
+        if (refreshToken == null || !refreshToken.isValid()) {
+            return TokenIntrospection.inactive();
+        }
+
+        User user = refreshToken.getUser();
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+
+        return TokenIntrospection.builder()
+                .active(true)
+                .tokenType(TokenIntrospection.REFRESH_TOKEN_TYPE)
+                .subject(user.getEmail())
+                .userId(user.getId())
+                .roles(roles)
+                .expiresAt(refreshToken.getExpiryDate().atZone(ZoneId.systemDefault()).toInstant())
+                .build();
+    }
+
+    private boolean isJwt(String token) {
+        return token.indexOf('.') >= 0;
+    }
+}
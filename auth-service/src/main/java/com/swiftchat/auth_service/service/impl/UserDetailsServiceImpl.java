@@ -1,46 +1,29 @@
 package com.swiftchat.auth_service.service.impl;
 
-import com.swiftchat.shared.security.model.Role;
-import com.swiftchat.shared.security.model.User;
-import com.swiftchat.auth_service.repository.UserRepository;
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    log.error("User not found with email: {}", email);
-                    return new UsernameNotFoundException("User not found with email: " + email);
-                });
-
-        List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
-                .map(Role::getName)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        CachedUser user = userCache.findByEmail(email);
+        if (user == null) {
+            log.error("User not found with email: {}", email);
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                user.isActivated(),
-                true, // account non-expired
-                true, // credentials non-expired
-                true, // account non-locked
-                authorities);
+        return user.toUserDetails();
     }
 }
@@ -1,5 +1,7 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
 import com.swiftchat.auth_service.dto.UserCreateDto;
 import com.swiftchat.auth_service.dto.UserDto;
 import com.swiftchat.auth_service.dto.UserUpdateDto;
@@ -9,26 +11,30 @@ import com.swiftchat.auth_service.exception.UserAlreadyExistsException;
 import com.swiftchat.shared.security.model.Role;
 import com.swiftchat.auth_service.model.RoleName;
 import com.swiftchat.shared.security.model.User;
+import com.swiftchat.auth_service.model.OutboxEvent;
 import com.swiftchat.auth_service.model.UserRole;
+import com.swiftchat.auth_service.repository.OutboxEventRepository;
 import com.swiftchat.auth_service.repository.RoleRepository;
 import com.swiftchat.auth_service.repository.UserRepository;
 import com.swiftchat.auth_service.repository.UserRoleRepository;
+import com.swiftchat.auth_service.repository.UserTokenVersionRepository;
 import com.swiftchat.auth_service.service.EmailService;
 import com.swiftchat.auth_service.service.UserService;
 import com.swiftchat.auth_service.util.RandomUtil;
+import com.swiftchat.shared.security.revocation.TokenVersionChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.DependsOn;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,9 +46,14 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserRoleRepository userRoleRepository;
+    private final UserTokenVersionRepository userTokenVersionRepository;
     private final PasswordEncoder passwordEncoder;
-    private final KafkaTemplate<String, UserCreatedEvent> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
+    private final LastLoginRecorder lastLoginRecorder;
 
     @Override
     @Transactional
@@ -85,12 +96,8 @@ public class UserServiceImpl implements UserService {
             log.warn("Failed to send activation email, continuing: {}", e.getMessage());
         }
 
-        // Publish user created event with graceful degradation
-        try {
-            publishUserCreatedEvent(user);
-        } catch (Exception e) {
-            log.warn("Failed to publish user creation event, continuing: {}", e.getMessage());
-        }
+        // Committed together with the user, and published by OutboxRelay
+        publishUserCreatedEvent(user);
 
         log.info("Created new user: {}", user.getEmail());
         return user;
@@ -98,12 +105,14 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Optional<User> getUserById(UUID id) {
-        return userRepository.findById(id);
+        return Optional.ofNullable(userCache.findById(id))
+                .map(CachedUser::toUser);
     }
 
     @Override
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return Optional.ofNullable(userCache.findByEmail(email))
+                .map(CachedUser::toUser);
     }
 
     @Override
@@ -121,6 +130,7 @@ public class UserServiceImpl implements UserService {
             user.setPasswordHash(passwordEncoder.encode(userUpdateDto.getPassword()));
         }
 
+        userCache.evict(user);
         return userRepository.save(user);
     }
 
@@ -131,6 +141,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         userRepository.delete(user);
+        userCache.evict(user);
         log.info("Deleted user: {}", user.getEmail());
     }
 
@@ -149,6 +160,7 @@ public class UserServiceImpl implements UserService {
         user.setActivated(true);
         user.setActivationKey(null);
         userRepository.save(user);
+        userCache.evict(user);
         log.info("Activated user: {}", user.getEmail());
     }
 
@@ -180,16 +192,16 @@ public class UserServiceImpl implements UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setResetKey(null);
         userRepository.save(user);
+        incrementTokenVersion(user);
         log.info("Password reset completed for user: {}", user.getEmail());
     }
 
+    /**
+     * Buffers the time; {@link LastLoginRecorder} writes it in a later batch.
+     */
     @Override
-    @Transactional
     public void updateLastLogin(UUID id, LocalDateTime loginTime) {
-        userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-
-        userRepository.updateLastLogin(id, loginTime);
+        lastLoginRecorder.record(id, loginTime);
     }
 
     @Override
@@ -264,6 +276,9 @@ public class UserServiceImpl implements UserService {
                     .map(User::getRoles)
                     .orElse(new HashSet<>())));
         }
+
+        // Tokens embed roles, so tokens with the old roles must stop working
+        incrementTokenVersion(user);
     }
 
     @Override
@@ -279,6 +294,7 @@ public class UserServiceImpl implements UserService {
                 .ifPresent(userRole -> {
                     userRoleRepository.delete(userRole);
                     user.getRoles().remove(role);
+                    incrementTokenVersion(user);
                 });
     }
 
@@ -287,31 +303,46 @@ public class UserServiceImpl implements UserService {
         return userRepository.hasRole(userId, roleName);
     }
 
-    private void publishUserCreatedEvent(User user) {
-        try {
-            UserCreatedEvent event = UserCreatedEvent.builder()
-                    .userId(user.getId())
-                    .email(user.getEmail())
-                    .timestamp(System.currentTimeMillis())
-                    .build();
+    @Override
+    @Transactional
+    public void incrementTokenVersion(UUID userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-            CompletableFuture<SendResult<String, UserCreatedEvent>> future = kafkaTemplate.send("user-created", event);
+        incrementTokenVersion(user);
+    }
 
-            future.whenComplete((result, ex) -> {
-                if (ex == null) {
-                    log.debug("Published user created event for {}", user.getEmail());
-                } else {
-                    log.warn("Unable to publish user created event: {}", ex.getMessage());
-                }
-            });
+    private void incrementTokenVersion(User user) {
+        Long tokenVersion = userTokenVersionRepository.increment(user.getId());
+        if (tokenVersion == null) {
+            throw new ResourceNotFoundException("User not found with id: " + user.getId());
+        }
+        // The row stays locked until commit, so flushing the entity writes the same version back
+        user.setTokenVersion(tokenVersion);
+        userCache.evict(user);
+        // Nodes start rejecting older tokens once the transaction commits
+        eventPublisher.publishEvent(new TokenVersionChangedEvent(user.getId(), tokenVersion));
+        log.debug("Incremented token version for user {} to {}", user.getId(), tokenVersion);
+    }
 
-            // Don't block the thread waiting for Kafka
-        } catch (Exception e) {
-            // Log error but don't prevent user creation
-            log.error("Failed to publish user created event: {}", e.getMessage());
-            if (log.isDebugEnabled()) {
-                log.debug("Kafka error details", e);
-            }
+    private void publishUserCreatedEvent(User user) {
+        UserCreatedEvent event = UserCreatedEvent.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user created event", e);
         }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic("user-created")
+                .messageKey(user.getId().toString())
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build());
     }
 }
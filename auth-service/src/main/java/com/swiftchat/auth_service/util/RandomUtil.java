@@ -1,12 +1,14 @@
 package com.swiftchat.auth_service.util;
 
 import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Random;
 
 public class RandomUtil {
 
     private static final int ACTIVATION_KEY_LENGTH = 20;
     private static final int RESET_KEY_LENGTH = 20;
+    private static final int REFRESH_TOKEN_BYTES = 32;
     private static final String ALPHA_NUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
     private static final Random RANDOM = new SecureRandom();
 
@@ -22,6 +24,16 @@ public class RandomUtil {
         return generateRandomString(RESET_KEY_LENGTH);
     }
 
+    /**
+     * @return {@value #REFRESH_TOKEN_BYTES} random bytes as unpadded base64url,
+     *         43 characters
+     */
+    public static String generateRefreshToken() {
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
     private static String generateRandomString(int length) {
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
@@ -0,0 +1,53 @@
+package com.swiftchat.auth_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digests of opaque tokens, which are stored and looked up in place
+ * of the tokens themselves, so a copy of the storage holds nothing a client
+ * could present. Tokens carry at least 122 random bits, so an unsalted fast
+ * hash is enough: there is nothing to guess.
+ */
+public class TokenDigest {
+
+    public static final int LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TokenDigest() {
+        // Utility class, should not be instantiated
+    }
+
+    /**
+     * @param token A token as presented by the client
+     * @return The {@value #LENGTH}-byte digest of its UTF-8 bytes
+     */
+    public static byte[] digest(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A token as presented by the client
+     * @return The digest as unpadded base64url, for text keys
+     */
+    public static String encodedDigest(String token) {
+        return encode(digest(token));
+    }
+
+    public static String encode(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    public static byte[] decode(String encodedDigest) {
+        return Base64.getUrlDecoder().decode(encodedDigest);
+    }
+}
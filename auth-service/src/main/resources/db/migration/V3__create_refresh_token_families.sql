@@ -0,0 +1,11 @@
+CREATE TABLE refresh_token_families (
+  id UUID PRIMARY KEY,
+  user_id UUID REFERENCES users(id) NOT NULL,
+  token_id UUID NOT NULL,
+  expiry_date TIMESTAMP NOT NULL,
+  revoked BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_refresh_token_families_user_id ON refresh_token_families (user_id);
+CREATE INDEX idx_refresh_token_families_expiry_date ON refresh_token_families (expiry_date);
@@ -0,0 +1,14 @@
+-- Leases that keep scheduled jobs on one replica at a time
+CREATE TABLE job_locks (
+  name VARCHAR(64) PRIMARY KEY,
+  locked_until TIMESTAMP NOT NULL,
+  locked_by VARCHAR(255)
+);
+
+INSERT INTO job_locks (name, locked_until) VALUES ('refresh-token-purge', '1970-01-01 00:00:00');
+
+-- Keyset walks of the purge job
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+CREATE INDEX idx_refresh_tokens_revoked_created_at ON refresh_tokens (created_at) WHERE revoked = true;
+CREATE INDEX idx_refresh_token_families_revoked_created_at ON refresh_token_families (created_at)
+  WHERE revoked = true;
@@ -0,0 +1,15 @@
+-- Refresh tokens are looked up by the SHA-256 digest of the token instead of the token itself.
+-- This is the expand step: token_hash starts out nullable, new rows get both columns, and
+-- RefreshTokenHashBackfillJob fills in the rows written before (or by replicas still on the old version).
+-- Lookups match token_hash, or token where token_hash is still null.
+--
+-- The contract step ships in a later release, once no row has a null token_hash and every replica
+-- writes it:
+--   ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+--   ALTER TABLE refresh_tokens ADD CONSTRAINT ck_refresh_tokens_token_hash_length
+--     CHECK (octet_length(token_hash) = 32);
+--   DROP INDEX idx_refresh_tokens_token_hash_missing;
+--   ALTER TABLE refresh_tokens DROP COLUMN token;
+ALTER TABLE refresh_tokens ADD COLUMN token_hash BYTEA;
+
+INSERT INTO job_locks (name, locked_until) VALUES ('refresh-token-hash-backfill', '1970-01-01 00:00:00');
@@ -0,0 +1,10 @@
+-- Kafka messages written with the change that produced them, published by the outbox relay
+CREATE TABLE outbox_events (
+  id BIGSERIAL PRIMARY KEY,
+  topic VARCHAR(255) NOT NULL,
+  message_key VARCHAR(255) NOT NULL,
+  payload TEXT NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO job_locks (name, locked_until) VALUES ('outbox-relay', '1970-01-01 00:00:00');
@@ -0,0 +1,4 @@
+-- Built without blocking writes to refresh_tokens; Flyway runs this migration outside a transaction.
+-- The partial index keeps the backfill's search for rows without a digest cheap, and empty once it is done.
+CREATE UNIQUE INDEX CONCURRENTLY uk_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+CREATE INDEX CONCURRENTLY idx_refresh_tokens_token_hash_missing ON refresh_tokens (id) WHERE token_hash IS NULL;
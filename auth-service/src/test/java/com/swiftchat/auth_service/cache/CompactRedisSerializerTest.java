@@ -0,0 +1,219 @@
+package com.swiftchat.auth_service.cache;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swiftchat.shared.security.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compact Redis Serializer Tests")
+class CompactRedisSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactRedisSerializer serializer;
+    private CachedUser user;
+
+    @BeforeEach
+    void setUp() {
+        json = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        serializer = new CompactRedisSerializer(json, new CachedUserCodec());
+
+        user = CachedUser.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .activated(true)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456789))
+                .lastLoginAt(null)
+                .tokenVersion(7)
+                .roles(List.of(new CachedUser.CachedRole(UUID.randomUUID(), "ROLE_USER"),
+                        new CachedUser.CachedRole(UUID.randomUUID(), "ROLE_ADMIN")))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Binary Entries")
+    class BinaryTests {
+
+        @Test
+        @DisplayName("Should round-trip a cached user")
+        void shouldRoundTripCachedUser() {
+            // Act
+            byte[] bytes = serializer.serialize(user);
+            Object result = serializer.deserialize(bytes);
+
+            // Assert
+            assertEquals(user, result);
+            assertEquals(CompactRedisSerializer.MARKER, bytes[0]);
+            assertTrue(bytes.length < json.serialize(user).length / 2);
+        }
+
+        @Test
+        @DisplayName("Should round-trip a user without optional fields")
+        void shouldRoundTripUserWithoutOptionalFields() {
+            // Arrange
+            CachedUser sparse = CachedUser.builder().id(UUID.randomUUID()).email("sparse@example.com")
+                    .roles(List.of()).build();
+
+            // Act
+            Object result = serializer.deserialize(serializer.serialize(sparse));
+
+            // Assert
+            assertEquals(sparse, result);
+        }
+
+        @Test
+        @DisplayName("Should read version 1 entries and drop their password hash")
+        void shouldReadVersionOneEntries() throws IOException {
+            // Arrange
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(CompactRedisSerializer.MARKER);
+            out.writeByte(CachedUserCodec.TYPE_ID);
+            out.writeByte(1);
+            out.writeBoolean(true);
+            out.writeLong(user.getId().getMostSignificantBits());
+            out.writeLong(user.getId().getLeastSignificantBits());
+            out.writeBoolean(true);
+            out.writeUTF(user.getEmail());
+            out.writeBoolean(true);
+            out.writeUTF("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0");
+            out.writeBoolean(user.isActivated());
+            out.writeBoolean(false);
+            out.writeBoolean(false);
+            out.writeLong(user.getTokenVersion());
+            out.writeShort(0);
+
+            // Act
+            CachedUser result = (CachedUser) serializer.deserialize(buffer.toByteArray());
+
+            // Assert
+            assertEquals(user.getId(), result.getId());
+            assertEquals(user.getEmail(), result.getEmail());
+            assertTrue(result.isActivated());
+            assertEquals(7, result.getTokenVersion());
+            assertEquals(List.of(), result.getRoles());
+        }
+
+        @Test
+        @DisplayName("Should not write the password hash of the cached user")
+        void shouldNotWritePasswordHash() {
+            // Arrange
+            String hash = "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0";
+            CachedUser fromEntity = CachedUser.from(User.builder()
+                    .id(user.getId())
+                    .email(user.getEmail())
+                    .passwordHash(hash)
+                    .roles(new HashSet<>())
+                    .build());
+
+            // Act
+            byte[] bytes = serializer.serialize(fromEntity);
+
+            // Assert
+            assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains(hash));
+            assertNull(fromEntity.toUser().getPasswordHash());
+        }
+
+        @Test
+        @DisplayName("Should reject entries written by a newer layout version")
+        void shouldRejectNewerLayoutVersion() {
+            // Arrange
+            byte[] bytes = serializer.serialize(user);
+            bytes[2] = (byte) (new CachedUserCodec().version() + 1);
+
+            // Act & Assert
+            assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+        }
+
+        @Test
+        @DisplayName("Should reject entries of an unknown type")
+        void shouldRejectUnknownType() {
+            // Arrange
+            byte[] bytes = serializer.serialize(user);
+            bytes[1] = (byte) 200;
+
+            // Act & Assert
+            assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+        }
+
+        @Test
+        @DisplayName("Should reject duplicate codec type ids")
+        void shouldRejectDuplicateTypeIds() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> new CompactRedisSerializer(json, new CachedUserCodec(), new CachedUserCodec()));
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON Fallback")
+    class FallbackTests {
+
+        @Test
+        @DisplayName("Should read entries written by the JSON serializer")
+        void shouldReadLegacyJsonEntries() {
+            // Arrange
+            byte[] legacy = json.serialize(user);
+
+            // Act
+            Object result = serializer.deserialize(legacy);
+
+            // Assert
+            assertEquals(user, result);
+        }
+
+        @Test
+        @DisplayName("Should read JSON entries that still carry a password hash")
+        void shouldReadLegacyJsonEntriesWithPasswordHash() {
+            // Arrange
+            String entry = new String(json.serialize(user), StandardCharsets.UTF_8)
+                    .replace("\"email\":", "\"passwordHash\":\"$2a$10$hash\",\"email\":");
+
+            // Act
+            Object result = serializer.deserialize(entry.getBytes(StandardCharsets.UTF_8));
+
+            // Assert
+            assertEquals(user, result);
+        }
+
+        @Test
+        @DisplayName("Should write types without a codec as JSON")
+        void shouldWriteUnregisteredTypesAsJson() {
+            // Arrange
+            Map<String, String> value = new HashMap<>();
+            value.put("name", "ROLE_USER");
+
+            // Act
+            byte[] bytes = serializer.serialize(value);
+
+            // Assert
+            assertEquals('{', bytes[0]);
+            assertEquals(value, serializer.deserialize(bytes));
+        }
+
+        @Test
+        @DisplayName("Should treat empty values as null")
+        void shouldTreatEmptyValuesAsNull() {
+            // Act & Assert
+            assertNull(serializer.deserialize(new byte[0]));
+            assertNull(serializer.deserialize(null));
+        }
+    }
+}
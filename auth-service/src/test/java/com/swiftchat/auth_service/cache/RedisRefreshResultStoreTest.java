@@ -0,0 +1,115 @@
+package com.swiftchat.auth_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftchat.auth_service.dto.AuthResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Redis Refresh Result Store Tests")
+class RedisRefreshResultStoreTest {
+
+    private static final String REFRESH_TOKEN = "old-refresh-token";
+    private static final String KEY = RedisRefreshResultStore.KEY_PREFIX + RefreshResultCache.key(REFRESH_TOKEN);
+
+    @Mock
+    private RefreshResultCache refreshResultCache;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> redis = new HashMap<>();
+    private RedisRefreshResultStore store;
+    private AuthResponseDto issued;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+        store = new RedisRefreshResultStore(refreshResultCache, redisTemplate, new ObjectMapper());
+        issued = AuthResponseDto.builder()
+                .accessToken("new-access-token")
+                .refreshToken("new-refresh-token")
+                .tokenType("Bearer")
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should store the pair under a digest of the token, encrypted, for the grace period")
+    void put_ShouldStoreEncryptedUnderDigest() {
+        // Act
+        store.put(REFRESH_TOKEN, issued, Duration.ofSeconds(10));
+
+        // Assert
+        verify(valueOperations).set(eq(KEY), anyString(), eq(Duration.ofSeconds(10)));
+        assertFalse(KEY.contains(REFRESH_TOKEN));
+        String value = redis.get(KEY);
+        assertFalse(value.contains("new-access-token"));
+        assertFalse(value.contains("new-refresh-token"));
+        assertFalse(value.contains("test@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should give the pair back to a caller presenting the same token")
+    void get_SameToken_ShouldDecrypt() {
+        // Arrange
+        store.put(REFRESH_TOKEN, issued, Duration.ofSeconds(10));
+
+        // Act & Assert
+        assertEquals(issued, store.get(REFRESH_TOKEN));
+    }
+
+    @Test
+    @DisplayName("Should treat an entry that does not decrypt with the presented token as a miss")
+    void get_EntryNotSealedWithToken_ShouldReturnNull() {
+        // Arrange: another token's entry copied under this token's key
+        store.put("other-refresh-token", issued, Duration.ofSeconds(10));
+        redis.put(KEY, redis.get(RedisRefreshResultStore.KEY_PREFIX + RefreshResultCache.key("other-refresh-token")));
+
+        // Act & Assert
+        assertNull(store.get(REFRESH_TOKEN));
+    }
+
+    @Test
+    @DisplayName("Should treat an unreadable entry as a miss")
+    void get_Garbage_ShouldReturnNull() {
+        // Arrange
+        redis.put(KEY, "not-a-sealed-value");
+
+        // Act & Assert
+        assertNull(store.get(REFRESH_TOKEN));
+        assertNull(store.get("unknown-refresh-token"));
+    }
+
+    @Test
+    @DisplayName("Should treat Redis errors as a miss")
+    void get_RedisDown_ShouldReturnNull() {
+        // Arrange
+        when(valueOperations.get(KEY)).thenThrow(new IllegalStateException("Redis is down"));
+
+        // Act & Assert
+        assertNull(store.get(REFRESH_TOKEN));
+    }
+}
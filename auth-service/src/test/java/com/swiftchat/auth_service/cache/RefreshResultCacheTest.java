@@ -0,0 +1,127 @@
+package com.swiftchat.auth_service.cache;
+
+import com.swiftchat.auth_service.dto.AuthResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Refresh Result Cache Tests")
+class RefreshResultCacheTest {
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Mock
+    private RefreshResultCache.SharedStore sharedStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthResponseDto issued;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        issued = AuthResponseDto.builder()
+                .accessToken("new-access-token")
+                .refreshToken("new-refresh-token")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return the stored pair for the rotated token and count the hit")
+    void get_AfterPut_ShouldReturnPair() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(10, 0, meterRegistryProvider);
+        cache.put("old-refresh-token", issued);
+
+        // Act
+        Optional<AuthResponseDto> result = cache.get("old-refresh-token");
+
+        // Assert
+        assertEquals(Optional.of(issued), result);
+        assertTrue(cache.get("other-refresh-token").isEmpty());
+        assertEquals(1.0, meterRegistry.counter("auth.refresh.deduplicated").count());
+    }
+
+    @Test
+    @DisplayName("Should key local entries by a digest of the token and share them for the grace period")
+    void put_WithSharedStore_ShouldShareForGracePeriod() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(10, 0, meterRegistryProvider);
+        cache.setSharedStore(sharedStore);
+
+        // Act
+        cache.put("old-refresh-token", issued);
+
+        // Assert
+        assertFalse(RefreshResultCache.key("old-refresh-token").contains("old-refresh-token"));
+        verify(sharedStore).put("old-refresh-token", issued, Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("Should find entries stored by another node")
+    void get_LocalMiss_ShouldAskSharedStore() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(10, 0, meterRegistryProvider);
+        cache.setSharedStore(sharedStore);
+        when(sharedStore.get("old-refresh-token")).thenReturn(issued);
+
+        // Act & Assert
+        assertEquals(Optional.of(issued), cache.get("old-refresh-token"));
+    }
+
+    @Test
+    @DisplayName("Should wait for the pair of a concurrent rotation on another node")
+    void await_PairStoredWhileWaiting_ShouldReturnIt() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(10, 1000, meterRegistryProvider);
+        cache.setSharedStore(sharedStore);
+        when(sharedStore.get("old-refresh-token")).thenReturn(null, null, issued);
+
+        // Act
+        Optional<AuthResponseDto> result = cache.await("old-refresh-token");
+
+        // Assert
+        assertEquals(Optional.of(issued), result);
+        verify(sharedStore, times(3)).get("old-refresh-token");
+    }
+
+    @Test
+    @DisplayName("Should give up once the wait time has passed")
+    void await_NothingStored_ShouldReturnEmpty() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(10, 30, meterRegistryProvider);
+
+        // Act & Assert
+        assertTrue(cache.await("old-refresh-token").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should store nothing when the grace period is 0")
+    void put_Disabled_ShouldStoreNothing() {
+        // Arrange
+        RefreshResultCache cache = new RefreshResultCache(0, 0, meterRegistryProvider);
+        cache.setSharedStore(sharedStore);
+
+        // Act
+        cache.put("old-refresh-token", issued);
+
+        // Assert
+        assertTrue(cache.get("old-refresh-token").isEmpty());
+        verifyNoInteractions(sharedStore);
+    }
+}
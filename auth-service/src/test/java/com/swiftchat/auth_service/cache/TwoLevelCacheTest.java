@@ -0,0 +1,285 @@
+package com.swiftchat.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Two-Level Cache Tests")
+class TwoLevelCacheTest {
+
+    @Mock
+    private TwoLevelCacheManager manager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remote = new ConcurrentMapCache("users", false);
+        cache = newCache(remote, Duration.ZERO);
+    }
+
+    private TwoLevelCache newCache(Cache remoteCache, Duration refreshAfter) {
+        return new TwoLevelCache("users", Caffeine.newBuilder().maximumSize(100).build(), remoteCache, manager,
+                refreshAfter, meterRegistry);
+    }
+
+    private double singleFlight(String outcome) {
+        return meterRegistry.get("cache.single.flight").tag("outcome", outcome).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Reads")
+    class ReadTests {
+
+        @Test
+        @DisplayName("Should serve repeated reads from the local tier")
+        void get_RemoteHit_ShouldPopulateLocalTier() {
+            // Arrange
+            remote.put("email:a@b.com", "value");
+
+            // Act
+            Cache.ValueWrapper first = cache.get("email:a@b.com");
+            remote.evict("email:a@b.com");
+            Cache.ValueWrapper second = cache.get("email:a@b.com");
+
+            // Assert
+            assertEquals("value", first.get());
+            assertEquals("value", second.get());
+        }
+
+        @Test
+        @DisplayName("Should load once and store in both tiers on a miss")
+        void getWithLoader_Miss_ShouldLoadOnceAndStore() {
+            // Arrange
+            AtomicInteger loads = new AtomicInteger();
+
+            // Act
+            String first = cache.get("key", () -> "loaded-" + loads.incrementAndGet());
+            String second = cache.get("key", () -> "loaded-" + loads.incrementAndGet());
+
+            // Assert
+            assertEquals("loaded-1", first);
+            assertEquals("loaded-1", second);
+            assertEquals("loaded-1", remote.get("key").get());
+            verify(manager, never()).publishEviction(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should treat a failing remote tier as a miss")
+        void get_RemoteFailure_ShouldFallBackToLoader() {
+            // Arrange
+            Cache failingRemote = mock(Cache.class);
+            when(failingRemote.get(any())).thenThrow(new IllegalStateException("Redis down"));
+            doThrow(new IllegalStateException("Redis down")).when(failingRemote).put(any(), any());
+            TwoLevelCache degraded = newCache(failingRemote, Duration.ZERO);
+
+            // Act
+            String value = degraded.get("key", () -> "loaded");
+
+            // Assert
+            assertEquals("loaded", value);
+            assertEquals("loaded", degraded.get("key").get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Single-flight loading")
+    class SingleFlightTests {
+
+        @Test
+        @DisplayName("Should run one load for concurrent misses on the same key")
+        void get_ConcurrentMisses_ShouldShareOneLoad() throws Exception {
+            // Arrange
+            int callers = 8;
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch loaderStarted = new CountDownLatch(1);
+            CountDownLatch releaseLoader = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+            try {
+                // Act
+                List<Future<String>> results = new ArrayList<>();
+                results.add(executor.submit(() -> cache.get("email:hot@b.com", () -> {
+                    loads.incrementAndGet();
+                    loaderStarted.countDown();
+                    releaseLoader.await(5, TimeUnit.SECONDS);
+                    return "loaded";
+                })));
+                assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+                for (int i = 1; i < callers; i++) {
+                    results.add(executor.submit(() -> cache.get("email:hot@b.com", () -> {
+                        loads.incrementAndGet();
+                        return "duplicate";
+                    })));
+                }
+                // Let the waiting callers reach the in-flight load before it completes
+                while (singleFlight("coalesced") < callers - 1) {
+                    Thread.onSpinWait();
+                }
+                releaseLoader.countDown();
+
+                // Assert
+                for (Future<String> result : results) {
+                    assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+                }
+                assertEquals(1, loads.get());
+                assertEquals(1, singleFlight("load"));
+                assertEquals(callers - 1, singleFlight("coalesced"));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should not store a value loaded across an eviction")
+        void get_EvictedDuringLoad_ShouldNotStoreLoadedValue() {
+            // Act
+            String value = cache.get("key", () -> {
+                cache.evict("key");
+                return "stale";
+            });
+
+            // Assert
+            assertEquals("stale", value);
+            assertNull(cache.get("key"));
+            assertNull(remote.get("key"));
+        }
+
+        @Test
+        @DisplayName("Should still store a value when another key is evicted during the load")
+        void get_OtherKeyEvictedDuringLoad_ShouldStoreLoadedValue() {
+            // Act
+            String value = cache.get("key", () -> {
+                cache.evict("other");
+                cache.evictLocal("another");
+                return "fresh";
+            });
+
+            // Assert
+            assertEquals("fresh", value);
+            assertEquals("fresh", cache.get("key").get());
+            assertEquals("fresh", remote.get("key").get());
+        }
+
+        @Test
+        @DisplayName("Should not store a value loaded across a clear from another node")
+        void get_ClearedDuringLoad_ShouldNotStoreLoadedValue() {
+            // Act
+            String value = cache.get("key", () -> {
+                cache.clearLocal();
+                return "stale";
+            });
+
+            // Assert
+            assertEquals("stale", value);
+            assertNull(remote.get("key"));
+        }
+
+        @Test
+        @DisplayName("Should serve a stale entry while another caller refreshes it")
+        void get_StaleEntryBeingRefreshed_ShouldServeStaleValue() throws Exception {
+            // Arrange
+            TwoLevelCache swr = newCache(remote, Duration.ofNanos(1));
+            swr.get("key", () -> "v1");
+            CountDownLatch refreshing = new CountDownLatch(1);
+            CountDownLatch releaseRefresh = new CountDownLatch(1);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+
+            try {
+                // Act
+                Future<String> refresher = executor.submit(() -> swr.get("key", () -> {
+                    refreshing.countDown();
+                    releaseRefresh.await(5, TimeUnit.SECONDS);
+                    return "v2";
+                }));
+                assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+                String servedDuringRefresh = swr.get("key", () -> "unexpected");
+                releaseRefresh.countDown();
+
+                // Assert
+                assertEquals("v1", servedDuringRefresh);
+                assertEquals("v2", refresher.get(5, TimeUnit.SECONDS));
+                assertEquals("v2", remote.get("key").get());
+                assertEquals(1, meterRegistry.get("cache.stale.served").counter().count());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Should evict both tiers and notify other nodes")
+        void evict_ShouldClearBothTiersAndPublish() {
+            // Arrange
+            UUID id = UUID.randomUUID();
+            cache.put(id, "value");
+
+            // Act
+            cache.evict(id);
+
+            // Assert
+            assertNull(cache.get(id));
+            assertNull(remote.get(id));
+            verify(manager, times(2)).publishEviction("users", id.toString());
+        }
+
+        @Test
+        @DisplayName("Should drop only the local copy on a remote invalidation")
+        void evictLocal_ShouldKeepRemoteEntry() {
+            // Arrange
+            cache.put("key", "old");
+            remote.put("key", "new");
+
+            // Act
+            cache.evictLocal("key");
+
+            // Assert
+            assertEquals("new", cache.get("key").get());
+        }
+
+        @Test
+        @DisplayName("Should clear both tiers and notify other nodes")
+        void clear_ShouldClearBothTiersAndPublish() {
+            // Arrange
+            cache.put("key", "value");
+
+            // Act
+            cache.clear();
+
+            // Assert
+            assertNull(cache.get("key"));
+            verify(manager).publishClear("users");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.swiftchat.auth_service.cache;
+
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Entity Cache Invalidation Tests")
+class UserEntityCacheInvalidationTest {
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    private UserEntityCacheInvalidation invalidation;
+
+    @BeforeEach
+    void setUp() {
+        invalidation = new UserEntityCacheInvalidation(cacheManager, entityManagerFactory);
+        lenient().when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        lenient().when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+    }
+
+    @Test
+    @DisplayName("Should evict the user entity and its roles for an id key")
+    void shouldEvictUserForIdKey() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        invalidation.onInvalidation("users", "id:" + userId);
+
+        // Assert
+        verify(secondLevelCache).evictEntityData(User.class, userId);
+        verify(secondLevelCache).evictCollectionData(UserEntityCacheInvalidation.ROLES_COLLECTION, userId);
+    }
+
+    @Test
+    @DisplayName("Should evict every user when the cache is cleared")
+    void shouldEvictAllUsersOnClear() {
+        // Act
+        invalidation.onInvalidation("users", null);
+
+        // Assert
+        verify(secondLevelCache).evictEntityData(User.class);
+        verify(secondLevelCache).evictCollectionData(UserEntityCacheInvalidation.ROLES_COLLECTION);
+    }
+
+    @Test
+    @DisplayName("Should ignore email keys, other caches and malformed ids")
+    void shouldIgnoreOtherInvalidations() {
+        // Act
+        invalidation.onInvalidation("users", "email:user@example.com");
+        invalidation.onInvalidation("roles", "id:" + UUID.randomUUID());
+        invalidation.onInvalidation("users", "id:not-a-uuid");
+
+        // Assert
+        verify(secondLevelCache, never()).evictEntityData(eq(User.class), any());
+        verify(secondLevelCache, never()).evictCollectionData(anyString(), any());
+    }
+}
@@ -0,0 +1,68 @@
+package com.swiftchat.auth_service.controller;
+
+import com.swiftchat.shared.security.jwt.JwtKeyProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JWKS Controller Tests")
+class JwksControllerTest {
+
+    private static final String JWKS = "{\"keys\":[{\"kty\":\"EC\",\"kid\":\"key-2024-06\"}]}";
+    private static final String ROTATED_JWKS =
+            "{\"keys\":[{\"kty\":\"EC\",\"kid\":\"key-2024-06\"},{\"kty\":\"EC\",\"kid\":\"key-2024-12\"}]}";
+
+    @Mock
+    private JwtKeyProvider keyProvider;
+
+    private JwksController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new JwksController(keyProvider);
+        ReflectionTestUtils.setField(controller, "maxAgeSeconds", 300L);
+    }
+
+    @Test
+    @DisplayName("Should return the key set as a publicly cacheable response")
+    void jwks_ShouldReturnCacheableKeySet() {
+        // Arrange
+        when(keyProvider.getPublicJwks()).thenReturn(JWKS);
+
+        // Act
+        ResponseEntity<String> response = controller.jwks();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(JWKS, response.getBody());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Should keep the ETag stable until the key set rotates")
+    void jwks_KeyRotation_ShouldChangeETag() {
+        // Arrange
+        when(keyProvider.getPublicJwks()).thenReturn(JWKS, JWKS, ROTATED_JWKS);
+
+        // Act
+        String first = controller.jwks().getHeaders().getETag();
+        String second = controller.jwks().getHeaders().getETag();
+        String rotated = controller.jwks().getHeaders().getETag();
+
+        // Assert
+        assertNotNull(first);
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+        assertEquals(first, second);
+        assertNotEquals(first, rotated);
+    }
+}
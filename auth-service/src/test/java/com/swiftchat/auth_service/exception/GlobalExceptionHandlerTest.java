@@ -0,0 +1,46 @@
+package com.swiftchat.auth_service.exception;
+
+import com.swiftchat.shared.security.crypto.PasswordHashingRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("Global Exception Handler Tests")
+class GlobalExceptionHandlerTest {
+
+    @RestController
+    static class HashingController {
+
+        @PostMapping("/login")
+        String login() {
+            throw new PasswordHashingRejectedException("Password hashing is at capacity, try again later");
+        }
+    }
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new HashingController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should answer a saturated password hashing executor with 503 and Retry-After")
+    void passwordHashingRejected_ShouldReturnServiceUnavailable() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/login"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message").value("Service is busy, please try again shortly"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.swiftchat.auth_service.repository;
+
+import com.swiftchat.shared.security.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("User Dynamic Update Tests")
+class UserDynamicUpdateTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should not overwrite a login time written through JDBC when saving a stale copy")
+    void save_StaleCopy_ShouldKeepLastLoginAt() {
+        // Arrange
+        User user = userRepository.saveAndFlush(User.builder()
+                .email("stale@example.com")
+                .passwordHash("hash")
+                .build());
+        LocalDateTime loginTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("UPDATE users SET last_login_at = ? WHERE id = ?",
+                Timestamp.valueOf(loginTime), user.getId());
+
+        // Act
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+
+        // Assert
+        assertNull(user.getLastLoginAt());
+        assertEquals(Timestamp.valueOf(loginTime), jdbcTemplate.queryForObject(
+                "SELECT last_login_at FROM users WHERE id = ?", Timestamp.class, user.getId()));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT activated FROM users WHERE id = ?", Boolean.class, user.getId()));
+    }
+}
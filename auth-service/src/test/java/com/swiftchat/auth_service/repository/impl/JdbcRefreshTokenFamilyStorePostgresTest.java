@@ -0,0 +1,153 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JDBC Refresh Token Family Store PostgreSQL Tests")
+class JdbcRefreshTokenFamilyStorePostgresTest extends PostgresRepositoryTest {
+
+    private JdbcRefreshTokenFamilyStore store;
+    private UUID userId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        store = new JdbcRefreshTokenFamilyStore(jdbcTemplate);
+        userId = insertUser("test@example.com");
+        insertRole(userId, "ROLE_USER");
+        // PostgreSQL keeps microseconds
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private RefreshTokenFamily create(UUID ownerId, UUID tokenId, LocalDateTime expiry) {
+        RefreshTokenFamily family = RefreshTokenFamily.builder()
+                .id(UUID.randomUUID())
+                .userId(ownerId)
+                .tokenId(tokenId)
+                .expiryDate(expiry)
+                .createdAt(now.minusHours(1))
+                .build();
+        store.create(family);
+        return family;
+    }
+
+    private RefreshTokenFamily reload(RefreshTokenFamily family) {
+        return store.findAllById(List.of(family.getId())).get(0);
+    }
+
+    @Nested
+    @DisplayName("Advance Tests")
+    class AdvanceTests {
+
+        @Test
+        @DisplayName("Should move the family to the next token and return the user with roles")
+        void advance_CurrentToken_ShouldMoveToNextToken() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            UUID nextTokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+
+            // Act
+            Optional<CachedUser> result = store.advance(family.getId(), tokenId, nextTokenId, now.plusDays(7), now);
+
+            // Assert
+            assertTrue(result.isPresent());
+            assertEquals(userId, result.get().getId());
+            assertEquals("ROLE_USER", result.get().getRoles().get(0).getName());
+            RefreshTokenFamily advanced = reload(family);
+            assertEquals(nextTokenId, advanced.getTokenId());
+            assertEquals(now.plusDays(7), advanced.getExpiryDate());
+        }
+
+        @Test
+        @DisplayName("Should refuse a token the family already moved past")
+        void advance_SupersededToken_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            UUID nextTokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+            store.advance(family.getId(), tokenId, nextTokenId, now.plusDays(7), now);
+
+            // Act
+            Optional<CachedUser> result = store.advance(family.getId(), tokenId, UUID.randomUUID(),
+                    now.plusDays(7), now);
+
+            // Assert
+            assertTrue(result.isEmpty());
+            assertEquals(nextTokenId, reload(family).getTokenId());
+        }
+
+        @Test
+        @DisplayName("Should refuse the current token of a revoked family")
+        void advance_RevokedFamily_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+            store.revoke(family.getId());
+
+            // Act & Assert
+            assertTrue(store.advance(family.getId(), tokenId, UUID.randomUUID(), now.plusDays(7), now).isEmpty());
+            assertEquals(tokenId, reload(family).getTokenId());
+        }
+
+        @Test
+        @DisplayName("Should refuse the current token of an expired family")
+        void advance_ExpiredFamily_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now);
+
+            // Act & Assert
+            assertTrue(store.advance(family.getId(), tokenId, UUID.randomUUID(), now.plusDays(7), now).isEmpty());
+            assertEquals(tokenId, reload(family).getTokenId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Revocation Tests")
+    class RevocationTests {
+
+        @Test
+        @DisplayName("Should revoke an existing family and report an unknown one")
+        void revoke_ShouldReportWhetherFamilyExists() {
+            // Arrange
+            RefreshTokenFamily family = create(userId, UUID.randomUUID(), now.plusDays(1));
+
+            // Act & Assert
+            assertTrue(store.revoke(family.getId()));
+            assertFalse(store.revoke(UUID.randomUUID()));
+            assertTrue(reload(family).isRevoked());
+        }
+
+        @Test
+        @DisplayName("Should revoke every family of the user and none of another user")
+        void revokeAllByUserId_ShouldOnlyRevokeThatUsersFamilies() {
+            // Arrange
+            UUID otherUserId = insertUser("other@example.com");
+            create(userId, UUID.randomUUID(), now.plusDays(1));
+            create(userId, UUID.randomUUID(), now.plusDays(2));
+            RefreshTokenFamily other = create(otherUserId, UUID.randomUUID(), now.plusDays(1));
+
+            // Act
+            store.revokeAllByUserId(userId);
+
+            // Assert
+            assertTrue(store.findAllByUserId(userId).stream().allMatch(RefreshTokenFamily::isRevoked));
+            assertEquals(0, store.countActiveByUserId(userId, now));
+            assertFalse(reload(other).isRevoked());
+            assertEquals(1, store.countActiveByUserId(otherUserId, now));
+        }
+    }
+}
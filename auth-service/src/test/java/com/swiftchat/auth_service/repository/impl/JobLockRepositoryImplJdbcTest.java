@@ -0,0 +1,109 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@ActiveProfiles("test")
+@Sql("/sql/job-tables.sql")
+@DisplayName("Job Lock Repository H2 Tests")
+class JobLockRepositoryImplJdbcTest {
+
+    private static final String LOCK = "refresh-token-purge";
+
+    /** Keeps the slice away from the application's component scan. */
+    @SpringBootConfiguration
+    @Import(JobLockRepositoryImpl.class)
+    static class Config {
+    }
+
+    @Autowired
+    private JobLockRepositoryImpl repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private String holder() {
+        return jdbcTemplate.queryForObject("SELECT locked_by FROM job_locks WHERE name = ?", String.class, LOCK);
+    }
+
+    @Test
+    @DisplayName("Should take a free lease")
+    void tryAcquire_Free_ShouldAcquire() {
+        // Act & Assert
+        assertTrue(repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now));
+        assertEquals("node-a", holder());
+    }
+
+    @Test
+    @DisplayName("Should refuse a lease another replica holds, even to the holder")
+    void tryAcquire_Held_ShouldRefuse() {
+        // Arrange
+        repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now);
+
+        // Act & Assert
+        assertFalse(repository.tryAcquire(LOCK, "node-b", now.plusMinutes(10), now.plusMinutes(5)));
+        assertFalse(repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now.plusMinutes(5)));
+        assertEquals("node-a", holder());
+    }
+
+    @Test
+    @DisplayName("Should hand an expired lease to the next replica")
+    void tryAcquire_Expired_ShouldAcquire() {
+        // Arrange
+        repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now);
+
+        // Act & Assert
+        assertTrue(repository.tryAcquire(LOCK, "node-b", now.plusMinutes(20), now.plusMinutes(10)));
+        assertEquals("node-b", holder());
+    }
+
+    @Test
+    @DisplayName("Should refuse a job without a lock row")
+    void tryAcquire_UnknownJob_ShouldRefuse() {
+        // Act & Assert
+        assertFalse(repository.tryAcquire("unknown-job", "node-a", now.plusMinutes(10), now));
+    }
+
+    @Test
+    @DisplayName("Should free the lease when its holder releases it")
+    void release_Holder_ShouldFreeLease() {
+        // Arrange
+        repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now);
+
+        // Act
+        repository.release(LOCK, "node-a", now.plusMinutes(1));
+
+        // Assert
+        assertTrue(repository.tryAcquire(LOCK, "node-b", now.plusMinutes(11), now.plusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Should not free a lease another replica took over")
+    void release_FormerHolder_ShouldKeepLease() {
+        // Arrange
+        repository.tryAcquire(LOCK, "node-a", now.plusMinutes(10), now);
+        repository.tryAcquire(LOCK, "node-b", now.plusMinutes(20), now.plusMinutes(10));
+
+        // Act
+        repository.release(LOCK, "node-a", now.plusMinutes(11));
+
+        // Assert
+        assertFalse(repository.tryAcquire(LOCK, "node-c", now.plusMinutes(30), now.plusMinutes(12)));
+        assertEquals("node-b", holder());
+    }
+}
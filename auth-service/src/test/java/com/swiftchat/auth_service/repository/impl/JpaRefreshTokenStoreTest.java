@@ -0,0 +1,125 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.repository.RefreshTokenRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenRotationRepository;
+import com.swiftchat.auth_service.util.TokenDigest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JPA Refresh Token Store Tests")
+class JpaRefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RefreshTokenRotationRepository refreshTokenRotationRepository;
+
+    @InjectMocks
+    private JpaRefreshTokenStore store;
+
+    private static RefreshToken stored(String token) {
+        return RefreshToken.builder()
+                .id(UUID.randomUUID())
+                .token(token)
+                .tokenHash(TokenDigest.digest(token))
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should look a token up by its digest and set the token on the result")
+    void findByToken_Exists_ShouldQueryByDigest() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHashOrToken(aryEq(TokenDigest.digest("token")), eq("token")))
+                .thenReturn(Optional.of(stored("token")));
+
+        // Act
+        Optional<RefreshToken> result = store.findByToken("token");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("token", result.get().getToken());
+    }
+
+    @Test
+    @DisplayName("Should match each stored row back to the token it was found with")
+    @SuppressWarnings("unchecked")
+    void findAllByTokenInWithUser_ShouldSetTokensByDigest() {
+        // Arrange
+        RefreshToken second = stored("second");
+        second.setToken(null);
+        when(refreshTokenRepository.findAllByTokenHashInOrTokenInWithUser(anyCollection(), anyCollection()))
+                .thenReturn(List.of(second, stored("first")));
+
+        // Act
+        List<RefreshToken> result = store.findAllByTokenInWithUser(List.of("first", "second", "unknown"));
+
+        // Assert
+        ArgumentCaptor<Collection<byte[]>> digests = ArgumentCaptor.forClass(Collection.class);
+        verify(refreshTokenRepository).findAllByTokenHashInOrTokenInWithUser(digests.capture(),
+                eq(List.of("first", "second", "unknown")));
+        assertEquals(3, digests.getValue().size());
+        assertEquals("second", result.get(0).getToken());
+        assertEquals("first", result.get(1).getToken());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored token of a row the backfill has not reached")
+    void findAllByTokenInWithUser_NoDigestYet_ShouldKeepStoredToken() {
+        // Arrange
+        RefreshToken legacy = stored("legacy");
+        legacy.setTokenHash(null);
+        when(refreshTokenRepository.findAllByTokenHashInOrTokenInWithUser(anyCollection(), anyCollection()))
+                .thenReturn(List.of(legacy));
+
+        // Act
+        List<RefreshToken> result = store.findAllByTokenInWithUser(List.of("legacy"));
+
+        // Assert
+        assertEquals("legacy", result.get(0).getToken());
+    }
+
+    @Test
+    @DisplayName("Should revoke by digest, or by token for rows without one")
+    void revoke_ShouldMatchDigestOrToken() {
+        // Arrange
+        when(refreshTokenRepository.revokeByTokenHashOrToken(aryEq(TokenDigest.digest("token")), eq("token")))
+                .thenReturn(1);
+
+        // Act & Assert
+        assertTrue(store.revoke("token"));
+    }
+
+    @Test
+    @DisplayName("Should rotate with both tokens and a new row id")
+    void rotate_ShouldPassTokens() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiry = now.plusDays(1);
+        when(refreshTokenRotationRepository.rotate(eq("token"), any(UUID.class), eq("replacement"), eq(expiry),
+                eq(now)))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(store.rotate("token", "replacement", expiry, now).isEmpty());
+    }
+}
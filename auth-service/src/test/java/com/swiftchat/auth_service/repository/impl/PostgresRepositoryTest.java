@@ -0,0 +1,63 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Base for tests of SQL that only PostgreSQL runs, such as data-modifying
+ * CTEs and {@code RETURNING}: a PostgreSQL container with the Flyway
+ * migrations applied, emptied before each test. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PostgresRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static DataSource dataSource;
+
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void truncate() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE users, roles, refresh_tokens, refresh_token_families, outbox_events CASCADE");
+    }
+
+    UUID insertUser(String email) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, activated, created_at) VALUES (?, ?, true, ?)",
+                id, email, Timestamp.valueOf(LocalDateTime.now()));
+        return id;
+    }
+
+    UUID insertRole(UUID userId, String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO roles (id, name) VALUES (?, ?)", id, name);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", userId, id);
+        return id;
+    }
+}
@@ -0,0 +1,171 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Redis Refresh Token Family Store Tests")
+class RedisRefreshTokenFamilyStoreTest extends RedisRepositoryTest {
+
+    private UserCache userCache;
+    private RedisRefreshTokenFamilyStore store;
+    private UUID userId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        userCache = mock(UserCache.class);
+        store = new RedisRefreshTokenFamilyStore(redisTemplate, userCache);
+        userId = UUID.randomUUID();
+        // Redis keeps milliseconds
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private RefreshTokenFamily create(UUID ownerId, UUID tokenId, LocalDateTime expiry) {
+        RefreshTokenFamily family = RefreshTokenFamily.builder()
+                .id(UUID.randomUUID())
+                .userId(ownerId)
+                .tokenId(tokenId)
+                .expiryDate(expiry)
+                .createdAt(now.minusHours(1))
+                .build();
+        store.create(family);
+        return family;
+    }
+
+    private RefreshTokenFamily reload(RefreshTokenFamily family) {
+        return store.findAllById(List.of(family.getId())).get(0);
+    }
+
+    @Nested
+    @DisplayName("Advance Tests")
+    class AdvanceTests {
+
+        @Test
+        @DisplayName("Should move the family to the next token, extend its expiry and return the user")
+        void advance_CurrentToken_ShouldMoveToNextToken() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            UUID nextTokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+            CachedUser user = CachedUser.builder().id(userId).email("test@example.com").build();
+            when(userCache.findById(userId)).thenReturn(user);
+
+            // Act
+            Optional<CachedUser> result = store.advance(family.getId(), tokenId, nextTokenId, now.plusDays(7), now);
+
+            // Assert
+            assertEquals(Optional.of(user), result);
+            RefreshTokenFamily advanced = reload(family);
+            assertEquals(nextTokenId, advanced.getTokenId());
+            assertEquals(now.plusDays(7), advanced.getExpiryDate());
+            assertTrue(redisTemplate.getExpire(RedisRefreshTokenFamilyStore.FAMILY_KEY_PREFIX + family.getId())
+                    > ChronoUnit.SECONDS.between(now, now.plusDays(6)));
+        }
+
+        @Test
+        @DisplayName("Should refuse a token the family already moved past")
+        void advance_SupersededToken_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            UUID nextTokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+            when(userCache.findById(userId)).thenReturn(CachedUser.builder().id(userId).build());
+            store.advance(family.getId(), tokenId, nextTokenId, now.plusDays(7), now);
+
+            // Act
+            Optional<CachedUser> result = store.advance(family.getId(), tokenId, UUID.randomUUID(),
+                    now.plusDays(7), now);
+
+            // Assert
+            assertTrue(result.isEmpty());
+            assertEquals(nextTokenId, reload(family).getTokenId());
+            verify(userCache, times(1)).findById(userId);
+        }
+
+        @Test
+        @DisplayName("Should refuse the current token of a revoked family")
+        void advance_RevokedFamily_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            RefreshTokenFamily family = create(userId, tokenId, now.plusDays(1));
+            store.revoke(family.getId());
+
+            // Act & Assert
+            assertTrue(store.advance(family.getId(), tokenId, UUID.randomUUID(), now.plusDays(7), now).isEmpty());
+            assertEquals(tokenId, reload(family).getTokenId());
+            verifyNoInteractions(userCache);
+        }
+
+        @Test
+        @DisplayName("Should refuse the current token of an expired family")
+        void advance_ExpiredFamily_ShouldReturnEmpty() {
+            // Arrange
+            UUID tokenId = UUID.randomUUID();
+            LocalDateTime expiry = now.plusHours(1);
+            RefreshTokenFamily family = create(userId, tokenId, expiry);
+
+            // Act & Assert
+            assertTrue(store.advance(family.getId(), tokenId, UUID.randomUUID(), expiry.plusDays(7), expiry)
+                    .isEmpty());
+            assertEquals(tokenId, reload(family).getTokenId());
+            verifyNoInteractions(userCache);
+        }
+    }
+
+    @Nested
+    @DisplayName("Revocation Tests")
+    class RevocationTests {
+
+        @Test
+        @DisplayName("Should revoke an existing family and report an unknown one")
+        void revoke_ShouldReportWhetherFamilyExists() {
+            // Arrange
+            RefreshTokenFamily family = create(userId, UUID.randomUUID(), now.plusDays(1));
+
+            // Act & Assert
+            assertTrue(store.revoke(family.getId()));
+            assertFalse(store.revoke(UUID.randomUUID()));
+            assertTrue(reload(family).isRevoked());
+            assertFalse(redisTemplate.hasKey(RedisRefreshTokenFamilyStore.FAMILY_KEY_PREFIX + UUID.randomUUID()));
+        }
+
+        @Test
+        @DisplayName("Should revoke every family of the user, none of another user, and forget expired ones")
+        void revokeAllByUserId_ShouldOnlyRevokeThatUsersFamilies() {
+            // Arrange
+            UUID otherUserId = UUID.randomUUID();
+            create(userId, UUID.randomUUID(), now.plusDays(1));
+            create(userId, UUID.randomUUID(), now.plusDays(2));
+            RefreshTokenFamily gone = create(userId, UUID.randomUUID(), now.plusDays(1));
+            redisTemplate.delete(RedisRefreshTokenFamilyStore.FAMILY_KEY_PREFIX + gone.getId());
+            RefreshTokenFamily other = create(otherUserId, UUID.randomUUID(), now.plusDays(1));
+
+            // Act
+            store.revokeAllByUserId(userId);
+
+            // Assert
+            List<RefreshTokenFamily> families = store.findAllByUserId(userId);
+            assertEquals(2, families.size());
+            assertTrue(families.stream().allMatch(RefreshTokenFamily::isRevoked));
+            assertEquals(0, store.countActiveByUserId(userId, now));
+            assertFalse(redisTemplate.opsForSet().isMember(RedisRefreshTokenFamilyStore.USER_KEY_PREFIX + userId,
+                    gone.getId().toString()));
+            assertFalse(reload(other).isRevoked());
+            assertEquals(1, store.countActiveByUserId(otherUserId, now));
+        }
+    }
+}
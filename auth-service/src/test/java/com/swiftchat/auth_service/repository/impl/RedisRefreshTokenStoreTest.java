@@ -0,0 +1,148 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.util.TokenDigest;
+import com.swiftchat.shared.security.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Redis Refresh Token Store Tests")
+class RedisRefreshTokenStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private UserCache userCache;
+
+    @InjectMocks
+    private RedisRefreshTokenStore store;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .activated(true)
+                .roles(new HashSet<>())
+                .build();
+    }
+
+    private Map<Object, Object> hash(UUID id, LocalDateTime expiry, String revoked) {
+        String millis = Long.toString(expiry.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return Map.of("id", id.toString(), "userId", testUser.getId().toString(), "expiresAt", millis,
+                "createdAt", millis, "revoked", revoked);
+    }
+
+    @Test
+    @DisplayName("Should read a token from its hash")
+    void findByToken_Exists_ShouldMapHash() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        LocalDateTime expiry = LocalDateTime.now().plusDays(1).withNano(0);
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.entries(RedisRefreshTokenStore.TOKEN_KEY_PREFIX + TokenDigest.encodedDigest("token")))
+                .thenReturn(hash(id, expiry, "1"));
+
+        // Act
+        Optional<RefreshToken> result = store.findByToken("token");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("token", result.get().getToken());
+        assertArrayEquals(TokenDigest.digest("token"), result.get().getTokenHash());
+        assertEquals(id, result.get().getId());
+        assertEquals(testUser.getId(), result.get().getUser().getId());
+        assertEquals(expiry, result.get().getExpiryDate());
+        assertTrue(result.get().isRevoked());
+    }
+
+    @Test
+    @DisplayName("Should resolve the rotated token's user through the user cache")
+    @SuppressWarnings("unchecked")
+    void rotate_ScriptReturnsUserId_ShouldReturnCachedUser() {
+        // Arrange
+        CachedUser user = CachedUser.from(testUser);
+        LocalDateTime now = LocalDateTime.now();
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(RedisRefreshTokenStore.TOKEN_KEY_PREFIX
+                + TokenDigest.encodedDigest("token"))), any(Object[].class)))
+                .thenReturn(testUser.getId().toString());
+        when(userCache.findById(testUser.getId())).thenReturn(user);
+
+        // Act
+        Optional<CachedUser> result = store.rotate("token", "replacement", now.plusDays(1), now);
+
+        // Assert
+        assertEquals(Optional.of(user), result);
+    }
+
+    @Test
+    @DisplayName("Should return empty when the script rotated nothing")
+    @SuppressWarnings("unchecked")
+    void rotate_ScriptReturnsNil_ShouldReturnEmpty() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(null);
+
+        // Act & Assert
+        assertTrue(store.rotate("token", "replacement", now.plusDays(1), now).isEmpty());
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    @DisplayName("Should drop set members whose token has expired")
+    void findAllByUserId_ExpiredMember_ShouldRemoveIt() {
+        // Arrange
+        String userKey = RedisRefreshTokenStore.USER_KEY_PREFIX + testUser.getId();
+        String live = TokenDigest.encodedDigest("live");
+        String gone = TokenDigest.encodedDigest("gone");
+        doReturn(setOperations).when(redisTemplate).opsForSet();
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(setOperations.members(userKey)).thenReturn(Set.of(live, gone));
+        when(hashOperations.entries(RedisRefreshTokenStore.TOKEN_KEY_PREFIX + live))
+                .thenReturn(hash(UUID.randomUUID(), LocalDateTime.now().plusDays(1), "0"));
+        when(hashOperations.entries(RedisRefreshTokenStore.TOKEN_KEY_PREFIX + gone)).thenReturn(Map.of());
+
+        // Act
+        List<RefreshToken> result = store.findAllByUserId(testUser.getId());
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getToken());
+        assertArrayEquals(TokenDigest.digest("live"), result.get(0).getTokenHash());
+        verify(setOperations).remove(userKey, gone);
+    }
+}
@@ -0,0 +1,140 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.Batch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.FAMILIES;
+import static com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.TOKENS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@ActiveProfiles("test")
+@Sql("/sql/job-tables.sql")
+@DisplayName("Refresh Token Purge Repository H2 Tests")
+class RefreshTokenPurgeRepositoryImplJdbcTest {
+
+    /** Keeps the slice away from the application's component scan. */
+    @SpringBootConfiguration
+    @Import(RefreshTokenPurgeRepositoryImpl.class)
+    static class Config {
+    }
+
+    @Autowired
+    private RefreshTokenPurgeRepositoryImpl repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private void insert(String table, int rows, LocalDateTime expiry, boolean revoked, LocalDateTime createdAt) {
+        for (int i = 0; i < rows; i++) {
+            jdbcTemplate.update("INSERT INTO " + table + " (id, expiry_date, revoked, created_at) VALUES (?, ?, ?, ?)",
+                    UUID.randomUUID(), Timestamp.valueOf(expiry), revoked, Timestamp.valueOf(createdAt));
+        }
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    /** Runs batches the way the purge job does, each from the previous one's last key. */
+    private List<Batch> drain(Function<LocalDateTime, Batch> deleteBatch, int limit) {
+        List<Batch> batches = new ArrayList<>();
+        LocalDateTime from = null;
+        while (true) {
+            Batch batch = deleteBatch.apply(from);
+            batches.add(batch);
+            if (batch.getLastKey() == null || batch.getDeleted() < limit) {
+                return batches;
+            }
+            from = batch.getLastKey();
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete expired rows sharing one expiry across batches without skipping any")
+    void deleteExpired_EqualKeys_ShouldDeleteAllAcrossBatches() {
+        // Arrange
+        LocalDateTime expiry = now.minusHours(1);
+        insert(TOKENS, 5, expiry, false, now.minusDays(1));
+        insert(TOKENS, 2, now.plusHours(1), false, now.minusDays(1));
+
+        // Act
+        List<Batch> batches = drain(from -> repository.deleteExpired(TOKENS, from, now, 2), 2);
+
+        // Assert
+        assertEquals(List.of(2, 2, 1), batches.stream().map(Batch::getDeleted).toList());
+        assertTrue(batches.stream().allMatch(batch -> expiry.equals(batch.getLastKey())));
+        assertEquals(2, count(TOKENS));
+    }
+
+    @Test
+    @DisplayName("Should walk expired rows in expiry order, each batch starting at the last key")
+    void deleteExpired_DistinctKeys_ShouldResumeFromLastKey() {
+        // Arrange
+        insert(FAMILIES, 2, now.minusHours(3), false, now.minusDays(1));
+        insert(FAMILIES, 2, now.minusHours(2), false, now.minusDays(1));
+        insert(FAMILIES, 1, now.minusHours(1), false, now.minusDays(1));
+
+        // Act
+        Batch first = repository.deleteExpired(FAMILIES, null, now, 3);
+        Batch second = repository.deleteExpired(FAMILIES, first.getLastKey(), now, 3);
+
+        // Assert
+        assertEquals(new Batch(3, now.minusHours(2)), first);
+        assertEquals(new Batch(2, now.minusHours(1)), second);
+        assertEquals(0, count(FAMILIES));
+    }
+
+    @Test
+    @DisplayName("Should delete only revoked rows created before the cut-off, across batches of equal keys")
+    void deleteRevoked_EqualKeys_ShouldDeleteOnlyOldRevokedRows() {
+        // Arrange
+        LocalDateTime createdAt = now.minusDays(2);
+        insert(TOKENS, 5, now.plusDays(1), true, createdAt);
+        insert(TOKENS, 1, now.plusDays(1), false, createdAt);
+        insert(TOKENS, 1, now.plusDays(1), true, now.minusHours(1));
+
+        // Act
+        List<Batch> batches = drain(from -> repository.deleteRevoked(TOKENS, from, now.minusDays(1), 2), 2);
+
+        // Assert
+        assertEquals(5, batches.stream().mapToInt(Batch::getDeleted).sum());
+        assertEquals(2, count(TOKENS));
+    }
+
+    @Test
+    @DisplayName("Should report an empty batch when nothing is due")
+    void deleteExpired_NothingDue_ShouldReturnEmptyBatch() {
+        // Arrange
+        insert(TOKENS, 1, now.plusHours(1), false, now);
+
+        // Act & Assert
+        assertEquals(new Batch(0, null), repository.deleteExpired(TOKENS, null, now, 10));
+        assertEquals(1, count(TOKENS));
+    }
+
+    @Test
+    @DisplayName("Should refuse tables other than the refresh token ones")
+    void deleteExpired_OtherTable_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> repository.deleteExpired("users", null, now, 10));
+    }
+}
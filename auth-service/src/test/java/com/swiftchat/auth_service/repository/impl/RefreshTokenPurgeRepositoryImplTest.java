@@ -0,0 +1,85 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.Batch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Refresh Token Purge Repository Implementation Tests")
+class RefreshTokenPurgeRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RefreshTokenPurgeRepositoryImpl repository;
+
+    @Test
+    @DisplayName("Should delete the selected ids and return the last key")
+    void deleteExpired_RowsFound_ShouldDeleteByIdAndReturnLastKey() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.now().minusDays(3);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastKey = now.minusDays(1);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        String selectSql = String.format(RefreshTokenPurgeRepositoryImpl.SELECT_EXPIRED_SQL,
+                RefreshTokenPurgeRepository.TOKENS);
+        when(jdbcTemplate.queryForList(selectSql, Timestamp.valueOf(from), Timestamp.valueOf(now), 2))
+                .thenReturn(List.of(
+                        Map.of("id", first, "purge_key", Timestamp.valueOf(now.minusDays(2))),
+                        Map.of("id", second, "purge_key", Timestamp.valueOf(lastKey))));
+        when(jdbcTemplate.update("DELETE FROM refresh_tokens WHERE id IN (?, ?)", first, second)).thenReturn(2);
+
+        // Act
+        Batch result = repository.deleteExpired(RefreshTokenPurgeRepository.TOKENS, from, now, 2);
+
+        // Assert
+        assertEquals(2, result.getDeleted());
+        assertEquals(lastKey, result.getLastKey());
+    }
+
+    @Test
+    @DisplayName("Should not delete anything when no row matches")
+    void deleteRevoked_NoRows_ShouldReturnEmptyBatch() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        String selectSql = String.format(RefreshTokenPurgeRepositoryImpl.SELECT_REVOKED_SQL,
+                RefreshTokenPurgeRepository.FAMILIES);
+        when(jdbcTemplate.queryForList(eq(selectSql), any(Timestamp.class), eq(Timestamp.valueOf(now)), eq(10)))
+                .thenReturn(List.of());
+
+        // Act
+        Batch result = repository.deleteRevoked(RefreshTokenPurgeRepository.FAMILIES, null, now, 10);
+
+        // Assert
+        assertEquals(0, result.getDeleted());
+        assertNull(result.getLastKey());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should refuse tables other than the refresh token tables")
+    void deleteExpired_UnknownTable_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.deleteExpired("users", null, LocalDateTime.now(), 10));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,153 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.util.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Refresh Token Rotation Repository PostgreSQL Tests")
+class RefreshTokenRotationRepositoryImplPostgresTest extends PostgresRepositoryTest {
+
+    private RefreshTokenRotationRepositoryImpl repository;
+    private UUID userId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RefreshTokenRotationRepositoryImpl(jdbcTemplate);
+        userId = insertUser("test@example.com");
+        insertRole(userId, "ROLE_USER");
+        insertRole(userId, "ROLE_ADMIN");
+        // PostgreSQL keeps microseconds
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void insertToken(String token, byte[] tokenHash, LocalDateTime expiry, boolean revoked) {
+        jdbcTemplate.update("INSERT INTO refresh_tokens (id, token, token_hash, user_id, expiry_date, revoked,"
+                + " created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), token, tokenHash, userId, Timestamp.valueOf(expiry), revoked,
+                Timestamp.valueOf(now.minusHours(1)));
+    }
+
+    private void insertToken(String token) {
+        insertToken(token, TokenDigest.digest(token), now.plusDays(1), false);
+    }
+
+    private Optional<CachedUser> rotate(String token, String replacement) {
+        return repository.rotate(token, UUID.randomUUID(), replacement, now.plusDays(7), now);
+    }
+
+    private Map<String, Object> row(String token) {
+        return jdbcTemplate.queryForMap("SELECT revoked, token_hash, expiry_date FROM refresh_tokens WHERE token = ?",
+                token);
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens", Integer.class);
+    }
+
+    @Test
+    @DisplayName("Should revoke the token, insert its replacement and return the user with roles")
+    void rotate_LiveToken_ShouldRotate() {
+        // Arrange
+        insertToken("token");
+
+        // Act
+        Optional<CachedUser> result = rotate("token", "replacement");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(userId, result.get().getId());
+        assertEquals("test@example.com", result.get().getEmail());
+        assertEquals(2, result.get().getRoles().size());
+        assertEquals(true, row("token").get("revoked"));
+        Map<String, Object> replacement = row("replacement");
+        assertEquals(false, replacement.get("revoked"));
+        assertArrayEquals(TokenDigest.digest("replacement"), (byte[]) replacement.get("token_hash"));
+        assertEquals(Timestamp.valueOf(now.plusDays(7)), replacement.get("expiry_date"));
+    }
+
+    @Test
+    @DisplayName("Should rotate a token the hash backfill has not reached by its value")
+    void rotate_NoDigestYet_ShouldRotate() {
+        // Arrange
+        insertToken("token", null, now.plusDays(1), false);
+
+        // Act & Assert
+        assertTrue(rotate("token", "replacement").isPresent());
+        assertEquals(true, row("token").get("revoked"));
+    }
+
+    @Test
+    @DisplayName("Should neither rotate nor insert for a revoked, expired or unknown token")
+    void rotate_NotRotatable_ShouldReturnEmpty() {
+        // Arrange
+        insertToken("revoked", TokenDigest.digest("revoked"), now.plusDays(1), true);
+        insertToken("expired", TokenDigest.digest("expired"), now.minusSeconds(1), false);
+
+        // Act & Assert
+        assertTrue(rotate("revoked", "replacement-1").isEmpty());
+        assertTrue(rotate("expired", "replacement-2").isEmpty());
+        assertTrue(rotate("unknown", "replacement-3").isEmpty());
+        assertEquals(2, rowCount());
+        assertEquals(false, row("expired").get("revoked"));
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of many concurrent rotations of one token through")
+    void rotate_ConcurrentReuse_ShouldRotateOnce() throws Exception {
+        // Arrange
+        insertToken("token");
+        int callers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Callable<Optional<CachedUser>>> rotations = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            String replacement = "replacement-" + i;
+            rotations.add(() -> {
+                start.await();
+                return rotate("token", replacement);
+            });
+        }
+
+        // Act
+        int rotated = 0;
+        try {
+            List<Future<Optional<CachedUser>>> results = new ArrayList<>();
+            for (Callable<Optional<CachedUser>> rotation : rotations) {
+                results.add(executor.submit(rotation));
+            }
+            start.countDown();
+            for (Future<Optional<CachedUser>> result : results) {
+                if (result.get().isPresent()) {
+                    rotated++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(1, rotated);
+        assertEquals(2, rowCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM refresh_tokens WHERE revoked = false", Integer.class));
+    }
+}
@@ -0,0 +1,102 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.util.TokenDigest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Refresh Token Rotation Repository Implementation Tests")
+class RefreshTokenRotationRepositoryImplTest {
+
+    private static final byte[] TOKEN_HASH = TokenDigest.digest("token");
+    private static final byte[] REPLACEMENT_HASH = TokenDigest.digest("replacement");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @InjectMocks
+    private RefreshTokenRotationRepositoryImpl repository;
+
+    @SuppressWarnings("unchecked")
+    private ResultSetExtractor<CachedUser> captureExtractor(UUID replacementId, LocalDateTime expiry,
+            LocalDateTime now) {
+        ArgumentCaptor<ResultSetExtractor<CachedUser>> extractor = ArgumentCaptor.forClass(ResultSetExtractor.class);
+        verify(jdbcTemplate).query(eq(RefreshTokenRotationRepositoryImpl.ROTATE_SQL), extractor.capture(),
+                aryEq(TOKEN_HASH), eq("token"), eq(Timestamp.valueOf(now)), eq(replacementId), eq("replacement"),
+                aryEq(REPLACEMENT_HASH), eq(Timestamp.valueOf(expiry)), eq(Timestamp.valueOf(now)));
+        return extractor.getValue();
+    }
+
+    @Test
+    @DisplayName("Should fold one row per role into a single user")
+    void rotate_RowPerRole_ShouldBuildOneUser() throws SQLException {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiry = now.plusDays(7);
+        UUID replacementId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID adminRoleId = UUID.randomUUID();
+        UUID userRoleId = UUID.randomUUID();
+        repository.rotate("token", replacementId, "replacement", expiry, now);
+        ResultSetExtractor<CachedUser> extractor = captureExtractor(replacementId, expiry, now);
+
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getObject("id", UUID.class)).thenReturn(userId);
+        when(resultSet.getString("email")).thenReturn("test@example.com");
+        when(resultSet.getBoolean("activated")).thenReturn(true);
+        when(resultSet.getLong("token_version")).thenReturn(3L);
+        when(resultSet.getObject("role_id", UUID.class)).thenReturn(adminRoleId, userRoleId);
+        when(resultSet.getString("role_name")).thenReturn("ROLE_ADMIN", "ROLE_USER");
+
+        // Act
+        CachedUser user = extractor.extractData(resultSet);
+
+        // Assert
+        assertNotNull(user);
+        assertEquals(userId, user.getId());
+        assertEquals("test@example.com", user.getEmail());
+        assertEquals(3L, user.getTokenVersion());
+        assertNull(user.getCreatedAt());
+        assertEquals(2, user.getRoles().size());
+        assertEquals("ROLE_USER", user.getRoles().get(1).getName());
+    }
+
+    @Test
+    @DisplayName("Should return empty when nothing was rotated")
+    void rotate_NoRows_ShouldReturnEmpty() throws SQLException {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiry = now.plusDays(7);
+        UUID replacementId = UUID.randomUUID();
+        Optional<CachedUser> result = repository.rotate("token", replacementId, "replacement", expiry, now);
+        ResultSetExtractor<CachedUser> extractor = captureExtractor(replacementId, expiry, now);
+        when(resultSet.next()).thenReturn(false);
+
+        // Act & Assert
+        assertNull(extractor.extractData(resultSet));
+        assertEquals(Optional.empty(), result);
+    }
+}
@@ -0,0 +1,101 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("User Token Version Repository PostgreSQL Tests")
+class UserTokenVersionRepositoryImplPostgresTest extends PostgresRepositoryTest {
+
+    private Cache secondLevelCache;
+    private UserTokenVersionRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        secondLevelCache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        repository = new UserTokenVersionRepositoryImpl(jdbcTemplate, entityManagerFactory);
+    }
+
+    private long storedVersion(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Long.class, userId);
+    }
+
+    @Test
+    @DisplayName("Should return each new version and store it")
+    void increment_UserExists_ShouldReturnStoredVersion() {
+        // Arrange
+        UUID userId = insertUser("test@example.com");
+
+        // Act
+        Long first = repository.increment(userId);
+        Long second = repository.increment(userId);
+
+        // Assert
+        assertEquals(1L, first);
+        assertEquals(2L, second);
+        assertEquals(2L, storedVersion(userId));
+        verify(secondLevelCache, times(2)).evict(User.class, userId);
+    }
+
+    @Test
+    @DisplayName("Should return null and touch no row for an unknown user")
+    void increment_UnknownUser_ShouldReturnNull() {
+        // Arrange
+        UUID userId = insertUser("test@example.com");
+
+        // Act
+        Long result = repository.increment(UUID.randomUUID());
+
+        // Assert
+        assertNull(result);
+        assertEquals(0L, storedVersion(userId));
+        verifyNoInteractions(secondLevelCache);
+    }
+
+    @Test
+    @DisplayName("Should give concurrent increments distinct versions without losing any")
+    void increment_Concurrent_ShouldNotLoseUpdates() throws Exception {
+        // Arrange
+        UUID userId = insertUser("test@example.com");
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Callable<Long>> increments = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            increments.add(() -> repository.increment(userId));
+        }
+
+        // Act
+        Set<Long> versions = new TreeSet<>();
+        try {
+            for (Future<Long> version : executor.invokeAll(increments)) {
+                versions.add(version.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(LongStream.rangeClosed(1, callers).boxed().collect(Collectors.toSet()), versions);
+        assertEquals(callers, storedVersion(userId));
+    }
+}
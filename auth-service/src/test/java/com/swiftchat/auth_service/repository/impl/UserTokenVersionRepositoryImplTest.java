@@ -0,0 +1,68 @@
+package com.swiftchat.auth_service.repository.impl;
+
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Token Version Repository Implementation Tests")
+class UserTokenVersionRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @InjectMocks
+    private UserTokenVersionRepositoryImpl repository;
+
+    @Test
+    @DisplayName("Should return the version the database incremented to and drop the cached entity")
+    void increment_UserExists_ShouldReturnNewVersionAndEvict() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(UserTokenVersionRepositoryImpl.INCREMENT_SQL, Long.class, userId))
+                .thenReturn(List.of(8L));
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+
+        // Act
+        Long result = repository.increment(userId);
+
+        // Assert
+        assertEquals(8L, result);
+        verify(secondLevelCache).evict(User.class, userId);
+    }
+
+    @Test
+    @DisplayName("Should return null when no user has the id")
+    void increment_UnknownUser_ShouldReturnNull() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(UserTokenVersionRepositoryImpl.INCREMENT_SQL, Long.class, userId))
+                .thenReturn(List.of());
+
+        // Act
+        Long result = repository.increment(userId);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(entityManagerFactory);
+    }
+}
@@ -1,19 +1,27 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.RefreshResultCache;
+import com.swiftchat.auth_service.cache.UserCache;
 import com.swiftchat.auth_service.dto.*;
 import com.swiftchat.auth_service.exception.InvalidCredentialsException;
 import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
 import com.swiftchat.auth_service.exception.ResourceNotFoundException;
 import com.swiftchat.auth_service.exception.UserNotActivatedException;
 import com.swiftchat.shared.security.model.OAuth2Account;
 import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
 import com.swiftchat.shared.security.model.Role;
 import com.swiftchat.shared.security.model.User;
 import com.swiftchat.auth_service.repository.OAuth2AccountRepository;
 import com.swiftchat.auth_service.repository.UserRepository;
 import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.revocation.AccessTokenDenylist;
 import com.swiftchat.auth_service.service.RefreshTokenService;
 import com.swiftchat.auth_service.service.UserService;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -24,9 +32,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -35,6 +41,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -54,7 +61,10 @@ class AuthServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private UserCache userCache;
+
+    @Mock
+    private LastLoginRecorder lastLoginRecorder;
 
     @Mock
     private JwtService jwtService;
@@ -71,6 +81,9 @@ class AuthServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AccessTokenDenylist accessTokenDenylist;
+
     @Mock
     private Authentication authentication;
 
@@ -80,6 +93,12 @@ class AuthServiceImplTest {
     @Mock
     private UserDetails userDetails;
 
+    @Mock
+    private PasswordRehasher passwordRehasher;
+
+    @Mock
+    private RefreshResultCache refreshResultCache;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -153,16 +172,18 @@ class AuthServiceImplTest {
     class LoginTests {
 
         @Test
-        @DisplayName("Should authenticate and return tokens when credentials are valid")
+        @DisplayName("Should authenticate against one snapshot and return tokens when credentials are valid")
         void login_SuccessfulAuthentication_ShouldReturnAuthResponse() {
             // Arrange
             LoginRequestDto loginRequest = new LoginRequestDto("test@example.com", "password");
+            CachedUser cachedUser = CachedUser.from(testUser);
+            User reference = User.builder().id(userId).build();
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(authentication);
-            when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(testUser));
-            when(userDetailsService.loadUserByUsername(anyString())).thenReturn(userDetails);
+            when(userCache.findByEmail("test@example.com")).thenReturn(cachedUser);
+            when(userRepository.findPasswordHashById(userId)).thenReturn(Optional.of("hashedPassword"));
+            when(passwordEncoder.matches("password", "hashedPassword")).thenReturn(true);
             when(jwtService.generateToken(any(UserDetails.class), any(UUID.class))).thenReturn(accessTokenString);
+            when(userRepository.getReferenceById(userId)).thenReturn(reference);
             when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn(refreshToken);
 
             // Act
@@ -175,28 +196,45 @@ class AuthServiceImplTest {
             assertEquals(userId, response.getUserId());
             assertEquals(testUser.getEmail(), response.getEmail());
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userService).getUserByEmail(loginRequest.getEmail());
-            verify(userService).updateLastLogin(eq(userId), any(LocalDateTime.class));
+            verify(userCache).findByEmail(loginRequest.getEmail());
             verify(jwtService).generateToken(any(UserDetails.class), eq(userId));
-            verify(refreshTokenService).createRefreshToken(testUser);
+            verify(refreshTokenService).createRefreshToken(reference);
+            verify(lastLoginRecorder).record(eq(userId), any(LocalDateTime.class));
+            verify(passwordRehasher).rehashIfNeeded(cachedUser, "hashedPassword", "password");
+            verifyNoInteractions(userService, userDetailsService);
         }
 
         @Test
-        @DisplayName("Should throw ResourceNotFoundException when user is not found")
-        void login_UserNotFound_ShouldThrowResourceNotFoundException() {
+        @DisplayName("Should throw BadCredentialsException after a password check when user is not found")
+        void login_UserNotFound_ShouldThrowBadCredentialsException() {
             // Arrange
             LoginRequestDto loginRequest = new LoginRequestDto("nonexistent@example.com", "password");
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(authentication);
-            when(userService.getUserByEmail(anyString())).thenReturn(Optional.empty());
+            when(userCache.findByEmail(anyString())).thenReturn(null);
+            when(passwordEncoder.encode(anyString())).thenReturn("dummyHash");
 
             // Act & Assert
-            assertThrows(ResourceNotFoundException.class, () -> authService.login(loginRequest));
+            assertThrows(BadCredentialsException.class, () -> authService.login(loginRequest));
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userService).getUserByEmail(loginRequest.getEmail());
+            verify(passwordEncoder).matches("password", "dummyHash");
+            verify(jwtService, never()).generateToken(any(UserDetails.class), any(UUID.class));
+            verify(refreshTokenService, never()).createRefreshToken(any(User.class));
+        }
+
+        @Test
+        @DisplayName("Should throw BadCredentialsException after a password check when the user has no password")
+        void login_UserWithoutPassword_ShouldThrowBadCredentialsException() {
+            // Arrange
+            LoginRequestDto loginRequest = new LoginRequestDto("test@example.com", "password");
+
+            when(userCache.findByEmail(anyString())).thenReturn(CachedUser.from(testUser));
+            when(userRepository.findPasswordHashById(userId)).thenReturn(Optional.empty());
+            when(passwordEncoder.encode(anyString())).thenReturn("dummyHash");
+
+            // Act & Assert
+            assertThrows(BadCredentialsException.class, () -> authService.login(loginRequest));
+
+            verify(passwordEncoder).matches("password", "dummyHash");
             verify(jwtService, never()).generateToken(any(UserDetails.class), any(UUID.class));
         }
 
@@ -207,16 +245,15 @@ class AuthServiceImplTest {
             LoginRequestDto loginRequest = new LoginRequestDto("inactive@example.com", "password");
             testUser.setActivated(false);
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(authentication);
-            when(userService.getUserByEmail(anyString())).thenReturn(Optional.of(testUser));
+            when(userCache.findByEmail(anyString())).thenReturn(CachedUser.from(testUser));
+            when(userRepository.findPasswordHashById(userId)).thenReturn(Optional.of("hashedPassword"));
+            when(passwordEncoder.matches("password", "hashedPassword")).thenReturn(true);
 
             // Act & Assert
             assertThrows(UserNotActivatedException.class, () -> authService.login(loginRequest));
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userService).getUserByEmail(loginRequest.getEmail());
             verify(jwtService, never()).generateToken(any(UserDetails.class), any(UUID.class));
+            verify(lastLoginRecorder, never()).record(any(UUID.class), any(LocalDateTime.class));
         }
 
         @Test
@@ -224,15 +261,18 @@ class AuthServiceImplTest {
         void login_InvalidCredentials_ShouldThrowBadCredentialsException() {
             // Arrange
             LoginRequestDto loginRequest = new LoginRequestDto("test@example.com", "wrongpassword");
+            testUser.setActivated(false);
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenThrow(new BadCredentialsException("Invalid credentials"));
+            when(userCache.findByEmail(anyString())).thenReturn(CachedUser.from(testUser));
+            when(userRepository.findPasswordHashById(userId)).thenReturn(Optional.of("hashedPassword"));
+            when(passwordEncoder.matches("wrongpassword", "hashedPassword")).thenReturn(false);
 
             // Act & Assert
             assertThrows(BadCredentialsException.class, () -> authService.login(loginRequest));
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userService, never()).getUserByEmail(anyString());
+            verify(jwtService, never()).generateToken(any(UserDetails.class), any(UUID.class));
+            verify(refreshTokenService, never()).createRefreshToken(any(User.class));
+            verifyNoInteractions(passwordRehasher);
         }
     }
 
@@ -241,16 +281,11 @@ class AuthServiceImplTest {
     class TokenManagementTests {
 
         @Test
-        @DisplayName("Should return new access and refresh tokens when refresh token is valid")
+        @DisplayName("Should rotate in one store operation and issue the access token from its user")
         void refreshToken_ValidToken_ShouldReturnNewAuthResponse() {
             // Arrange
             TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto(refreshTokenString);
 
-            when(refreshTokenService.findByToken(anyString())).thenReturn(Optional.of(refreshToken));
-            when(refreshTokenService.verifyExpiration(any(RefreshToken.class))).thenReturn(refreshToken);
-            when(userDetailsService.loadUserByUsername(anyString())).thenReturn(userDetails);
-            when(jwtService.generateToken(any(UserDetails.class), any(UUID.class))).thenReturn(accessTokenString);
-
             RefreshToken newRefreshToken = RefreshToken.builder()
                     .id(UUID.randomUUID())
                     .token("new-refresh-token")
@@ -258,7 +293,9 @@ class AuthServiceImplTest {
                     .expiryDate(LocalDateTime.now().plusDays(1))
                     .build();
 
-            when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn(newRefreshToken);
+            when(refreshTokenService.rotate(refreshTokenString))
+                    .thenReturn(new RotatedRefreshToken(newRefreshToken, CachedUser.from(testUser)));
+            when(jwtService.generateToken(any(UserDetails.class), any(UUID.class))).thenReturn(accessTokenString);
 
             // Act
             AuthResponseDto response = authService.refreshToken(refreshRequest);
@@ -269,11 +306,12 @@ class AuthServiceImplTest {
             assertEquals("new-refresh-token", response.getRefreshToken());
             assertEquals(userId, response.getUserId());
 
-            verify(refreshTokenService).findByToken(refreshTokenString);
-            verify(refreshTokenService).verifyExpiration(refreshToken);
-            verify(refreshTokenService).revokeToken(refreshTokenString);
-            verify(refreshTokenService).createRefreshToken(testUser);
+            verify(refreshTokenService).rotate(refreshTokenString);
             verify(jwtService).generateToken(any(UserDetails.class), eq(userId));
+            verify(refreshTokenService, never()).findByToken(anyString());
+            verify(refreshTokenService, never()).createRefreshToken(any(User.class));
+            verify(refreshResultCache).put(refreshTokenString, response);
+            verifyNoInteractions(userDetailsService, userRepository);
         }
 
         @Test
@@ -282,13 +320,14 @@ class AuthServiceImplTest {
             // Arrange
             TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto("nonexistent-token");
 
-            when(refreshTokenService.findByToken(anyString())).thenReturn(Optional.empty());
+            when(refreshTokenService.rotate("nonexistent-token"))
+                    .thenThrow(new InvalidTokenException("Refresh token not found"));
 
             // Act & Assert
             assertThrows(InvalidTokenException.class, () -> authService.refreshToken(refreshRequest));
 
-            verify(refreshTokenService).findByToken("nonexistent-token");
-            verify(refreshTokenService, never()).verifyExpiration(any(RefreshToken.class));
+            verify(refreshResultCache, never()).await(anyString());
+            verifyNoInteractions(jwtService);
         }
 
         @Test
@@ -297,16 +336,71 @@ class AuthServiceImplTest {
             // Arrange
             TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto(refreshTokenString);
 
-            when(refreshTokenService.findByToken(anyString())).thenReturn(Optional.of(refreshToken));
-            when(refreshTokenService.verifyExpiration(any(RefreshToken.class)))
+            when(refreshTokenService.rotate(refreshTokenString))
                     .thenThrow(new InvalidTokenException("Refresh token expired"));
 
             // Act & Assert
             assertThrows(InvalidTokenException.class, () -> authService.refreshToken(refreshRequest));
 
-            verify(refreshTokenService).findByToken(refreshTokenString);
-            verify(refreshTokenService).verifyExpiration(refreshToken);
-            verify(refreshTokenService, never()).revokeToken(anyString());
+            verify(refreshResultCache, never()).await(anyString());
+            verifyNoInteractions(jwtService);
+        }
+
+        @Test
+        @DisplayName("Should reject a revoked token when no concurrent rotation stored a pair")
+        void refreshToken_RevokedToken_ShouldThrowInvalidTokenException() {
+            // Arrange
+            TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto(refreshTokenString);
+
+            when(refreshTokenService.rotate(refreshTokenString))
+                    .thenThrow(new RefreshTokenReusedException("Refresh token was revoked"));
+            when(refreshResultCache.await(refreshTokenString)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThrows(InvalidTokenException.class, () -> authService.refreshToken(refreshRequest));
+
+            verifyNoInteractions(jwtService);
+        }
+
+        @Test
+        @DisplayName("Should return the pair already issued when the token was rotated within the grace period")
+        void refreshToken_RecentlyRotated_ShouldReturnCachedPair() {
+            // Arrange
+            TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto(refreshTokenString);
+            AuthResponseDto issued = AuthResponseDto.builder()
+                    .accessToken(accessTokenString)
+                    .refreshToken("new-refresh-token")
+                    .build();
+            when(refreshResultCache.get(refreshTokenString)).thenReturn(Optional.of(issued));
+
+            // Act
+            AuthResponseDto response = authService.refreshToken(refreshRequest);
+
+            // Assert
+            assertSame(issued, response);
+            verifyNoInteractions(refreshTokenService, jwtService);
+        }
+
+        @Test
+        @DisplayName("Should return the concurrent rotation's pair when it lost the race for the token")
+        void refreshToken_LostRaceToConcurrentRotation_ShouldReturnWinnersPair() {
+            // Arrange
+            TokenRefreshRequestDto refreshRequest = new TokenRefreshRequestDto(refreshTokenString);
+            AuthResponseDto issued = AuthResponseDto.builder()
+                    .accessToken(accessTokenString)
+                    .refreshToken("new-refresh-token")
+                    .build();
+            when(refreshTokenService.rotate(refreshTokenString))
+                    .thenThrow(new RefreshTokenReusedException("Refresh token was revoked"));
+            when(refreshResultCache.await(refreshTokenString)).thenReturn(Optional.of(issued));
+
+            // Act
+            AuthResponseDto response = authService.refreshToken(refreshRequest);
+
+            // Assert
+            assertSame(issued, response);
+            verify(refreshResultCache, never()).put(anyString(), any(AuthResponseDto.class));
+            verifyNoInteractions(jwtService);
         }
 
         @Test
@@ -331,6 +425,42 @@ class AuthServiceImplTest {
             // Assert
             verify(userService).getUserById(userId);
             verify(refreshTokenService).revokeAllUserTokens(testUser);
+            verify(userService).incrementTokenVersion(testUser.getId());
+        }
+
+        @Test
+        @DisplayName("Should revoke the presented access token when logging out")
+        void logout_ShouldRevokeAccessToken() {
+            // Arrange
+            Instant expiration = Instant.now().plusSeconds(300);
+            when(jwtService.parseToken(accessTokenString)).thenReturn(VerifiedToken.builder()
+                    .tokenId("token-id")
+                    .subject(testUser.getEmail())
+                    .userId(userId)
+                    .issuedAt(Instant.now())
+                    .expiration(expiration)
+                    .build());
+
+            // Act
+            authService.logout(refreshTokenString, accessTokenString);
+
+            // Assert
+            verify(refreshTokenService).revokeToken(refreshTokenString);
+            verify(accessTokenDenylist).revokeToken("token-id", expiration);
+        }
+
+        @Test
+        @DisplayName("Should still revoke the refresh token when the access token is invalid")
+        void logout_ShouldIgnoreInvalidAccessToken() {
+            // Arrange
+            when(jwtService.parseToken(accessTokenString)).thenThrow(new MalformedJwtException("bad token"));
+
+            // Act
+            authService.logout(refreshTokenString, accessTokenString);
+
+            // Assert
+            verify(refreshTokenService).revokeToken(refreshTokenString);
+            verifyNoInteractions(accessTokenDenylist);
         }
     }
 
@@ -0,0 +1,158 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Last Login Recorder Tests")
+class LastLoginRecorderTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @Mock
+    private Executor taskExecutor;
+
+    private LastLoginRecorder recorder;
+    private LocalDateTime loginTime;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new LastLoginRecorder(jdbcTemplate, entityManagerFactory, taskExecutor, 3);
+        lenient().when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        loginTime = LocalDateTime.now();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> captureBatches(int times) {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(eq(LastLoginRecorder.UPDATE_SQL), batches.capture());
+        return batches.getAllValues();
+    }
+
+    @Test
+    @DisplayName("Should buffer logins without touching the database")
+    void record_ShouldOnlyBuffer() {
+        // Act
+        recorder.record(UUID.randomUUID(), loginTime);
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, taskExecutor);
+        assertEquals(1, recorder.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should coalesce repeated logins to the latest time")
+    void record_SameUser_ShouldKeepLatestTime() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        recorder.record(userId, loginTime.plusSeconds(5));
+        recorder.record(userId, loginTime);
+
+        // Act
+        int flushed = recorder.flush();
+
+        // Assert
+        assertEquals(1, flushed);
+        List<Object[]> batch = captureBatches(1).get(0);
+        assertEquals(1, batch.size());
+        assertArrayEquals(new Object[] { Timestamp.valueOf(loginTime.plusSeconds(5)), userId,
+                Timestamp.valueOf(loginTime.plusSeconds(5)) }, batch.get(0));
+        verify(secondLevelCache).evict(User.class, userId);
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should write in batches of the flush size")
+    void flush_ShouldSplitIntoBatches() {
+        // Arrange
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            userIds.add(UUID.randomUUID());
+            recorder.record(userIds.get(i), loginTime);
+        }
+
+        // Act
+        int flushed = recorder.flush();
+
+        // Assert
+        assertEquals(7, flushed);
+        List<List<Object[]>> batches = captureBatches(3);
+        assertEquals(List.of(3, 3, 1), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    @DisplayName("Should start an early flush once the flush size is reached")
+    void record_FlushSizeReached_ShouldScheduleFlush() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            recorder.record(UUID.randomUUID(), loginTime);
+        }
+
+        // Assert
+        verify(taskExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Should keep failed batches for the next flush")
+    void flush_WriteFails_ShouldRetryLater() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        recorder.record(userId, loginTime);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[] { 1 });
+
+        // Act
+        int failed = recorder.flush();
+        int retried = recorder.flush();
+
+        // Assert
+        assertEquals(0, failed);
+        assertEquals(1, retried);
+        assertEquals(0, recorder.pendingCount());
+        verify(secondLevelCache, times(1)).evict(User.class, userId);
+    }
+
+    @Test
+    @DisplayName("Should write buffered logins on shutdown")
+    void flushOnShutdown_ShouldWritePending() {
+        // Arrange
+        recorder.record(UUID.randomUUID(), loginTime);
+        recorder.record(UUID.randomUUID(), loginTime);
+
+        // Act
+        recorder.flushOnShutdown();
+
+        // Assert
+        assertEquals(2, captureBatches(1).get(0).size());
+        assertEquals(0, recorder.pendingCount());
+    }
+}
@@ -0,0 +1,220 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftchat.auth_service.event.UserCreatedEvent;
+import com.swiftchat.auth_service.model.OutboxEvent;
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Outbox Relay Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @Mock
+    private KafkaTemplate<String, UserCreatedEvent> kafkaTemplate;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        relay = new OutboxRelay(outboxEventRepository, jobLockRepository, kafkaTemplate, objectMapper,
+                2, 10, 1000, 300, meterRegistryProvider);
+    }
+
+    private void acquireLock(boolean acquired) throws Exception {
+        when(outboxEventRepository.findFirstByOrderByIdAsc())
+                .thenReturn(Optional.of(event(1, UUID.randomUUID(), LocalDateTime.now())));
+        when(jobLockRepository.tryAcquire(eq(OutboxRelay.LOCK_NAME), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class)))
+                .thenReturn(acquired);
+    }
+
+    private OutboxEvent event(long id, UUID userId, LocalDateTime createdAt) throws Exception {
+        UserCreatedEvent payload = UserCreatedEvent.builder()
+                .userId(userId)
+                .email("user" + id + "@example.com")
+                .timestamp(System.currentTimeMillis())
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("user-created")
+                .messageKey(userId.toString())
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, UserCreatedEvent>> acknowledged() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    @Test
+    @DisplayName("Should not take the lock while the outbox is empty")
+    void relay_NothingPending_ShouldNotTakeLock() {
+        // Arrange
+        when(outboxEventRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+
+        // Act
+        int result = relay.relay();
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(jobLockRepository, kafkaTemplate);
+        verify(outboxEventRepository, never()).findAllByOrderByIdAsc(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should do nothing while another replica holds the lock")
+    void relay_LockHeldElsewhere_ShouldNotRead() throws Exception {
+        // Arrange
+        acquireLock(false);
+
+        // Act
+        int result = relay.relay();
+
+        // Assert
+        assertEquals(0, result);
+        verify(outboxEventRepository, never()).findAllByOrderByIdAsc(any(Pageable.class));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Should send each batch keyed by user, delete it once acknowledged and drain until empty")
+    void relay_PendingEvents_ShouldPublishAndDeleteInBatches() throws Exception {
+        // Arrange
+        acquireLock(true);
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        UUID thirdUser = UUID.randomUUID();
+        LocalDateTime oldest = LocalDateTime.now().minusSeconds(30);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1, firstUser, oldest), event(2, secondUser, oldest)))
+                .thenReturn(List.of(event(3, thirdUser, LocalDateTime.now())))
+                .thenReturn(List.of());
+        when(kafkaTemplate.send(eq("user-created"), anyString(), any(UserCreatedEvent.class)))
+                .thenAnswer(invocation -> acknowledged());
+
+        // Act
+        int result = relay.relay();
+
+        // Assert
+        assertEquals(3, result);
+        verify(kafkaTemplate).send(eq("user-created"), eq(firstUser.toString()),
+                argThat(event -> firstUser.equals(event.getUserId())));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3, meterRegistry.get("auth.outbox.relay.published").counter().count());
+        assertEquals(0, meterRegistry.get("auth.outbox.relay.lag").timeGauge().value(TimeUnit.MILLISECONDS));
+        verify(jobLockRepository).release(eq(OutboxRelay.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should keep unacknowledged events, report the lag and stop the run")
+    void relay_SendFails_ShouldKeepEventAndStop() throws Exception {
+        // Arrange
+        acquireLock(true);
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1, firstUser, LocalDateTime.now().minusMinutes(5)),
+                        event(2, secondUser, LocalDateTime.now())));
+        when(kafkaTemplate.send(eq("user-created"), eq(firstUser.toString()), any(UserCreatedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+        when(kafkaTemplate.send(eq("user-created"), eq(secondUser.toString()), any(UserCreatedEvent.class)))
+                .thenReturn(acknowledged());
+
+        // Act
+        int result = relay.relay();
+
+        // Assert
+        assertEquals(1, result);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(outboxEventRepository, times(1)).findAllByOrderByIdAsc(any(Pageable.class));
+        assertEquals(1, meterRegistry.get("auth.outbox.relay.failed").counter().count());
+        assertTrue(meterRegistry.get("auth.outbox.relay.lag").timeGauge().value(TimeUnit.SECONDS) >= 299);
+        verify(jobLockRepository).release(eq(OutboxRelay.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stop the batch at a send that fails synchronously instead of blocking on every event")
+    void relay_SendThrows_ShouldStopBatch() throws Exception {
+        // Arrange
+        acquireLock(true);
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1, firstUser, LocalDateTime.now()),
+                        event(2, secondUser, LocalDateTime.now())));
+        when(kafkaTemplate.send(eq("user-created"), eq(firstUser.toString()), any(UserCreatedEvent.class)))
+                .thenThrow(new KafkaException("Topic user-created not present in metadata after 6000 ms"));
+
+        // Act
+        int result = relay.relay();
+
+        // Assert
+        assertEquals(0, result);
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any(UserCreatedEvent.class));
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxEventRepository, times(1)).findAllByOrderByIdAsc(any(Pageable.class));
+        assertEquals(1, meterRegistry.get("auth.outbox.relay.failed").counter().count());
+        verify(jobLockRepository).release(eq(OutboxRelay.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should not send once the lease cannot cover waiting for the acknowledgements")
+    void relay_LeaseRunningOut_ShouldStopSending() throws Exception {
+        // Arrange
+        OutboxRelay shortLeaseRelay = new OutboxRelay(outboxEventRepository, jobLockRepository, kafkaTemplate,
+                objectMapper, 2, 10, 1000, 1, meterRegistryProvider);
+        acquireLock(true);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(event(1, UUID.randomUUID(), LocalDateTime.now())));
+
+        // Act
+        int result = shortLeaseRelay.relay();
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        verify(jobLockRepository).release(eq(OutboxRelay.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,141 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.shared.security.crypto.PasswordHashingRejectedException;
+import com.swiftchat.shared.security.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Password Rehasher Tests")
+class PasswordRehasherTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @Mock
+    private UserCache userCache;
+
+    private PasswordRehasher rehasher;
+    private CachedUser user;
+
+    @BeforeEach
+    void setUp() {
+        Executor directExecutor = Runnable::run;
+        rehasher = new PasswordRehasher(passwordEncoder, jdbcTemplate, entityManagerFactory, userCache,
+                directExecutor);
+        lenient().when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        user = CachedUser.from(User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .activated(true)
+                .createdAt(LocalDateTime.now())
+                .roles(new HashSet<>())
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should leave hashes that match the current settings alone")
+    void rehashIfNeeded_CurrentHash_ShouldDoNothing() {
+        // Arrange
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldHash")).thenReturn(false);
+
+        // Act
+        rehasher.rehashIfNeeded(user, "$2a$10$oldHash", "password");
+
+        // Assert
+        verify(passwordEncoder, never()).encode(any());
+        verifyNoInteractions(jdbcTemplate, userCache);
+    }
+
+    @Test
+    @DisplayName("Should store the new hash only over the hash that was checked and evict the user")
+    void rehashIfNeeded_OutdatedHash_ShouldRehashAndEvict() {
+        // Arrange
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}$2a$12$newHash");
+        when(jdbcTemplate.update(PasswordRehasher.UPDATE_SQL, "{bcrypt}$2a$12$newHash", user.getId(),
+                "$2a$10$oldHash")).thenReturn(1);
+
+        // Act
+        rehasher.rehashIfNeeded(user, "$2a$10$oldHash", "password");
+
+        // Assert
+        verify(secondLevelCache).evict(User.class, user.getId());
+        verify(userCache).evict(user.getId(), user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should not evict when the password changed after the login read it")
+    void rehashIfNeeded_PasswordChangedMeanwhile_ShouldNotEvict() {
+        // Arrange
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}$2a$12$newHash");
+        when(jdbcTemplate.update(eq(PasswordRehasher.UPDATE_SQL), any(), any(), any())).thenReturn(0);
+
+        // Act
+        rehasher.rehashIfNeeded(user, "$2a$10$oldHash", "password");
+
+        // Assert
+        verifyNoInteractions(secondLevelCache, userCache);
+    }
+
+    @Test
+    @DisplayName("Should skip the rehash when the hashing executor is saturated")
+    void rehashIfNeeded_HashingRejected_ShouldSkip() {
+        // Arrange
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenThrow(new PasswordHashingRejectedException("busy"));
+
+        // Act
+        rehasher.rehashIfNeeded(user, "$2a$10$oldHash", "password");
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, userCache);
+    }
+
+    @Test
+    @DisplayName("Should not fail the login when the task executor rejects the rehash")
+    void rehashIfNeeded_ExecutorRejected_ShouldSkip() {
+        // Arrange
+        rehasher = new PasswordRehasher(passwordEncoder, jdbcTemplate, entityManagerFactory, userCache,
+                task -> {
+                    throw new RejectedExecutionException("full");
+                });
+        when(passwordEncoder.upgradeEncoding("$2a$10$oldHash")).thenReturn(true);
+
+        // Act
+        rehasher.rehashIfNeeded(user, "$2a$10$oldHash", "password");
+
+        // Assert
+        verify(passwordEncoder, never()).encode(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
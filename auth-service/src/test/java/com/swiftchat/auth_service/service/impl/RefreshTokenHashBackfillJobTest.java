@@ -0,0 +1,124 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenHashBackfillRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenHashBackfillRepository.Batch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Refresh Token Hash Backfill Job Tests")
+class RefreshTokenHashBackfillJobTest {
+
+    private static final Batch EMPTY = new Batch(0, null);
+
+    @Mock
+    private RefreshTokenHashBackfillRepository backfillRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+    }
+
+    private RefreshTokenHashBackfillJob job(int maxBatches) {
+        return new RefreshTokenHashBackfillJob(backfillRepository, jobLockRepository, 2, 0, maxBatches, 600,
+                meterRegistryProvider);
+    }
+
+    private void acquireLock(boolean acquired) {
+        when(jobLockRepository.tryAcquire(eq(RefreshTokenHashBackfillJob.LOCK_NAME), anyString(),
+                any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(acquired);
+    }
+
+    @Test
+    @DisplayName("Should skip the run while another replica holds the lock")
+    void backfill_LockHeldElsewhere_ShouldUpdateNothing() {
+        // Arrange
+        acquireLock(false);
+
+        // Act
+        int result = job(10).backfill();
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(backfillRepository);
+        verify(jobLockRepository, never()).release(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should continue each batch after the last id of the previous one until none is left")
+    void backfill_SeveralBatches_ShouldWalkById() {
+        // Arrange
+        acquireLock(true);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(backfillRepository.backfill(null, 2)).thenReturn(new Batch(2, first));
+        when(backfillRepository.backfill(first, 2)).thenReturn(new Batch(1, second));
+        when(backfillRepository.backfill(second, 2)).thenReturn(EMPTY);
+
+        // Act
+        int result = job(10).backfill();
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(3.0, meterRegistry.get("auth.refresh-token.hash-backfill.updated").counter().count());
+        verify(jobLockRepository).release(eq(RefreshTokenHashBackfillJob.LOCK_NAME), anyString(),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stop after the batch budget and leave the rest for the next run")
+    void backfill_BudgetSpent_ShouldStop() {
+        // Arrange
+        acquireLock(true);
+        when(backfillRepository.backfill(any(), eq(2))).thenReturn(new Batch(2, UUID.randomUUID()));
+
+        // Act
+        int result = job(3).backfill();
+
+        // Assert
+        assertEquals(6, result);
+        verify(backfillRepository, times(3)).backfill(any(), eq(2));
+    }
+
+    @Test
+    @DisplayName("Should release the lock when a batch fails")
+    void backfill_DatabaseError_ShouldReleaseLock() {
+        // Arrange
+        acquireLock(true);
+        when(backfillRepository.backfill(null, 2)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act
+        int result = job(10).backfill();
+
+        // Assert
+        assertEquals(0, result);
+        verify(jobLockRepository).release(eq(RefreshTokenHashBackfillJob.LOCK_NAME), anyString(),
+                any(LocalDateTime.class));
+    }
+}
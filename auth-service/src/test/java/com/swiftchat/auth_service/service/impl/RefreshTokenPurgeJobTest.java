@@ -0,0 +1,145 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.repository.JobLockRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.Batch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+
+import static com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.FAMILIES;
+import static com.swiftchat.auth_service.repository.RefreshTokenPurgeRepository.TOKENS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Refresh Token Purge Job Tests")
+class RefreshTokenPurgeJobTest {
+
+    private static final Batch EMPTY = new Batch(0, null);
+
+    @Mock
+    private RefreshTokenPurgeRepository purgeRepository;
+
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+    }
+
+    private RefreshTokenPurgeJob job(int maxBatches) {
+        return new RefreshTokenPurgeJob(purgeRepository, jobLockRepository, 2, 0, maxBatches, 86400, 600,
+                meterRegistryProvider);
+    }
+
+    private void acquireLock(boolean acquired) {
+        when(jobLockRepository.tryAcquire(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(),
+                any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(acquired);
+    }
+
+    private double deleted(String table, String reason) {
+        return meterRegistry.get("auth.refresh-token.purge.deleted")
+                .tag("table", table)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Should skip the run while another replica holds the lock")
+    void purge_LockHeldElsewhere_ShouldDeleteNothing() {
+        // Arrange
+        acquireLock(false);
+
+        // Act
+        int result = job(10).purge();
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(purgeRepository);
+        verify(jobLockRepository, never()).release(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should continue each pass from the last key until a batch comes back short")
+    void purge_FullBatches_ShouldWalkKeysetUntilShortBatch() {
+        // Arrange
+        acquireLock(true);
+        LocalDateTime firstKey = LocalDateTime.now().minusDays(2);
+        LocalDateTime secondKey = LocalDateTime.now().minusDays(1);
+        when(purgeRepository.deleteExpired(eq(TOKENS), isNull(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(new Batch(2, firstKey));
+        when(purgeRepository.deleteExpired(eq(TOKENS), eq(firstKey), any(LocalDateTime.class), eq(2)))
+                .thenReturn(new Batch(1, secondKey));
+        when(purgeRepository.deleteRevoked(eq(TOKENS), isNull(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(new Batch(1, firstKey));
+        when(purgeRepository.deleteExpired(eq(FAMILIES), isNull(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(EMPTY);
+        when(purgeRepository.deleteRevoked(eq(FAMILIES), isNull(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(EMPTY);
+
+        // Act
+        int result = job(10).purge();
+
+        // Assert
+        assertEquals(4, result);
+        assertEquals(3, deleted(TOKENS, "expired"));
+        assertEquals(1, deleted(TOKENS, "revoked"));
+        assertEquals(0, deleted(FAMILIES, "expired"));
+        assertEquals(1, meterRegistry.get("auth.refresh-token.purge.duration").timer().count());
+        verify(jobLockRepository).release(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stop once the run's batch budget is spent")
+    void purge_BudgetSpent_ShouldStopAndRelease() {
+        // Arrange
+        acquireLock(true);
+        when(purgeRepository.deleteExpired(eq(TOKENS), any(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(new Batch(2, LocalDateTime.now().minusDays(1)));
+
+        // Act
+        int result = job(3).purge();
+
+        // Assert
+        assertEquals(6, result);
+        verify(purgeRepository, times(3)).deleteExpired(eq(TOKENS), any(), any(LocalDateTime.class), eq(2));
+        verify(purgeRepository, never()).deleteRevoked(anyString(), any(), any(), anyInt());
+        verify(jobLockRepository).release(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should release the lock when a batch fails")
+    void purge_BatchFails_ShouldReleaseLock() {
+        // Arrange
+        acquireLock(true);
+        when(purgeRepository.deleteExpired(eq(TOKENS), isNull(), any(LocalDateTime.class), eq(2)))
+                .thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        // Act
+        int result = assertDoesNotThrow(() -> job(10).purge());
+
+        // Assert
+        assertEquals(0, result);
+        verify(jobLockRepository).release(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(LocalDateTime.class));
+    }
+}
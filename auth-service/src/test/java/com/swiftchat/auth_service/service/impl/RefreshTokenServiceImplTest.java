@@ -1,9 +1,12 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.swiftchat.auth_service.cache.CachedUser;
 import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
 import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
 import com.swiftchat.shared.security.model.User;
-import com.swiftchat.auth_service.repository.RefreshTokenRepository;
+import com.swiftchat.auth_service.repository.RefreshTokenStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -20,6 +23,8 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,7 +32,7 @@ import static org.mockito.Mockito.*;
 class RefreshTokenServiceImplTest {
 
     @Mock
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @InjectMocks
     private RefreshTokenServiceImpl refreshTokenService;
@@ -88,7 +93,7 @@ class RefreshTokenServiceImplTest {
         @DisplayName("Should create and return a new refresh token")
         void createRefreshToken_ShouldCreateAndReturnNewToken() {
             // Arrange
-            when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(i -> i.getArgument(0));
+            when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(i -> i.getArgument(0));
 
             // Act
             RefreshToken result = refreshTokenService.createRefreshToken(testUser);
@@ -98,9 +103,11 @@ class RefreshTokenServiceImplTest {
             assertEquals(testUser, result.getUser());
             assertFalse(result.isRevoked());
             assertTrue(result.getExpiryDate().isAfter(LocalDateTime.now()));
+            // 32 random bytes as unpadded base64url
+            assertTrue(result.getToken().matches("[A-Za-z0-9_-]{43}"));
 
             // Verify the token was saved
-            verify(refreshTokenRepository).save(any(RefreshToken.class));
+            verify(refreshTokenStore).save(any(RefreshToken.class));
         }
     }
 
@@ -113,7 +120,7 @@ class RefreshTokenServiceImplTest {
         void findByToken_TokenExists_ShouldReturnToken() {
             // Arrange
             String tokenValue = "existing-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
 
             // Act
             Optional<RefreshToken> result = refreshTokenService.findByToken(tokenValue);
@@ -121,7 +128,7 @@ class RefreshTokenServiceImplTest {
             // Assert
             assertTrue(result.isPresent());
             assertEquals(validRefreshToken, result.get());
-            verify(refreshTokenRepository).findByToken(tokenValue);
+            verify(refreshTokenStore).findByToken(tokenValue);
         }
 
         @Test
@@ -129,14 +136,14 @@ class RefreshTokenServiceImplTest {
         void findByToken_TokenDoesNotExist_ShouldReturnEmptyOptional() {
             // Arrange
             String tokenValue = "non-existent-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.empty());
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.empty());
 
             // Act
             Optional<RefreshToken> result = refreshTokenService.findByToken(tokenValue);
 
             // Assert
             assertTrue(result.isEmpty());
-            verify(refreshTokenRepository).findByToken(tokenValue);
+            verify(refreshTokenStore).findByToken(tokenValue);
         }
     }
 
@@ -153,7 +160,7 @@ class RefreshTokenServiceImplTest {
             // Assert
             assertNotNull(result);
             assertEquals(validRefreshToken, result);
-            verify(refreshTokenRepository, never()).delete(any(RefreshToken.class));
+            verify(refreshTokenStore, never()).delete(any(RefreshToken.class));
         }
 
         @Test
@@ -165,7 +172,7 @@ class RefreshTokenServiceImplTest {
             assertEquals("Refresh token expired. Please log in again.", exception.getMessage());
 
             // Verify the expired token was deleted
-            verify(refreshTokenRepository).delete(expiredRefreshToken);
+            verify(refreshTokenStore).delete(expiredRefreshToken);
         }
 
         @Test
@@ -177,7 +184,7 @@ class RefreshTokenServiceImplTest {
             assertEquals("Refresh token was revoked. Please log in again.", exception.getMessage());
 
             // Verify the revoked token was NOT deleted (just remains revoked)
-            verify(refreshTokenRepository, never()).delete(any(RefreshToken.class));
+            verify(refreshTokenStore, never()).delete(any(RefreshToken.class));
         }
     }
 
@@ -190,15 +197,13 @@ class RefreshTokenServiceImplTest {
         void revokeToken_TokenExists_ShouldRevokeToken() {
             // Arrange
             String tokenValue = "token-to-revoke";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
-            when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(validRefreshToken);
+            when(refreshTokenStore.revoke(tokenValue)).thenReturn(true);
 
             // Act
             refreshTokenService.revokeToken(tokenValue);
 
             // Assert
-            assertTrue(validRefreshToken.isRevoked());
-            verify(refreshTokenRepository).save(validRefreshToken);
+            verify(refreshTokenStore).revoke(tokenValue);
         }
 
         @Test
@@ -206,11 +211,87 @@ class RefreshTokenServiceImplTest {
         void revokeToken_TokenDoesNotExist_ShouldThrowInvalidTokenException() {
             // Arrange
             String tokenValue = "non-existent-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.empty());
+            when(refreshTokenStore.revoke(tokenValue)).thenReturn(false);
 
             // Act & Assert
             assertThrows(InvalidTokenException.class, () -> refreshTokenService.revokeToken(tokenValue));
-            verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rotation Tests")
+    class RotationTests {
+
+        @Test
+        @DisplayName("Should return the replacement and its user without reading the token")
+        void rotate_ValidToken_ShouldReturnReplacement() {
+            // Arrange
+            CachedUser user = CachedUser.from(testUser);
+            when(refreshTokenStore.rotate(eq("valid-refresh-token"), anyString(), any(LocalDateTime.class),
+                    any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(user));
+
+            // Act
+            RotatedRefreshToken result = refreshTokenService.rotate("valid-refresh-token");
+
+            // Assert
+            assertSame(user, result.getUser());
+            assertEquals(testUser.getId(), result.getRefreshToken().getUser().getId());
+            assertNotEquals("valid-refresh-token", result.getRefreshToken().getToken());
+            assertFalse(result.getRefreshToken().isRevoked());
+            assertTrue(result.getRefreshToken().getExpiryDate().isAfter(LocalDateTime.now()));
+
+            ArgumentCaptor<String> replacement = ArgumentCaptor.forClass(String.class);
+            verify(refreshTokenStore).rotate(eq("valid-refresh-token"), replacement.capture(),
+                    eq(result.getRefreshToken().getExpiryDate()), any(LocalDateTime.class));
+            assertEquals(result.getRefreshToken().getToken(), replacement.getValue());
+            verify(refreshTokenStore, never()).findByToken(anyString());
+        }
+
+        @Test
+        @DisplayName("Should report reuse of a token already revoked, e.g. by a concurrent rotation")
+        void rotate_AlreadyRevoked_ShouldThrowRefreshTokenReusedException() {
+            // Arrange
+            when(refreshTokenStore.rotate(eq("revoked-refresh-token"), anyString(), any(LocalDateTime.class),
+                    any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(refreshTokenStore.findByToken("revoked-refresh-token"))
+                    .thenReturn(Optional.of(revokedRefreshToken));
+
+            // Act & Assert
+            RefreshTokenReusedException exception = assertThrows(RefreshTokenReusedException.class,
+                    () -> refreshTokenService.rotate("revoked-refresh-token"));
+            assertTrue(exception.getMessage().contains("revoked"));
+        }
+
+        @Test
+        @DisplayName("Should reject an expired token")
+        void rotate_Expired_ShouldThrowInvalidTokenException() {
+            // Arrange
+            when(refreshTokenStore.rotate(eq("expired-refresh-token"), anyString(), any(LocalDateTime.class),
+                    any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(refreshTokenStore.findByToken("expired-refresh-token"))
+                    .thenReturn(Optional.of(expiredRefreshToken));
+
+            // Act & Assert
+            InvalidTokenException exception = assertThrows(InvalidTokenException.class,
+                    () -> refreshTokenService.rotate("expired-refresh-token"));
+            assertFalse(exception instanceof RefreshTokenReusedException);
+            assertTrue(exception.getMessage().contains("expired"));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown token")
+        void rotate_Unknown_ShouldThrowInvalidTokenException() {
+            // Arrange
+            when(refreshTokenStore.rotate(eq("unknown-token"), anyString(), any(LocalDateTime.class),
+                    any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(refreshTokenStore.findByToken("unknown-token")).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("unknown-token"));
         }
     }
 
@@ -228,7 +309,7 @@ class RefreshTokenServiceImplTest {
             refreshTokenService.revokeAllUserTokens(testUser);
 
             // Assert
-            verify(refreshTokenRepository).revokeAllUserTokens(userId);
+            verify(refreshTokenStore).revokeAllByUserId(userId);
         }
     }
 
@@ -241,47 +322,14 @@ class RefreshTokenServiceImplTest {
         void findAllUserTokens_ShouldReturnAllTokens() {
             // Arrange
             List<RefreshToken> expectedTokens = Arrays.asList(validRefreshToken, revokedRefreshToken);
-            when(refreshTokenRepository.findAllByUser(testUser)).thenReturn(expectedTokens);
+            when(refreshTokenStore.findAllByUserId(testUser.getId())).thenReturn(expectedTokens);
 
             // Act
             List<RefreshToken> result = refreshTokenService.findAllUserTokens(testUser);
 
             // Assert
             assertEquals(expectedTokens, result);
-            verify(refreshTokenRepository).findAllByUser(testUser);
-        }
-    }
-
-    @Nested
-    @DisplayName("Delete Expired Tokens Tests")
-    class DeleteExpiredTokensTests {
-
-        @Test
-        @DisplayName("Should delete all expired tokens")
-        void deleteExpiredTokens_ShouldDeleteAllExpiredTokens() {
-            // Arrange
-            List<RefreshToken> expiredTokens = Arrays.asList(expiredRefreshToken);
-            when(refreshTokenRepository.findAllExpiredTokens(any(LocalDateTime.class))).thenReturn(expiredTokens);
-            doNothing().when(refreshTokenRepository).deleteAllExpiredTokens(any(LocalDateTime.class));
-
-            // Act
-            int result = refreshTokenService.deleteExpiredTokens();
-
-            // Assert
-            assertEquals(1, result); // Should return the count of expired tokens found
-            verify(refreshTokenRepository).deleteAllExpiredTokens(any(LocalDateTime.class));
-        }
-
-        @Test
-        @DisplayName("Should handle exceptions when deleting expired tokens")
-        void deleteExpiredTokens_Exception_ShouldHandleGracefully() {
-            // Arrange
-            when(refreshTokenRepository.findAllExpiredTokens(any(LocalDateTime.class)))
-                    .thenThrow(new RuntimeException("Database error"));
-
-            // Act & Assert (should not throw exception and return 0)
-            int result = assertDoesNotThrow(() -> refreshTokenService.deleteExpiredTokens());
-            assertEquals(0, result);
+            verify(refreshTokenStore).findAllByUserId(testUser.getId());
         }
     }
 
@@ -294,7 +342,7 @@ class RefreshTokenServiceImplTest {
         void isTokenValid_ValidToken_ShouldReturnTrue() {
             // Arrange
             String tokenValue = "valid-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.of(validRefreshToken));
 
             // Act
             boolean result = refreshTokenService.isTokenValid(tokenValue);
@@ -308,7 +356,7 @@ class RefreshTokenServiceImplTest {
         void isTokenValid_ExpiredToken_ShouldReturnFalse() {
             // Arrange
             String tokenValue = "expired-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(expiredRefreshToken));
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.of(expiredRefreshToken));
 
             // Act
             boolean result = refreshTokenService.isTokenValid(tokenValue);
@@ -322,7 +370,7 @@ class RefreshTokenServiceImplTest {
         void isTokenValid_RevokedToken_ShouldReturnFalse() {
             // Arrange
             String tokenValue = "revoked-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.of(revokedRefreshToken));
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.of(revokedRefreshToken));
 
             // Act
             boolean result = refreshTokenService.isTokenValid(tokenValue);
@@ -336,7 +384,7 @@ class RefreshTokenServiceImplTest {
         void isTokenValid_NonExistentToken_ShouldReturnFalse() {
             // Arrange
             String tokenValue = "non-existent-token";
-            when(refreshTokenRepository.findByToken(tokenValue)).thenReturn(Optional.empty());
+            when(refreshTokenStore.findByToken(tokenValue)).thenReturn(Optional.empty());
 
             // Act
             boolean result = refreshTokenService.isTokenValid(tokenValue);
@@ -351,7 +399,7 @@ class RefreshTokenServiceImplTest {
     void countActiveTokens_ShouldReturnCount() {
         // Arrange
         long expectedCount = 5;
-        when(refreshTokenRepository.countByUserAndRevokedFalseAndExpiryDateAfter(eq(testUser),
+        when(refreshTokenStore.countActiveByUserId(eq(testUser.getId()),
                 any(LocalDateTime.class)))
                 .thenReturn(expectedCount);
 
@@ -360,7 +408,7 @@ class RefreshTokenServiceImplTest {
 
         // Assert
         assertEquals(expectedCount, result);
-        verify(refreshTokenRepository).countByUserAndRevokedFalseAndExpiryDateAfter(eq(testUser),
+        verify(refreshTokenStore).countActiveByUserId(eq(testUser.getId()),
                 any(LocalDateTime.class));
     }
 }
@@ -0,0 +1,268 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
+import com.swiftchat.auth_service.exception.InvalidTokenException;
+import com.swiftchat.auth_service.exception.RefreshTokenReusedException;
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.model.RefreshTokenFamily;
+import com.swiftchat.auth_service.model.RotatedRefreshToken;
+import com.swiftchat.auth_service.repository.RefreshTokenFamilyStore;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Signed Refresh Token Service Implementation Tests")
+class SignedRefreshTokenServiceImplTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RefreshTokenFamilyStore refreshTokenFamilyStore;
+
+    @Mock
+    private UserCache userCache;
+
+    @InjectMocks
+    private SignedRefreshTokenServiceImpl refreshTokenService;
+
+    private User testUser;
+    private UUID familyId;
+    private UUID tokenId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationInSeconds", 86400L);
+
+        testUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .activated(true)
+                .roles(new HashSet<>())
+                .build();
+        familyId = UUID.randomUUID();
+        tokenId = UUID.randomUUID();
+    }
+
+    private VerifiedToken verifiedRefreshToken() {
+        return VerifiedToken.builder()
+                .tokenId(tokenId.toString())
+                .subject(testUser.getEmail())
+                .userId(testUser.getId())
+                .tokenType(VerifiedToken.REFRESH_TOKEN_TYPE)
+                .expiration(Instant.now().plusSeconds(86400))
+                .familyId(familyId)
+                .build();
+    }
+
+    private RefreshTokenFamily family(UUID currentTokenId, boolean revoked, LocalDateTime expiryDate) {
+        return RefreshTokenFamily.builder()
+                .id(familyId)
+                .userId(testUser.getId())
+                .tokenId(currentTokenId)
+                .expiryDate(expiryDate)
+                .revoked(revoked)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should sign a token for a new family and store only the family")
+    void createRefreshToken_ShouldStoreFamilyAndReturnSignedToken() {
+        // Arrange
+        when(jwtService.generateRefreshToken(eq(testUser), eq(testUser.getId()), any(UUID.class), any(UUID.class)))
+                .thenReturn(TOKEN);
+
+        // Act
+        RefreshToken result = refreshTokenService.createRefreshToken(testUser);
+
+        // Assert
+        ArgumentCaptor<RefreshTokenFamily> family = ArgumentCaptor.forClass(RefreshTokenFamily.class);
+        verify(refreshTokenFamilyStore).create(family.capture());
+        verify(jwtService).generateRefreshToken(testUser, testUser.getId(), family.getValue().getTokenId(),
+                family.getValue().getId());
+        assertEquals(TOKEN, result.getToken());
+        assertEquals(family.getValue().getId(), result.getId());
+        assertEquals(testUser.getId(), family.getValue().getUserId());
+        assertTrue(family.getValue().getExpiryDate().isAfter(LocalDateTime.now()));
+    }
+
+    @Nested
+    @DisplayName("Rotation Tests")
+    class RotationTests {
+
+        @Test
+        @DisplayName("Should move the family to a new token and sign it")
+        void rotate_CurrentToken_ShouldAdvanceFamily() {
+            // Arrange
+            CachedUser user = CachedUser.from(testUser);
+            when(jwtService.parseToken(TOKEN)).thenReturn(verifiedRefreshToken());
+            when(refreshTokenFamilyStore.advance(eq(familyId), eq(tokenId), any(UUID.class),
+                    any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(user));
+            when(jwtService.generateRefreshToken(any(User.class), eq(testUser.getId()), any(UUID.class),
+                    eq(familyId)))
+                    .thenReturn("next.refresh.token");
+
+            // Act
+            RotatedRefreshToken result = refreshTokenService.rotate(TOKEN);
+
+            // Assert
+            assertSame(user, result.getUser());
+            assertEquals("next.refresh.token", result.getRefreshToken().getToken());
+            ArgumentCaptor<UUID> nextTokenId = ArgumentCaptor.forClass(UUID.class);
+            verify(refreshTokenFamilyStore).advance(eq(familyId), eq(tokenId), nextTokenId.capture(),
+                    any(LocalDateTime.class), any(LocalDateTime.class));
+            verify(jwtService).generateRefreshToken(any(User.class), eq(testUser.getId()),
+                    eq(nextTokenId.getValue()), eq(familyId));
+            verify(refreshTokenFamilyStore, never()).findAllById(any());
+        }
+
+        @Test
+        @DisplayName("Should reject an expired token without touching storage")
+        void rotate_ExpiredToken_ShouldNotTouchStorage() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+            // Act & Assert
+            InvalidTokenException exception = assertThrows(InvalidTokenException.class,
+                    () -> refreshTokenService.rotate(TOKEN));
+            assertTrue(exception.getMessage().contains("expired"));
+            verifyNoInteractions(refreshTokenFamilyStore, userCache);
+        }
+
+        @Test
+        @DisplayName("Should reject a forged token without touching storage")
+        void rotate_BadSignature_ShouldNotTouchStorage() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenThrow(new SignatureException("bad signature"));
+
+            // Act & Assert
+            assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(TOKEN));
+            verifyNoInteractions(refreshTokenFamilyStore, userCache);
+        }
+
+        @Test
+        @DisplayName("Should reject an access token presented as a refresh token")
+        void rotate_AccessToken_ShouldNotTouchStorage() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenReturn(VerifiedToken.builder()
+                    .tokenId(tokenId.toString())
+                    .userId(testUser.getId())
+                    .expiration(Instant.now().plusSeconds(900))
+                    .build());
+
+            // Act & Assert
+            assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(TOKEN));
+            verifyNoInteractions(refreshTokenFamilyStore);
+        }
+
+        @Test
+        @DisplayName("Should report reuse of a token the family has moved past")
+        void rotate_SupersededToken_ShouldThrowRefreshTokenReusedException() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenReturn(verifiedRefreshToken());
+            when(refreshTokenFamilyStore.advance(eq(familyId), eq(tokenId), any(UUID.class),
+                    any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(refreshTokenFamilyStore.findAllById(List.of(familyId)))
+                    .thenReturn(List.of(family(UUID.randomUUID(), false, LocalDateTime.now().plusDays(1))));
+
+            // Act & Assert
+            assertThrows(RefreshTokenReusedException.class, () -> refreshTokenService.rotate(TOKEN));
+        }
+
+        @Test
+        @DisplayName("Should reject a token whose family is unknown")
+        void rotate_UnknownFamily_ShouldThrowInvalidTokenException() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenReturn(verifiedRefreshToken());
+            when(refreshTokenFamilyStore.advance(eq(familyId), eq(tokenId), any(UUID.class),
+                    any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(refreshTokenFamilyStore.findAllById(List.of(familyId))).thenReturn(List.of());
+
+            // Act & Assert
+            InvalidTokenException exception = assertThrows(InvalidTokenException.class,
+                    () -> refreshTokenService.rotate(TOKEN));
+            assertFalse(exception instanceof RefreshTokenReusedException);
+        }
+    }
+
+    @Nested
+    @DisplayName("Revoke Token Tests")
+    class RevokeTokenTests {
+
+        @Test
+        @DisplayName("Should revoke the token's family")
+        void revokeToken_ShouldRevokeFamily() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenReturn(verifiedRefreshToken());
+            when(refreshTokenFamilyStore.revoke(familyId)).thenReturn(true);
+
+            // Act
+            refreshTokenService.revokeToken(TOKEN);
+
+            // Assert
+            verify(refreshTokenFamilyStore).revoke(familyId);
+        }
+
+        @Test
+        @DisplayName("Should accept an expired token at logout")
+        void revokeToken_ExpiredToken_ShouldDoNothing() {
+            // Arrange
+            when(jwtService.parseToken(TOKEN)).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+            // Act & Assert
+            assertDoesNotThrow(() -> refreshTokenService.revokeToken(TOKEN));
+            verifyNoInteractions(refreshTokenFamilyStore);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a token the family has moved past as revoked")
+    void findByToken_SupersededToken_ShouldBeRevoked() {
+        // Arrange
+        when(jwtService.parseToken(TOKEN)).thenReturn(verifiedRefreshToken());
+        when(refreshTokenFamilyStore.findAllById(any()))
+                .thenReturn(List.of(family(UUID.randomUUID(), false, LocalDateTime.now().plusDays(1))));
+        when(userCache.findById(testUser.getId())).thenReturn(CachedUser.from(testUser));
+
+        // Act
+        Optional<RefreshToken> result = refreshTokenService.findByToken(TOKEN);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(TOKEN, result.get().getToken());
+        assertTrue(result.get().isRevoked());
+        assertFalse(refreshTokenService.isTokenValid(TOKEN));
+    }
+}
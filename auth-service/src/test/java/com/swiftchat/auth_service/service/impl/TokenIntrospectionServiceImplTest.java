@@ -0,0 +1,256 @@
+package com.swiftchat.auth_service.service.impl;
+
+import com.swiftchat.auth_service.model.RefreshToken;
+import com.swiftchat.auth_service.service.RefreshTokenService;
+import com.swiftchat.shared.security.introspection.TokenIntrospection;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import com.swiftchat.shared.security.model.Role;
+import com.swiftchat.shared.security.model.User;
+import com.swiftchat.shared.security.revocation.AccessTokenDenylist;
+import com.swiftchat.shared.security.revocation.TokenVersionCache;
+import com.swiftchat.shared.security.revocation.TokenVersionChangedEvent;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Token Introspection Service Implementation Tests")
+class TokenIntrospectionServiceImplTest {
+
+    private static final String ACCESS_TOKEN = "header.payload.signature";
+    private static final String EXPIRED_ACCESS_TOKEN = "expired.payload.signature";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    private AccessTokenDenylist accessTokenDenylist;
+    private TokenVersionCache tokenVersionCache;
+    private TokenIntrospectionServiceImpl tokenIntrospectionService;
+
+    private User testUser;
+    private RefreshToken validRefreshToken;
+    private RefreshToken revokedRefreshToken;
+
+    @BeforeEach
+    void setUp() {
+        accessTokenDenylist = new AccessTokenDenylist(1000, 60);
+        tokenVersionCache = new TokenVersionCache(900);
+        tokenIntrospectionService = new TokenIntrospectionServiceImpl(jwtService, refreshTokenService,
+                List.of(accessTokenDenylist, tokenVersionCache));
+
+        testUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .activated(true)
+                .roles(new HashSet<>(Set.of(Role.builder().name("ROLE_USER").build())))
+                .build();
+
+        validRefreshToken = RefreshToken.builder()
+                .user(testUser)
+                .token("valid-refresh-token")
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .revoked(false)
+                .build();
+
+        revokedRefreshToken = RefreshToken.builder()
+                .user(testUser)
+                .token("revoked-refresh-token")
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .revoked(true)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Access token tests")
+    class AccessTokenTests {
+
+        @Test
+        @DisplayName("Should return claims for a valid access token")
+        void shouldReturnClaimsForValidAccessToken() {
+            // Arrange
+            Instant expiration = Instant.now().plusSeconds(900);
+            when(jwtService.parseToken(ACCESS_TOKEN)).thenReturn(VerifiedToken.builder()
+                    .tokenId("token-id")
+                    .subject(testUser.getEmail())
+                    .userId(testUser.getId())
+                    .issuedAt(Instant.now())
+                    .expiration(expiration)
+                    .authorities(List.of("ROLE_USER"))
+                    .build());
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(ACCESS_TOKEN));
+
+            // Assert
+            TokenIntrospection result = results.get(0);
+            assertTrue(result.isActive());
+            assertEquals(TokenIntrospection.ACCESS_TOKEN_TYPE, result.getTokenType());
+            assertEquals(testUser.getEmail(), result.getSubject());
+            assertEquals(testUser.getId(), result.getUserId());
+            assertEquals(List.of("ROLE_USER"), result.getRoles());
+            assertEquals(expiration, result.getExpiresAt());
+            verify(refreshTokenService, never()).findAllByTokenInWithUser(any());
+        }
+
+        @Test
+        @DisplayName("Should report an access token whose jti is denylisted as inactive")
+        void shouldReportDenylistedAccessTokenAsInactive() {
+            // Arrange
+            Instant expiration = Instant.now().plusSeconds(900);
+            when(jwtService.parseToken(ACCESS_TOKEN)).thenReturn(VerifiedToken.builder()
+                    .tokenId("revoked-token-id")
+                    .subject(testUser.getEmail())
+                    .userId(testUser.getId())
+                    .issuedAt(Instant.now())
+                    .expiration(expiration)
+                    .authorities(List.of("ROLE_USER"))
+                    .build());
+            accessTokenDenylist.revokeToken("revoked-token-id", expiration);
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(ACCESS_TOKEN));
+
+            // Assert
+            assertFalse(results.get(0).isActive());
+            assertNull(results.get(0).getSubject());
+        }
+
+        @Test
+        @DisplayName("Should report an access token older than the user's token version as inactive")
+        void shouldReportAccessTokenWithStaleVersionAsInactive() {
+            // Arrange
+            when(jwtService.parseToken(ACCESS_TOKEN)).thenReturn(VerifiedToken.builder()
+                    .tokenId("token-id")
+                    .subject(testUser.getEmail())
+                    .userId(testUser.getId())
+                    .issuedAt(Instant.now())
+                    .expiration(Instant.now().plusSeconds(900))
+                    .authorities(List.of("ROLE_USER"))
+                    .tokenVersion(3L)
+                    .build());
+            tokenVersionCache.apply(new TokenVersionChangedEvent(testUser.getId(), 4L));
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(ACCESS_TOKEN));
+
+            // Assert
+            assertFalse(results.get(0).isActive());
+        }
+
+        @Test
+        @DisplayName("Should report an expired access token as inactive")
+        void shouldReportExpiredAccessTokenAsInactive() {
+            // Arrange
+            when(jwtService.parseToken(EXPIRED_ACCESS_TOKEN))
+                    .thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(EXPIRED_ACCESS_TOKEN));
+
+            // Assert
+            assertFalse(results.get(0).isActive());
+            assertNull(results.get(0).getSubject());
+        }
+    }
+
+    @Nested
+    @DisplayName("Refresh token tests")
+    class RefreshTokenTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Should resolve all refresh tokens with a single query")
+        void shouldResolveRefreshTokensWithSingleQuery() {
+            // Arrange
+            when(refreshTokenService.findAllByTokenInWithUser(any()))
+                    .thenReturn(List.of(validRefreshToken, revokedRefreshToken));
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(
+                    "valid-refresh-token", "revoked-refresh-token", "unknown-refresh-token"));
+
+            // Assert
+            ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+            verify(refreshTokenService, times(1)).findAllByTokenInWithUser(captor.capture());
+            assertEquals(3, captor.getValue().size());
+
+            assertTrue(results.get(0).isActive());
+            assertEquals(TokenIntrospection.REFRESH_TOKEN_TYPE, results.get(0).getTokenType());
+            assertEquals(testUser.getId(), results.get(0).getUserId());
+            assertEquals(List.of("ROLE_USER"), results.get(0).getRoles());
+            assertFalse(results.get(1).isActive());
+            assertFalse(results.get(2).isActive());
+        }
+
+        @Test
+        @DisplayName("Should keep request order for mixed token types")
+        void shouldKeepRequestOrderForMixedTokens() {
+            // Arrange
+            when(jwtService.parseToken(ACCESS_TOKEN)).thenReturn(VerifiedToken.builder()
+                    .tokenId("token-id")
+                    .subject(testUser.getEmail())
+                    .userId(testUser.getId())
+                    .issuedAt(Instant.now())
+                    .expiration(Instant.now().plusSeconds(900))
+                    .authorities(List.of("ROLE_USER"))
+                    .build());
+            when(refreshTokenService.findAllByTokenInWithUser(any()))
+                    .thenReturn(List.of(validRefreshToken));
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(
+                    List.of("valid-refresh-token", ACCESS_TOKEN));
+
+            // Assert
+            assertEquals(TokenIntrospection.REFRESH_TOKEN_TYPE, results.get(0).getTokenType());
+            assertEquals(TokenIntrospection.ACCESS_TOKEN_TYPE, results.get(1).getTokenType());
+        }
+
+        @Test
+        @DisplayName("Should check a signed refresh token against its family, not only its signature")
+        void shouldResolveSignedRefreshTokenThroughItsFamily() {
+            // Arrange
+            String signedRefreshToken = "signed.refresh.token";
+            when(jwtService.parseToken(signedRefreshToken)).thenReturn(VerifiedToken.builder()
+                    .tokenId(UUID.randomUUID().toString())
+                    .subject(testUser.getEmail())
+                    .userId(testUser.getId())
+                    .tokenType(VerifiedToken.REFRESH_TOKEN_TYPE)
+                    .expiration(Instant.now().plusSeconds(900))
+                    .familyId(UUID.randomUUID())
+                    .build());
+            RefreshToken superseded = RefreshToken.builder()
+                    .user(testUser)
+                    .token(signedRefreshToken)
+                    .expiryDate(LocalDateTime.now().plusDays(1))
+                    .revoked(true)
+                    .build();
+            when(refreshTokenService.findAllByTokenInWithUser(any())).thenReturn(List.of(superseded));
+
+            // Act
+            List<TokenIntrospection> results = tokenIntrospectionService.introspect(List.of(signedRefreshToken));
+
+            // Assert
+            assertFalse(results.get(0).isActive());
+            verify(refreshTokenService).findAllByTokenInWithUser(Set.of(signedRefreshToken));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.swiftchat.auth_service.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.UserCache;
 import com.swiftchat.auth_service.dto.UserCreateDto;
 import com.swiftchat.auth_service.dto.UserDto;
 import com.swiftchat.auth_service.dto.UserUpdateDto;
@@ -7,14 +10,18 @@ import com.swiftchat.auth_service.event.UserCreatedEvent;
 import com.swiftchat.auth_service.exception.ResourceNotFoundException;
 import com.swiftchat.auth_service.exception.UserAlreadyExistsException;
 import com.swiftchat.shared.security.model.Role;
+import com.swiftchat.auth_service.model.OutboxEvent;
 import com.swiftchat.auth_service.model.RoleName;
 import com.swiftchat.shared.security.model.User;
 import com.swiftchat.auth_service.model.UserRole;
+import com.swiftchat.auth_service.repository.OutboxEventRepository;
 import com.swiftchat.auth_service.repository.RoleRepository;
 import com.swiftchat.auth_service.repository.UserRepository;
 import com.swiftchat.auth_service.repository.UserRoleRepository;
+import com.swiftchat.auth_service.repository.UserTokenVersionRepository;
 import com.swiftchat.auth_service.service.EmailService;
 import com.swiftchat.auth_service.util.RandomUtil;
+import com.swiftchat.shared.security.revocation.TokenVersionChangedEvent;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -25,15 +32,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,15 +60,30 @@ class UserServiceImplTest {
     @Mock
     private UserRoleRepository userRoleRepository;
 
+    @Mock
+    private UserTokenVersionRepository userTokenVersionRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private KafkaTemplate<String, UserCreatedEvent> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private LastLoginRecorder lastLoginRecorder;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -114,10 +135,6 @@ class UserServiceImplTest {
             when(passwordEncoder.encode(anyString())).thenReturn(encodedPassword);
             when(userRepository.save(any(User.class))).thenReturn(testUser);
             when(roleRepository.findByName(RoleName.ROLE_USER.name())).thenReturn(Optional.of(userRole));
-
-            CompletableFuture<SendResult<String, UserCreatedEvent>> future = CompletableFuture
-                    .completedFuture(mock(SendResult.class));
-            when(kafkaTemplate.send(anyString(), any(UserCreatedEvent.class))).thenReturn(future);
             doNothing().when(emailService).sendActivationEmail(anyString(), anyString());
 
             try (MockedStatic<RandomUtil> randomUtilMock = mockStatic(RandomUtil.class)) {
@@ -141,7 +158,17 @@ class UserServiceImplTest {
                 assertFalse(capturedUser.isActivated());
 
                 verify(emailService).sendActivationEmail(eq(createDto.getEmail()), eq(activationKey));
-                verify(kafkaTemplate).send(eq("user-created"), any(UserCreatedEvent.class));
+
+                // The event is written to the outbox, keyed by user
+                ArgumentCaptor<OutboxEvent> eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+                verify(outboxEventRepository).save(eventCaptor.capture());
+                OutboxEvent outboxEvent = eventCaptor.getValue();
+                assertEquals("user-created", outboxEvent.getTopic());
+                assertEquals(userId.toString(), outboxEvent.getMessageKey());
+                UserCreatedEvent event = assertDoesNotThrow(
+                        () -> objectMapper.readValue(outboxEvent.getPayload(), UserCreatedEvent.class));
+                assertEquals(userId, event.getUserId());
+                assertEquals(testUser.getEmail(), event.getEmail());
             }
         }
 
@@ -169,10 +196,6 @@ class UserServiceImplTest {
             when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
             when(userRepository.save(any(User.class))).thenReturn(testUser);
             when(roleRepository.findByName(anyString())).thenReturn(Optional.empty()); // Role not found
-
-            CompletableFuture<SendResult<String, UserCreatedEvent>> future = CompletableFuture
-                    .completedFuture(mock(SendResult.class));
-            when(kafkaTemplate.send(anyString(), any(UserCreatedEvent.class))).thenReturn(future);
             doNothing().when(emailService).sendActivationEmail(anyString(), anyString());
 
             try (MockedStatic<RandomUtil> randomUtilMock = mockStatic(RandomUtil.class)) {
@@ -185,7 +208,7 @@ class UserServiceImplTest {
                 assertNotNull(createdUser);
                 verify(userRepository).save(any(User.class));
                 // Even though role assignment failed, user should still be created
-                verify(kafkaTemplate).send(eq("user-created"), any(UserCreatedEvent.class));
+                verify(outboxEventRepository).save(any(OutboxEvent.class));
                 verify(emailService).sendActivationEmail(anyString(), anyString());
             }
         }
@@ -199,7 +222,7 @@ class UserServiceImplTest {
         @DisplayName("Should return user when ID exists")
         void getUserById_UserExists_ShouldReturnUser() {
             // Arrange
-            when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+            when(userCache.findById(userId)).thenReturn(CachedUser.from(testUser));
 
             // Act
             Optional<User> result = userService.getUserById(userId);
@@ -214,7 +237,7 @@ class UserServiceImplTest {
         void getUserById_UserDoesNotExist_ShouldReturnEmptyOptional() {
             // Arrange
             UUID nonExistentId = UUID.randomUUID();
-            when(userRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+            when(userCache.findById(nonExistentId)).thenReturn(null);
 
             // Act
             Optional<User> result = userService.getUserById(nonExistentId);
@@ -228,7 +251,8 @@ class UserServiceImplTest {
         void getUserByEmail_UserExists_ShouldReturnUser() {
             // Arrange
             String email = "test@example.com";
-            when(userRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+            testUser.getRoles().add(userRole);
+            when(userCache.findByEmail(email)).thenReturn(CachedUser.from(testUser));
 
             // Act
             Optional<User> result = userService.getUserByEmail(email);
@@ -236,6 +260,9 @@ class UserServiceImplTest {
             // Assert
             assertTrue(result.isPresent());
             assertEquals(email, result.get().getEmail());
+            assertEquals(testUser.getTokenVersion(), result.get().getTokenVersion());
+            assertEquals(Set.of(RoleName.ROLE_USER.name()), userService.mapToDto(result.get()).getRoles());
+            verify(userRepository, never()).findByEmail(anyString());
         }
 
         @Test
@@ -277,6 +304,7 @@ class UserServiceImplTest {
             assertNotNull(updatedUser);
             assertEquals("newEncodedPassword", updatedUser.getPasswordHash());
             verify(userRepository).save(testUser);
+            verify(userCache).evict(testUser);
         }
 
         @Test
@@ -311,6 +339,7 @@ class UserServiceImplTest {
 
             // Assert
             verify(userRepository).delete(testUser);
+            verify(userCache).evict(testUser);
         }
 
         @Test
@@ -364,6 +393,7 @@ class UserServiceImplTest {
             assertTrue(testUser.isActivated());
             assertNull(testUser.getActivationKey());
             verify(userRepository).save(testUser);
+            verify(userCache).evict(testUser);
         }
 
         @Test
@@ -417,6 +447,7 @@ class UserServiceImplTest {
             when(userRepository.findByResetKey(resetKey)).thenReturn(Optional.of(testUser));
             when(passwordEncoder.encode(newPassword)).thenReturn(encodedPassword);
             when(userRepository.save(any(User.class))).thenReturn(testUser);
+            when(userTokenVersionRepository.increment(userId)).thenReturn(1L);
 
             // Act
             userService.completePasswordReset(resetKey, newPassword);
@@ -424,7 +455,9 @@ class UserServiceImplTest {
             // Assert
             assertEquals(encodedPassword, testUser.getPasswordHash());
             assertNull(testUser.getResetKey());
+            assertEquals(1L, testUser.getTokenVersion());
             verify(userRepository).save(testUser);
+            verify(eventPublisher).publishEvent(new TokenVersionChangedEvent(testUser.getId(), 1L));
         }
     }
 
@@ -512,6 +545,7 @@ class UserServiceImplTest {
                     .build();
 
             when(userRoleRepository.save(any(UserRole.class))).thenReturn(userRole);
+            when(userTokenVersionRepository.increment(userId)).thenReturn(1L);
 
             // Act
             userService.addRoleToUser(userId, RoleName.ROLE_ADMIN.name());
@@ -519,6 +553,7 @@ class UserServiceImplTest {
             // Assert
             verify(userRoleRepository).save(any(UserRole.class));
             assertTrue(testUser.getRoles().contains(adminRole));
+            assertEquals(1L, testUser.getTokenVersion());
         }
 
         @Test
@@ -541,6 +576,7 @@ class UserServiceImplTest {
 
             // Assert
             verify(userRoleRepository, never()).save(any(UserRole.class));
+            assertEquals(0L, testUser.getTokenVersion());
         }
 
         @Test
@@ -563,6 +599,7 @@ class UserServiceImplTest {
             when(roleRepository.findByName(RoleName.ROLE_ADMIN.name())).thenReturn(Optional.of(adminRole));
             when(userRoleRepository.findByUserAndRole(testUser, adminRole)).thenReturn(Optional.of(userRole));
             doNothing().when(userRoleRepository).delete(any(UserRole.class));
+            when(userTokenVersionRepository.increment(userId)).thenReturn(1L);
 
             // Act
             userService.removeRoleFromUser(userId, RoleName.ROLE_ADMIN.name());
@@ -570,6 +607,38 @@ class UserServiceImplTest {
             // Assert
             verify(userRoleRepository).delete(userRole);
             assertFalse(testUser.getRoles().contains(adminRole));
+            assertEquals(1L, testUser.getTokenVersion());
+        }
+
+        @Test
+        @DisplayName("Should publish the version the database incremented to, not one derived from the entity")
+        void incrementTokenVersion_ShouldPublishNewVersion() {
+            // Arrange
+            testUser.setTokenVersion(4L);
+            when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+            // Another node incremented the version since this copy was cached
+            when(userTokenVersionRepository.increment(userId)).thenReturn(6L);
+
+            // Act
+            userService.incrementTokenVersion(userId);
+
+            // Assert
+            assertEquals(6L, testUser.getTokenVersion());
+            verify(userRepository, never()).save(any(User.class));
+            verify(eventPublisher).publishEvent(new TokenVersionChangedEvent(userId, 6L));
+            verify(userCache).evict(testUser);
+        }
+
+        @Test
+        @DisplayName("Should fail when the user row is gone")
+        void incrementTokenVersion_UserDeleted_ShouldThrow() {
+            // Arrange
+            when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+            when(userTokenVersionRepository.increment(userId)).thenReturn(null);
+
+            // Act & Assert
+            assertThrows(ResourceNotFoundException.class, () -> userService.incrementTokenVersion(userId));
+            verify(eventPublisher, never()).publishEvent(any(TokenVersionChangedEvent.class));
         }
 
         @Test
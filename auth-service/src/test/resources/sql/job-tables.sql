@@ -0,0 +1,25 @@
+-- The columns of V1, V3 and V4 that the purge and the job locks use, without the PostgreSQL-only partial indexes
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+  id UUID PRIMARY KEY,
+  expiry_date TIMESTAMP NOT NULL,
+  revoked BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+  id UUID PRIMARY KEY,
+  expiry_date TIMESTAMP NOT NULL,
+  revoked BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS job_locks (
+  name VARCHAR(64) PRIMARY KEY,
+  locked_until TIMESTAMP NOT NULL,
+  locked_by VARCHAR(255)
+);
+
+DELETE FROM refresh_tokens;
+DELETE FROM refresh_token_families;
+DELETE FROM job_locks;
+INSERT INTO job_locks (name, locked_until) VALUES ('refresh-token-purge', '1970-01-01 00:00:00');
@@ -0,0 +1,139 @@
+package com.swiftchat.benchmarks;
+
+import com.swiftchat.shared.security.jwt.JwtAuthenticationFilter;
+import com.swiftchat.shared.security.jwt.JwtKeyProvider;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedTokenCache;
+import com.swiftchat.shared.security.revocation.AccessTokenDenylist;
+import com.swiftchat.shared.security.revocation.TokenVersionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Helpers for wiring production beans outside of a Spring context.
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * Base64 HMAC key of the same length as the one used in the test profile.
+     */
+    public static final String JWT_SECRET = "dGVzdHNlY3JldHRlc3RzZWNyZXR0ZXN0c2VjcmV0dGVzdHNlY3JldHRlc3RzZWNyZXQ=";
+    public static final long JWT_EXPIRATION_SECONDS = 900;
+    public static final long JWT_REFRESH_EXPIRATION_SECONDS = 604800;
+
+    private BenchmarkSupport() {
+        // Utility class, should not be instantiated
+    }
+
+    /**
+     * Creates a JwtService configured like a running service.
+     *
+     * @return An initialised JwtService
+     */
+    public static JwtService jwtService() {
+        return jwtService(true);
+    }
+
+    /**
+     * Creates a JwtService with or without the fixed-claim HS256 codec.
+     *
+     * @param hs256FastPath Whether to encode and decode through the HS256 codec
+     *                      instead of jjwt
+     * @return An initialised JwtService
+     */
+    public static JwtService jwtService(boolean hs256FastPath) {
+        JwtService jwtService = new JwtService(hmacKeyProvider());
+        setField(jwtService, "jwtExpiration", JWT_EXPIRATION_SECONDS);
+        setField(jwtService, "refreshExpiration", JWT_REFRESH_EXPIRATION_SECONDS);
+        setField(jwtService, "hs256FastPathEnabled", hs256FastPath);
+        jwtService.init();
+        return jwtService;
+    }
+
+    /**
+     * Creates a key provider that signs with the HMAC secret, like the default
+     * configuration.
+     *
+     * @return An initialised JwtKeyProvider
+     */
+    public static JwtKeyProvider hmacKeyProvider() {
+        JwtKeyProvider keyProvider = new JwtKeyProvider();
+        setField(keyProvider, "secret", JWT_SECRET);
+        setField(keyProvider, "algorithm", "HS256");
+        setField(keyProvider, "keyStoreLocation", "");
+        setField(keyProvider, "jwksUri", "");
+        keyProvider.init();
+        return keyProvider;
+    }
+
+    /**
+     * Creates a JwtService backed by a verified token cache.
+     *
+     * @return An initialised JwtService with caching enabled
+     */
+    public static JwtService cachingJwtService() {
+        JwtService jwtService = jwtService();
+        setField(jwtService, "tokenCache", verifiedTokenCache());
+        return jwtService;
+    }
+
+    /**
+     * Creates a verified token cache without metrics.
+     *
+     * @return A new VerifiedTokenCache
+     */
+    public static VerifiedTokenCache verifiedTokenCache() {
+        return new VerifiedTokenCache(10_000, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    /**
+     * Creates a JwtAuthenticationFilter with the revocation checks a service
+     * gets by default.
+     *
+     * @param jwtService         The JwtService to verify tokens with
+     * @param userDetailsService The user lookup
+     * @param statelessAuth      Whether to build the principal from the claims
+     * @return A ready filter
+     */
+    public static JwtAuthenticationFilter jwtAuthenticationFilter(
+            JwtService jwtService, UserDetailsService userDetailsService, boolean statelessAuth) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+        setField(filter, "statelessAuthEnabled", statelessAuth);
+        setField(filter, "revocationChecks", List.of(
+                new AccessTokenDenylist(100_000, 60),
+                new TokenVersionCache(JWT_EXPIRATION_SECONDS)));
+        return filter;
+    }
+
+    /**
+     * @return A user with one role, as loaded by the UserDetailsService
+     */
+    public static UserDetails userDetails() {
+        return new User("bench@swiftchat.com", "unused", true, true, true, true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    /**
+     * Sets a private field, standing in for Spring's {@code @Value} injection.
+     *
+     * @param target    The object to modify
+     * @param fieldName The field name
+     * @param value     The value to set
+     */
+    public static void setField(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set field " + fieldName, e);
+        }
+    }
+}
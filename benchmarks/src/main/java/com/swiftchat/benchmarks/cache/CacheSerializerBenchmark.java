@@ -0,0 +1,75 @@
+package com.swiftchat.benchmarks.cache;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swiftchat.auth_service.cache.CachedUser;
+import com.swiftchat.auth_service.cache.CachedUserCodec;
+import com.swiftchat.auth_service.cache.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and compact binary Redis serializers on a cached user
+ * with two roles, configured as in CacheConfig.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+    @Param({ "json", "binary" })
+    private String serializer;
+
+    private RedisSerializer<Object> redisSerializer;
+    private CachedUser user;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        redisSerializer = "binary".equals(serializer)
+                ? new CompactRedisSerializer(json, new CachedUserCodec())
+                : json;
+
+        user = CachedUser.builder()
+                .id(UUID.randomUUID())
+                .email("benchmark.user@example.com")
+                .activated(true)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15))
+                .lastLoginAt(LocalDateTime.of(2024, 6, 12, 8, 5, 42))
+                .tokenVersion(3)
+                .roles(List.of(new CachedUser.CachedRole(UUID.randomUUID(), "ROLE_USER"),
+                        new CachedUser.CachedRole(UUID.randomUUID(), "ROLE_ADMIN")))
+                .build();
+        encoded = redisSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,87 @@
+package com.swiftchat.benchmarks.security;
+
+import com.swiftchat.benchmarks.BenchmarkSupport;
+import com.swiftchat.shared.security.jwt.JwtAuthenticationFilter;
+import com.swiftchat.shared.security.jwt.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request in JwtAuthenticationFilter, from the
+ * Authorization header to a populated SecurityContext, using mock servlet
+ * objects and an in-memory UserDetailsService.
+ *
+ * <p>
+ * {@code statelessAuth} compares loading the user per request with building
+ * the principal from the token claims; {@code tokenCache} toggles the
+ * verified token cache. The revocation checks are the ones a service gets by
+ * default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean statelessAuth;
+
+    @Param({ "false", "true" })
+    private boolean tokenCache;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain filterChain;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = tokenCache ? BenchmarkSupport.cachingJwtService() : BenchmarkSupport.jwtService();
+        UserDetails userDetails = BenchmarkSupport.userDetails();
+        UserDetailsService userDetailsService = username -> userDetails;
+
+        filter = BenchmarkSupport.jwtAuthenticationFilter(jwtService, userDetailsService, statelessAuth);
+
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(userDetails, UUID.randomUUID()));
+        response = new MockHttpServletResponse();
+        filterChain = (servletRequest, servletResponse) -> {
+        };
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws ServletException, IOException {
+        // doFilter delegates to doFilterInternal once per request
+        filter.doFilter(request, response, filterChain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // The filter skips requests that are already authenticated
+        SecurityContextHolder.clearContext();
+        if (authentication == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        return authentication;
+    }
+}
@@ -0,0 +1,63 @@
+package com.swiftchat.benchmarks.security;
+
+import com.swiftchat.benchmarks.BenchmarkSupport;
+import com.swiftchat.shared.security.jwt.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the public JwtService operations, with and without the
+ * verified token cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean tokenCache;
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private UUID userId;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = tokenCache ? BenchmarkSupport.cachingJwtService() : BenchmarkSupport.jwtService();
+        userDetails = BenchmarkSupport.userDetails();
+        userId = UUID.randomUUID();
+        accessToken = jwtService.generateToken(userDetails, userId);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails, userId);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(accessToken, userDetails);
+    }
+}
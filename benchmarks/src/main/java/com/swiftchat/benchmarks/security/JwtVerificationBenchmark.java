@@ -0,0 +1,106 @@
+package com.swiftchat.benchmarks.security;
+
+import com.swiftchat.benchmarks.BenchmarkSupport;
+import com.swiftchat.shared.security.jwt.JwtService;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the token checks JwtAuthenticationFilter performs per request.
+ * Runs on a single thread, so the score is requests per second per core.
+ *
+ * <ul>
+ * <li>{@code multiParse}: the previous sequence of extractUsername,
+ * isTokenRefreshToken and isTokenValid, each building a new parser and
+ * verifying the HMAC again (four verifications in total).</li>
+ * <li>{@code parseOnce}: a single {@link JwtService#parseToken(String)} call
+ * whose result answers every check.</li>
+ * <li>{@code parseOnceCached}: the same call with the verified token cache
+ * enabled, so repeat presentations of a token skip verification.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private JwtService jwtService;
+    private JwtService cachingJwtService;
+    private SecretKey signingKey;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkSupport.jwtService();
+        cachingJwtService = BenchmarkSupport.cachingJwtService();
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkSupport.JWT_SECRET));
+        userDetails = BenchmarkSupport.userDetails();
+        accessToken = jwtService.generateToken(userDetails, UUID.randomUUID());
+    }
+
+    @Benchmark
+    public boolean multiParse() {
+        String username = legacyClaims(accessToken).getSubject();
+        if ("refresh".equals(legacyClaims(accessToken).get("tokenType"))) {
+            return false;
+        }
+        return legacyClaims(accessToken).getSubject().equals(userDetails.getUsername())
+                && username != null
+                && !legacyClaims(accessToken).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        VerifiedToken token = jwtService.parseToken(accessToken);
+        if (token.isRefreshToken()) {
+            return false;
+        }
+        return jwtService.isTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public boolean parseOnceCached() {
+        VerifiedToken token = cachingJwtService.parseToken(accessToken);
+        if (token.isRefreshToken()) {
+            return false;
+        }
+        return cachingJwtService.isTokenValid(token, userDetails);
+    }
+
+    /**
+     * Mirrors the previous JwtService.extractAllClaims, which built a parser per
+     * call.
+     */
+    private Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(signingKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,58 @@
+package com.swiftchat.benchmarks.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two RandomUtil implementations: common-utils encodes 32 random
+ * bytes as base64url, auth-service picks 20 alphanumeric characters one at a
+ * time. Both share a single SecureRandom, so multi-threaded runs also show
+ * contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomUtilBenchmark {
+
+    @Benchmark
+    public String commonActivationKey() {
+        return com.swiftchat.common.util.RandomUtil.generateActivationKey();
+    }
+
+    @Benchmark
+    public String commonResetKey() {
+        return com.swiftchat.common.util.RandomUtil.generateResetKey();
+    }
+
+    @Benchmark
+    public String commonSecureToken() {
+        return com.swiftchat.common.util.RandomUtil.generateSecureToken(32);
+    }
+
+    @Benchmark
+    public String authServiceActivationKey() {
+        return com.swiftchat.auth_service.util.RandomUtil.generateActivationKey();
+    }
+
+    @Benchmark
+    public String authServiceResetKey() {
+        return com.swiftchat.auth_service.util.RandomUtil.generateResetKey();
+    }
+
+    @Benchmark
+    public String authServiceRefreshToken() {
+        return com.swiftchat.auth_service.util.RandomUtil.generateRefreshToken();
+    }
+}
@@ -0,0 +1,32 @@
+#!/bin/bash
+
+# Builds and runs the JMH benchmarks with the GC profiler and writes the
+# results as JSON, named after the current branch and commit so runs on
+# different branches can be compared (for example with jmh.morethan.io).
+#
+# Usage: scripts/run-benchmarks.sh [JMH benchmark filter] [extra JMH options]
+# Example: scripts/run-benchmarks.sh JwtAuthenticationFilterBenchmark -f 2
+
+set -e
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS_DIR="$ROOT_DIR/benchmarks/results"
+
+BRANCH="$(git -C "$ROOT_DIR" rev-parse --abbrev-ref HEAD | tr '/' '-')"
+COMMIT="$(git -C "$ROOT_DIR" rev-parse --short HEAD)"
+RESULT_FILE="$RESULTS_DIR/jmh-$BRANCH-$COMMIT.json"
+
+echo "Installing shared libraries..."
+(cd "$ROOT_DIR" && mvn -B -q -N install)
+(cd "$ROOT_DIR/shared-libs" && mvn -B -q install -DskipTests)
+
+echo "Building benchmarks..."
+(cd "$ROOT_DIR/benchmarks" && mvn -B -q package -DskipTests)
+
+mkdir -p "$RESULTS_DIR"
+echo "Running benchmarks, results will be written to $RESULT_FILE"
+java -jar "$ROOT_DIR/benchmarks/target/benchmarks.jar" \
+  -prof gc \
+  -rf json \
+  -rff "$RESULT_FILE" \
+  "$@"
@@ -1,24 +1,120 @@
 package com.swiftchat.shared.security.config;
 
+import com.swiftchat.shared.security.crypto.BoundedPasswordEncoder;
+import com.swiftchat.shared.security.crypto.PasswordHashingCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Configuration class for providing a PasswordEncoder bean.
  * Separated from SecurityConfig to avoid circular dependencies.
  */
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
 
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    /** Algorithm for new hashes, {@value #BCRYPT} or {@value #ARGON2}. */
+    @Value("${password-hashing.algorithm:bcrypt}")
+    private String algorithm;
+
+    /** How long one hash should take when the work factor is calibrated. */
+    @Value("${password-hashing.target-millis:250}")
+    private long targetMillis;
+
+    /** BCrypt strength; 0 calibrates it at startup. */
+    @Value("${password-hashing.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${password-hashing.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${password-hashing.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    /** Argon2 iterations; 0 calibrates them at startup. */
+    @Value("${password-hashing.argon2.iterations:0}")
+    private int argon2Iterations;
+
+    @Value("${password-hashing.bounded.enabled:true}")
+    private boolean boundedEnabled;
+
+    /** Hashing threads; 0 uses one per CPU. */
+    @Value("${password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
     /**
      * Provides the password encoder.
      *
-     * @return BCryptPasswordEncoder for secure password hashing
+     * <p>
+     * New hashes use {@code password-hashing.algorithm} and are stored with an
+     * id prefix such as {@code {bcrypt}}; hashes of either algorithm are
+     * accepted, as are the unprefixed BCrypt hashes written before. The work
+     * factor of the algorithm in use is calibrated to
+     * {@code password-hashing.target-millis} unless set explicitly, so pin it
+     * when nodes run on different hardware. {@code upgradeEncoding} reports
+     * hashes with another algorithm, no prefix or a lower work factor, so
+     * callers can rehash them after a successful login.
+     *
+     * <p>
+     * Hashing runs on a dedicated bounded executor unless
+     * {@code password-hashing.bounded.enabled} is false.
+     *
+     * @param meterRegistry Metrics registry, if metrics are enabled
+     * @return DelegatingPasswordEncoder for secure password hashing
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        Duration target = Duration.ofMillis(targetMillis);
+        boolean useArgon2 = ARGON2.equals(algorithm);
+        if (!useArgon2 && !BCRYPT.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password-hashing.algorithm: " + algorithm);
+        }
+
+        // Only the algorithm in use is calibrated; the other one only verifies
+        // hashes, which carry their own work factor
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : useArgon2 ? PasswordHashingCalibrator.BCRYPT_MIN_STRENGTH
+                        : PasswordHashingCalibrator.bcryptStrength(target);
+        int iterations = argon2Iterations > 0 ? argon2Iterations
+                : useArgon2 ? PasswordHashingCalibrator.argon2Iterations(target, argon2MemoryKib, argon2Parallelism)
+                        : PasswordHashingCalibrator.ARGON2_MIN_ITERATIONS;
+        if (useArgon2) {
+            log.info("Hashing passwords with Argon2id: {} KiB, {} lanes, {} iterations",
+                    argon2MemoryKib, argon2Parallelism, iterations);
+        } else {
+            log.info("Hashing passwords with BCrypt strength {}", strength);
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, PasswordHashingCalibrator.argon2(argon2MemoryKib, argon2Parallelism, iterations));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        if (!boundedEnabled) {
+            return delegating;
+        }
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, hashingThreads, queueCapacity,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 }
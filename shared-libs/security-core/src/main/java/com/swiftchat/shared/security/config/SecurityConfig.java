@@ -1,5 +1,6 @@
 package com.swiftchat.shared.security.config;
 
+import com.swiftchat.shared.security.introspection.IntrospectionClientAuthorization;
 import com.swiftchat.shared.security.jwt.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -46,6 +47,7 @@ public class SecurityConfig {
             "/api/auth/verify",
             "/api/auth/reset-password",
             "/api/auth/reset-password/**",
+            "/.well-known/jwks.json",
             "/actuator/**",
             "/v3/api-docs/**",
             "/swagger-ui/**",
@@ -53,7 +55,10 @@ public class SecurityConfig {
 
     };
 
+    private static final String INTROSPECTION_ENDPOINT = "/api/auth/introspect/batch";
+
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final IntrospectionClientAuthorization introspectionClientAuthorization;
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
 
@@ -73,6 +78,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(INTROSPECTION_ENDPOINT).access(introspectionClientAuthorization)
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -0,0 +1,85 @@
+package com.swiftchat.shared.security.crypto;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks password hashing work factors that take about a target time on the
+ * current hardware.
+ *
+ * <p>
+ * Each method times a cheap setting and extrapolates, since hashing cost
+ * grows predictably with the work factor: it doubles per BCrypt strength
+ * step and grows linearly with Argon2 iterations. The result is never below
+ * the minimum, so a slow machine keeps hashes at least as strong as before,
+ * and never above the maximum, so a misconfigured target cannot stall logins.
+ */
+public final class PasswordHashingCalibrator {
+
+    /** Spring's default strength, used for every hash before calibration existed. */
+    public static final int BCRYPT_MIN_STRENGTH = 10;
+    public static final int BCRYPT_MAX_STRENGTH = 16;
+
+    public static final int ARGON2_MIN_ITERATIONS = 2;
+    public static final int ARGON2_MAX_ITERATIONS = 10;
+    public static final int ARGON2_SALT_LENGTH = 16;
+    public static final int ARGON2_HASH_LENGTH = 32;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashingCalibrator() {
+    }
+
+    /**
+     * @param target The time one hash should take
+     * @return The highest BCrypt strength whose hash fits in the target
+     */
+    public static int bcryptStrength(Duration target) {
+        long nanos = fastestEncode(new BCryptPasswordEncoder(BCRYPT_MIN_STRENGTH));
+        int strength = BCRYPT_MIN_STRENGTH;
+        while (strength < BCRYPT_MAX_STRENGTH && nanos * 2 <= target.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        return strength;
+    }
+
+    /**
+     * @param target      The time one hash should take
+     * @param memoryKib   Memory per hash in KiB
+     * @param parallelism Lanes per hash
+     * @return The Argon2 iteration count whose hash fits in the target
+     */
+    public static int argon2Iterations(Duration target, int memoryKib, int parallelism) {
+        long perIteration = Math.max(1, fastestEncode(argon2(memoryKib, parallelism, 1)));
+        long iterations = target.toNanos() / perIteration;
+        return (int) Math.max(ARGON2_MIN_ITERATIONS, Math.min(ARGON2_MAX_ITERATIONS, iterations));
+    }
+
+    /**
+     * @return An Argon2id encoder with the given cost and the standard salt
+     *         and hash lengths
+     */
+    public static Argon2PasswordEncoder argon2(int memoryKib, int parallelism, int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+
+    /**
+     * Times a few hashes after a warm-up and keeps the fastest, which is the
+     * least disturbed by JIT compilation and other startup work.
+     */
+    private static long fastestEncode(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
@@ -0,0 +1,12 @@
+package com.swiftchat.shared.security.crypto;
+
+/**
+ * Thrown when the password hashing executor is saturated and cannot accept
+ * more work. Services should answer with 503 so clients back off and retry.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.swiftchat.shared.security.introspection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Admits callers of the batch introspection endpoint that present one of the
+ * keys in {@code jwt.introspection.client-keys} in the
+ * {@value #CLIENT_KEY_HEADER} header, as {@link TokenIntrospectionClient}
+ * does with {@code jwt.introspection.client-key}.
+ *
+ * <p>
+ * Without a key the endpoint would tell anyone whether a token is active.
+ * Keys are compared as SHA-256 digests in constant time, and every request
+ * is denied while no key is configured.
+ */
+@Component
+public class IntrospectionClientAuthorization implements AuthorizationManager<RequestAuthorizationContext> {
+
+    public static final String CLIENT_KEY_HEADER = "X-Introspection-Key";
+
+    private final List<byte[]> keyDigests = new ArrayList<>();
+
+    public IntrospectionClientAuthorization(@Value("${jwt.introspection.client-keys:}") List<String> clientKeys) {
+        for (String clientKey : clientKeys) {
+            if (!clientKey.isBlank()) {
+                keyDigests.add(digest(clientKey.trim()));
+            }
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        String clientKey = context.getRequest().getHeader(CLIENT_KEY_HEADER);
+        if (clientKey == null || keyDigests.isEmpty()) {
+            return new AuthorizationDecision(false);
+        }
+
+        byte[] presented = digest(clientKey);
+        boolean granted = false;
+        // Every key is compared so the time taken does not reveal which one matched
+        for (byte[] keyDigest : keyDigests) {
+            granted |= MessageDigest.isEqual(keyDigest, presented);
+        }
+        return new AuthorizationDecision(granted);
+    }
+
+    private static byte[] digest(String clientKey) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(clientKey.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.swiftchat.shared.security.introspection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Introspection result for a single access or refresh token, as returned by
+ * auth-service's {@code /api/auth/introspect/batch} endpoint.
+ * Only {@code active} is set for tokens that are unknown, expired or revoked.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospection {
+
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private boolean active;
+    private String tokenType;
+    private String subject;
+    private UUID userId;
+    private List<String> roles;
+    private Instant expiresAt;
+
+    public static TokenIntrospection inactive() {
+        return TokenIntrospection.builder().active(false).build();
+    }
+}
@@ -0,0 +1,269 @@
+package com.swiftchat.shared.security.introspection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client for auth-service's batch introspection endpoint, for services that
+ * cannot verify JWTs locally.
+ *
+ * <p>
+ * Calls made within {@code jwt.introspection.batch-window-ms} of each other
+ * are sent as one request of up to {@code jwt.introspection.max-batch-size}
+ * tokens, concurrent lookups of the same token share one result, and results
+ * are cached until the token expires. Inactive results are cached for
+ * {@code jwt.introspection.cache.inactive-ttl} seconds, and no result is kept
+ * longer than {@code jwt.introspection.cache.max-ttl} so revocations are
+ * picked up. Requests carry {@code jwt.introspection.client-key}, which
+ * auth-service must list in {@code jwt.introspection.client-keys} (see
+ * {@link IntrospectionClientAuthorization}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.introspection.uri")
+public class TokenIntrospectionClient {
+
+    private static final long REQUEST_TIMEOUT_SECONDS = 10;
+
+    private final String introspectionUri;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final Cache<String, TokenIntrospection> cache;
+    private final Map<String, CompletableFuture<TokenIntrospection>> inFlight = new ConcurrentHashMap<>();
+    private final List<String> pending = new ArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    public TokenIntrospectionClient(
+            @Value("${jwt.introspection.uri}") String introspectionUri,
+            @Value("${jwt.introspection.client-key}") String clientKey,
+            @Value("${jwt.introspection.batch-window-ms:5}") long batchWindowMillis,
+            @Value("${jwt.introspection.max-batch-size:100}") int maxBatchSize,
+            @Value("${jwt.introspection.cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${jwt.introspection.cache.inactive-ttl:30}") long inactiveTtlSeconds,
+            @Value("${jwt.introspection.cache.max-ttl:300}") long maxTtlSeconds) {
+        this.introspectionUri = introspectionUri;
+        this.headers.set(IntrospectionClientAuthorization.CLIENT_KEY_HEADER, clientKey);
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new ResultExpiry(
+                        Duration.ofSeconds(inactiveTtlSeconds), Duration.ofSeconds(maxTtlSeconds)))
+                .build();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "token-introspection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Introspects a token, blocking until its batch has been answered.
+     *
+     * @param token The access or refresh token
+     * @return The introspection result
+     * @throws IllegalStateException If auth-service could not be reached
+     */
+    public TokenIntrospection introspect(String token) {
+        return await(introspectAsync(token));
+    }
+
+    /**
+     * Introspects several tokens, sharing batches with concurrent callers.
+     *
+     * @param tokens The tokens to introspect
+     * @return Results keyed by token, in iteration order of the input
+     */
+    public Map<String, TokenIntrospection> introspectAll(Collection<String> tokens) {
+        Map<String, CompletableFuture<TokenIntrospection>> futures = new LinkedHashMap<>();
+        for (String token : tokens) {
+            futures.computeIfAbsent(token, this::introspectAsync);
+        }
+
+        Map<String, TokenIntrospection> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<TokenIntrospection>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), await(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Queues a token for the next batch unless its result is already cached or
+     * being fetched.
+     *
+     * @param token The access or refresh token
+     * @return A future completed when the batch has been answered
+     */
+    public CompletableFuture<TokenIntrospection> introspectAsync(String token) {
+        TokenIntrospection cached = cache.getIfPresent(token);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<TokenIntrospection> future = new CompletableFuture<>();
+        CompletableFuture<TokenIntrospection> existing = inFlight.putIfAbsent(token, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<String> fullBatch = null;
+        synchronized (pending) {
+            pending.add(token);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drainPending();
+            } else if (pending.size() == 1) {
+                scheduler.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            List<String> batch = fullBatch;
+            scheduler.execute(() -> send(batch));
+        }
+        return future;
+    }
+
+    public long estimatedCacheSize() {
+        return cache.estimatedSize();
+    }
+
+    RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    private TokenIntrospection await(CompletableFuture<TokenIntrospection> future) {
+        try {
+            return future.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while introspecting token", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Token introspection failed", e);
+        }
+    }
+
+    private void flush() {
+        List<String> batch;
+        synchronized (pending) {
+            batch = drainPending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private List<String> drainPending() {
+        List<String> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void send(List<String> batch) {
+        try {
+            BatchResponse response = restTemplate.postForObject(
+                    introspectionUri, new HttpEntity<>(Map.of("tokens", batch), headers), BatchResponse.class);
+            List<TokenIntrospection> results = response != null ? response.getResults() : null;
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("Introspection response does not match the request");
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                String token = batch.get(i);
+                TokenIntrospection result = results.get(i);
+                cache.put(token, result);
+                complete(token, result);
+            }
+            log.debug("Introspected {} tokens in one request", batch.size());
+        } catch (Exception e) {
+            log.warn("Token introspection request for {} tokens failed: {}", batch.size(), e.getMessage());
+            for (String token : batch) {
+                CompletableFuture<TokenIntrospection> future = inFlight.remove(token);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void complete(String token, TokenIntrospection result) {
+        CompletableFuture<TokenIntrospection> future = inFlight.remove(token);
+        if (future != null) {
+            future.complete(result);
+        }
+    }
+
+    @Data
+    static class BatchResponse {
+        private List<TokenIntrospection> results;
+    }
+
+    /**
+     * Keeps active results until the token expires and inactive ones briefly.
+     */
+    private static final class ResultExpiry implements Expiry<String, TokenIntrospection> {
+
+        private final Duration inactiveTtl;
+        private final Duration maxTtl;
+
+        private ResultExpiry(Duration inactiveTtl, Duration maxTtl) {
+            this.inactiveTtl = inactiveTtl;
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, TokenIntrospection result, long currentTime) {
+            if (!result.isActive() || result.getExpiresAt() == null) {
+                return inactiveTtl.toNanos();
+            }
+            Duration remaining = Duration.between(Instant.now(), result.getExpiresAt());
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return Math.min(remaining.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenIntrospection result, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(token, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, TokenIntrospection result, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.swiftchat.shared.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Claim names and encodings of the compact (v2) token format.
+ *
+ * <p>
+ * v1 tokens carry {@code userId} as a 36 character UUID string and roles as
+ * an array of names. v2 tokens mark themselves with {@code "v":2}, carry the
+ * user id as 16 Base64URL-encoded bytes under {@code uid}, the roles as a
+ * {@link RoleRegistry} bitmask under {@code rl}, and use {@code tv} and
+ * {@code tt} for the token version and type, and {@code fid} for the family
+ * of a signed refresh token. The registered claims
+ * ({@code sub}, {@code jti}, {@code iat}, {@code exp}) are unchanged, except
+ * that {@code jti} is also a Base64URL UUID.
+ */
+final class CompactClaims {
+
+    static final int FORMAT_VERSION = 2;
+
+    static final String VERSION = "v";
+    static final String USER_ID = "uid";
+    static final String ROLE_MASK = "rl";
+    static final String TOKEN_VERSION = "tv";
+    static final String TOKEN_TYPE = "tt";
+    static final String FAMILY_ID = "fid";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CompactClaims() {
+        // Utility class, should not be instantiated
+    }
+
+    /**
+     * @return The UUID as 22 Base64URL characters
+     */
+    static String encodeUuid(UUID uuid) {
+        ByteBuffer bytes = ByteBuffer.allocate(16);
+        bytes.putLong(uuid.getMostSignificantBits());
+        bytes.putLong(uuid.getLeastSignificantBits());
+        return ENCODER.encodeToString(bytes.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException If the value is not 16 Base64URL bytes
+     */
+    static UUID decodeUuid(String value) {
+        byte[] bytes = DECODER.decode(value);
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Compact UUID must be 16 bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
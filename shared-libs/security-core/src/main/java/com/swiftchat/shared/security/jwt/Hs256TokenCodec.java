@@ -0,0 +1,640 @@
+package com.swiftchat.shared.security.jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Allocation-lean HS256 encoder and decoder for the fixed claim sets
+ * {@link JwtService} issues, in both the v1 and the compact v2 format.
+ *
+ * <p>
+ * Output is byte-for-byte what jjwt produces for the same claims: the same
+ * {@code {"alg":"HS256"}} header, claims in map iteration order followed by
+ * {@code jti}, {@code sub}, {@code iat} and {@code exp}, and Jackson's string
+ * escaping, which escapes both halves of a surrogate pair instead of writing
+ * 4-byte UTF-8. Each thread keeps its own {@link Mac} and scratch buffers, and
+ * Base64URL is written straight into those buffers, so the only allocation per
+ * token is the resulting string.
+ *
+ * <p>
+ * Both directions return null for anything outside the fixed claim set
+ * (unknown claims, escaped strings, fractional numbers, expired tokens) and
+ * the caller falls back to jjwt, which then produces the usual result or
+ * exception.
+ */
+final class Hs256TokenCodec {
+
+    /** Base64URL of {@code {"alg":"HS256"}}. */
+    static final String HEADER_SEGMENT = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int SIGNATURE_SEGMENT_LENGTH = 43;
+
+    private static final byte[] HEADER_BYTES = HEADER_SEGMENT.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64URL_INVERSE = new byte[128];
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] JTI = ascii("jti");
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] IAT = ascii("iat");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] USER_ID = ascii(JwtService.USER_ID_CLAIM);
+    private static final byte[] TOKEN_TYPE = ascii(JwtService.TOKEN_TYPE_CLAIM);
+    private static final byte[] ROLES = ascii(JwtService.ROLES_CLAIM);
+    private static final byte[] TOKEN_VERSION = ascii(JwtService.TOKEN_VERSION_CLAIM);
+    private static final byte[] FAMILY_ID = ascii(JwtService.FAMILY_ID_CLAIM);
+    private static final byte[] COMPACT_VERSION = ascii(CompactClaims.VERSION);
+    private static final byte[] COMPACT_USER_ID = ascii(CompactClaims.USER_ID);
+    private static final byte[] COMPACT_ROLE_MASK = ascii(CompactClaims.ROLE_MASK);
+    private static final byte[] COMPACT_TOKEN_VERSION = ascii(CompactClaims.TOKEN_VERSION);
+    private static final byte[] COMPACT_TOKEN_TYPE = ascii(CompactClaims.TOKEN_TYPE);
+    private static final byte[] COMPACT_FAMILY_ID = ascii(CompactClaims.FAMILY_ID);
+
+    static {
+        Arrays.fill(BASE64URL_INVERSE, (byte) -1);
+        for (int i = 0; i < BASE64URL.length; i++) {
+            BASE64URL_INVERSE[BASE64URL[i]] = (byte) i;
+        }
+    }
+
+    private final ThreadLocal<Buffers> buffers;
+
+    Hs256TokenCodec(SecretKey key) {
+        // Fail at startup rather than on the first request if the key is unusable
+        newMac(key);
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(newMac(key)));
+    }
+
+    /**
+     * Encodes and signs a token.
+     *
+     * @param claims     Custom claims, written in iteration order. Values must be
+     *                   strings, integral numbers or iterables of strings.
+     * @param tokenId    The {@code jti} claim
+     * @param subject    The {@code sub} claim
+     * @param issuedAt   The {@code iat} claim in epoch seconds
+     * @param expiration The {@code exp} claim in epoch seconds
+     * @return The compact JWS, or null if a claim is outside the supported set
+     */
+    String encode(Map<String, Object> claims, String tokenId, String subject, long issuedAt, long expiration) {
+        Buffers b = buffers.get();
+        b.json.reset();
+
+        b.json.put('{');
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            if (isRegisteredClaim(claim.getKey()) || !writeMember(b.json, claim.getKey(), claim.getValue())) {
+                return null;
+            }
+        }
+        if (!writeMember(b.json, "jti", tokenId)
+                || !writeMember(b.json, "sub", subject)) {
+            return null;
+        }
+        writeMember(b.json, "iat", issuedAt);
+        writeMember(b.json, "exp", expiration);
+        b.json.put('}');
+
+        int payloadLength = base64Length(b.json.length);
+        int signingInputLength = HEADER_BYTES.length + 1 + payloadLength;
+        byte[] out = b.out.ensure(signingInputLength + 1 + SIGNATURE_SEGMENT_LENGTH);
+
+        System.arraycopy(HEADER_BYTES, 0, out, 0, HEADER_BYTES.length);
+        out[HEADER_BYTES.length] = '.';
+        base64UrlEncode(b.json.bytes, b.json.length, out, HEADER_BYTES.length + 1);
+
+        sign(b, out, signingInputLength);
+        out[signingInputLength] = '.';
+        base64UrlEncode(b.signature, SIGNATURE_LENGTH, out, signingInputLength + 1);
+
+        return new String(out, 0, signingInputLength + 1 + SIGNATURE_SEGMENT_LENGTH, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verifies and decodes a token.
+     *
+     * @param token     The compact JWS
+     * @param nowMillis Current time used for the expiry check
+     * @return The verified token, or null if the fast path cannot decide and
+     *         jjwt must handle the token
+     */
+    VerifiedToken decode(String token, long nowMillis) {
+        int headerEnd = HEADER_BYTES.length;
+        if (!token.startsWith(HEADER_SEGMENT) || token.length() <= headerEnd || token.charAt(headerEnd) != '.') {
+            return null;
+        }
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.length() - payloadEnd - 1 != SIGNATURE_SEGMENT_LENGTH) {
+            return null;
+        }
+
+        Buffers b = buffers.get();
+        byte[] input = b.out.ensure(payloadEnd);
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7f) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+
+        sign(b, input, payloadEnd);
+        if (!signatureMatches(token, payloadEnd + 1, b.signature)) {
+            return null;
+        }
+
+        int jsonLength = base64UrlDecode(input, headerEnd + 1, payloadEnd, b.json.ensure(payloadEnd));
+        if (jsonLength < 0) {
+            return null;
+        }
+        VerifiedToken verified = new PayloadReader(b.json.bytes, jsonLength).read();
+        if (verified == null || verified.isExpired(Instant.ofEpochMilli(nowMillis))) {
+            return null;
+        }
+        return verified;
+    }
+
+    private void sign(Buffers b, byte[] input, int length) {
+        try {
+            b.mac.update(input, 0, length);
+            b.mac.doFinal(b.signature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Constant-time comparison of the signature segment against the expected MAC. */
+    private static boolean signatureMatches(String token, int offset, byte[] expected) {
+        int diff = 0;
+        int bits = 0;
+        int value = 0;
+        int index = 0;
+        for (int i = offset; i < token.length(); i++) {
+            char c = token.charAt(i);
+            int digit = c < 128 ? BASE64URL_INVERSE[c] : -1;
+            if (digit < 0) {
+                return false;
+            }
+            value = (value << 6) | digit;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                diff |= expected[index++] ^ (byte) (value >> bits);
+            }
+        }
+        // The two leftover bits of the last character must be zero in canonical Base64URL
+        diff |= value & ((1 << bits) - 1);
+        return index == SIGNATURE_LENGTH && diff == 0;
+    }
+
+    /** jjwt moves or drops these when set through the builder, so they must come from the arguments. */
+    private static boolean isRegisteredClaim(String name) {
+        return name.length() == 3 && (name.equals("jti") || name.equals("sub") || name.equals("iat")
+                || name.equals("exp") || name.equals("nbf") || name.equals("iss") || name.equals("aud"));
+    }
+
+    private static boolean writeMember(ByteBuffer json, String name, Object value) {
+        if (json.length > 1) {
+            json.put(',');
+        }
+        if (!writeString(json, name)) {
+            return false;
+        }
+        json.put(':');
+
+        if (value instanceof String) {
+            // jjwt drops blank strings, which would change the payload
+            return !((String) value).isEmpty() && writeString(json, (String) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(json, ((Number) value).longValue());
+            return true;
+        }
+        if (value instanceof Iterable<?>) {
+            json.put('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!(element instanceof String)) {
+                    return false;
+                }
+                if (!first) {
+                    json.put(',');
+                }
+                first = false;
+                if (!writeString(json, (String) element)) {
+                    return false;
+                }
+            }
+            json.put(']');
+            return true;
+        }
+        return false;
+    }
+
+    private static void writeMember(ByteBuffer json, String name, long value) {
+        json.put(',');
+        writeString(json, name);
+        json.put(':');
+        writeLong(json, value);
+    }
+
+    /**
+     * Writes a JSON string the way Jackson does, including its hex escapes for
+     * characters outside the BMP. Control characters would need
+     * Jackson's exact escape choices, so those strings go through jjwt instead.
+     */
+    private static boolean writeString(ByteBuffer json, String value) {
+        json.put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20) {
+                return false;
+            }
+            if (c == '"' || c == '\\') {
+                json.put('\\');
+                json.put(c);
+            } else if (c < 0x80) {
+                json.put(c);
+            } else if (c < 0x800) {
+                json.put(0xc0 | (c >> 6));
+                json.put(0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // Jackson escapes each half of a pair rather than writing 4-byte UTF-8
+                json.put('\\');
+                json.put('u');
+                json.put(HEX_UPPER[c >> 12]);
+                json.put(HEX_UPPER[(c >> 8) & 0xf]);
+                json.put(HEX_UPPER[(c >> 4) & 0xf]);
+                json.put(HEX_UPPER[c & 0xf]);
+            } else {
+                json.put(0xe0 | (c >> 12));
+                json.put(0x80 | ((c >> 6) & 0x3f));
+                json.put(0x80 | (c & 0x3f));
+            }
+        }
+        json.put('"');
+        return true;
+    }
+
+    private static void writeLong(ByteBuffer json, long value) {
+        if (value == Long.MIN_VALUE) {
+            for (int i = 0; i < "-9223372036854775808".length(); i++) {
+                json.put("-9223372036854775808".charAt(i));
+            }
+            return;
+        }
+        if (value < 0) {
+            json.put('-');
+            value = -value;
+        }
+        int start = json.length;
+        do {
+            json.put((int) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        // Digits were written least significant first
+        for (int i = start, j = json.length - 1; i < j; i++, j--) {
+            byte tmp = json.bytes[i];
+            json.bytes[i] = json.bytes[j];
+            json.bytes[j] = tmp;
+        }
+    }
+
+    static int base64Length(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    private static void base64UrlEncode(byte[] src, int length, byte[] dst, int offset) {
+        int i = 0;
+        int o = offset;
+        for (; i + 3 <= length; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[o++] = BASE64URL[bits >>> 18];
+            dst[o++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[o++] = BASE64URL[(bits >>> 6) & 0x3f];
+            dst[o++] = BASE64URL[bits & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[o++] = BASE64URL[bits >>> 18];
+            dst[o] = BASE64URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[o++] = BASE64URL[bits >>> 18];
+            dst[o++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[o] = BASE64URL[(bits >>> 6) & 0x3f];
+        }
+    }
+
+    /**
+     * @return The number of bytes written, or -1 if the input is not canonical
+     *         unpadded Base64URL
+     */
+    private static int base64UrlDecode(byte[] src, int from, int to, byte[] dst) {
+        int bits = 0;
+        int value = 0;
+        int o = 0;
+        for (int i = from; i < to; i++) {
+            int digit = BASE64URL_INVERSE[src[i]];
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 6) | digit;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                dst[o++] = (byte) (value >> bits);
+            }
+        }
+        return bits >= 6 ? -1 : o;
+    }
+
+    private static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + MAC_ALGORITHM, e);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Per-thread MAC and scratch space. */
+    private static final class Buffers {
+        final Mac mac;
+        final byte[] signature = new byte[SIGNATURE_LENGTH];
+        final ByteBuffer json = new ByteBuffer(512);
+        final ByteBuffer out = new ByteBuffer(1024);
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+    /** Growable byte array; deliberately tiny so it stays on the fast path. */
+    private static final class ByteBuffer {
+        byte[] bytes;
+        int length;
+
+        ByteBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        byte[] ensure(int capacity) {
+            if (bytes.length < capacity) {
+                bytes = new byte[Math.max(capacity, bytes.length * 2)];
+            }
+            return bytes;
+        }
+
+        void put(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+    }
+
+    /**
+     * Reads the flat claim object this codec writes, in either token format.
+     * Anything else (unknown claims, escapes, fractions, nested objects, v2
+     * claims without a leading {@code "v":2}) makes {@link #read()} return
+     * null.
+     */
+    private static final class PayloadReader {
+        private final byte[] json;
+        private final int end;
+        private int pos;
+
+        private String tokenId;
+        private String subject;
+        private String userId;
+        private String tokenType;
+        private long issuedAt = -1;
+        private long expiration = -1;
+        private List<String> roles;
+        private Long tokenVersion;
+        private boolean compact;
+        private Integer roleMask;
+        private String familyId;
+
+        PayloadReader(byte[] json, int end) {
+            this.json = json;
+            this.end = end;
+        }
+
+        VerifiedToken read() {
+            try {
+                if (!consume('{')) {
+                    return null;
+                }
+                if (!consume('}')) {
+                    do {
+                        if (!readMember()) {
+                            return null;
+                        }
+                    } while (consume(','));
+                    if (!consume('}')) {
+                        return null;
+                    }
+                }
+                if (pos != end) {
+                    return null;
+                }
+                UUID parsedUserId = null;
+                if (userId != null) {
+                    parsedUserId = compact ? CompactClaims.decodeUuid(userId) : UUID.fromString(userId);
+                }
+                UUID parsedFamilyId = null;
+                if (familyId != null) {
+                    parsedFamilyId = compact ? CompactClaims.decodeUuid(familyId) : UUID.fromString(familyId);
+                }
+                return new VerifiedToken(
+                        tokenId,
+                        subject,
+                        parsedUserId,
+                        tokenType,
+                        issuedAt >= 0 ? Instant.ofEpochSecond(issuedAt) : null,
+                        expiration >= 0 ? Instant.ofEpochSecond(expiration) : null,
+                        roleMask != null ? RoleRegistry.namesOf(roleMask) : roles,
+                        tokenVersion,
+                        roleMask,
+                        parsedFamilyId);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        private boolean readMember() {
+            int nameStart = pos + 1;
+            if (!skipString()) {
+                return false;
+            }
+            int nameEnd = pos - 1;
+            if (!consume(':')) {
+                return false;
+            }
+
+            if (nameIs(COMPACT_VERSION, nameStart, nameEnd)) {
+                // JwtService always writes "v" first; anything else is left to jjwt
+                compact = pos == 5 && readLong() == CompactClaims.FORMAT_VERSION;
+                return compact;
+            }
+            if (nameIs(JTI, nameStart, nameEnd)) {
+                return (tokenId = readString()) != null;
+            }
+            if (nameIs(SUB, nameStart, nameEnd)) {
+                return (subject = readString()) != null;
+            }
+            if (nameIs(IAT, nameStart, nameEnd)) {
+                return (issuedAt = readLong()) >= 0;
+            }
+            if (nameIs(EXP, nameStart, nameEnd)) {
+                return (expiration = readLong()) >= 0;
+            }
+            if (nameIs(ROLES, nameStart, nameEnd)) {
+                return roleMask == null && (roles = readStringArray()) != null;
+            }
+            return compact ? readCompactMember(nameStart, nameEnd) : readLegacyMember(nameStart, nameEnd);
+        }
+
+        private boolean readCompactMember(int nameStart, int nameEnd) {
+            if (nameIs(COMPACT_USER_ID, nameStart, nameEnd)) {
+                return (userId = readString()) != null;
+            }
+            if (nameIs(COMPACT_TOKEN_TYPE, nameStart, nameEnd)) {
+                return (tokenType = readString()) != null;
+            }
+            if (nameIs(COMPACT_ROLE_MASK, nameStart, nameEnd)) {
+                long mask = readLong();
+                if (roles != null || mask < 0 || mask > Integer.MAX_VALUE || !RoleRegistry.isValid((int) mask)) {
+                    return false;
+                }
+                roleMask = (int) mask;
+                return true;
+            }
+            if (nameIs(COMPACT_TOKEN_VERSION, nameStart, nameEnd)) {
+                return (tokenVersion = readTokenVersion()) != null;
+            }
+            if (nameIs(COMPACT_FAMILY_ID, nameStart, nameEnd)) {
+                return (familyId = readString()) != null;
+            }
+            return false;
+        }
+
+        private boolean readLegacyMember(int nameStart, int nameEnd) {
+            if (nameIs(USER_ID, nameStart, nameEnd)) {
+                return (userId = readString()) != null;
+            }
+            if (nameIs(TOKEN_TYPE, nameStart, nameEnd)) {
+                return (tokenType = readString()) != null;
+            }
+            if (nameIs(TOKEN_VERSION, nameStart, nameEnd)) {
+                return (tokenVersion = readTokenVersion()) != null;
+            }
+            if (nameIs(FAMILY_ID, nameStart, nameEnd)) {
+                return (familyId = readString()) != null;
+            }
+            return false;
+        }
+
+        private Long readTokenVersion() {
+            if (pos < end && json[pos] == '-') {
+                return null;
+            }
+            long version = readLong();
+            return version >= 0 ? version : null;
+        }
+
+        private boolean nameIs(byte[] expected, int from, int to) {
+            return Arrays.equals(json, from, to, expected, 0, expected.length);
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && json[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /** Skips a string without escapes, leaving pos after the closing quote. */
+        private boolean skipString() {
+            if (!consume('"')) {
+                return false;
+            }
+            while (pos < end) {
+                byte c = json[pos++];
+                if (c == '"') {
+                    return true;
+                }
+                if (c == '\\' || (c >= 0 && c < 0x20)) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private String readString() {
+            int start = pos + 1;
+            if (!skipString()) {
+                return null;
+            }
+            return new String(json, start, pos - 1 - start, StandardCharsets.UTF_8);
+        }
+
+        /** @return The non-negative integer, or -1 if the value is not one */
+        private long readLong() {
+            int start = pos;
+            long value = 0;
+            while (pos < end && json[pos] >= '0' && json[pos] <= '9') {
+                if (value > (Long.MAX_VALUE - 9) / 10) {
+                    return -1;
+                }
+                value = value * 10 + (json[pos++] - '0');
+            }
+            return pos == start ? -1 : value;
+        }
+
+        private List<String> readStringArray() {
+            if (!consume('[')) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            if (!consume(']')) {
+                do {
+                    String value = readString();
+                    if (value == null) {
+                        return null;
+                    }
+                    values.add(value);
+                } while (consume(','));
+                if (!consume(']')) {
+                    return null;
+                }
+            }
+            return Collections.unmodifiableList(values);
+        }
+    }
+}
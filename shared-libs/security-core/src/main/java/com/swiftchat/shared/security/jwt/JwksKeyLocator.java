@@ -0,0 +1,115 @@
+package com.swiftchat.shared.security.jwt;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification keys fetched from a remote JWKS endpoint.
+ * The key set is loaded once, kept in memory and refreshed in the background,
+ * so token verification never waits on the network. An unknown {@code kid}
+ * triggers an early refresh, rate limited to one per
+ * {@link #MIN_REFRESH_GAP}, to pick up freshly rotated keys.
+ */
+@Slf4j
+class JwksKeyLocator {
+
+    private static final Duration MIN_REFRESH_GAP = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI jwksUri;
+    private final Duration refreshInterval;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+    private volatile long lastRefreshNanos;
+
+    JwksKeyLocator(String jwksUri, Duration refreshInterval) {
+        this.jwksUri = URI.create(jwksUri);
+        this.refreshInterval = refreshInterval;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start() {
+        refresh();
+        long intervalMillis = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @param kid The key id from the token header
+     * @return The public key, or null if the key set does not contain it
+     */
+    PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null && System.nanoTime() - lastRefreshNanos > MIN_REFRESH_GAP.toNanos()) {
+            // A new key may have been published since the last refresh
+            scheduler.execute(this::refresh);
+        }
+        return key;
+    }
+
+    private void refresh() {
+        lastRefreshNanos = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("JWKS refresh from {} returned HTTP {}", jwksUri, response.statusCode());
+                return;
+            }
+
+            JwkSet jwkSet = Jwks.setParser()
+                    .ignoreUnsupported(true)
+                    .build()
+                    .parse(response.body());
+
+            Map<String, PublicKey> refreshed = new HashMap<>();
+            for (Jwk<?> jwk : jwkSet) {
+                Key key = jwk.toKey();
+                if (jwk.getId() != null && key instanceof PublicKey) {
+                    refreshed.put(jwk.getId(), (PublicKey) key);
+                }
+            }
+            // Keep the previous keys if the endpoint briefly serves an empty set
+            if (!refreshed.isEmpty()) {
+                keys = Collections.unmodifiableMap(refreshed);
+            }
+            log.debug("Loaded {} JWT verification keys from {}", refreshed.size(), jwksUri);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not refresh JWKS from {}: {}", jwksUri, e.getMessage());
+        }
+    }
+}
@@ -5,9 +5,13 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +19,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +30,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
 
+    /**
+     * When enabled, the principal is rebuilt from the verified token claims and
+     * the UserDetailsService is only consulted when a revocation check asks for
+     * it. Revocation checks run in both modes.
+     */
+    @Value("${jwt.stateless-auth.enabled:false}")
+    private boolean statelessAuthEnabled;
+
+    @Autowired(required = false)
+    private List<TokenRevocationCheck> revocationChecks = Collections.emptyList();
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -30,7 +48,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,18 +57,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Verify the signature once and read every claim from the result
+            VerifiedToken token = jwtService.parseToken(jwt);
 
             // Don't process refresh tokens through this filter
-            if (jwtService.isTokenRefreshToken(jwt)) {
+            if (token.isRefreshToken()) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
+            String userEmail = token.getSubject();
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = resolveUserDetails(token);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null && jwtService.isTokenValid(token, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -69,4 +88,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolves the principal for a verified access token.
+     *
+     * @param token The verified token
+     * @return The user details, or null if the token must not authenticate
+     */
+    private UserDetails resolveUserDetails(VerifiedToken token) {
+        // Tokens issued before authorities were embedded can't be trusted alone
+        TokenRevocationCheck.Decision decision = statelessAuthEnabled && token.hasAuthorities()
+                ? TokenRevocationCheck.Decision.TRUST_CLAIMS
+                : TokenRevocationCheck.Decision.RELOAD_USER;
+
+        // Indexed loop: this runs on every request and should not allocate an iterator
+        for (int i = 0; i < revocationChecks.size(); i++) {
+            TokenRevocationCheck.Decision result = revocationChecks.get(i).check(token);
+            if (result == TokenRevocationCheck.Decision.REJECT) {
+                return null;
+            }
+            if (result == TokenRevocationCheck.Decision.RELOAD_USER) {
+                decision = result;
+            }
+        }
+
+        if (decision == TokenRevocationCheck.Decision.RELOAD_USER) {
+            return userDetailsService.loadUserByUsername(token.getSubject());
+        }
+
+        // The password is never used for an already authenticated request
+        return new User(token.getSubject(), "", grantedAuthorities(token));
+    }
+
+    private List<SimpleGrantedAuthority> grantedAuthorities(VerifiedToken token) {
+        if (token.getRoleMask() != null) {
+            // Compact tokens map onto shared, precomputed authority lists
+            return RoleRegistry.authoritiesOf(token.getRoleMask());
+        }
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(token.getAuthorities().size());
+        for (String authority : token.getAuthorities()) {
+            authorities.add(new SimpleGrantedAuthority(authority));
+        }
+        return authorities;
+    }
 }
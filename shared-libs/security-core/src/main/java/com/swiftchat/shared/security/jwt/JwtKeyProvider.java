@@ -0,0 +1,290 @@
+package com.swiftchat.shared.security.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the keys used to sign and verify JWTs.
+ *
+ * <p>
+ * Three modes are supported and can be combined during a migration:
+ * <ul>
+ * <li>HMAC: {@code jwt.secret} signs and verifies tokens without a
+ * {@code kid} header (the original behaviour).</li>
+ * <li>Asymmetric issuer: {@code jwt.signing.key-store} holds one private key
+ * per alias. The alias is the {@code kid}, {@code jwt.signing.active-kid}
+ * must name the alias that signs, and every alias verifies. RSA, EC and Ed25519
+ * keys map to RS256, ES256/384/512 and EdDSA.</li>
+ * <li>Remote verifier: {@code jwt.jwks-uri} points at auth-service's JWKS
+ * endpoint, so a service can verify tokens without holding any secret.</li>
+ * </ul>
+ * Rotation: add a new alias, publish it, switch the active kid once verifiers
+ * have refreshed, and drop the old alias after its tokens have expired.
+ */
+@Slf4j
+@Component
+public class JwtKeyProvider {
+
+    private static final String HMAC_ALGORITHM = "HS256";
+
+    @Value("${jwt.secret:}")
+    private String secret;
+
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.signing.key-store:}")
+    private String keyStoreLocation;
+
+    @Value("${jwt.signing.key-store-password:}")
+    private String keyStorePassword;
+
+    @Value("${jwt.signing.key-store-type:PKCS12}")
+    private String keyStoreType;
+
+    @Value("${jwt.signing.active-kid:}")
+    private String activeKid;
+
+    @Value("${jwt.jwks-uri:}")
+    private String jwksUri;
+
+    @Value("${jwt.jwks.refresh-interval:300}")
+    private long jwksRefreshIntervalSeconds;
+
+    private SecretKey hmacKey;
+
+    private final Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+
+    private String signingKeyId;
+    private Key signingKey;
+    private SecureDigestAlgorithm<?, ?> signingAlgorithm;
+
+    private String publicJwks;
+
+    private JwksKeyLocator remoteKeys;
+
+    private final Locator<Key> keyLocator = new LocatorAdapter<Key>() {
+        @Override
+        protected Key locate(JwsHeader header) {
+            return verificationKey(header.getKeyId());
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.hasText(secret)) {
+            hmacKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+
+        if (StringUtils.hasText(keyStoreLocation)) {
+            loadKeyStore();
+        } else if (!HMAC_ALGORITHM.equalsIgnoreCase(algorithm)) {
+            generateEphemeralKey();
+        } else if (hmacKey != null) {
+            signingKey = hmacKey;
+            signingAlgorithm = Jwts.SIG.HS256;
+        }
+
+        if (StringUtils.hasText(jwksUri)) {
+            remoteKeys = new JwksKeyLocator(jwksUri, Duration.ofSeconds(jwksRefreshIntervalSeconds));
+            remoteKeys.start();
+        }
+
+        publicJwks = buildPublicJwks();
+
+        if (signingKey == null && remoteKeys == null && hmacKey == null) {
+            throw new IllegalStateException(
+                    "No JWT keys configured: set jwt.secret, jwt.signing.key-store or jwt.jwks-uri");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (remoteKeys != null) {
+            remoteKeys.stop();
+        }
+    }
+
+    /**
+     * @return Key locator that resolves the verification key from the JWS header
+     */
+    public Locator<Key> keyLocator() {
+        return keyLocator;
+    }
+
+    /**
+     * @return The key id to put in issued token headers, or null for HMAC
+     */
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    /**
+     * @return The key used to sign new tokens
+     * @throws IllegalStateException If this service is configured to verify
+     *                               only
+     */
+    public Key getSigningKey() {
+        if (signingKey == null) {
+            throw new IllegalStateException("This service has no JWT signing key configured");
+        }
+        return signingKey;
+    }
+
+    public SecureDigestAlgorithm<?, ?> getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * @return The HMAC key that verifies tokens without a {@code kid}, or null
+     *         if no {@code jwt.secret} is configured
+     */
+    public SecretKey getHmacKey() {
+        return hmacKey;
+    }
+
+    /**
+     * @return true if new tokens are signed with HS256 under the HMAC secret,
+     *         without a {@code kid} header
+     */
+    public boolean isHmacSigning() {
+        return signingKey != null && signingKey == hmacKey && signingKeyId == null;
+    }
+
+    /**
+     * @return The public verification keys as a JWK Set JSON document
+     */
+    public String getPublicJwks() {
+        return publicJwks;
+    }
+
+    private Key verificationKey(String kid) {
+        if (kid == null) {
+            if (hmacKey == null) {
+                throw new UnsupportedJwtException("Token has no key id and no HMAC secret is configured");
+            }
+            return hmacKey;
+        }
+
+        PublicKey key = verificationKeys.get(kid);
+        if (key == null && remoteKeys != null) {
+            key = remoteKeys.getKey(kid);
+        }
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT signing key id: " + kid);
+        }
+        return key;
+    }
+
+    private void loadKeyStore() {
+        try (InputStream in = ResourceUtils.getURL(keyStoreLocation).openStream()) {
+            char[] password = keyStorePassword.toCharArray();
+            KeyStore keyStore = KeyStore.getInstance(keyStoreType);
+            keyStore.load(in, password);
+
+            Enumeration<String> aliases = keyStore.aliases();
+            while (aliases.hasMoreElements()) {
+                String alias = aliases.nextElement();
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (certificate == null) {
+                    continue;
+                }
+                verificationKeys.put(alias, certificate.getPublicKey());
+
+                if (alias.equalsIgnoreCase(activeKid)) {
+                    PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, password);
+                    signingKeyId = alias;
+                    signingKey = privateKey;
+                    signingAlgorithm = algorithmFor(certificate.getPublicKey());
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load JWT key store from " + keyStoreLocation, e);
+        }
+
+        // Without a signing key the service would start and fail on its first login
+        if (!StringUtils.hasText(activeKid)) {
+            throw new IllegalStateException("jwt.signing.active-kid must name one of the key store aliases "
+                    + verificationKeys.keySet());
+        }
+        if (signingKey == null) {
+            throw new IllegalStateException("Active JWT key id not found in key store: " + activeKid);
+        }
+        log.info("Loaded {} JWT verification keys, signing with kid {}", verificationKeys.size(), signingKeyId);
+    }
+
+    private void generateEphemeralKey() {
+        SignatureAlgorithm signatureAlgorithm = (SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm);
+        KeyPair keyPair = signatureAlgorithm.keyPair().build();
+
+        signingKeyId = "ephemeral-" + Integer.toHexString(System.identityHashCode(keyPair));
+        signingKey = keyPair.getPrivate();
+        signingAlgorithm = signatureAlgorithm;
+        verificationKeys.put(signingKeyId, keyPair.getPublic());
+
+        log.warn("No jwt.signing.key-store configured; generated an ephemeral {} key. "
+                + "Tokens will not survive a restart and replicas will not share keys.", algorithm);
+    }
+
+    private String buildPublicJwks() {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, PublicKey> entry : verificationKeys.entrySet()) {
+            keys.add(Jwks.json(Jwks.builder()
+                    .key(entry.getValue())
+                    .id(entry.getKey())
+                    .algorithm(algorithmFor(entry.getValue()).getId())
+                    .publicKeyUse("sig")
+                    .build()));
+        }
+        return "{\"keys\":[" + String.join(",", keys) + "]}";
+    }
+
+    static SignatureAlgorithm algorithmFor(PublicKey key) {
+        String keyAlgorithm = key.getAlgorithm();
+        if ("RSA".equals(keyAlgorithm)) {
+            return Jwts.SIG.RS256;
+        }
+        if ("EC".equals(keyAlgorithm)) {
+            int fieldSize = ((ECKey) key).getParams().getCurve().getField().getFieldSize();
+            if (fieldSize > 384) {
+                return Jwts.SIG.ES512;
+            }
+            return fieldSize > 256 ? Jwts.SIG.ES384 : Jwts.SIG.ES256;
+        }
+        if ("EdDSA".equals(keyAlgorithm) || "Ed25519".equals(keyAlgorithm) || "Ed448".equals(keyAlgorithm)) {
+            return Jwts.SIG.EdDSA;
+        }
+        throw new IllegalStateException("Unsupported JWT key algorithm: " + keyAlgorithm);
+    }
+}
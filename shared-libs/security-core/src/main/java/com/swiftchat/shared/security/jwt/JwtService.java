@@ -1,21 +1,28 @@
 package com.swiftchat.shared.security.jwt;
 
+import com.swiftchat.shared.security.model.User;
+import com.swiftchat.shared.security.model.VersionedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
@@ -24,8 +31,13 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    static final String USER_ID_CLAIM = "userId";
+    static final String TOKEN_TYPE_CLAIM = "tokenType";
+    static final String ROLES_CLAIM = "roles";
+    static final String TOKEN_VERSION_CLAIM = "tokenVersion";
+    static final String FAMILY_ID_CLAIM = "familyId";
+
+    private final JwtKeyProvider keyProvider;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -33,21 +45,66 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
-    private SecretKey signingKey;
+    /**
+     * Format of newly issued tokens. Both formats are always accepted, so
+     * verifiers can be upgraded before issuers switch to v2.
+     */
+    @Value("${jwt.token-format:v1}")
+    private String tokenFormat;
+
+    @Value("${jwt.hs256-fast-path.enabled:true}")
+    private boolean hs256FastPathEnabled;
+
+    private JwtParser jwtParser;
+
+    private Hs256TokenCodec hs256Codec;
+
+    @Autowired(required = false)
+    private VerifiedTokenCache tokenCache;
 
     @PostConstruct
     public void init() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        // JwtParser is immutable and thread-safe, so one instance serves every request.
+        // The key locator picks the verification key from the token's kid header.
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyProvider.keyLocator())
+                .build();
+
+        // The fixed-claim HS256 codec skips jjwt's map and Jackson round trip;
+        // tokens it cannot handle still go through the parser above.
+        if (hs256FastPathEnabled && keyProvider.getHmacKey() != null) {
+            this.hs256Codec = new Hs256TokenCodec(keyProvider.getHmacKey());
+        }
+    }
+
+    /**
+     * Verifies the token signature and expiry once and returns all claims the
+     * security layer needs.
+     *
+     * @param token The compact JWT string
+     * @return The verified token claims
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, has an
+     *                                      invalid signature or has expired
+     */
+    public VerifiedToken parseToken(String token) {
+        if (tokenCache == null) {
+            return verify(token);
+        }
+
+        VerifiedToken verified = tokenCache.get(token);
+        if (verified == null) {
+            verified = verify(token);
+            tokenCache.put(token, verified);
+        }
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getSubject();
     }
 
     public UUID extractUserId(String token) {
-        String userIdStr = extractClaim(token, claims -> claims.get("userId", String.class));
-        return userIdStr != null ? UUID.fromString(userIdStr) : null;
+        return parseToken(token).getUserId();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -63,61 +120,267 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails,
             UUID userId) {
-        extraClaims.put("userId", userId.toString());
+        if (isCompactFormat()) {
+            return generateCompactToken(extraClaims, userDetails, userId);
+        }
 
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .subject(userDetails.getUsername())
-                .issuedAt(new Date())
-                .expiration(Date.from(Instant.now().plus(jwtExpiration, ChronoUnit.SECONDS)))
-                .signWith(signingKey)
-                .compact();
+        extraClaims.put(USER_ID_CLAIM, userId.toString());
+        extraClaims.putIfAbsent(ROLES_CLAIM, authorityNames(userDetails));
+        Long tokenVersion = tokenVersionOf(userDetails);
+        if (tokenVersion != null) {
+            extraClaims.putIfAbsent(TOKEN_VERSION_CLAIM, tokenVersion);
+        }
+
+        return issue(extraClaims, UUID.randomUUID().toString(), userDetails.getUsername(), jwtExpiration);
     }
 
     public String generateRefreshToken(UserDetails userDetails, UUID userId) {
+        return generateRefreshToken(userDetails, userId, UUID.randomUUID(), null);
+    }
+
+    /**
+     * Issues a refresh token that can be checked without a lookup: its
+     * signature and expiry are verified like an access token's, and the
+     * {@code jti} and family let the issuer keep one record per family
+     * instead of one per token.
+     *
+     * @param userDetails The user the token is issued to
+     * @param userId      The user id
+     * @param tokenId     The {@code jti} claim
+     * @param familyId    The rotation family, or null for none
+     * @return The signed refresh token
+     */
+    public String generateRefreshToken(UserDetails userDetails, UUID userId, UUID tokenId, UUID familyId) {
+        if (isCompactFormat()) {
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put(CompactClaims.VERSION, CompactClaims.FORMAT_VERSION);
+            claims.put(CompactClaims.USER_ID, CompactClaims.encodeUuid(userId));
+            claims.put(CompactClaims.TOKEN_TYPE, VerifiedToken.REFRESH_TOKEN_TYPE);
+            if (familyId != null) {
+                claims.put(CompactClaims.FAMILY_ID, CompactClaims.encodeUuid(familyId));
+            }
+            return issue(claims, CompactClaims.encodeUuid(tokenId), userDetails.getUsername(), refreshExpiration);
+        }
+
         Map<String, Object> extraClaims = new HashMap<>();
-        extraClaims.put("userId", userId.toString());
-        extraClaims.put("tokenType", "refresh");
+        extraClaims.put(USER_ID_CLAIM, userId.toString());
+        extraClaims.put(TOKEN_TYPE_CLAIM, VerifiedToken.REFRESH_TOKEN_TYPE);
+        if (familyId != null) {
+            extraClaims.put(FAMILY_ID_CLAIM, familyId.toString());
+        }
 
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .subject(userDetails.getUsername())
-                .issuedAt(new Date())
-                .expiration(Date.from(Instant.now().plus(refreshExpiration, ChronoUnit.SECONDS)))
-                .signWith(signingKey)
-                .compact();
+        return issue(extraClaims, tokenId.toString(), userDetails.getUsername(), refreshExpiration);
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
+    }
+
+    /**
+     * Checks an already verified token against the loaded user without parsing
+     * it again.
+     *
+     * @param token       The verified token
+     * @param userDetails The user the token should belong to
+     * @return true if the token subject matches the user and it has not expired
+     */
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
     }
 
     public boolean isTokenRefreshToken(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            return "refresh".equals(claims.get("tokenType"));
+            return parseToken(token).isRefreshToken();
         } catch (Exception e) {
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isCompactFormat() {
+        return "v2".equalsIgnoreCase(tokenFormat);
+    }
+
+    /**
+     * Builds a v2 access token. Roles outside {@link RoleRegistry} cannot be
+     * expressed as bits, so such tokens keep the plain {@code roles} claim.
+     */
+    private String generateCompactToken(Map<String, Object> extraClaims, UserDetails userDetails, UUID userId) {
+        @SuppressWarnings("unchecked")
+        List<String> roles = (List<String>) extraClaims.remove(ROLES_CLAIM);
+        if (roles == null) {
+            roles = authorityNames(userDetails);
+        }
+        Long tokenVersion = tokenVersionOf(userDetails);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(CompactClaims.VERSION, CompactClaims.FORMAT_VERSION);
+        claims.put(CompactClaims.USER_ID, CompactClaims.encodeUuid(userId));
+        Integer roleMask = RoleRegistry.maskOf(roles);
+        if (roleMask != null) {
+            claims.put(CompactClaims.ROLE_MASK, roleMask);
+        } else {
+            claims.put(ROLES_CLAIM, roles);
+        }
+        if (tokenVersion != null) {
+            claims.put(CompactClaims.TOKEN_VERSION, tokenVersion);
+        }
+        claims.putAll(extraClaims);
+
+        return issue(claims, CompactClaims.encodeUuid(UUID.randomUUID()), userDetails.getUsername(), jwtExpiration);
+    }
+
+    private Long tokenVersionOf(UserDetails userDetails) {
+        if (userDetails instanceof VersionedUser) {
+            return ((VersionedUser) userDetails).getTokenVersion();
+        }
+        if (userDetails instanceof User) {
+            return ((User) userDetails).getTokenVersion();
+        }
+        return null;
+    }
+
+    private List<String> authorityNames(UserDetails userDetails) {
+        List<String> names = new ArrayList<>();
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            if (authority != null && authority.getAuthority() != null) {
+                names.add(authority.getAuthority());
+            }
+        }
+        return names;
+    }
+
+    private String issue(Map<String, Object> claims, String tokenId, String subject, long lifetimeSeconds) {
+        long issuedAt = System.currentTimeMillis() / 1000;
+
+        if (hs256Codec != null && keyProvider.isHmacSigning()) {
+            String token = hs256Codec.encode(claims, tokenId, subject, issuedAt, issuedAt + lifetimeSeconds);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        return signed(Jwts
+                .builder()
+                .claims(claims)
+                .id(tokenId)
+                .subject(subject)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date((issuedAt + lifetimeSeconds) * 1000)));
+    }
+
+    private VerifiedToken verify(String token) {
+        if (hs256Codec != null) {
+            VerifiedToken verified = hs256Codec.decode(token, System.currentTimeMillis());
+            if (verified != null) {
+                return verified;
+            }
+        }
+        return toVerifiedToken(extractAllClaims(token));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @SuppressWarnings("unchecked")
+    private String signed(JwtBuilder builder) {
+        String keyId = keyProvider.getSigningKeyId();
+        if (keyId != null) {
+            builder.header().keyId(keyId);
+        }
+        SecureDigestAlgorithm<Key, ?> algorithm = (SecureDigestAlgorithm<Key, ?>) keyProvider.getSigningAlgorithm();
+        return builder
+                .signWith(keyProvider.getSigningKey(), algorithm)
+                .compact();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Object version = claims.get(CompactClaims.VERSION);
+        if (version != null) {
+            return toVerifiedCompactToken(claims, version);
+        }
+
+        String userIdStr = claims.get(USER_ID_CLAIM, String.class);
+        String familyIdStr = claims.get(FAMILY_ID_CLAIM, String.class);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                userIdStr != null ? UUID.fromString(userIdStr) : null,
+                claims.get(TOKEN_TYPE_CLAIM, String.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null,
+                extractAuthorities(claims),
+                longClaim(claims, TOKEN_VERSION_CLAIM),
+                null,
+                familyIdStr != null ? UUID.fromString(familyIdStr) : null);
+    }
+
+    private VerifiedToken toVerifiedCompactToken(Claims claims, Object version) {
+        if (!(version instanceof Number) || ((Number) version).intValue() != CompactClaims.FORMAT_VERSION) {
+            throw new MalformedJwtException("Unsupported token format version: " + version);
+        }
+
+        String userIdStr = claims.get(CompactClaims.USER_ID, String.class);
+        String familyIdStr = claims.get(CompactClaims.FAMILY_ID, String.class);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+
+        Integer roleMask = null;
+        List<String> authorities;
+        Object mask = claims.get(CompactClaims.ROLE_MASK);
+        if (mask != null) {
+            long bits = mask instanceof Number ? ((Number) mask).longValue() : -1;
+            if (bits < 0 || bits > Integer.MAX_VALUE || !RoleRegistry.isValid((int) bits)) {
+                throw new MalformedJwtException("Unknown role bits in token: " + mask);
+            }
+            roleMask = (int) bits;
+            authorities = RoleRegistry.namesOf(roleMask);
+        } else {
+            authorities = extractAuthorities(claims);
+        }
+
+        try {
+            return new VerifiedToken(
+                    claims.getId(),
+                    claims.getSubject(),
+                    userIdStr != null ? CompactClaims.decodeUuid(userIdStr) : null,
+                    claims.get(CompactClaims.TOKEN_TYPE, String.class),
+                    issuedAt != null ? issuedAt.toInstant() : null,
+                    expiration != null ? expiration.toInstant() : null,
+                    authorities,
+                    longClaim(claims, CompactClaims.TOKEN_VERSION),
+                    roleMask,
+                    familyIdStr != null ? CompactClaims.decodeUuid(familyIdStr) : null);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Malformed compact user or family id", e);
+        }
+    }
+
+    private Long longClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private List<String> extractAuthorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Iterable<?>)) {
+            // Tokens issued before authorities were embedded carry no roles claim
+            return null;
+        }
+
+        List<String> authorities = new ArrayList<>();
+        for (Object role : (Iterable<?>) roles) {
+            if (role != null) {
+                authorities.add(role.toString());
+            }
+        }
+        return Collections.unmodifiableList(authorities);
     }
 }
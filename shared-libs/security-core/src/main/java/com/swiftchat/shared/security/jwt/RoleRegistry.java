@@ -0,0 +1,98 @@
+package com.swiftchat.shared.security.jwt;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed bit positions for the roles seeded by the V1 migration, used by the
+ * compact (v2) token format to carry roles as a single integer.
+ *
+ * <p>
+ * The list is append-only: a role's index is part of every token issued
+ * while it is in use, so existing entries must never be reordered or
+ * removed. Roles outside the registry cannot be encoded as bits and fall back
+ * to the plain {@code roles} claim.
+ */
+public final class RoleRegistry {
+
+    public static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_MODERATOR");
+
+    private static final int ALL_ROLES = (1 << ROLES.size()) - 1;
+
+    // Every combination is precomputed, so decoding a mask never allocates
+    private static final List<List<String>> NAMES = new ArrayList<>();
+    private static final List<List<SimpleGrantedAuthority>> AUTHORITIES = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask <= ALL_ROLES; mask++) {
+            List<String> names = new ArrayList<>();
+            List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+            for (int bit = 0; bit < ROLES.size(); bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    names.add(ROLES.get(bit));
+                    authorities.add(new SimpleGrantedAuthority(ROLES.get(bit)));
+                }
+            }
+            NAMES.add(Collections.unmodifiableList(names));
+            AUTHORITIES.add(Collections.unmodifiableList(authorities));
+        }
+    }
+
+    private RoleRegistry() {
+        // Utility class, should not be instantiated
+    }
+
+    /**
+     * @param roleNames Authority names
+     * @return The bitmask, or null if any role is not in the registry
+     */
+    public static Integer maskOf(Collection<String> roleNames) {
+        int mask = 0;
+        for (String roleName : roleNames) {
+            int bit = ROLES.indexOf(roleName);
+            if (bit < 0) {
+                return null;
+            }
+            mask |= 1 << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask A role bitmask
+     * @return true if every bit in the mask maps to a known role
+     */
+    public static boolean isValid(int mask) {
+        return (mask & ~ALL_ROLES) == 0;
+    }
+
+    /**
+     * @param mask A valid role bitmask
+     * @return The shared, immutable list of authority names for the mask
+     */
+    public static List<String> namesOf(int mask) {
+        return NAMES.get(mask);
+    }
+
+    /**
+     * @param mask A valid role bitmask
+     * @return The shared, immutable list of granted authorities for the mask
+     */
+    public static List<SimpleGrantedAuthority> authoritiesOf(int mask) {
+        return AUTHORITIES.get(mask);
+    }
+
+    /**
+     * @param mask     A role bitmask
+     * @param roleName The authority name to check
+     * @return true if the mask contains the role
+     */
+    public static boolean hasRole(int mask, String roleName) {
+        int bit = ROLES.indexOf(roleName);
+        return bit >= 0 && (mask & (1 << bit)) != 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.swiftchat.shared.security.jwt;
+
+/**
+ * Hook consulted by {@link JwtAuthenticationFilter} for every verified access
+ * token. Any check can reject the token; in stateless mode a check can also
+ * ask for the user to be reloaded instead of trusting the claims alone.
+ * Implementations must be cheap: they run on every authenticated request.
+ */
+public interface TokenRevocationCheck {
+
+    enum Decision {
+        /** Build the principal from the token claims alone */
+        TRUST_CLAIMS,
+        /** Reload the user through the UserDetailsService */
+        RELOAD_USER,
+        /** Do not authenticate the request */
+        REJECT
+    }
+
+    /**
+     * Checks a verified access token.
+     *
+     * @param token The verified token
+     * @return How the filter should treat the token
+     */
+    Decision check(VerifiedToken token);
+}
@@ -0,0 +1,95 @@
+package com.swiftchat.shared.security.jwt;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked
+ * by {@link JwtService#parseToken(String)}.
+ * Lets callers read every claim they need without parsing the token again.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class VerifiedToken {
+
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    /**
+     * The {@code jti} claim, or null for tokens issued before token ids were
+     * added.
+     */
+    String tokenId;
+    String subject;
+    UUID userId;
+    String tokenType;
+    Instant issuedAt;
+    Instant expiration;
+    /**
+     * Authority names embedded at issue time, or null for tokens issued before
+     * authorities were embedded.
+     */
+    List<String> authorities;
+    /**
+     * The user's token version at issue time, or null for tokens issued before
+     * token versions were embedded.
+     */
+    Long tokenVersion;
+    /**
+     * The {@link RoleRegistry} bitmask of a compact (v2) token, or null for
+     * tokens that carry role names.
+     */
+    Integer roleMask;
+    /**
+     * The rotation family of a signed refresh token, or null for access tokens
+     * and refresh tokens issued without one.
+     */
+    UUID familyId;
+
+    public boolean hasAuthorities() {
+        return authorities != null;
+    }
+
+    /**
+     * @param roleName The authority name to check
+     * @return true if the token was issued with the role
+     */
+    public boolean hasRole(String roleName) {
+        if (roleMask != null) {
+            return RoleRegistry.hasRole(roleMask, roleName);
+        }
+        return authorities != null && authorities.contains(roleName);
+    }
+
+    /**
+     * @return The {@code jti} as a UUID, whichever format the token uses, or
+     *         null if it is not one
+     */
+    public UUID getTokenUuid() {
+        if (tokenId == null) {
+            return null;
+        }
+        try {
+            return tokenId.length() == 36 ? UUID.fromString(tokenId) : CompactClaims.decodeUuid(tokenId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH_TOKEN_TYPE.equals(tokenType);
+    }
+
+    public boolean isExpired() {
+        return isExpired(Instant.now());
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiration != null && expiration.isBefore(now);
+    }
+}
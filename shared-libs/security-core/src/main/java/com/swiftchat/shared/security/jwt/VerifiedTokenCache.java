@@ -0,0 +1,153 @@
+package com.swiftchat.shared.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Size-bounded cache of tokens that already passed signature verification,
+ * keyed by the SHA-256 digest of the compact token.
+ * A repeat presentation of the same token becomes a hash lookup instead of an
+ * HMAC check plus Base64/JSON decoding. Entries never outlive the token's
+ * {@code exp} claim.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.cache.enabled", havingValue = "true")
+public class VerifiedTokenCache {
+
+    private static final String METRICS_CACHE_NAME = "verifiedTokens";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<TokenDigest, VerifiedToken> cache;
+
+    public VerifiedTokenCache(
+            @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, METRICS_CACHE_NAME));
+        log.info("Verified token cache enabled with maximum size {}", maximumSize);
+    }
+
+    /**
+     * Returns the verified claims of a token seen before.
+     *
+     * @param token The compact JWT string
+     * @return The cached verified token, or null on a miss
+     */
+    public VerifiedToken get(String token) {
+        VerifiedToken verified = cache.getIfPresent(digest(token));
+        // Caffeine expiry is amortised, so guard against serving a just-expired entry
+        if (verified != null && verified.isExpired()) {
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * Remembers a token that has just been verified.
+     *
+     * @param token    The compact JWT string
+     * @param verified Its verified claims
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getExpiration() == null || verified.isExpired()) {
+            return;
+        }
+        cache.put(digest(token), verified);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static TokenDigest digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        return new TokenDigest(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Expires each entry at its token's {@code exp} claim.
+     */
+    private static final class TokenExpiry implements Expiry<TokenDigest, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            long nanos = Duration.between(Instant.now(), value.getExpiration()).toNanos();
+            return Math.max(nanos, 0L);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * SHA-256 digest wrapper usable as a map key.
+     */
+    private static final class TokenDigest {
+
+        private final byte[] bytes;
+        private final int hash;
+
+        private TokenDigest(byte[] bytes) {
+            this.bytes = bytes;
+            // Digest bytes are uniformly distributed, so the leading bytes are a good hash
+            this.hash = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16)
+                    | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof TokenDigest && Arrays.equals(bytes, ((TokenDigest) o).bytes));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
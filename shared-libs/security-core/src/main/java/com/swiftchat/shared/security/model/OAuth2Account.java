@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -17,8 +18,12 @@ import java.util.UUID;
 @Table(name = "oauth2_accounts", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "provider", "provider_id" })
 })
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = OAuth2Account.CACHE_REGION)
 public class OAuth2Account {
 
+    public static final String CACHE_REGION = "oauth2-accounts";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", updatable = false, nullable = false)
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
@@ -14,8 +15,14 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @Table(name = "roles")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Role.CACHE_REGION)
 public class Role {
 
+    /** Second-level cache region of the entity and of role lookup queries. */
+    public static final String CACHE_REGION = "roles";
+    public static final String QUERY_CACHE_REGION = "role-queries";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -0,0 +1,28 @@
+package com.swiftchat.shared.security.model;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Spring Security user that also carries the user's token version, so
+ * {@link com.swiftchat.shared.security.jwt.JwtService} can embed it in issued
+ * access tokens.
+ */
+public class VersionedUser extends org.springframework.security.core.userdetails.User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long tokenVersion;
+
+    public VersionedUser(String username, String password, boolean enabled, boolean accountNonExpired,
+            boolean credentialsNonExpired, boolean accountNonLocked,
+            Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
+        super(username, password, enabled, accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
+        this.tokenVersion = tokenVersion;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+}
@@ -0,0 +1,134 @@
+package com.swiftchat.shared.security.revocation;
+
+import com.swiftchat.shared.security.jwt.TokenRevocationCheck;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-memory revocation list for access tokens, keyed by {@code jti}. Revoking
+ * every token of a user is done by bumping the user's token version (see
+ * {@link TokenVersionCache}), not here.
+ *
+ * <p>
+ * Every request is first checked against a Bloom filter, so the common case
+ * of a token that was never revoked costs a few array reads and no
+ * allocation. Only a positive hit consults the exact maps. Entries are
+ * dropped once every token they cover has expired, and the filter is rebuilt
+ * from what remains.
+ *
+ * <p>
+ * Revocations are applied locally and handed to the registered publisher,
+ * which spreads them to the other nodes (see {@link RedisDenylistSync}).
+ */
+@Slf4j
+@Component
+public class AccessTokenDenylist implements TokenRevocationCheck {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long expectedEntries;
+    private final long sweepIntervalSeconds;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter filter;
+    private volatile Consumer<DenylistEntry> publisher = entry -> {
+    };
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "access-token-denylist-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AccessTokenDenylist(
+            @Value("${jwt.denylist.expected-entries:100000}") long expectedEntries,
+            @Value("${jwt.denylist.sweep-interval:60}") long sweepIntervalSeconds) {
+        this.expectedEntries = expectedEntries;
+        this.sweepIntervalSeconds = sweepIntervalSeconds;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    @PostConstruct
+    public void startSweeper() {
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Revokes a single access token on every node.
+     *
+     * @param tokenId   The token's {@code jti}
+     * @param expiresAt The token's expiry, after which the entry is dropped
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        DenylistEntry entry = DenylistEntry.token(tokenId, expiresAt.getEpochSecond());
+        apply(entry);
+        publisher.accept(entry);
+    }
+
+    /**
+     * Adds an entry on this node only, for entries received from other nodes.
+     *
+     * @param entry The revocation to apply
+     */
+    public void apply(DenylistEntry entry) {
+        if (entry.getExpiresAt() <= Instant.now().getEpochSecond()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            revokedTokens.merge(entry.getTokenId(), entry.getExpiresAt(), Math::max);
+            filter.putTokenId(entry.getTokenId());
+        }
+    }
+
+    void setPublisher(Consumer<DenylistEntry> publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Decision check(VerifiedToken token) {
+        String tokenId = token.getTokenId();
+        if (tokenId != null && filter.mightContainTokenId(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return Decision.REJECT;
+        }
+        return Decision.TRUST_CLAIMS;
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    /**
+     * Drops expired entries and rebuilds the Bloom filter, which cannot forget
+     * entries on its own.
+     */
+    void sweep() {
+        long now = Instant.now().getEpochSecond();
+        synchronized (writeLock) {
+            revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2L * size()), FALSE_POSITIVE_RATE);
+            revokedTokens.keySet().forEach(rebuilt::putTokenId);
+            filter = rebuilt;
+        }
+        log.debug("Access token denylist holds {} entries", size());
+    }
+}
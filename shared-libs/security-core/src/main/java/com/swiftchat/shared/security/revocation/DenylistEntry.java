@@ -0,0 +1,44 @@
+package com.swiftchat.shared.security.revocation;
+
+import lombok.Value;
+
+/**
+ * A single access token revocation by {@code jti}. Revoking every token of a
+ * user goes through token versions instead (see {@link TokenVersionCache}).
+ */
+@Value
+public class DenylistEntry {
+
+    /** The revoked token id */
+    String tokenId;
+    /** Epoch second after which the token can no longer be valid */
+    long expiresAt;
+
+    public static DenylistEntry token(String tokenId, long expiresAt) {
+        return new DenylistEntry(tokenId, expiresAt);
+    }
+
+    /**
+     * @return A compact single-line form used on the wire and in Redis
+     */
+    public String encode() {
+        return "T|" + tokenId + "|" + expiresAt;
+    }
+
+    /**
+     * @param encoded A value produced by {@link #encode()}
+     * @return The decoded entry
+     * @throws IllegalArgumentException If the value is malformed
+     */
+    public static DenylistEntry decode(String encoded) {
+        String[] parts = encoded.split("\\|");
+        try {
+            if (parts.length == 3 && "T".equals(parts[0])) {
+                return token(parts[1], Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed denylist entry: " + encoded, e);
+        }
+        throw new IllegalArgumentException("Malformed denylist entry: " + encoded);
+    }
+}
@@ -0,0 +1,96 @@
+package com.swiftchat.shared.security.revocation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Keeps {@link AccessTokenDenylist} consistent across nodes through Redis.
+ *
+ * <p>
+ * Each revocation is published on a pub/sub channel for running nodes and
+ * added to a sorted set scored by expiry, which new nodes read on startup.
+ * Expired members are trimmed whenever the set is written or read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+@ConditionalOnProperty(name = "jwt.denylist.redis.enabled", havingValue = "true")
+public class RedisDenylistSync {
+
+    static final String CHANNEL = "auth:access-token-denylist";
+    static final String SNAPSHOT_KEY = "auth:access-token-denylist:entries";
+
+    private final AccessTokenDenylist denylist;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        loadSnapshot();
+        denylist.setPublisher(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    void publish(DenylistEntry entry) {
+        String encoded = entry.encode();
+        try {
+            redisTemplate.opsForZSet().add(SNAPSHOT_KEY, encoded, entry.getExpiresAt());
+            redisTemplate.opsForZSet().removeRangeByScore(SNAPSHOT_KEY, 0, Instant.now().getEpochSecond());
+            redisTemplate.convertAndSend(CHANNEL, encoded);
+        } catch (Exception e) {
+            // The entry still applies on this node; other nodes keep accepting the token
+            log.error("Could not publish access token revocation {}", encoded, e);
+        }
+    }
+
+    private void loadSnapshot() {
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(SNAPSHOT_KEY, 0, Instant.now().getEpochSecond());
+            Set<String> entries = redisTemplate.opsForZSet().range(SNAPSHOT_KEY, 0, -1);
+            if (entries != null) {
+                entries.forEach(this::receive);
+                log.info("Loaded {} access token revocations from Redis", entries.size());
+            }
+        } catch (Exception e) {
+            log.warn("Could not load access token revocations from Redis: {}", e.getMessage());
+        }
+    }
+
+    private void receive(String encoded) {
+        try {
+            denylist.apply(DenylistEntry.decode(encoded));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed access token revocation: {}", encoded);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.swiftchat.shared.security.revocation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Shares token version changes between nodes through Redis, the same way
+ * {@link RedisDenylistSync} shares revocations: a pub/sub channel for running
+ * nodes and a sorted set scored by expiry for nodes that start later.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+@ConditionalOnProperty(name = "jwt.token-version.redis.enabled", havingValue = "true")
+public class RedisTokenVersionSync {
+
+    static final String CHANNEL = "auth:token-version";
+    static final String SNAPSHOT_KEY = "auth:token-version:entries";
+
+    private final TokenVersionCache tokenVersionCache;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        loadSnapshot();
+        tokenVersionCache.setPublisher(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    void publish(TokenVersionChangedEvent event) {
+        String encoded = event.getUserId() + "|" + event.getTokenVersion();
+        long now = Instant.now().getEpochSecond();
+        try {
+            redisTemplate.opsForZSet().add(SNAPSHOT_KEY, encoded, now + tokenVersionCache.getEntryLifetimeSeconds());
+            redisTemplate.opsForZSet().removeRangeByScore(SNAPSHOT_KEY, 0, now);
+            redisTemplate.convertAndSend(CHANNEL, encoded);
+        } catch (Exception e) {
+            log.error("Could not publish token version change {}", encoded, e);
+        }
+    }
+
+    private void loadSnapshot() {
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(SNAPSHOT_KEY, 0, Instant.now().getEpochSecond());
+            Set<String> entries = redisTemplate.opsForZSet().range(SNAPSHOT_KEY, 0, -1);
+            if (entries != null) {
+                entries.forEach(this::receive);
+                log.info("Loaded {} token version changes from Redis", entries.size());
+            }
+        } catch (Exception e) {
+            log.warn("Could not load token version changes from Redis: {}", e.getMessage());
+        }
+    }
+
+    private void receive(String encoded) {
+        String[] parts = encoded.split("\\|");
+        try {
+            tokenVersionCache.apply(new TokenVersionChangedEvent(UUID.fromString(parts[0]), Long.parseLong(parts[1])));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token version change: {}", encoded);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.swiftchat.shared.security.revocation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swiftchat.shared.security.jwt.TokenRevocationCheck;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Rejects access tokens whose {@code tokenVersion} claim is older than the
+ * user's current token version.
+ *
+ * <p>
+ * Only versions that changed recently are kept: once an access token
+ * lifetime has passed since a change, every token carrying an older version
+ * has expired anyway. That expiry is deliberately the only bound, since an
+ * entry evicted any earlier would let revoked tokens through. Users without
+ * an entry are accepted, so a request costs one map lookup and never touches
+ * the database. Entries arrive as
+ * {@link TokenVersionChangedEvent}s, locally after the changing transaction
+ * commits and from other nodes through {@link RedisTokenVersionSync}.
+ */
+@Slf4j
+@Component
+public class TokenVersionCache implements TokenRevocationCheck {
+
+    private final Cache<UUID, Long> versions;
+    private final long accessTokenLifetimeSeconds;
+    private volatile Consumer<TokenVersionChangedEvent> publisher = event -> {
+    };
+
+    public TokenVersionCache(@Value("${jwt.expiration:900}") long accessTokenLifetimeSeconds) {
+        this.accessTokenLifetimeSeconds = accessTokenLifetimeSeconds;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(accessTokenLifetimeSeconds))
+                .build();
+    }
+
+    @Override
+    public Decision check(VerifiedToken token) {
+        if (token.getTokenVersion() == null || token.getUserId() == null) {
+            return Decision.TRUST_CLAIMS;
+        }
+
+        Long currentVersion = versions.getIfPresent(token.getUserId());
+        if (currentVersion != null && token.getTokenVersion() < currentVersion) {
+            return Decision.REJECT;
+        }
+        return Decision.TRUST_CLAIMS;
+    }
+
+    /**
+     * Records a version change made on this node and shares it with the others.
+     * Runs after the changing transaction commits so a rollback does not log
+     * users out.
+     *
+     * @param event The version change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+        apply(event);
+        publisher.accept(event);
+    }
+
+    /**
+     * Records a version change on this node only, for changes received from
+     * other nodes.
+     *
+     * @param event The version change
+     */
+    public void apply(TokenVersionChangedEvent event) {
+        versions.asMap().merge(event.getUserId(), event.getTokenVersion(), Math::max);
+        log.debug("Token version of user {} is now {}", event.getUserId(), event.getTokenVersion());
+    }
+
+    /**
+     * @return How long after a change its entry stays relevant, in seconds
+     */
+    long getEntryLifetimeSeconds() {
+        return accessTokenLifetimeSeconds;
+    }
+
+    void setPublisher(Consumer<TokenVersionChangedEvent> publisher) {
+        this.publisher = publisher;
+    }
+}
@@ -0,0 +1,16 @@
+package com.swiftchat.shared.security.revocation;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's token version is incremented, which invalidates
+ * every access token issued to the user before.
+ */
+@Value
+public class TokenVersionChangedEvent {
+
+    UUID userId;
+    long tokenVersion;
+}
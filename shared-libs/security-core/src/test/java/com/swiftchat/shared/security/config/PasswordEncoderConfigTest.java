@@ -0,0 +1,161 @@
+package com.swiftchat.shared.security.config;
+
+import com.swiftchat.shared.security.crypto.BoundedPasswordEncoder;
+import com.swiftchat.shared.security.crypto.PasswordHashingCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Password Encoder Config Tests")
+class PasswordEncoderConfigTest {
+
+    private static final int MEMORY_KIB = 1024;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /** Pins both work factors so no test pays for calibration. */
+    private static PasswordEncoderConfig config(String algorithm, boolean bounded) {
+        PasswordEncoderConfig config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "algorithm", algorithm);
+        ReflectionTestUtils.setField(config, "targetMillis", 250L);
+        ReflectionTestUtils.setField(config, "bcryptStrength", PasswordHashingCalibrator.BCRYPT_MIN_STRENGTH);
+        ReflectionTestUtils.setField(config, "argon2MemoryKib", MEMORY_KIB);
+        ReflectionTestUtils.setField(config, "argon2Parallelism", 1);
+        ReflectionTestUtils.setField(config, "argon2Iterations", PasswordHashingCalibrator.ARGON2_MIN_ITERATIONS);
+        ReflectionTestUtils.setField(config, "boundedEnabled", bounded);
+        ReflectionTestUtils.setField(config, "threads", 1);
+        ReflectionTestUtils.setField(config, "queueCapacity", 10);
+        return config;
+    }
+
+    private PasswordEncoder passwordEncoder(String algorithm) {
+        return config(algorithm, false).passwordEncoder(meterRegistryProvider);
+    }
+
+    @Test
+    @DisplayName("Should fail at startup for an unsupported algorithm")
+    void passwordEncoder_UnsupportedAlgorithm_ShouldThrow() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> passwordEncoder("scrypt"));
+        assertTrue(exception.getMessage().contains("scrypt"));
+    }
+
+    @Nested
+    @DisplayName("BCrypt Tests")
+    class BCryptTests {
+
+        @Test
+        @DisplayName("Should store new hashes with the bcrypt prefix and not mark them for upgrade")
+        void encode_ShouldPrefixHash() {
+            // Arrange
+            PasswordEncoder encoder = passwordEncoder(PasswordEncoderConfig.BCRYPT);
+
+            // Act
+            String hash = encoder.encode("password");
+
+            // Assert
+            assertTrue(hash.startsWith("{bcrypt}$2a$10$"), hash);
+            assertTrue(encoder.matches("password", hash));
+            assertFalse(encoder.upgradeEncoding(hash));
+        }
+
+        @Test
+        @DisplayName("Should match an unprefixed legacy BCrypt hash and mark it for upgrade")
+        void matches_LegacyUnprefixedHash_ShouldMatchAndUpgrade() {
+            // Arrange
+            PasswordEncoder encoder = passwordEncoder(PasswordEncoderConfig.BCRYPT);
+            String legacy = new BCryptPasswordEncoder().encode("password");
+
+            // Act & Assert
+            assertTrue(encoder.matches("password", legacy));
+            assertFalse(encoder.matches("wrong", legacy));
+            assertTrue(encoder.upgradeEncoding(legacy));
+        }
+
+        @Test
+        @DisplayName("Should mark a hash below the configured strength for upgrade")
+        void upgradeEncoding_LowerStrength_ShouldUpgrade() {
+            // Arrange
+            PasswordEncoderConfig config = config(PasswordEncoderConfig.BCRYPT, false);
+            ReflectionTestUtils.setField(config, "bcryptStrength", 11);
+            PasswordEncoder encoder = config.passwordEncoder(meterRegistryProvider);
+            String weaker = "{bcrypt}" + new BCryptPasswordEncoder(10).encode("password");
+
+            // Act & Assert
+            assertTrue(encoder.matches("password", weaker));
+            assertTrue(encoder.upgradeEncoding(weaker));
+        }
+    }
+
+    @Nested
+    @DisplayName("Argon2 Tests")
+    class Argon2Tests {
+
+        @Test
+        @DisplayName("Should keep accepting bcrypt hashes after switching to Argon2 and mark them for upgrade")
+        void upgradeEncoding_BCryptHashAfterSwitch_ShouldUpgrade() {
+            // Arrange
+            String bcryptHash = passwordEncoder(PasswordEncoderConfig.BCRYPT).encode("password");
+            String legacy = new BCryptPasswordEncoder().encode("password");
+            PasswordEncoder encoder = passwordEncoder(PasswordEncoderConfig.ARGON2);
+
+            // Act & Assert
+            assertTrue(encoder.matches("password", bcryptHash));
+            assertTrue(encoder.upgradeEncoding(bcryptHash));
+            assertTrue(encoder.matches("password", legacy));
+            assertTrue(encoder.upgradeEncoding(legacy));
+        }
+
+        @Test
+        @DisplayName("Should store new hashes with the argon2 prefix and not mark them for upgrade")
+        void encode_ShouldPrefixHash() {
+            // Arrange
+            PasswordEncoder encoder = passwordEncoder(PasswordEncoderConfig.ARGON2);
+
+            // Act
+            String hash = encoder.encode("password");
+
+            // Assert
+            assertTrue(hash.startsWith("{argon2}$argon2id$"), hash);
+            assertTrue(encoder.matches("password", hash));
+            assertFalse(encoder.upgradeEncoding(hash));
+        }
+    }
+
+    @Test
+    @DisplayName("Should run hashing on the bounded executor and register its meters")
+    void passwordEncoder_Bounded_ShouldWrapDelegatingEncoder() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+
+        // Act
+        PasswordEncoder encoder = config(PasswordEncoderConfig.BCRYPT, true).passwordEncoder(meterRegistryProvider);
+
+        // Assert
+        try {
+            assertInstanceOf(BoundedPasswordEncoder.class, encoder);
+            assertTrue(encoder.matches("password", encoder.encode("password")));
+            assertEquals(2, meterRegistry.get("password.hashing.wait").timer().count());
+        } finally {
+            ((DisposableBean) encoder).destroy();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.swiftchat.shared.security.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Bounded Password Encoder Tests")
+class BoundedPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    /** Released at the end of each test so no hashing thread stays blocked. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    private void blockEncoding() {
+        when(delegate.encode(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    @Nested
+    @DisplayName("Delegation Tests")
+    class DelegationTests {
+
+        @Test
+        @DisplayName("Should return the delegate's results and record the wait")
+        void encodeAndMatches_ShouldDelegate() {
+            // Arrange
+            when(delegate.encode("password")).thenReturn("hash");
+            when(delegate.matches("password", "hash")).thenReturn(true);
+
+            // Act & Assert
+            assertEquals("hash", encoder.encode("password"));
+            assertTrue(encoder.matches("password", "hash"));
+            assertEquals(2, meterRegistry.get("password.hashing.wait").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should check upgradeEncoding on the caller's thread")
+        void upgradeEncoding_ShouldNotUseExecutor() {
+            // Arrange
+            String caller = Thread.currentThread().getName();
+            when(delegate.upgradeEncoding("hash")).thenAnswer(
+                    invocation -> caller.equals(Thread.currentThread().getName()));
+
+            // Act & Assert
+            assertTrue(encoder.upgradeEncoding("hash"));
+            assertEquals(0, meterRegistry.get("password.hashing.wait").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should rethrow the delegate's runtime exception itself, not an ExecutionException")
+        void matches_DelegateThrows_ShouldUnwrap() {
+            // Arrange
+            IllegalArgumentException failure = new IllegalArgumentException("Encoded password is not BCrypt");
+            when(delegate.matches("password", "hash")).thenThrow(failure);
+
+            // Act & Assert
+            assertSame(failure, assertThrows(IllegalArgumentException.class,
+                    () -> encoder.matches("password", "hash")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Saturation Tests")
+    class SaturationTests {
+
+        @Test
+        @DisplayName("Should reject callers beyond the queue and count them")
+        void encode_QueueFull_ShouldReject() throws Exception {
+            // Arrange
+            blockEncoding();
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+            await(() -> gauge("password.hashing.active") == 1);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+            await(() -> gauge("password.hashing.queue.depth") == 1);
+
+            // Act & Assert
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+            assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+            verify(delegate, never()).encode("third");
+        }
+
+        @Test
+        @DisplayName("Should reject calls once shut down")
+        void encode_AfterDestroy_ShouldReject() {
+            // Arrange
+            encoder.destroy();
+
+            // Act & Assert
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("password"));
+            verifyNoInteractions(delegate);
+        }
+    }
+
+    @Nested
+    @DisplayName("Interruption Tests")
+    class InterruptionTests {
+
+        @Test
+        @DisplayName("Should give up, keep the caller's interrupt flag and interrupt the hashing thread")
+        void encode_CallerInterrupted_ShouldCancelHashing() throws Exception {
+            // Arrange
+            CountDownLatch hashingStarted = new CountDownLatch(1);
+            CountDownLatch hashingInterrupted = new CountDownLatch(1);
+            when(delegate.encode("password")).thenAnswer(invocation -> {
+                hashingStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    hashingInterrupted.countDown();
+                    throw e;
+                }
+                return "hash";
+            });
+            AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+            AtomicReference<Boolean> stillInterrupted = new AtomicReference<>();
+            Thread caller = new Thread(() -> {
+                try {
+                    encoder.encode("password");
+                } catch (RuntimeException e) {
+                    thrown.set(e);
+                }
+                stillInterrupted.set(Thread.currentThread().isInterrupted());
+            });
+            caller.start();
+            assertTrue(hashingStarted.await(5, TimeUnit.SECONDS));
+
+            // Act
+            caller.interrupt();
+            caller.join(5000);
+
+            // Assert
+            assertInstanceOf(PasswordHashingRejectedException.class, thrown.get());
+            assertTrue(stillInterrupted.get());
+            assertTrue(hashingInterrupted.await(5, TimeUnit.SECONDS));
+            await(() -> gauge("password.hashing.active") == 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should register the executor meters")
+    void constructor_ShouldRegisterMeters() {
+        // Act & Assert
+        assertEquals(0, gauge("password.hashing.queue.depth"));
+        assertEquals(0, gauge("password.hashing.active"));
+        assertNotNull(meterRegistry.find("password.hashing.wait").timer());
+        assertNotNull(meterRegistry.find("password.hashing.rejected").counter());
+    }
+}
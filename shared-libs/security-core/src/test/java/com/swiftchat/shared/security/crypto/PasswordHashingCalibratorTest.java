@@ -0,0 +1,84 @@
+package com.swiftchat.shared.security.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Password Hashing Calibrator Tests")
+class PasswordHashingCalibratorTest {
+
+    /** Small enough to keep the timing samples quick. */
+    private static final int MEMORY_KIB = 1024;
+
+    @Nested
+    @DisplayName("BCrypt Tests")
+    class BCryptTests {
+
+        @Test
+        @DisplayName("Should never go below Spring's default strength, however small the target")
+        void bcryptStrength_TinyTarget_ShouldClampToMinimum() {
+            // Act & Assert
+            assertEquals(PasswordHashingCalibrator.BCRYPT_MIN_STRENGTH,
+                    PasswordHashingCalibrator.bcryptStrength(Duration.ZERO));
+        }
+
+        @Test
+        @DisplayName("Should never exceed the maximum strength, however large the target")
+        void bcryptStrength_HugeTarget_ShouldClampToMaximum() {
+            // Act & Assert
+            assertEquals(PasswordHashingCalibrator.BCRYPT_MAX_STRENGTH,
+                    PasswordHashingCalibrator.bcryptStrength(Duration.ofDays(1)));
+        }
+
+        @Test
+        @DisplayName("Should stay within the bounds for a realistic target")
+        void bcryptStrength_RealisticTarget_ShouldStayWithinBounds() {
+            // Act
+            int strength = PasswordHashingCalibrator.bcryptStrength(Duration.ofMillis(250));
+
+            // Assert
+            assertTrue(strength >= PasswordHashingCalibrator.BCRYPT_MIN_STRENGTH);
+            assertTrue(strength <= PasswordHashingCalibrator.BCRYPT_MAX_STRENGTH);
+        }
+    }
+
+    @Nested
+    @DisplayName("Argon2 Tests")
+    class Argon2Tests {
+
+        @Test
+        @DisplayName("Should never go below the minimum iterations, however small the target")
+        void argon2Iterations_TinyTarget_ShouldClampToMinimum() {
+            // Act & Assert
+            assertEquals(PasswordHashingCalibrator.ARGON2_MIN_ITERATIONS,
+                    PasswordHashingCalibrator.argon2Iterations(Duration.ZERO, MEMORY_KIB, 1));
+        }
+
+        @Test
+        @DisplayName("Should never exceed the maximum iterations, however large the target")
+        void argon2Iterations_HugeTarget_ShouldClampToMaximum() {
+            // Act & Assert
+            assertEquals(PasswordHashingCalibrator.ARGON2_MAX_ITERATIONS,
+                    PasswordHashingCalibrator.argon2Iterations(Duration.ofDays(1), MEMORY_KIB, 1));
+        }
+
+        @Test
+        @DisplayName("Should build an Argon2id encoder whose hashes carry the given cost")
+        void argon2_ShouldEncodeWithGivenCost() {
+            // Arrange
+            Argon2PasswordEncoder encoder = PasswordHashingCalibrator.argon2(MEMORY_KIB, 1, 3);
+
+            // Act
+            String hash = encoder.encode("password");
+
+            // Assert
+            assertTrue(hash.startsWith("$argon2id$v=19$m=1024,t=3,p=1$"), hash);
+            assertTrue(encoder.matches("password", hash));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.swiftchat.shared.security.introspection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Introspection Client Authorization Tests")
+class IntrospectionClientAuthorizationTest {
+
+    private static boolean granted(IntrospectionClientAuthorization authorization, String clientKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/introspect/batch");
+        if (clientKey != null) {
+            request.addHeader(IntrospectionClientAuthorization.CLIENT_KEY_HEADER, clientKey);
+        }
+        return authorization.check(() -> null, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    @Test
+    @DisplayName("Should admit callers presenting any configured key")
+    void check_ConfiguredKey_ShouldGrant() {
+        // Arrange
+        IntrospectionClientAuthorization authorization =
+                new IntrospectionClientAuthorization(List.of("chat-service-key", " presence-service-key "));
+
+        // Act & Assert
+        assertTrue(granted(authorization, "chat-service-key"));
+        assertTrue(granted(authorization, "presence-service-key"));
+    }
+
+    @Test
+    @DisplayName("Should deny callers without a key or with an unknown one")
+    void check_MissingOrUnknownKey_ShouldDeny() {
+        // Arrange
+        IntrospectionClientAuthorization authorization =
+                new IntrospectionClientAuthorization(List.of("chat-service-key"));
+
+        // Act & Assert
+        assertFalse(granted(authorization, null));
+        assertFalse(granted(authorization, "chat-service-key-2"));
+    }
+
+    @Test
+    @DisplayName("Should deny every caller while no key is configured")
+    void check_NoKeysConfigured_ShouldDeny() {
+        // Arrange
+        IntrospectionClientAuthorization authorization = new IntrospectionClientAuthorization(List.of(""));
+
+        // Act & Assert
+        assertFalse(granted(authorization, ""));
+    }
+}
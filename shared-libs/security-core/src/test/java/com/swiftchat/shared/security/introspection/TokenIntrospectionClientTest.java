@@ -0,0 +1,122 @@
+package com.swiftchat.shared.security.introspection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+@DisplayName("Token Introspection Client Tests")
+class TokenIntrospectionClientTest {
+
+    private static final String URI = "http://auth-service/api/auth/introspect/batch";
+    private static final String CLIENT_KEY = "client-key";
+
+    private TokenIntrospectionClient client;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        client = new TokenIntrospectionClient(URI, CLIENT_KEY, 50, 100, 1000, 30, 300);
+        server = MockRestServiceServer.bindTo(client.getRestTemplate()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    private static String activeResult(String subject, Instant expiresAt) {
+        return "{\"active\":true,\"tokenType\":\"access\",\"subject\":\"" + subject
+                + "\",\"expiresAt\":\"" + expiresAt + "\"}";
+    }
+
+    @Test
+    @DisplayName("Should send tokens requested within the batch window as one request with the client key")
+    void introspectAsync_WithinWindow_ShouldSendOneBatch() throws Exception {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        server.expect(ExpectedCount.once(), requestTo(URI))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(IntrospectionClientAuthorization.CLIENT_KEY_HEADER, CLIENT_KEY))
+                .andExpect(jsonPath("$.tokens[0]").value("first.token.sig"))
+                .andExpect(jsonPath("$.tokens[1]").value("second.token.sig"))
+                .andRespond(withSuccess("{\"results\":[" + activeResult("first@example.com", expiresAt) + ","
+                        + "{\"active\":false}]}", MediaType.APPLICATION_JSON));
+
+        // Act
+        CompletableFuture<TokenIntrospection> first = client.introspectAsync("first.token.sig");
+        CompletableFuture<TokenIntrospection> second = client.introspectAsync("second.token.sig");
+
+        // Assert
+        assertTrue(first.get(5, TimeUnit.SECONDS).isActive());
+        assertEquals("first@example.com", first.get().getSubject());
+        assertFalse(second.get(5, TimeUnit.SECONDS).isActive());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should serve a result from the cache until the token expires")
+    void introspect_CachedResult_ShouldExpireAtTokenExpiry() throws Exception {
+        // Arrange
+        Instant expiresAt = Instant.now().plusMillis(500);
+        server.expect(ExpectedCount.twice(), requestTo(URI))
+                .andRespond(withSuccess("{\"results\":[" + activeResult("user@example.com", expiresAt) + "]}",
+                        MediaType.APPLICATION_JSON));
+
+        // Act
+        client.introspect("token.payload.sig");
+        client.introspect("token.payload.sig");
+        Thread.sleep(700);
+        TokenIntrospection afterExpiry = client.introspect("token.payload.sig");
+
+        // Assert
+        assertTrue(afterExpiry.isActive());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch that could not be introspected, and not cache the failure")
+    void introspectAll_RequestFails_ShouldThrowAndRetryLater() {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        server.expect(ExpectedCount.once(), requestTo(URI)).andRespond(withServerError());
+        server.expect(ExpectedCount.once(), requestTo(URI))
+                .andRespond(withSuccess("{\"results\":[" + activeResult("user@example.com", expiresAt) + "]}",
+                        MediaType.APPLICATION_JSON));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> client.introspectAll(List.of("first.token.sig", "second.token.sig")));
+        Map<String, TokenIntrospection> retried = client.introspectAll(List.of("first.token.sig"));
+        assertTrue(retried.get("first.token.sig").isActive());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should reject a response that does not match the batch")
+    void introspect_MismatchedResponse_ShouldThrow() {
+        // Arrange
+        server.expect(ExpectedCount.once(), requestTo(URI))
+                .andRespond(withSuccess("{\"results\":[]}", MediaType.APPLICATION_JSON));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> client.introspect("token.payload.sig"));
+        assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        assertEquals(0, client.estimatedCacheSize());
+    }
+}
@@ -0,0 +1,222 @@
+package com.swiftchat.shared.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HS256 Token Codec Tests")
+class Hs256TokenCodecTest {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "0123456789abcdef0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+    private static final UUID USER_ID = UUID.fromString("5b7c0f9e-3a51-4c2e-9d4b-8f1a2b3c4d5e");
+
+    private final Hs256TokenCodec codec = new Hs256TokenCodec(KEY);
+    private final long issuedAt = System.currentTimeMillis() / 1000;
+    private final long expiration = issuedAt + 900;
+
+    private static Map<String, Object> claims() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(JwtService.USER_ID_CLAIM, USER_ID.toString());
+        claims.put(JwtService.ROLES_CLAIM, List.of("ROLE_USER", "ROLE_ADMIN"));
+        claims.put(JwtService.TOKEN_VERSION_CLAIM, 7L);
+        return claims;
+    }
+
+    private static Map<String, Object> compactClaims() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(CompactClaims.VERSION, CompactClaims.FORMAT_VERSION);
+        claims.put(CompactClaims.USER_ID, CompactClaims.encodeUuid(USER_ID));
+        claims.put(CompactClaims.ROLE_MASK, 3);
+        claims.put(CompactClaims.TOKEN_VERSION, 7L);
+        return claims;
+    }
+
+    private String jjwtToken(String subject) {
+        return jjwtToken(claims(), subject);
+    }
+
+    private String jjwtToken(Map<String, Object> claims, String subject) {
+        return Jwts.builder()
+                .claims(claims)
+                .id("token-id")
+                .subject(subject)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(KEY, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Nested
+    @DisplayName("Encoding tests")
+    class EncodingTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = { "user@example.com", "quo\"te\\slash@x", "josé@exämple.com",
+                "日本語@x", "emoji😀@x", "😀👍" })
+        @DisplayName("Should produce byte-for-byte the token jjwt produces")
+        void encode_SupportedSubject_ShouldMatchJjwt(String subject) {
+            // Act
+            String token = codec.encode(claims(), "token-id", subject, issuedAt, expiration);
+
+            // Assert
+            assertEquals(jjwtToken(subject), token);
+        }
+
+        @Test
+        @DisplayName("Should produce byte-for-byte the compact token jjwt produces")
+        void encode_CompactClaims_ShouldMatchJjwt() {
+            // Act
+            String token = codec.encode(compactClaims(), "token-id", "user@example.com", issuedAt, expiration);
+
+            // Assert
+            assertEquals(jjwtToken(compactClaims(), "user@example.com"), token);
+        }
+
+        @Test
+        @DisplayName("Should leave control characters to jjwt")
+        void encode_ControlCharacter_ShouldFallBack() {
+            // Act & Assert
+            assertNull(codec.encode(claims(), "token-id", "tab\tuser@x", issuedAt, expiration));
+        }
+
+        @Test
+        @DisplayName("Should leave registered claims in the custom claims to jjwt")
+        void encode_RegisteredClaim_ShouldFallBack() {
+            // Arrange
+            Map<String, Object> claims = claims();
+            claims.put("iss", "swiftchat");
+
+            // Act & Assert
+            assertNull(codec.encode(claims, "token-id", "user@example.com", issuedAt, expiration));
+        }
+    }
+
+    @Nested
+    @DisplayName("Decoding tests")
+    class DecodingTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = { "user@example.com", "josé@exämple.com", "日本語@x" })
+        @DisplayName("Should decode every claim of a token produced by jjwt")
+        void decode_JjwtToken_ShouldReturnClaims(String subject) {
+            // Act
+            VerifiedToken verified = codec.decode(jjwtToken(subject), System.currentTimeMillis());
+
+            // Assert
+            assertNotNull(verified);
+            assertEquals("token-id", verified.getTokenId());
+            assertEquals(subject, verified.getSubject());
+            assertEquals(USER_ID, verified.getUserId());
+            assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), verified.getAuthorities());
+            assertEquals(7L, verified.getTokenVersion());
+            assertEquals(issuedAt, verified.getIssuedAt().getEpochSecond());
+            assertEquals(expiration, verified.getExpiration().getEpochSecond());
+        }
+
+        @Test
+        @DisplayName("Should decode the role mask of a compact token produced by jjwt")
+        void decode_CompactJjwtToken_ShouldReturnClaims() {
+            // Act
+            VerifiedToken verified = codec.decode(jjwtToken(compactClaims(), "user@example.com"),
+                    System.currentTimeMillis());
+
+            // Assert
+            assertNotNull(verified);
+            assertEquals(USER_ID, verified.getUserId());
+            assertEquals(3, verified.getRoleMask());
+            assertSame(RoleRegistry.namesOf(3), verified.getAuthorities());
+            assertEquals(7L, verified.getTokenVersion());
+        }
+
+        @Test
+        @DisplayName("Should leave a compact token carrying both a role mask and role names to jjwt")
+        void decode_CompactTokenWithRolesAndMask_ShouldFallBack() {
+            // Arrange
+            Map<String, Object> claims = compactClaims();
+            claims.put(JwtService.ROLES_CLAIM, List.of("ROLE_USER"));
+
+            // Act & Assert
+            assertNull(codec.decode(jjwtToken(claims, "user@example.com"), System.currentTimeMillis()));
+        }
+
+        @Test
+        @DisplayName("Should leave escaped strings to jjwt")
+        void decode_EscapedSubject_ShouldFallBack() {
+            // Act & Assert
+            assertNull(codec.decode(jjwtToken("emoji😀@x"), System.currentTimeMillis()));
+        }
+
+        @Test
+        @DisplayName("Should reject a token whose signature was tampered with")
+        void decode_TamperedSignature_ShouldReject() {
+            // Arrange
+            String token = jjwtToken("user@example.com");
+            char last = token.charAt(token.length() - 2);
+            String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                    + token.charAt(token.length() - 1);
+
+            // Act & Assert
+            assertNull(codec.decode(tampered, System.currentTimeMillis()));
+        }
+
+        @Test
+        @DisplayName("Should reject a token whose payload was tampered with")
+        void decode_TamperedPayload_ShouldReject() {
+            // Arrange
+            String[] parts = jjwtToken("user@example.com").split("\\.");
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                    .replace("user@example.com", "admin@example.com");
+            String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+            // Act & Assert
+            assertNull(codec.decode(tampered, System.currentTimeMillis()));
+        }
+
+        @Test
+        @DisplayName("Should reject a token whose header names another algorithm")
+        void decode_OtherAlgorithm_ShouldReject() {
+            // Arrange
+            String hs512 = Jwts.builder()
+                    .subject("user@example.com")
+                    .expiration(new Date(expiration * 1000))
+                    .signWith(Keys.hmacShaKeyFor(new byte[64]), Jwts.SIG.HS512)
+                    .compact();
+            String[] parts = jjwtToken("user@example.com").split("\\.");
+            String none = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.US_ASCII))
+                    + "." + parts[1] + "." + parts[2];
+
+            // Act & Assert
+            assertNull(codec.decode(hs512, System.currentTimeMillis()));
+            assertNull(codec.decode(none, System.currentTimeMillis()));
+        }
+
+        @Test
+        @DisplayName("Should reject an expired token")
+        void decode_ExpiredToken_ShouldReject() {
+            // Arrange
+            String token = codec.encode(claims(), "token-id", "user@example.com", issuedAt - 1000, issuedAt - 100);
+
+            // Act & Assert
+            assertNull(codec.decode(token, System.currentTimeMillis()));
+            assertNotNull(codec.decode(token, (issuedAt - 200) * 1000));
+        }
+    }
+}
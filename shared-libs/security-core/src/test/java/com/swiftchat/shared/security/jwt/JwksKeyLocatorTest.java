@@ -0,0 +1,147 @@
+package com.swiftchat.shared.security.jwt;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JWKS Key Locator Tests")
+class JwksKeyLocatorTest {
+
+    private static final String EMPTY_JWKS = "{\"keys\":[]}";
+
+    private final AtomicReference<String> served = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private JwksKeyLocator locator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = served.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (locator != null) {
+            locator.stop();
+        }
+        server.stop(0);
+    }
+
+    private JwksKeyLocator startLocator(Duration refreshInterval) {
+        locator = new JwksKeyLocator("http://127.0.0.1:" + server.getAddress().getPort() + "/.well-known/jwks.json",
+                refreshInterval);
+        locator.start();
+        return locator;
+    }
+
+    private static String jwks(String[] kids, KeyPair... keyPairs) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < keyPairs.length; i++) {
+            keys.add(Jwks.json(Jwks.builder().key(keyPairs[i].getPublic()).id(kids[i]).build()));
+        }
+        return "{\"keys\":[" + String.join(",", keys) + "]}";
+    }
+
+    private static void awaitKey(JwksKeyLocator locator, String kid) throws InterruptedException {
+        for (int i = 0; i < 50 && locator.getKey(kid) == null; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    @DisplayName("Should load every published key at startup")
+    void start_PublishedKeys_ShouldResolveEveryKid() {
+        // Arrange
+        JwtKeyProvider issuer = JwtKeyProviderTest.keyStoreProvider(JwtKeyProviderTest.NEW_KID);
+        served.set(issuer.getPublicJwks());
+
+        // Act
+        JwksKeyLocator locator = startLocator(Duration.ofMinutes(5));
+
+        // Assert
+        assertNotNull(locator.getKey(JwtKeyProviderTest.OLD_KID));
+        assertEquals("EC", locator.getKey(JwtKeyProviderTest.NEW_KID).getAlgorithm());
+    }
+
+    @Test
+    @DisplayName("Should pick up a rotated key on the next refresh")
+    void refresh_RotatedKey_ShouldResolveNewKid() throws InterruptedException {
+        // Arrange
+        KeyPair current = Jwts.SIG.ES256.keyPair().build();
+        KeyPair next = Jwts.SIG.ES256.keyPair().build();
+        served.set(jwks(new String[] { "current" }, current));
+        JwksKeyLocator locator = startLocator(Duration.ofMillis(100));
+        assertNull(locator.getKey("next"));
+
+        // Act
+        served.set(jwks(new String[] { "current", "next" }, current, next));
+        awaitKey(locator, "next");
+
+        // Assert
+        assertEquals(next.getPublic(), locator.getKey("next"));
+        assertEquals(current.getPublic(), locator.getKey("current"));
+    }
+
+    @Test
+    @DisplayName("Should return null for an unknown kid without refreshing again within the minimum gap")
+    void getKey_UnknownKid_ShouldReturnNullAndRateLimitRefresh() throws InterruptedException {
+        // Arrange
+        served.set(JwtKeyProviderTest.keyStoreProvider(JwtKeyProviderTest.NEW_KID).getPublicJwks());
+        JwksKeyLocator locator = startLocator(Duration.ofMinutes(5));
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertNull(locator.getKey("unknown-kid"));
+        }
+        Thread.sleep(200);
+
+        // Assert
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should keep the previous keys when the endpoint fails or serves an empty set")
+    void refresh_FailedOrEmptyResponse_ShouldKeepPreviousKeys() throws InterruptedException {
+        // Arrange
+        served.set(JwtKeyProviderTest.keyStoreProvider(JwtKeyProviderTest.NEW_KID).getPublicJwks());
+        JwksKeyLocator locator = startLocator(Duration.ofMillis(100));
+
+        // Act
+        served.set(EMPTY_JWKS);
+        Thread.sleep(300);
+        status.set(503);
+        int before = requests.get();
+        Thread.sleep(300);
+
+        // Assert
+        assertTrue(requests.get() > before);
+        assertNotNull(locator.getKey(JwtKeyProviderTest.NEW_KID));
+    }
+}
@@ -0,0 +1,223 @@
+package com.swiftchat.shared.security.jwt;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JWT Authentication Filter Tests")
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "user@example.com";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationCheck revocationCheck;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+        ReflectionTestUtils.setField(filter, "revocationChecks", List.of(revocationCheck));
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static VerifiedToken accessToken(List<String> authorities) {
+        return VerifiedToken.builder()
+                .tokenId(UUID.randomUUID().toString())
+                .subject(EMAIL)
+                .userId(UUID.randomUUID())
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(900))
+                .authorities(authorities)
+                .tokenVersion(3L)
+                .build();
+    }
+
+    private static UserDetails storedUser() {
+        return User.withUsername(EMAIL).password("hash").authorities("ROLE_USER", "ROLE_ADMIN").build();
+    }
+
+    private static List<String> authorityNames(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private void givenToken(VerifiedToken token, TokenRevocationCheck.Decision decision) {
+        when(jwtService.parseToken(TOKEN)).thenReturn(token);
+        when(revocationCheck.check(token)).thenReturn(decision);
+    }
+
+    @Nested
+    @DisplayName("Stateless mode")
+    class StatelessTests {
+
+        @BeforeEach
+        void enableStatelessAuth() {
+            ReflectionTestUtils.setField(filter, "statelessAuthEnabled", true);
+        }
+
+        @Test
+        @DisplayName("Should authenticate from the token claims without loading the user")
+        void doFilter_TrustClaims_ShouldNotLoadUser() throws Exception {
+            // Arrange
+            givenToken(accessToken(List.of("ROLE_USER")), TokenRevocationCheck.Decision.TRUST_CLAIMS);
+            when(jwtService.isTokenValid(any(VerifiedToken.class), any(UserDetails.class))).thenReturn(true);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertNotNull(authentication);
+            assertEquals(EMAIL, authentication.getName());
+            assertEquals(List.of("ROLE_USER"), authorityNames(authentication));
+            verifyNoInteractions(userDetailsService);
+            verify(filterChain).doFilter(request, response);
+        }
+
+        @Test
+        @DisplayName("Should reload the user when a revocation check asks for it")
+        void doFilter_CheckAsksForReload_ShouldLoadUser() throws Exception {
+            // Arrange
+            givenToken(accessToken(List.of("ROLE_USER")), TokenRevocationCheck.Decision.RELOAD_USER);
+            UserDetails stored = storedUser();
+            when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(stored);
+            when(jwtService.isTokenValid(any(VerifiedToken.class), eq(stored))).thenReturn(true);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertSame(stored, authentication.getPrincipal());
+            assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), authorityNames(authentication).stream().sorted().toList());
+        }
+
+        @Test
+        @DisplayName("Should reload the user for a token issued without embedded authorities")
+        void doFilter_TokenWithoutAuthorities_ShouldLoadUser() throws Exception {
+            // Arrange
+            givenToken(accessToken(null), TokenRevocationCheck.Decision.TRUST_CLAIMS);
+            UserDetails stored = storedUser();
+            when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(stored);
+            when(jwtService.isTokenValid(any(VerifiedToken.class), eq(stored))).thenReturn(true);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            assertSame(stored, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        }
+
+        @Test
+        @DisplayName("Should not authenticate a token a revocation check rejects")
+        void doFilter_CheckRejects_ShouldNotAuthenticate() throws Exception {
+            // Arrange
+            givenToken(accessToken(List.of("ROLE_USER")), TokenRevocationCheck.Decision.REJECT);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+            verifyNoInteractions(userDetailsService);
+            verify(jwtService, never()).isTokenValid(any(VerifiedToken.class), any(UserDetails.class));
+            verify(filterChain).doFilter(request, response);
+        }
+    }
+
+    @Nested
+    @DisplayName("Stateful mode")
+    class StatefulTests {
+
+        @Test
+        @DisplayName("Should load the user even when the revocation checks trust the claims")
+        void doFilter_TrustClaims_ShouldStillLoadUser() throws Exception {
+            // Arrange
+            givenToken(accessToken(List.of("ROLE_USER")), TokenRevocationCheck.Decision.TRUST_CLAIMS);
+            UserDetails stored = storedUser();
+            when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(stored);
+            when(jwtService.isTokenValid(any(VerifiedToken.class), eq(stored))).thenReturn(true);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            assertSame(stored, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        }
+
+        @Test
+        @DisplayName("Should apply revocation checks before loading the user")
+        void doFilter_CheckRejects_ShouldNotLoadUser() throws Exception {
+            // Arrange
+            givenToken(accessToken(List.of("ROLE_USER")), TokenRevocationCheck.Decision.REJECT);
+
+            // Act
+            filter.doFilter(request, response, filterChain);
+
+            // Assert
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+            verifyNoInteractions(userDetailsService);
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip refresh tokens without consulting the revocation checks")
+    void doFilter_RefreshToken_ShouldNotAuthenticate() throws Exception {
+        // Arrange
+        when(jwtService.parseToken(TOKEN)).thenReturn(VerifiedToken.builder()
+                .subject(EMAIL)
+                .tokenType(VerifiedToken.REFRESH_TOKEN_TYPE)
+                .expiration(Instant.now().plusSeconds(900))
+                .build());
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(revocationCheck, userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+}
@@ -0,0 +1,124 @@
+package com.swiftchat.shared.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JWT Key Provider Tests")
+class JwtKeyProviderTest {
+
+    static final String KEY_STORE = "classpath:jwt-signing.p12";
+    static final String OLD_KID = "key-2024-01";
+    static final String NEW_KID = "key-2024-06";
+
+    private static final UserDetails USER = User.withUsername("user@example.com")
+            .password("")
+            .authorities("ROLE_USER")
+            .build();
+
+    static JwtKeyProvider keyStoreProvider(String activeKid) {
+        JwtKeyProvider keyProvider = new JwtKeyProvider();
+        ReflectionTestUtils.setField(keyProvider, "secret", "");
+        ReflectionTestUtils.setField(keyProvider, "algorithm", "RS256");
+        ReflectionTestUtils.setField(keyProvider, "keyStoreLocation", KEY_STORE);
+        ReflectionTestUtils.setField(keyProvider, "keyStorePassword", "changeit");
+        ReflectionTestUtils.setField(keyProvider, "keyStoreType", "PKCS12");
+        ReflectionTestUtils.setField(keyProvider, "activeKid", activeKid);
+        ReflectionTestUtils.setField(keyProvider, "jwksUri", "");
+        keyProvider.init();
+        return keyProvider;
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+
+    @Test
+    @DisplayName("Should sign with the active kid and verify tokens of every alias after a rotation")
+    void rotation_OldKidTokens_ShouldStillVerify() {
+        // Arrange
+        JwtService beforeRotation = JwtServiceTest.jwtService(keyStoreProvider(OLD_KID), null, true, 900);
+        JwtService afterRotation = JwtServiceTest.jwtService(keyStoreProvider(NEW_KID), null, true, 900);
+        String oldToken = beforeRotation.generateToken(USER, UUID.randomUUID());
+
+        // Act
+        String newToken = afterRotation.generateToken(USER, UUID.randomUUID());
+
+        // Assert
+        assertEquals(OLD_KID, kidOf(oldToken));
+        assertEquals(NEW_KID, kidOf(newToken));
+        assertEquals("user@example.com", afterRotation.parseToken(oldToken).getSubject());
+        assertEquals("user@example.com", afterRotation.parseToken(newToken).getSubject());
+    }
+
+    @Test
+    @DisplayName("Should pick the algorithm from the active key")
+    void init_ActiveKid_ShouldSelectAlgorithmForKey() {
+        // Act
+        JwtKeyProvider rsa = keyStoreProvider(OLD_KID);
+        JwtKeyProvider ec = keyStoreProvider(NEW_KID);
+
+        // Assert
+        assertEquals(Jwts.SIG.RS256, rsa.getSigningAlgorithm());
+        assertEquals(Jwts.SIG.ES256, ec.getSigningAlgorithm());
+        assertFalse(rsa.isHmacSigning());
+    }
+
+    @Test
+    @DisplayName("Should reject a token whose kid is not in the key store")
+    void parse_UnknownKid_ShouldReject() {
+        // Arrange
+        JwtService jwtService = JwtServiceTest.jwtService(keyStoreProvider(NEW_KID), null, true, 900);
+        String token = Jwts.builder()
+                .header().keyId("retired-kid").and()
+                .subject("user@example.com")
+                .signWith(Jwts.SIG.RS256.keyPair().build().getPrivate(), Jwts.SIG.RS256)
+                .compact();
+
+        // Act & Assert
+        UnsupportedJwtException exception = assertThrows(UnsupportedJwtException.class,
+                () -> jwtService.parseToken(token));
+        assertTrue(exception.getMessage().contains("retired-kid"));
+    }
+
+    @Test
+    @DisplayName("Should publish every alias, and no private key material, in the JWKS")
+    void getPublicJwks_KeyStore_ShouldListEveryKid() {
+        // Act
+        String jwks = keyStoreProvider(NEW_KID).getPublicJwks();
+
+        // Assert
+        assertTrue(jwks.contains("\"kid\":\"" + OLD_KID + "\""));
+        assertTrue(jwks.contains("\"kid\":\"" + NEW_KID + "\""));
+        assertTrue(jwks.contains("\"alg\":\"RS256\""));
+        assertTrue(jwks.contains("\"alg\":\"ES256\""));
+        assertFalse(jwks.contains("\"d\":"));
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when a key store is configured without an active kid")
+    void init_NoActiveKid_ShouldFailFast() {
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> keyStoreProvider(""));
+        assertTrue(exception.getMessage().contains("jwt.signing.active-kid"));
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when the active kid is not in the key store")
+    void init_UnknownActiveKid_ShouldFailFast() {
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> keyStoreProvider("key-2025-01"));
+        assertTrue(exception.getMessage().contains("key-2025-01"));
+    }
+}
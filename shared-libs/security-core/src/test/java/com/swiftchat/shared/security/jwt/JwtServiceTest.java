@@ -0,0 +1,335 @@
+package com.swiftchat.shared.security.jwt;
+
+import com.swiftchat.shared.security.model.VersionedUser;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JWT Service Tests")
+class JwtServiceTest {
+
+    static final String SECRET = Base64.getEncoder().encodeToString(
+            "0123456789abcdef0123456789abcdef0123456789abcdef".getBytes());
+
+    private static final UserDetails USER = User.withUsername("user@example.com")
+            .password("")
+            .authorities("ROLE_USER")
+            .build();
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    static JwtKeyProvider hmacKeyProvider() {
+        JwtKeyProvider keyProvider = new JwtKeyProvider();
+        ReflectionTestUtils.setField(keyProvider, "secret", SECRET);
+        ReflectionTestUtils.setField(keyProvider, "algorithm", "HS256");
+        keyProvider.init();
+        return keyProvider;
+    }
+
+    static JwtService jwtService(JwtKeyProvider keyProvider, VerifiedTokenCache tokenCache, boolean fastPath,
+            long expirationSeconds) {
+        return jwtService(keyProvider, tokenCache, fastPath, expirationSeconds, "v1");
+    }
+
+    static JwtService jwtService(JwtKeyProvider keyProvider, VerifiedTokenCache tokenCache, boolean fastPath,
+            long expirationSeconds, String tokenFormat) {
+        JwtService jwtService = new JwtService(keyProvider);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expirationSeconds);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604800L);
+        ReflectionTestUtils.setField(jwtService, "tokenFormat", tokenFormat);
+        ReflectionTestUtils.setField(jwtService, "hs256FastPathEnabled", fastPath);
+        ReflectionTestUtils.setField(jwtService, "tokenCache", tokenCache);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private static String tamperSignature(String token) {
+        char last = token.charAt(token.length() - 2);
+        return token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+    }
+
+    private static Map<String, Object> payload(String token) {
+        return new JacksonDeserializer<Map<String, Object>>().deserialize(
+                new StringReader(new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]),
+                        StandardCharsets.UTF_8)));
+    }
+
+    @Nested
+    @DisplayName("Parsing with the verified token cache")
+    class CachedParsingTests {
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        @DisplayName("Should verify a token once and serve repeat presentations from the cache")
+        void parseToken_RepeatPresentation_ShouldHitCache(boolean fastPath) {
+            // Arrange
+            VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistryProvider);
+            JwtService jwtService = jwtService(hmacKeyProvider(), cache, fastPath, 900);
+            String token = jwtService.generateToken(USER, USER_ID);
+
+            // Act
+            VerifiedToken first = jwtService.parseToken(token);
+            VerifiedToken second = jwtService.parseToken(token);
+
+            // Assert
+            assertSame(first, second);
+            assertEquals("user@example.com", first.getSubject());
+            assertEquals(USER_ID, first.getUserId());
+            assertEquals(List.of("ROLE_USER"), first.getAuthorities());
+            assertEquals(1, cache.stats().missCount());
+            assertEquals(1, cache.stats().hitCount());
+        }
+
+        @Test
+        @DisplayName("Should never serve a tampered token from the cache")
+        void parseToken_TamperedToken_ShouldThrowAndNotBeCached() {
+            // Arrange
+            VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistryProvider);
+            JwtService jwtService = jwtService(hmacKeyProvider(), cache, true, 900);
+            String token = jwtService.generateToken(USER, USER_ID);
+            jwtService.parseToken(token);
+
+            // Act & Assert
+            assertThrows(SignatureException.class, () -> jwtService.parseToken(tamperSignature(token)));
+            assertThrows(SignatureException.class, () -> jwtService.parseToken(tamperSignature(token)));
+            assertEquals(1, cache.estimatedSize());
+        }
+
+        @Test
+        @DisplayName("Should reject a cached token once it expires")
+        void parseToken_CachedTokenExpires_ShouldThrow() throws InterruptedException {
+            // Arrange
+            VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistryProvider);
+            JwtService jwtService = jwtService(hmacKeyProvider(), cache, true, 1);
+            String token = jwtService.generateToken(USER, USER_ID);
+            assertNotNull(jwtService.parseToken(token));
+
+            // Act
+            Thread.sleep(2100);
+
+            // Assert
+            assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(token));
+            assertEquals(0, cache.stats().hitCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Parsing without the cache")
+    class UncachedParsingTests {
+
+        @Test
+        @DisplayName("Should verify every presentation when no cache is configured")
+        void parseToken_NoCache_ShouldVerifyEachTime() {
+            // Arrange
+            JwtService jwtService = jwtService(hmacKeyProvider(), null, true, 900);
+            String token = jwtService.generateToken(USER, USER_ID);
+
+            // Act
+            VerifiedToken first = jwtService.parseToken(token);
+            VerifiedToken second = jwtService.parseToken(token);
+
+            // Assert
+            assertNotSame(first, second);
+            assertEquals(first, second);
+            assertThrows(SignatureException.class, () -> jwtService.parseToken(tamperSignature(token)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Token format tests")
+    class TokenFormatTests {
+
+        private final UserDetails versionedUser = new VersionedUser("user@example.com", "", true, true, true, true,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_MODERATOR"), 3L);
+
+        /** Issuer and verifier each with and without the HS256 fast path, so both jjwt and the codec sign and parse. */
+        static Stream<Arguments> issuerAndVerifier() {
+            return Stream.of(
+                    Arguments.of("v1", true, true),
+                    Arguments.of("v1", true, false),
+                    Arguments.of("v1", false, true),
+                    Arguments.of("v1", false, false),
+                    Arguments.of("v2", true, true),
+                    Arguments.of("v2", true, false),
+                    Arguments.of("v2", false, true),
+                    Arguments.of("v2", false, false));
+        }
+
+        @ParameterizedTest(name = "{0}, issuer fast path {1}, verifier fast path {2}")
+        @MethodSource("issuerAndVerifier")
+        @DisplayName("Should round-trip every access token claim in both formats")
+        void parseToken_AccessToken_ShouldRoundTrip(String format, boolean issuerFastPath, boolean verifierFastPath) {
+            // Arrange
+            JwtKeyProvider keyProvider = hmacKeyProvider();
+            JwtService issuer = jwtService(keyProvider, null, issuerFastPath, 900, format);
+            JwtService verifier = jwtService(keyProvider, null, verifierFastPath, 900, "v1");
+
+            // Act
+            VerifiedToken verified = verifier.parseToken(issuer.generateToken(versionedUser, USER_ID));
+
+            // Assert
+            assertEquals("user@example.com", verified.getSubject());
+            assertEquals(USER_ID, verified.getUserId());
+            // v1 keeps the user's authority order, v2 the registry's
+            assertEquals(Set.of("ROLE_USER", "ROLE_MODERATOR"), Set.copyOf(verified.getAuthorities()));
+            assertEquals(3L, verified.getTokenVersion());
+            assertEquals("v2".equals(format) ? Integer.valueOf(5) : null, verified.getRoleMask());
+            assertTrue(verified.hasRole("ROLE_MODERATOR"));
+            assertFalse(verified.hasRole("ROLE_ADMIN"));
+            assertNotNull(verified.getTokenUuid());
+            assertFalse(verified.isRefreshToken());
+        }
+
+        @ParameterizedTest(name = "{0}, issuer fast path {1}, verifier fast path {2}")
+        @MethodSource("issuerAndVerifier")
+        @DisplayName("Should round-trip a refresh token and its family in both formats")
+        void parseToken_RefreshToken_ShouldRoundTrip(String format, boolean issuerFastPath,
+                boolean verifierFastPath) {
+            // Arrange
+            JwtKeyProvider keyProvider = hmacKeyProvider();
+            JwtService issuer = jwtService(keyProvider, null, issuerFastPath, 900, format);
+            JwtService verifier = jwtService(keyProvider, null, verifierFastPath, 900, "v1");
+            UUID tokenId = UUID.randomUUID();
+            UUID familyId = UUID.randomUUID();
+
+            // Act
+            VerifiedToken verified = verifier.parseToken(
+                    issuer.generateRefreshToken(USER, USER_ID, tokenId, familyId));
+
+            // Assert
+            assertTrue(verified.isRefreshToken());
+            assertEquals(USER_ID, verified.getUserId());
+            assertEquals(tokenId, verified.getTokenUuid());
+            assertEquals(familyId, verified.getFamilyId());
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        @DisplayName("Should write the compact claims and leave out the v1 ones")
+        void generateToken_CompactFormat_ShouldUseCompactClaims(boolean fastPath) {
+            // Arrange
+            JwtService jwtService = jwtService(hmacKeyProvider(), null, fastPath, 900, "v2");
+
+            // Act
+            Map<String, Object> claims = payload(jwtService.generateToken(versionedUser, USER_ID));
+
+            // Assert
+            assertEquals(2, claims.get(CompactClaims.VERSION));
+            assertEquals(CompactClaims.encodeUuid(USER_ID), claims.get(CompactClaims.USER_ID));
+            assertEquals(5, claims.get(CompactClaims.ROLE_MASK));
+            assertEquals(3, claims.get(CompactClaims.TOKEN_VERSION));
+            assertEquals(22, ((String) claims.get("jti")).length());
+            assertFalse(claims.containsKey(JwtService.USER_ID_CLAIM));
+            assertFalse(claims.containsKey(JwtService.ROLES_CLAIM));
+        }
+
+        @ParameterizedTest(name = "issuer fast path {0}, verifier fast path {1}")
+        @CsvSource({ "true, true", "true, false", "false, true", "false, false" })
+        @DisplayName("Should fall back to the roles claim for a role outside the registry")
+        void generateToken_UnregisteredRole_ShouldKeepRolesClaim(boolean issuerFastPath, boolean verifierFastPath) {
+            // Arrange
+            UserDetails support = User.withUsername("support@example.com")
+                    .password("")
+                    .authorities("ROLE_USER", "ROLE_SUPPORT")
+                    .build();
+            JwtKeyProvider keyProvider = hmacKeyProvider();
+            JwtService issuer = jwtService(keyProvider, null, issuerFastPath, 900, "v2");
+            JwtService verifier = jwtService(keyProvider, null, verifierFastPath, 900, "v2");
+
+            // Act
+            String token = issuer.generateToken(support, USER_ID);
+            VerifiedToken verified = verifier.parseToken(token);
+
+            // Assert
+            Map<String, Object> claims = payload(token);
+            assertEquals(2, claims.get(CompactClaims.VERSION));
+            assertFalse(claims.containsKey(CompactClaims.ROLE_MASK));
+            assertEquals(List.of("ROLE_SUPPORT", "ROLE_USER"), claims.get(JwtService.ROLES_CLAIM));
+            assertNull(verified.getRoleMask());
+            assertEquals(List.of("ROLE_SUPPORT", "ROLE_USER"), verified.getAuthorities());
+            assertTrue(verified.hasRole("ROLE_SUPPORT"));
+            assertEquals(USER_ID, verified.getUserId());
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        @DisplayName("Should accept tokens of either format whichever format the verifier issues")
+        void parseToken_MigrationWindow_ShouldAcceptBothFormats(boolean fastPath) {
+            // Arrange
+            JwtKeyProvider keyProvider = hmacKeyProvider();
+            JwtService v1 = jwtService(keyProvider, null, fastPath, 900, "v1");
+            JwtService v2 = jwtService(keyProvider, null, fastPath, 900, "v2");
+            String v1Token = v1.generateToken(USER, USER_ID);
+            String v2Token = v2.generateToken(USER, USER_ID);
+
+            // Act & Assert
+            for (JwtService verifier : List.of(v1, v2)) {
+                assertEquals(USER_ID, verifier.parseToken(v1Token).getUserId());
+                assertEquals(USER_ID, verifier.parseToken(v2Token).getUserId());
+                assertTrue(verifier.isTokenValid(v1Token, USER));
+                assertTrue(verifier.isTokenValid(v2Token, USER));
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        @DisplayName("Should reject role bits outside the registry")
+        void parseToken_UnknownRoleBits_ShouldThrow(boolean fastPath) {
+            // Arrange
+            JwtService jwtService = jwtService(hmacKeyProvider(), null, fastPath, 900, "v2");
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put(CompactClaims.ROLE_MASK, 8);
+            String token = jwtService.generateToken(claims, USER, USER_ID);
+
+            // Act & Assert
+            assertThrows(MalformedJwtException.class, () -> jwtService.parseToken(token));
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        @DisplayName("Should reject an unknown format version")
+        void parseToken_UnknownVersion_ShouldThrow(boolean fastPath) {
+            // Arrange
+            JwtService jwtService = jwtService(hmacKeyProvider(), null, fastPath, 900, "v1");
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put(CompactClaims.VERSION, 3);
+            String token = jwtService.generateToken(claims, USER, USER_ID);
+
+            // Act & Assert
+            assertThrows(MalformedJwtException.class, () -> jwtService.parseToken(token));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.swiftchat.shared.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Role Registry Tests")
+class RoleRegistryTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+    @DisplayName("Should decode every mask to the roles of its bits, in registry order")
+    void authoritiesOf_EveryMask_ShouldMatchBits(int mask) {
+        // Arrange
+        List<String> expected = new ArrayList<>();
+        for (int bit = 0; bit < RoleRegistry.ROLES.size(); bit++) {
+            if ((mask & (1 << bit)) != 0) {
+                expected.add(RoleRegistry.ROLES.get(bit));
+            }
+        }
+
+        // Act
+        List<SimpleGrantedAuthority> authorities = RoleRegistry.authoritiesOf(mask);
+
+        // Assert
+        assertEquals(expected, authorities.stream().map(SimpleGrantedAuthority::getAuthority).toList());
+        assertEquals(expected, RoleRegistry.namesOf(mask));
+        assertEquals(mask, RoleRegistry.maskOf(expected));
+        assertSame(authorities, RoleRegistry.authoritiesOf(mask));
+        assertThrows(UnsupportedOperationException.class,
+                () -> authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        for (String role : RoleRegistry.ROLES) {
+            assertEquals(expected.contains(role), RoleRegistry.hasRole(mask, role));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the bit positions tokens were issued with")
+    void roles_ShouldKeepBitPositions() {
+        // Act & Assert
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_MODERATOR"), RoleRegistry.ROLES);
+        assertEquals(1, RoleRegistry.maskOf(List.of("ROLE_USER")));
+        assertEquals(6, RoleRegistry.maskOf(List.of("ROLE_MODERATOR", "ROLE_ADMIN")));
+    }
+
+    @Test
+    @DisplayName("Should refuse to encode a role outside the registry")
+    void maskOf_UnknownRole_ShouldReturnNull() {
+        // Act & Assert
+        assertNull(RoleRegistry.maskOf(List.of("ROLE_USER", "ROLE_SUPPORT")));
+        assertEquals(0, RoleRegistry.maskOf(List.of()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 8, 9, 16, -1, Integer.MAX_VALUE })
+    @DisplayName("Should reject masks with bits beyond the registry")
+    void isValid_UnknownBits_ShouldReturnFalse(int mask) {
+        // Act & Assert
+        assertFalse(RoleRegistry.isValid(mask));
+    }
+
+    @Test
+    @DisplayName("Should not report a role outside the registry for any mask")
+    void hasRole_UnknownRole_ShouldReturnFalse() {
+        // Act & Assert
+        assertTrue(RoleRegistry.isValid(7));
+        assertFalse(RoleRegistry.hasRole(7, "ROLE_SUPPORT"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.swiftchat.shared.security.revocation;
+
+import com.swiftchat.shared.security.jwt.TokenRevocationCheck;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Access Token Denylist Tests")
+class AccessTokenDenylistTest {
+
+    private AccessTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new AccessTokenDenylist(1000, 60);
+    }
+
+    private static VerifiedToken token(String tokenId) {
+        return VerifiedToken.builder()
+                .tokenId(tokenId)
+                .subject("user@example.com")
+                .userId(UUID.randomUUID())
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(900))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should reject a revoked token and publish the revocation")
+    void revokeToken_ShouldRejectOnlyThatToken() {
+        // Arrange
+        List<DenylistEntry> published = new ArrayList<>();
+        denylist.setPublisher(published::add);
+
+        // Act
+        denylist.revokeToken("revoked-jti", Instant.now().plusSeconds(900));
+
+        // Assert
+        assertEquals(TokenRevocationCheck.Decision.REJECT, denylist.check(token("revoked-jti")));
+        assertEquals(TokenRevocationCheck.Decision.TRUST_CLAIMS, denylist.check(token("other-jti")));
+        assertEquals(1, published.size());
+        assertEquals("revoked-jti", published.get(0).getTokenId());
+    }
+
+    @Test
+    @DisplayName("Should ignore entries whose token has already expired")
+    void apply_ExpiredEntry_ShouldNotStore() {
+        // Act
+        denylist.apply(DenylistEntry.token("expired-jti", Instant.now().minusSeconds(1).getEpochSecond()));
+
+        // Assert
+        assertEquals(0, denylist.size());
+        assertEquals(TokenRevocationCheck.Decision.TRUST_CLAIMS, denylist.check(token("expired-jti")));
+    }
+
+    @Test
+    @DisplayName("Should round-trip token entries and reject anything else")
+    void decode_ShouldAcceptOnlyTokenEntries() {
+        // Arrange
+        DenylistEntry entry = DenylistEntry.token("jti", 1_900_000_000L);
+
+        // Act & Assert
+        assertEquals(entry, DenylistEntry.decode(entry.encode()));
+        assertThrows(IllegalArgumentException.class,
+                () -> DenylistEntry.decode("U|" + UUID.randomUUID() + "|1700000000|1900000000"));
+        assertThrows(IllegalArgumentException.class, () -> DenylistEntry.decode("T|jti|soon"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.swiftchat.shared.security.revocation;
+
+import com.swiftchat.shared.security.jwt.TokenRevocationCheck;
+import com.swiftchat.shared.security.jwt.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Token Version Cache Tests")
+class TokenVersionCacheTest {
+
+    private TokenVersionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenVersionCache(900);
+    }
+
+    private static VerifiedToken token(UUID userId, Long tokenVersion) {
+        return VerifiedToken.builder()
+                .subject("user@example.com")
+                .userId(userId)
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(900))
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens older than the user's current version")
+    void check_OlderVersion_ShouldReject() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        cache.apply(new TokenVersionChangedEvent(userId, 4L));
+
+        // Act & Assert
+        assertEquals(TokenRevocationCheck.Decision.REJECT, cache.check(token(userId, 3L)));
+        assertEquals(TokenRevocationCheck.Decision.TRUST_CLAIMS, cache.check(token(userId, 4L)));
+        assertEquals(TokenRevocationCheck.Decision.TRUST_CLAIMS, cache.check(token(UUID.randomUUID(), 0L)));
+        assertEquals(TokenRevocationCheck.Decision.TRUST_CLAIMS, cache.check(token(userId, null)));
+    }
+
+    @Test
+    @DisplayName("Should keep the highest version when changes arrive out of order")
+    void apply_OutOfOrder_ShouldKeepHighestVersion() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        cache.apply(new TokenVersionChangedEvent(userId, 5L));
+        cache.apply(new TokenVersionChangedEvent(userId, 4L));
+
+        // Assert
+        assertEquals(TokenRevocationCheck.Decision.REJECT, cache.check(token(userId, 4L)));
+    }
+
+    @Test
+    @DisplayName("Should keep rejecting revoked tokens however many users changed their version")
+    void check_ManyChanges_ShouldNotEvictBeforeLifetime() {
+        // Arrange
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            UUID userId = UUID.randomUUID();
+            userIds.add(userId);
+            cache.apply(new TokenVersionChangedEvent(userId, 1L));
+        }
+
+        // Act & Assert
+        for (UUID userId : userIds) {
+            assertEquals(TokenRevocationCheck.Decision.REJECT, cache.check(token(userId, 0L)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should publish changes made on this node")
+    void onTokenVersionChanged_ShouldApplyAndPublish() {
+        // Arrange
+        List<TokenVersionChangedEvent> published = new ArrayList<>();
+        cache.setPublisher(published::add);
+        TokenVersionChangedEvent event = new TokenVersionChangedEvent(UUID.randomUUID(), 2L);
+
+        // Act
+        cache.onTokenVersionChanged(event);
+
+        // Assert
+        assertEquals(List.of(event), published);
+        assertEquals(TokenRevocationCheck.Decision.REJECT, cache.check(token(event.getUserId(), 1L)));
+    }
+}